@@ -0,0 +1,99 @@
+package com.foodsphere.cache;
+
+import com.foodsphere.event.IngredientChangedEvent;
+import com.foodsphere.event.RestaurantChangedEvent;
+import com.foodsphere.model.IngredientCategory;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * In-memory cache of restaurants' ingredient trees: the ingredient categories with their items and stock.
+ * <p>
+ * A tree is read in a single query, the categories with their items fetched in the same join, through its own
+ * short-lived entity manager, so cached categories are detached and serialize without lazy loading. Callers
+ * must treat them as read-only; code that modifies a category or an item loads it from its repository instead.
+ * <p>
+ * A restaurant's tree is dropped when a category or an item is created ({@link #invalidate(Long)}), after an
+ * item's stock changes ({@link IngredientChangedEvent}) and when the restaurant changes
+ * ({@link RestaurantChangedEvent}); entries also expire after a fixed time as a safety net.
+ * Hit, miss and eviction metrics are published under {@code cache.*} with the cache name {@code ingredientTrees}.
+ */
+@Slf4j
+@Component
+public class IngredientCatalogCache {
+
+    private static final String TREE = """
+            SELECT c FROM IngredientCategory c LEFT JOIN FETCH c.ingredients
+            WHERE c.restaurant.id = :restaurantId
+            ORDER BY c.id
+            """;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final Cache<Long, List<IngredientCategory>> trees;
+
+    public IngredientCatalogCache(EntityManagerFactory entityManagerFactory,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${catalog.ingredient-cache.maximum-size:1000}") long maximumSize,
+                                  @Value("${catalog.ingredient-cache.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.trees = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, trees, "ingredientTrees");
+    }
+
+    /**
+     * Returns the ingredient categories of a restaurant with their items, ordered by id.
+     *
+     * @param restaurantId the ID of the restaurant
+     * @return an unmodifiable list of cached categories, empty if the restaurant has none or does not exist
+     */
+    public List<IngredientCategory> getCategories(Long restaurantId) {
+        return trees.get(restaurantId, this::loadTree);
+    }
+
+    public void invalidate(Long restaurantId) {
+        if (restaurantId != null) {
+            log.debug("Invalidating cached ingredient tree of restaurant with ID: {}", restaurantId);
+            trees.invalidate(restaurantId);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onIngredientChanged(IngredientChangedEvent event) {
+        invalidate(event.getRestaurantId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRestaurantChanged(RestaurantChangedEvent event) {
+        invalidate(event.getRestaurantId());
+    }
+
+    private List<IngredientCategory> loadTree(Long restaurantId) {
+        log.debug("Loading ingredient tree of restaurant with ID: {}", restaurantId);
+
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            return List.copyOf(entityManager.createQuery(TREE, IngredientCategory.class)
+                    .setParameter("restaurantId", restaurantId)
+                    .getResultList());
+        } finally {
+            entityManager.close();
+        }
+    }
+}
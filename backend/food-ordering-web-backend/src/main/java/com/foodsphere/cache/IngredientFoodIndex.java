@@ -0,0 +1,138 @@
+package com.foodsphere.cache;
+
+import com.foodsphere.event.FoodChangedEvent;
+import com.foodsphere.event.MenuImportedEvent;
+import com.foodsphere.event.RestaurantChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory reverse index from ingredient items to the foods that use them, one entry per restaurant.
+ * <p>
+ * When an ingredient goes in or out of stock, only the foods linked to it can change their stock availability.
+ * The index finds them without scanning the food-ingredient links in the database. A restaurant's links are
+ * read in one query on first use and kept until one of its foods changes ({@link FoodChangedEvent}), foods are
+ * imported into it ({@link MenuImportedEvent}) or the restaurant changes ({@link RestaurantChangedEvent}).
+ * Stock flags are not kept here: the caller recomputes the foods' availability from the database.
+ * <p>
+ * Hit, miss and eviction metrics are published under {@code cache.*} with the cache name {@code ingredientFoods}.
+ */
+@Slf4j
+@Component
+public class IngredientFoodIndex {
+
+    private static final String LINKS = """
+            SELECT f.id, i.id FROM Food f JOIN f.ingredients i
+            WHERE f.restaurant.id = :restaurantId
+            ORDER BY f.id
+            """;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final Cache<Long, Links> links;
+
+    public IngredientFoodIndex(EntityManagerFactory entityManagerFactory,
+                               MeterRegistry meterRegistry,
+                               @Value("${catalog.ingredient-index.maximum-size:1000}") long maximumSize) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.links = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, links, "ingredientFoods");
+    }
+
+    /**
+     * Returns the foods that use an ingredient.
+     *
+     * @param restaurantId the ID of the restaurant of the ingredient
+     * @param ingredientId the ID of the ingredient whose stock changed
+     * @return the IDs of the foods using the ingredient, in ascending order
+     */
+    public List<Long> foodsUsing(Long restaurantId, Long ingredientId) {
+        return links.get(restaurantId, this::load).foodsUsing(ingredientId);
+    }
+
+    public void invalidate(Long restaurantId) {
+        if (restaurantId != null) {
+            links.invalidate(restaurantId);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFoodChanged(FoodChangedEvent event) {
+        invalidate(event.getRestaurantId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMenuImported(MenuImportedEvent event) {
+        invalidate(event.getRestaurantId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRestaurantChanged(RestaurantChangedEvent event) {
+        invalidate(event.getRestaurantId());
+    }
+
+    private Links load(Long restaurantId) {
+        log.debug("Loading ingredient links of restaurant with ID: {}", restaurantId);
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            return Links.of(entityManager.createQuery(LINKS, Object[].class)
+                    .setParameter("restaurantId", restaurantId)
+                    .getResultList());
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    /**
+     * The food-ingredient links of one restaurant, from each ingredient to the foods using it.
+     */
+    static final class Links {
+
+        private static final long[] NONE = new long[0];
+
+        private final Map<Long, long[]> foodsByIngredient;
+
+        private Links(Map<Long, long[]> foodsByIngredient) {
+            this.foodsByIngredient = foodsByIngredient;
+        }
+
+        /**
+         * Builds the links from (food ID, ingredient ID) rows in food ID order.
+         */
+        static Links of(List<Object[]> rows) {
+            Map<Long, List<Long>> foods = new HashMap<>();
+            for (Object[] row : rows) {
+                foods.computeIfAbsent((Long) row[1], id -> new ArrayList<>()).add((Long) row[0]);
+            }
+            return new Links(toArrays(foods));
+        }
+
+        List<Long> foodsUsing(Long ingredientId) {
+            return Arrays.stream(foodsByIngredient.getOrDefault(ingredientId, NONE)).boxed().toList();
+        }
+
+        private static Map<Long, long[]> toArrays(Map<Long, List<Long>> lists) {
+            Map<Long, long[]> arrays = new HashMap<>(lists.size() * 2);
+            lists.forEach((id, ids) -> arrays.put(id, ids.stream().mapToLong(Long::longValue).distinct().toArray()));
+            return arrays;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.foodsphere.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A serialized restaurant menu, ready to be written to a response as is.
+ * <p>
+ * The ETag is derived from the JSON bytes, so the same menu gets the same ETag on every instance and
+ * after a restart. The gzipped representation carries its own ETag, as it is a different set of bytes.
+ *
+ * @param json     the menu as JSON
+ * @param gzipped  the same JSON gzipped, or null when the menu is too small to be worth compressing
+ * @param etag     the quoted entity tag of the JSON representation
+ * @param version  the menu version of the restaurant the snapshot was built from
+ */
+public record MenuSnapshot(byte[] json, byte[] gzipped, String etag, long version) {
+
+    private static final String GZIP_ETAG_SUFFIX = "-gzip";
+
+    /**
+     * Builds a snapshot from serialized JSON, gzipping it when it is at least {@code minGzipBytes} long.
+     */
+    public static MenuSnapshot of(byte[] json, long version, int minGzipBytes) {
+        byte[] gzipped = json.length >= minGzipBytes ? gzip(json) : null;
+        return new MenuSnapshot(json, gzipped, "\"" + hash(json) + "\"", version);
+    }
+
+    /**
+     * Returns the entity tag of the representation sent, depending on whether it is gzipped.
+     */
+    public String etag(boolean gzip) {
+        return gzip ? etag.substring(0, etag.length() - 1) + GZIP_ETAG_SUFFIX + "\"" : etag;
+    }
+
+    /**
+     * Whether an {@code If-None-Match} header matches either representation of this snapshot,
+     * using the weak comparison allowed for conditional GET requests.
+     */
+    public boolean matches(String ifNoneMatch) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            String candidate = tag.strip();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals("*") || candidate.equals(etag(false)) || candidate.equals(etag(true))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether an {@code Accept-Encoding} header accepts gzip: it lists gzip, or else {@code *}, with a quality above
+     * zero. A quality that does not parse counts as zero.
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double any = null;
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.split(";");
+            String coding = parts[0].strip().toLowerCase(Locale.ROOT);
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzip = quality(parts);
+            } else if (coding.equals("*")) {
+                any = quality(parts);
+            }
+        }
+        Double accepted = gzip != null ? gzip : any;
+        return accepted != null && accepted > 0;
+    }
+
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].strip();
+            if (parameter.length() > 2 && parameter.substring(0, 2).equalsIgnoreCase("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2).strip());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * Approximate heap footprint, used to bound the cache by memory rather than by entry count.
+     */
+    public int weight() {
+        return json.length + (gzipped == null ? 0 : gzipped.length) + etag.length() * 2;
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static String hash(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
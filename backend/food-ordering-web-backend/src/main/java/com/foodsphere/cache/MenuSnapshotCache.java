@@ -0,0 +1,144 @@
+package com.foodsphere.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.foodsphere.event.FoodChangedEvent;
+import com.foodsphere.event.IngredientChangedEvent;
+import com.foodsphere.event.MenuImportedEvent;
+import com.foodsphere.event.RestaurantChangedEvent;
+import com.foodsphere.event.RestaurantOpenStatusChangedEvent;
+import com.foodsphere.model.Food;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * In-memory cache of serialized restaurant menus, one snapshot per restaurant and filter combination.
+ * <p>
+ * A menu is read from the database and serialized once; every following request for the same menu is
+ * answered with the stored bytes, or with 304 Not Modified when the client already holds them.
+ * <p>
+ * Each restaurant has a menu version that is bumped after a food, an ingredient or the restaurant itself
+ * changes. A snapshot remembers the version it was built from and is rebuilt when that version is no longer
+ * current, so a menu read while a change was being committed is never served once the change is visible.
+ * Outdated snapshots are not looked for: each is replaced on the next request for its menu, or evicted.
+ * The cache is bounded by the size of the stored bytes. Hit and miss metrics are published under
+ * {@code cache.*} with the cache name {@code menuSnapshots}.
+ */
+@Slf4j
+@Component
+public class MenuSnapshotCache {
+
+    private final ObjectMapper objectMapper;
+
+    private final int minGzipBytes;
+
+    private final Cache<MenuKey, MenuSnapshot> snapshots;
+
+    private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+
+    public MenuSnapshotCache(ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry,
+                             @Value("${catalog.menu-cache.maximum-bytes:67108864}") long maximumBytes,
+                             @Value("${catalog.menu-cache.expire-after-write:1h}") Duration expireAfterWrite,
+                             @Value("${catalog.menu-cache.min-gzip-bytes:1024}") int minGzipBytes) {
+        this.objectMapper = objectMapper;
+        this.minGzipBytes = minGzipBytes;
+        this.snapshots = Caffeine.newBuilder()
+                .maximumWeight(maximumBytes)
+                .weigher((MenuKey key, MenuSnapshot snapshot) -> snapshot.weight())
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, snapshots, "menuSnapshots");
+    }
+
+    /**
+     * Returns the snapshot of a menu, reading and serializing it when there is no current one.
+     *
+     * @param key    the restaurant and filters of the menu
+     * @param loader reads the menu from the database
+     * @return the snapshot
+     */
+    public MenuSnapshot get(MenuKey key, Supplier<List<Food>> loader) {
+        long version = versions.getOrDefault(key.restaurantId(), 0L);
+
+        MenuSnapshot snapshot = snapshots.getIfPresent(key);
+        if (snapshot != null && snapshot.version() == version) {
+            return snapshot;
+        }
+
+        log.debug("Building menu snapshot for {}", key);
+        try {
+            snapshot = MenuSnapshot.of(objectMapper.writeValueAsBytes(loader.get()), version, minGzipBytes);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize the menu of restaurant " + key.restaurantId(), e);
+        }
+        snapshots.put(key, snapshot);
+        return snapshot;
+    }
+
+    /**
+     * Bumps the menu version of a restaurant, so its snapshots are rebuilt on their next request.
+     *
+     * @param restaurantId the ID of the restaurant
+     */
+    public void invalidate(Long restaurantId) {
+        if (restaurantId == null) {
+            return;
+        }
+        versions.merge(restaurantId, 1L, Long::sum);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFoodChanged(FoodChangedEvent event) {
+        log.debug("Invalidating menu snapshots of restaurant with ID: {}", event.getRestaurantId());
+        invalidate(event.getRestaurantId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMenuImported(MenuImportedEvent event) {
+        log.debug("Invalidating menu snapshots of restaurant with ID: {}", event.getRestaurantId());
+        invalidate(event.getRestaurantId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onIngredientChanged(IngredientChangedEvent event) {
+        log.debug("Invalidating menu snapshots of restaurant with ID: {}", event.getRestaurantId());
+        invalidate(event.getRestaurantId());
+    }
+
+    /**
+     * Foods carry their restaurant, so a change of the restaurant changes its menu too.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRestaurantChanged(RestaurantChangedEvent event) {
+        invalidate(event.getRestaurantId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRestaurantOpenStatusChanged(RestaurantOpenStatusChangedEvent event) {
+        event.getOpenedRestaurantIds().forEach(this::invalidate);
+        event.getClosedRestaurantIds().forEach(this::invalidate);
+    }
+
+    /**
+     * Identifies one menu: the restaurant, the filters and the page.
+     * An unpaged menu has a null size and page 0.
+     */
+    public record MenuKey(Long restaurantId, boolean vegetarian, boolean nonVeg, boolean seasonal,
+                          Boolean available, String foodCategory, int page, Integer size) {
+    }
+}
@@ -0,0 +1,197 @@
+package com.foodsphere.cache;
+
+import com.foodsphere.event.RestaurantChangedEvent;
+import com.foodsphere.event.RestaurantOpenStatusChangedEvent;
+import com.foodsphere.model.Restaurant;
+import com.foodsphere.model.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory cache of the restaurant catalog, serving the home page list and restaurant lookups by id.
+ * <p>
+ * Entries are loaded through their own short-lived entity manager and fully initialized before they are
+ * cached, so a cached restaurant is detached, never shared with a request's persistence context, and can be
+ * serialized without lazy loading. Callers must treat cached restaurants as read-only; code that modifies a
+ * restaurant loads it from the repository instead.
+ * <p>
+ * Restaurants are read with the {@link Restaurant#DETAIL_GRAPH} fetch plan. Loading one takes two queries,
+ * the restaurant with its images, address and owner, then the owner's addresses; loading the whole catalog
+ * of R restaurants takes {@code 1 + ceil(R / B)} queries with B the batch fetch size
+ * ({@code hibernate.default_batch_fetch_size}).
+ * <p>
+ * Entries are dropped after the transaction that published a {@link RestaurantChangedEvent} or
+ * {@link RestaurantOpenStatusChangedEvent} for the restaurant commits, so a concurrent read cannot cache the row
+ * as it was before the change; entries also expire after a fixed time as a safety net. Hit, miss and eviction
+ * metrics are published under {@code cache.*} with the cache names {@code restaurants} and
+ * {@code restaurantCatalog}.
+ */
+@Slf4j
+@Component
+public class RestaurantCatalogCache {
+
+    private static final String CATALOG_KEY = "all";
+
+    private static final String FIND_BY_ID = "SELECT r FROM Restaurant r WHERE r.id = :id";
+
+    private static final String FIND_BY_IDS = "SELECT r FROM Restaurant r WHERE r.id IN :ids";
+
+    private static final String FIND_ALL = "SELECT r FROM Restaurant r ORDER BY r.id";
+
+    private static final String LOAD_GRAPH = "jakarta.persistence.loadgraph";
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final Cache<Long, Restaurant> restaurants;
+
+    private final Cache<String, List<Restaurant>> catalog;
+
+    public RestaurantCatalogCache(EntityManagerFactory entityManagerFactory,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${catalog.restaurant-cache.maximum-size:1000}") long maximumSize,
+                                  @Value("${catalog.restaurant-cache.expire-after-write:10m}")
+                                  Duration expireAfterWrite) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.restaurants = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        this.catalog = Caffeine.newBuilder()
+                .maximumSize(1)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, restaurants, "restaurants");
+        CaffeineCacheMetrics.monitor(meterRegistry, catalog, "restaurantCatalog");
+    }
+
+    /**
+     * Returns the restaurant with the given id.
+     *
+     * @param restaurantId the ID of the restaurant
+     * @return the cached restaurant, or null if it does not exist
+     */
+    public Restaurant getRestaurant(Long restaurantId) {
+        return restaurants.get(restaurantId, this::loadRestaurant);
+    }
+
+    /**
+     * Returns the restaurants with the given ids; the ones not cached yet are loaded together in one query.
+     *
+     * @param restaurantIds the IDs of the restaurants
+     * @return the cached restaurants by id, without the ids of restaurants that do not exist
+     */
+    public Map<Long, Restaurant> getRestaurants(Iterable<Long> restaurantIds) {
+        return restaurants.getAll(restaurantIds, this::loadRestaurants);
+    }
+
+    /**
+     * Returns every restaurant, ordered by id.
+     *
+     * @return an unmodifiable list of cached restaurants
+     */
+    public List<Restaurant> getAllRestaurants() {
+        return catalog.get(CATALOG_KEY, key -> loadAllRestaurants());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRestaurantChanged(RestaurantChangedEvent event) {
+        log.debug("Invalidating cached restaurant with ID: {}", event.getRestaurantId());
+        restaurants.invalidate(event.getRestaurantId());
+        catalog.invalidateAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRestaurantOpenStatusChanged(RestaurantOpenStatusChangedEvent event) {
+        log.debug("Invalidating cached restaurants opened or closed on schedule");
+        restaurants.invalidateAll(event.getOpenedRestaurantIds());
+        restaurants.invalidateAll(event.getClosedRestaurantIds());
+        catalog.invalidateAll();
+    }
+
+    private Restaurant loadRestaurant(Long restaurantId) {
+        log.debug("Loading restaurant with ID: {} into the catalog cache", restaurantId);
+
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            List<Restaurant> result = entityManager.createQuery(FIND_BY_ID, Restaurant.class)
+                    .setHint(LOAD_GRAPH, entityManager.getEntityGraph(Restaurant.DETAIL_GRAPH))
+                    .setParameter("id", restaurantId)
+                    .getResultList();
+            if (result.isEmpty()) {
+                return null;
+            }
+
+            Restaurant restaurant = result.get(0);
+            initialize(restaurant);
+            return restaurant;
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    private Map<Long, Restaurant> loadRestaurants(Set<? extends Long> restaurantIds) {
+        log.debug("Loading {} restaurants into the catalog cache", restaurantIds.size());
+
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            Map<Long, Restaurant> loaded = new HashMap<>();
+            entityManager.createQuery(FIND_BY_IDS, Restaurant.class)
+                    .setHint(LOAD_GRAPH, entityManager.getEntityGraph(Restaurant.DETAIL_GRAPH))
+                    .setParameter("ids", restaurantIds)
+                    .getResultList()
+                    .forEach(restaurant -> {
+                        initialize(restaurant);
+                        loaded.put(restaurant.getId(), restaurant);
+                    });
+            return loaded;
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    private List<Restaurant> loadAllRestaurants() {
+        log.debug("Loading all restaurants into the catalog cache");
+
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            List<Restaurant> result = entityManager.createQuery(FIND_ALL, Restaurant.class)
+                    .setHint(LOAD_GRAPH, entityManager.getEntityGraph(Restaurant.DETAIL_GRAPH))
+                    .getResultList();
+            result.forEach(this::initialize);
+            return List.copyOf(result);
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    /**
+     * Loads everything the JSON view of a restaurant touches, so nothing is lazily loaded after the entity
+     * manager is closed. Foods and orders are not part of that view and stay unloaded.
+     */
+    private void initialize(Restaurant restaurant) {
+        Hibernate.initialize(restaurant.getImages());
+
+        User owner = restaurant.getOwner();
+        if (owner != null) {
+            Hibernate.initialize(owner.getAddresses());
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.foodsphere.config;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * BCrypt password encoder whose cost is calibrated on startup to a target hash time.
+ * <p>
+ * The strength starts at the configured minimum and is raised while the next strength, which doubles
+ * the work, still fits in the target. Existing hashes are verified with whatever cost they were stored with,
+ * and {@link #upgradeEncoding(String)} reports every hash whose cost is below the calibrated one,
+ * so Spring Security rehashes the password transparently on the next successful login. Hashes with a higher
+ * cost are kept: calibration depends on the machine and its load, so nodes may settle on different costs, and
+ * lowering a stored cost would only weaken it.
+ */
+@Slf4j
+public class AdaptiveBCryptPasswordEncoder implements PasswordEncoder {
+
+    private static final String CALIBRATION_PASSWORD = "calibration-password";
+
+    @Getter
+    private final int strength;
+
+    private final BCryptPasswordEncoder delegate;
+
+    public AdaptiveBCryptPasswordEncoder(long targetMillis, int minStrength, int maxStrength) {
+        this.strength = calibrate(targetMillis, minStrength, maxStrength);
+        this.delegate = new BCryptPasswordEncoder(strength);
+        log.info("Using BCrypt strength {} for a target hash time of {} ms", strength, targetMillis);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return delegate.matches(rawPassword, encodedPassword);
+    }
+
+    /**
+     * A hash needs to be re-encoded when its cost is lower than the calibrated strength.
+     *
+     * @param encodedPassword the stored hash
+     * @return true if the stored cost is below the current strength
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        int storedStrength = getStrength(encodedPassword);
+        return storedStrength != -1 && storedStrength < strength;
+    }
+
+    /**
+     * Reads the cost from a hash in the {@code $2a$10$...} format.
+     *
+     * @param encodedPassword the stored hash
+     * @return the cost, or -1 if the hash is not a BCrypt hash
+     */
+    static int getStrength(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(0) != '$') {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(encodedPassword.substring(4, 6));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static int calibrate(long targetMillis, int minStrength, int maxStrength) {
+        int strength = minStrength;
+        while (strength < maxStrength) {
+            long millis = measure(strength);
+            log.debug("BCrypt strength {} takes {} ms", strength, millis);
+
+            // Every extra round doubles the work, so stop once the next strength would exceed the target
+            if (millis * 2 > targetMillis) {
+                break;
+            }
+            strength++;
+        }
+        return strength;
+    }
+
+    private static long measure(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        long start = System.nanoTime();
+        encoder.encode(CALIBRATION_PASSWORD);
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
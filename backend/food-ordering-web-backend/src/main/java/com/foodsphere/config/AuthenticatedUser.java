@@ -0,0 +1,30 @@
+package com.foodsphere.config;
+
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+/**
+ * User details loaded at login time.
+ * Besides the credentials and authorities it keeps the database id of the user and, for
+ * restaurant owners, the id of the owned restaurant, so {@link JwtProvider} can sign them into the token.
+ */
+@Getter
+public class AuthenticatedUser extends User {
+
+    private final Long userId;
+
+    private final Long restaurantId;
+
+    public AuthenticatedUser(Long userId,
+                             Long restaurantId,
+                             String email,
+                             String password,
+                             Collection<? extends GrantedAuthority> authorities) {
+        super(email, password, authorities);
+        this.userId = userId;
+        this.restaurantId = restaurantId;
+    }
+}
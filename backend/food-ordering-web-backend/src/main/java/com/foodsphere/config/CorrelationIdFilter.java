@@ -0,0 +1,70 @@
+package com.foodsphere.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Puts a correlation id in the MDC for the duration of each request, so every log record
+ * written while serving the request carries it.
+ * <p>
+ * The id is taken from the {@code X-Correlation-Id} request header when it is present and well-formed,
+ * otherwise a new one is generated. It is echoed in the response header of the same name.
+ * The filter runs first in the chain, before security, and again on async dispatches.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class CorrelationIdFilter extends OncePerRequestFilter {
+
+    public static final String CORRELATION_ID_HEADER = "X-Correlation-Id";
+
+    public static final String CORRELATION_ID_KEY = "correlationId";
+
+    private static final Pattern VALID_CORRELATION_ID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String correlationId = getCorrelationId(request);
+        MDC.put(CORRELATION_ID_KEY, correlationId);
+        response.setHeader(CORRELATION_ID_HEADER, correlationId);
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            MDC.remove(CORRELATION_ID_KEY);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    private String getCorrelationId(HttpServletRequest request) {
+        // An async dispatch reuses the id of the original request
+        Object existing = request.getAttribute(CORRELATION_ID_KEY);
+        if (existing != null) {
+            return existing.toString();
+        }
+
+        String header = request.getHeader(CORRELATION_ID_HEADER);
+        String correlationId = header != null && VALID_CORRELATION_ID.matcher(header).matches()
+                ? header
+                : UUID.randomUUID().toString();
+
+        request.setAttribute(CORRELATION_ID_KEY, correlationId);
+        return correlationId;
+    }
+}
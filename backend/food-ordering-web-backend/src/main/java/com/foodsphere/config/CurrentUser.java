@@ -0,0 +1,87 @@
+package com.foodsphere.config;
+
+import com.foodsphere.model.USER_ROLE;
+import com.foodsphere.model.User;
+import com.foodsphere.service.RestaurantService;
+import com.foodsphere.service.UserService;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The authenticated user of the current request.
+ * <p>
+ * The email, role and user id come from the already validated JWT token, so reading them costs nothing.
+ * The restaurant id claim is checked against the cached restaurant first, since the owner may have deleted
+ * that restaurant and created another since the token was issued. Tokens issued before the id claims existed
+ * fall back to a database lookup.
+ * The {@link User} entity is only loaded from the database the first time {@link #getUser()}
+ * is called, and then reused for the rest of the request.
+ * Controllers receive it as a method argument resolved by {@link CurrentUserArgumentResolver}.
+ */
+@RequiredArgsConstructor
+public class CurrentUser {
+
+    private final JwtPrincipal principal;
+
+    private final UserService userService;
+
+    private final RestaurantService restaurantService;
+
+    private User user;
+
+    private Long restaurantId;
+
+    public String getEmail() {
+        return principal.getEmail();
+    }
+
+    public USER_ROLE getRole() {
+        return principal.getRole();
+    }
+
+    /**
+     * Returns the id of the authenticated user.
+     *
+     * @return the user id
+     * @throws Exception if the token has no user id claim and the user no longer exists
+     */
+    public Long getUserId() throws Exception {
+        if (principal.getUserId() != null) {
+            return principal.getUserId();
+        }
+        return getUser().getId();
+    }
+
+    /**
+     * Returns the id of the restaurant owned by the authenticated user.
+     * The restaurant id claim is used while the cached restaurant still belongs to the user. Owners that created
+     * their restaurant after logging in have no claim yet, or one for a restaurant they have since deleted, so it
+     * is looked up once per request.
+     *
+     * @return the restaurant id
+     * @throws Exception if the user does not own a restaurant
+     */
+    public Long getRestaurantId() throws Exception {
+        if (restaurantId == null) {
+            Long claimedId = principal.getRestaurantId();
+            restaurantId = claimedId != null && restaurantService.isOwnedBy(claimedId, getUserId())
+                    ? claimedId
+                    : restaurantService.findRestaurantByUserId(getUserId()).getId();
+        }
+        return restaurantId;
+    }
+
+    /**
+     * Loads the user entity on first access.
+     *
+     * @return the authenticated user
+     * @throws Exception if the user no longer exists
+     */
+    public User getUser() throws Exception {
+        if (user == null) {
+            user = principal.getUserId() != null
+                    ? userService.findUserById(principal.getUserId())
+                    : userService.findUserByEmail(principal.getEmail());
+        }
+        return user;
+    }
+}
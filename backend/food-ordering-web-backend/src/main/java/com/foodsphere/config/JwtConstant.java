@@ -6,4 +6,12 @@ public class JwtConstant {
 
     public static final String JWT_HEADER = "Authorization";
 
+    public static final String EMAIL_CLAIM = "email";
+
+    public static final String AUTHORITIES_CLAIM = "authorities";
+
+    public static final String USER_ID_CLAIM = "userId";
+
+    public static final String RESTAURANT_ID_CLAIM = "restaurantId";
+
 }
@@ -0,0 +1,37 @@
+package com.foodsphere.config;
+
+import com.foodsphere.model.USER_ROLE;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.security.Principal;
+
+/**
+ * Identity of the caller as carried by a validated JWT token.
+ * It is stored as the principal of the security context by {@link JwtTokenValidator}.
+ * <p>
+ * The user id and restaurant id are {@code null} for tokens issued before those claims existed,
+ * and the restaurant id is also {@code null} for users that did not own a restaurant when they logged in.
+ */
+@Getter
+@AllArgsConstructor
+public class JwtPrincipal implements Principal {
+
+    private final String email;
+
+    private final USER_ROLE role;
+
+    private final Long userId;
+
+    private final Long restaurantId;
+
+    @Override
+    public String getName() {
+        return email;
+    }
+
+    @Override
+    public String toString() {
+        return email;
+    }
+}
@@ -1,56 +1,111 @@
 package com.foodsphere.config;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Collection;
 import java.util.Date;
+import java.util.HexFormat;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
  * This class is responsible for generating and validating JWT tokens.
  * The {@link #generateToken(Authentication)} method generates a JWT token based on the provided authentication object.
- * The {@link #getEmailFromJwt(String)} method extracts the email from the provided JWT token.
+ * When the principal is an {@link AuthenticatedUser}, the user id and the owned restaurant id are signed into
+ * the token as well, so requests can use them without looking the user up by email.
+ * The {@link #getClaims(String)} method verifies a token and returns its claims, and
+ * {@link #getEmailFromJwt(String)} extracts the email from them.
+ * <p>
+ * Verified claims are cached by token digest until the token expires, so a token is
+ * parsed and HMAC-verified once and then reused by the filter and the services.
  */
 @Slf4j
 @Service
 public class JwtProvider {
 
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final SecretKey key = Keys.hmacShaKeyFor(JwtConstant.SECRET_KEY.getBytes());
+
     /**
-     * This logger_prefix will help us to identify the logs from this class
+     * The parser is immutable and thread-safe, so one instance is shared by every caller.
      */
-    private static final String LOGGER_PREFIX = "[JwtProvider] ";
+    private final JwtParser parser = Jwts.parserBuilder().setSigningKey(key).build();
 
-    private final SecretKey key = Keys.hmacShaKeyFor(JwtConstant.SECRET_KEY.getBytes());
+    /**
+     * Verified claims keyed by the SHA-256 digest of the compact token.
+     * Each entry is evicted when the token's own expiration passes.
+     */
+    private final Cache<String, Claims> verifiedClaims;
+
+    public JwtProvider(@Value("${jwt.claims-cache.maximum-size:10000}") long claimsCacheMaximumSize) {
+        this.verifiedClaims = Caffeine.newBuilder()
+                .maximumSize(claimsCacheMaximumSize)
+                .expireAfter(new TokenExpiry())
+                .build();
+    }
 
     /**
      * Generates a JWT token based on the provided authentication object.
      */
     public String generateToken(Authentication authentication) {
-        log.debug(LOGGER_PREFIX + "Generating JWT token for user {}", authentication.getName());
+        log.debug("Generating JWT token for user {}", authentication.getName());
 
         Collection<? extends GrantedAuthority> authorities = authentication.getAuthorities();
         String roles = getRoles(authorities);
 
-        String jwt = Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(new Date().getTime() + 86400000))
-                .claim("email", authentication.getName())
-                .claim("authorities", roles)
-                .signWith(key)
-                .compact();
+                .claim(JwtConstant.EMAIL_CLAIM, authentication.getName())
+                .claim(JwtConstant.AUTHORITIES_CLAIM, roles);
+
+        if (authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            builder.claim(JwtConstant.USER_ID_CLAIM, user.getUserId());
+            if (user.getRestaurantId() != null) {
+                builder.claim(JwtConstant.RESTAURANT_ID_CLAIM, user.getRestaurantId());
+            }
+        }
+
+        String jwt = builder.signWith(key).compact();
 
-        log.debug(LOGGER_PREFIX + "Generated JWT token: {}", jwt);
         return jwt;
     }
 
+    /**
+     * Verifies the provided JWT token and returns its claims.
+     * A token that was already verified is served from the cache without parsing it again.
+     *
+     * @param jwt the JWT token, with or without the "Bearer " prefix
+     * @return the verified claims
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, expired or not correctly signed
+     */
+    public Claims getClaims(String jwt) {
+        String token = jwt.startsWith(BEARER_PREFIX) ? jwt.substring(BEARER_PREFIX.length()) : jwt;
+
+        return verifiedClaims.get(digest(token), hash -> {
+            log.debug("Verifying JWT token not found in the claims cache");
+            return parser.parseClaimsJws(token).getBody();
+        });
+    }
+
     /**
      * Extracts the email from the provided JWT token.
      *
@@ -58,14 +113,11 @@ public class JwtProvider {
      * @return the email
      */
     public String getEmailFromJwt(String jwt) {
-        log.debug(LOGGER_PREFIX + "Extracting email from JWT token");
-
-        jwt = jwt.substring(7);
+        log.debug("Extracting email from JWT token");
 
-        Claims claims = Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(jwt).getBody();
-        String email = String.valueOf(claims.get("email"));
+        String email = String.valueOf(getClaims(jwt).get(JwtConstant.EMAIL_CLAIM));
 
-        log.debug(LOGGER_PREFIX + "Extracted email: {}", email);
+        log.debug("Extracted email: {}", email);
         return email;
     }
 
@@ -76,4 +128,39 @@ public class JwtProvider {
 
         return String.join(",", grantedAuthorities);
     }
-}
\ No newline at end of file
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Keeps a cache entry exactly as long as the token it was verified from is valid.
+     */
+    private static final class TokenExpiry implements Expiry<String, Claims> {
+
+        @Override
+        public long expireAfterCreate(String digest, Claims claims, long currentTime) {
+            Date expiration = claims.getExpiration();
+            if (expiration == null) {
+                return 0;
+            }
+            long remainingMillis = expiration.getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String digest, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String digest, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
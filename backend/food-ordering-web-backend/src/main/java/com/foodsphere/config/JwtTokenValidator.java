@@ -1,12 +1,12 @@
 package com.foodsphere.config;
 
+import com.foodsphere.model.USER_ROLE;
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -15,13 +15,15 @@ import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.filter.OncePerRequestFilter;
 
-import javax.crypto.SecretKey;
 import java.io.IOException;
 import java.util.List;
 
 @Slf4j
+@RequiredArgsConstructor
 public class JwtTokenValidator extends OncePerRequestFilter {
 
+    private final JwtProvider jwtProvider;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
@@ -30,41 +32,57 @@ public class JwtTokenValidator extends OncePerRequestFilter {
         String jwt = request.getHeader(JwtConstant.JWT_HEADER);
 
         if (jwt == null) {
-            log.info("No JWT token found in the request header.");
+            log.debug("No JWT token found in the request header.");
             filterChain.doFilter(request, response);
             return;
         }
 
-        log.info("Validating JWT token: {}", jwt);
-
-        // Remove the "Bearer " prefix
-        jwt = jwt.substring(7);
-
         try {
-            log.info("try to parse the JWT token");
-            SecretKey key = Keys.hmacShaKeyFor(JwtConstant.SECRET_KEY.getBytes());
-
-            // Try to parse the JWT token
-            Claims claims = Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(jwt).getBody();
+            // Verified claims are shared with JwtProvider, so each token is only parsed once
+            Claims claims = jwtProvider.getClaims(jwt);
 
             log.debug("Parsed JWT token successfully.");
 
-            // Get the email and authorities from the JWT token
-            String email = String.valueOf(claims.get("email"));
-            String authorities = String.valueOf(claims.get("authorities"));
+            // Get the email, authorities and ids from the JWT token
+            String email = String.valueOf(claims.get(JwtConstant.EMAIL_CLAIM));
+            String authorities = String.valueOf(claims.get(JwtConstant.AUTHORITIES_CLAIM));
+            Long userId = getLongClaim(claims, JwtConstant.USER_ID_CLAIM);
+            Long restaurantId = getLongClaim(claims, JwtConstant.RESTAURANT_ID_CLAIM);
 
             List<GrantedAuthority> auth = AuthorityUtils.commaSeparatedStringToAuthorityList(authorities);
+            JwtPrincipal principal = new JwtPrincipal(email, getRole(auth), userId, restaurantId);
 
             // Create an authentication object
-            Authentication authentication = new UsernamePasswordAuthenticationToken(email, null, auth);
+            Authentication authentication = new UsernamePasswordAuthenticationToken(principal, null, auth);
 
             // Set the authentication object in the security context
             SecurityContextHolder.getContext().setAuthentication(authentication);
 
         } catch (Exception e) {
-            log.error("Invalid JWT token: {}", jwt, e);
+            // The token itself is a credential, so only the reason is logged
+            log.warn("Invalid JWT token: {}", e.getMessage());
         }
 
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+
+    /**
+     * Numeric claims are deserialized as Integer or Long depending on their size.
+     * Tokens issued before a claim was introduced simply do not contain it.
+     */
+    private Long getLongClaim(Claims claims, String name) {
+        Object value = claims.get(name);
+        return value instanceof Number number ? number.longValue() : null;
+    }
+
+    private USER_ROLE getRole(List<GrantedAuthority> authorities) {
+        for (GrantedAuthority authority : authorities) {
+            for (USER_ROLE role : USER_ROLE.values()) {
+                if (role.name().equals(authority.getAuthority())) {
+                    return role;
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,114 @@
+package com.foodsphere.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process rate limiter for the authentication endpoints.
+ * <p>
+ * Every attempt takes a token from the bucket of its client IP and, for signin, from the bucket of the
+ * normalized email as well. The IP limit stops one client spraying many accounts, and the email limit
+ * stops many clients guessing one account. The check runs before any database or hashing work.
+ * <p>
+ * Buckets live in Caffeine maps that drop a bucket once it has been idle long enough to be full again.
+ * Nothing is lost by evicting it, so memory stays bounded by the number of recently active keys.
+ */
+@Slf4j
+@Component
+public class LoginRateLimiter {
+
+    private final BucketMap emailBuckets;
+
+    private final BucketMap ipBuckets;
+
+    public LoginRateLimiter(@Value("${auth.login-rate-limit.per-email.capacity:5}") long emailCapacity,
+                            @Value("${auth.login-rate-limit.per-email.refill-period:30s}") Duration emailRefillPeriod,
+                            @Value("${auth.login-rate-limit.per-ip.capacity:20}") long ipCapacity,
+                            @Value("${auth.login-rate-limit.per-ip.refill-period:3s}") Duration ipRefillPeriod,
+                            @Value("${auth.login-rate-limit.maximum-keys:100000}") long maximumKeys,
+                            MeterRegistry meterRegistry) {
+        this.emailBuckets = new BucketMap("email", emailCapacity, emailRefillPeriod, maximumKeys, meterRegistry);
+        this.ipBuckets = new BucketMap("ip", ipCapacity, ipRefillPeriod, maximumKeys, meterRegistry);
+    }
+
+    /**
+     * Takes a signin attempt from the buckets of the client IP and the email.
+     *
+     * @param email    the email the client tries to sign in with
+     * @param clientIp the address of the client
+     * @throws RateLimitExceededException if either limit is exhausted
+     */
+    public void checkSignin(String email, String clientIp) {
+        ipBuckets.consume(clientIp);
+        emailBuckets.consume(normalize(email));
+    }
+
+    /**
+     * Takes a signup attempt from the bucket of the client IP.
+     *
+     * @param clientIp the address of the client
+     * @throws RateLimitExceededException if the limit is exhausted
+     */
+    public void checkSignup(String clientIp) {
+        ipBuckets.consume(clientIp);
+    }
+
+    private static String normalize(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Token buckets of one kind of key, with the counter of the attempts they rejected.
+     */
+    private static final class BucketMap {
+
+        private final String name;
+
+        private final long capacity;
+
+        private final long refillPeriodNanos;
+
+        private final Cache<String, TokenBucket> buckets;
+
+        private final Counter rejected;
+
+        BucketMap(String name, long capacity, Duration refillPeriod, long maximumKeys, MeterRegistry meterRegistry) {
+            this.name = name;
+            this.capacity = capacity;
+            this.refillPeriodNanos = refillPeriod.toNanos();
+            this.buckets = Caffeine.newBuilder()
+                    .expireAfterAccess(refillPeriod.multipliedBy(capacity))
+                    .maximumSize(maximumKeys)
+                    .build();
+            this.rejected = Counter.builder("auth.login.rate_limit.rejected")
+                    .description("Authentication attempts rejected by the login rate limiter")
+                    .tag("limit", name)
+                    .register(meterRegistry);
+            Gauge.builder("auth.login.rate_limit.tracked_keys", buckets, Cache::estimatedSize)
+                    .description("Keys with an active login rate limit bucket")
+                    .tag("limit", name)
+                    .register(meterRegistry);
+        }
+
+        void consume(String key) {
+            TokenBucket bucket = buckets.get(key, k -> new TokenBucket(capacity, refillPeriodNanos));
+            long waitNanos = bucket.tryConsume(System.nanoTime());
+            if (waitNanos > 0) {
+                rejected.increment();
+                long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+                log.warn("Login rate limit exceeded for {} {}", name, key);
+                throw new RateLimitExceededException("Too many authentication attempts. Please try again later.", retryAfterSeconds);
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.foodsphere.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Configuration of the executor that runs password hashing and verification.
+ * <p>
+ * BCrypt is deliberately slow, so running it on Tomcat request threads lets a login storm starve every
+ * other endpoint. The executor has a fixed number of threads and a bounded queue. When the queue is full
+ * new work is rejected straight away and the caller answers 503 instead of piling up requests.
+ */
+@Slf4j
+@Configuration
+public class PasswordHashingConfig {
+
+    public static final String PASSWORD_HASHING_EXECUTOR = "passwordHashingExecutor";
+
+    @Bean(name = PASSWORD_HASHING_EXECUTOR)
+    public ThreadPoolTaskExecutor passwordHashingExecutor(
+            @Value("${auth.password-hashing.threads:0}") int threads,
+            @Value("${auth.password-hashing.queue-capacity:100}") int queueCapacity) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        log.info("Configuring password hashing executor with {} threads and a queue of {}", poolSize, queueCapacity);
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("password-hashing-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setTaskDecorator(new MdcTaskDecorator());
+
+        return executor;
+    }
+}
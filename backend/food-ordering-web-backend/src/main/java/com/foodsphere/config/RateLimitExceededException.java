@@ -0,0 +1,18 @@
+package com.foodsphere.config;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a caller exceeds the login rate limit.
+ * It carries the number of seconds after which the caller may try again.
+ */
+@Getter
+public class RateLimitExceededException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public RateLimitExceededException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,29 @@
+package com.foodsphere.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Configuration of the executor that purges deleted restaurants.
+ * <p>
+ * A single thread runs the purge jobs one after another, so however many restaurants are deleted at once
+ * the purge holds at most one pooled connection, and only for one batch at a time.
+ */
+@Configuration
+public class RestaurantPurgeConfig {
+
+    public static final String RESTAURANT_PURGE_EXECUTOR = "restaurantPurgeExecutor";
+
+    @Bean(name = RESTAURANT_PURGE_EXECUTOR)
+    public ThreadPoolTaskExecutor restaurantPurgeExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setThreadNamePrefix("restaurant-purge-");
+        executor.setTaskDecorator(new MdcTaskDecorator());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+
+        return executor;
+    }
+}
@@ -0,0 +1,63 @@
+package com.foodsphere.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Logback turbo filter that keeps one out of every {@code sampleRate} INFO and lower records
+ * of the configured hot path loggers. WARN and ERROR records are always kept.
+ * <p>
+ * Turbo filters run before the record is created, so the dropped records cost neither message
+ * formatting nor a slot in the async appender queue. It is configured in {@code logback-spring.xml}:
+ * each {@code <logger>} element is a logger name or package prefix.
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+    private final List<String> loggers = new ArrayList<>();
+
+    private final Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+
+    private int sampleRate = 1;
+
+    public void addLogger(String logger) {
+        loggers.add(logger);
+    }
+
+    public void setSampleRate(int sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // A null format is a level check such as isDebugEnabled, not a record
+        if (!isStarted() || format == null || sampleRate <= 1 || level.isGreaterOrEqual(Level.WARN)) {
+            return FilterReply.NEUTRAL;
+        }
+
+        String name = logger.getName();
+        if (!isSampled(name)) {
+            return FilterReply.NEUTRAL;
+        }
+
+        long count = counters.computeIfAbsent(name, key -> new AtomicLong()).getAndIncrement();
+        return count % sampleRate == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    private boolean isSampled(String name) {
+        for (String logger : loggers) {
+            if (name.startsWith(logger)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,12 @@
+package com.foodsphere.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables {@code @Scheduled} jobs, such as flipping restaurants open and closed on their opening hours.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
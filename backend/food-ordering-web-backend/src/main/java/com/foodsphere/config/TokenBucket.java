@@ -0,0 +1,51 @@
+package com.foodsphere.config;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket.
+ * <p>
+ * Instead of a token count and a refill timestamp, the whole state is a single "theoretical arrival time":
+ * the instant at which the bucket would be full again. Taking a token pushes that instant one refill period
+ * further, and a request is allowed as long as the instant stays within {@code capacity} periods of now.
+ * Because the state is one long, it is updated with a compare-and-set loop and never blocks.
+ */
+public final class TokenBucket {
+
+    private final long capacity;
+
+    private final long refillPeriodNanos;
+
+    private final AtomicLong fullAt = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * @param capacity          the number of attempts allowed in a burst
+     * @param refillPeriodNanos the time needed to regain one attempt
+     */
+    public TokenBucket(long capacity, long refillPeriodNanos) {
+        this.capacity = capacity;
+        this.refillPeriodNanos = refillPeriodNanos;
+    }
+
+    /**
+     * Takes one token if one is available.
+     *
+     * @param nowNanos the current time, as returned by {@link System#nanoTime()}
+     * @return 0 if the token was taken, otherwise the nanoseconds to wait until one is available
+     */
+    public long tryConsume(long nowNanos) {
+        long limit = capacity * refillPeriodNanos;
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, nowNanos) + refillPeriodNanos;
+            long backlog = next - nowNanos;
+
+            if (backlog > limit) {
+                return backlog - limit;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
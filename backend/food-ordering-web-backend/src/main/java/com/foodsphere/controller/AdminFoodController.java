@@ -1,19 +1,24 @@
 package com.foodsphere.controller;
 
+import com.foodsphere.config.CurrentUser;
+import com.foodsphere.importer.MenuImportException;
+import com.foodsphere.importer.MenuImportReader;
+import com.foodsphere.importer.MenuImporter;
 import com.foodsphere.model.Food;
 import com.foodsphere.model.Restaurant;
-import com.foodsphere.model.User;
 import com.foodsphere.request.CreateFoodRequest;
+import com.foodsphere.response.MenuImportReport;
 import com.foodsphere.response.MessageResponse;
 import com.foodsphere.service.FoodService;
 import com.foodsphere.service.RestaurantService;
-import com.foodsphere.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
 import java.util.Optional;
 
 /**
@@ -26,51 +31,79 @@ import java.util.Optional;
 public class AdminFoodController {
 
     private final FoodService foodService;
-    private final UserService userService;
     private final RestaurantService restaurantService;
+    private final MenuImporter menuImporter;
 
     /**
      * Creates a new food item based on the provided request object.
      * 
-     * @param request the request object containing food item details
-     * @param jwt     the JWT token to authenticate the user
+     * @param request     the request object containing food item details
+     * @param currentUser the authenticated user
      * @return the created food item
-     * @throws Exception if the user is not found or if the restaurant is not found
+     * @throws Exception if the restaurant is not found
      */
     @PostMapping("/create")
-    public ResponseEntity<Food> createFood(@RequestHeader("Authorization") String jwt,
+    public ResponseEntity<Food> createFood(CurrentUser currentUser,
                                            @RequestBody CreateFoodRequest request) throws Exception {
-        User user = userService.findUserByJwt(jwt);
-        log.info("Creating food item for user: {}", user.getFullName());
+        log.info("Creating food item for user: {}", currentUser.getEmail());
 
         Restaurant restaurant = restaurantService.findRestaurantById(request.getRestaurantId());
         log.info("Creating food item for restaurant: {}", restaurant.getName());
 
         Food food = foodService.createFood(request, request.getCategory(), restaurant);
 
-        log.info("Created food item: {}", food);
+        log.info("Created food item with ID: {}", food.getId());
 
         return new ResponseEntity<>(food, HttpStatus.CREATED);
     }
 
+    /**
+     * Imports a whole menu into a restaurant from a CSV or NDJSON upload, which is streamed rather than
+     * read into memory. Rows that cannot be imported are listed in the report with their line.
+     *
+     * @param restaurantId the ID of the restaurant to import into
+     * @param contentType  {@code text/csv} or {@code application/x-ndjson}
+     * @param body         the upload
+     * @param currentUser  the authenticated user
+     * @return the import report
+     * @throws Exception if the restaurant is not found or reading the upload fails
+     */
+    @PostMapping(value = "/import", consumes = {MenuImportReader.CSV, MenuImportReader.NDJSON})
+    public ResponseEntity<MenuImportReport> importMenu(CurrentUser currentUser,
+                                                       @RequestParam Long restaurantId,
+                                                       @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                       InputStream body) throws Exception {
+        log.info("Importing menu for restaurant with ID: {} for user: {}", restaurantId, currentUser.getEmail());
+
+        Restaurant restaurant = restaurantService.findRestaurantById(restaurantId);
+        MenuImportReport report = menuImporter.importMenu(restaurant.getId(), contentType, body);
+
+        log.info("Imported {} foods, rejected {} rows", report.getImported(), report.getRejected());
+        return new ResponseEntity<>(report, HttpStatus.OK);
+    }
+
+    @ExceptionHandler(MenuImportException.class)
+    public ResponseEntity<MessageResponse> handleMenuImportException(MenuImportException ex) {
+        return new ResponseEntity<>(new MessageResponse(ex.getMessage()), HttpStatus.BAD_REQUEST);
+    }
+
     /**
      * Deletes a food item by its ID.
      * 
-     * @param foodId the ID of the food item to delete
-     * @param jwt    the JWT token to authenticate the user
+     * @param foodId      the ID of the food item to delete
+     * @param currentUser the authenticated user
      * @return a message indicating the deletion result
-     * @throws Exception if the user is not found or if the food item is not found
+     * @throws Exception if the food item is not found
      */
     @DeleteMapping("/{foodId}")
-    public ResponseEntity<MessageResponse> deleteFood( @RequestHeader("Authorization") String jwt,
-                                                       @PathVariable Long foodId) throws Exception {
-        User user = userService.findUserByJwt(jwt);
-        log.info("Deleting food item with ID: {} for user: {}", foodId, user.getFullName());
+    public ResponseEntity<MessageResponse> deleteFood(CurrentUser currentUser,
+                                                      @PathVariable Long foodId) throws Exception {
+        log.info("Deleting food item with ID: {} for user: {}", foodId, currentUser.getEmail());
 
         Optional<Food> foodOptional = Optional.ofNullable(foodService.findFoodById(foodId));
         if (foodOptional.isPresent()) {
             Food food = foodOptional.get();
-            log.info("Deleting food item: {}", food);
+            log.info("Deleting food item: {}", food.getName());
 
             foodService.deleteFood(foodId);
 
@@ -87,20 +120,19 @@ public class AdminFoodController {
     /**
      * Updates the availability status of a food item.
      * 
-     * @param foodId the ID of the food item to update the availability status
-     * @param jwt    the JWT token to authenticate the user
+     * @param foodId      the ID of the food item to update the availability status
+     * @param currentUser the authenticated user
      * @return the updated food item
-     * @throws Exception if the user is not found, or if the food item is not found
+     * @throws Exception if the food item is not found
      */
     @PutMapping("/{foodId}")
-    public ResponseEntity<Food> updateFoodAvailabilityStatus(@RequestHeader("Authorization") String jwt,
+    public ResponseEntity<Food> updateFoodAvailabilityStatus(CurrentUser currentUser,
                                                              @PathVariable Long foodId) throws Exception {
-        User user = userService.findUserByJwt(jwt);
-        log.info("Updating food item with ID: {} for user: {}", foodId, user.getFullName());
+        log.info("Updating food item with ID: {} for user: {}", foodId, currentUser.getEmail());
 
         Food food = foodService.updateAvailabilityStatus(foodId);
 
-        log.info("Updated food item: {}", food);
+        log.info("Updated food item with ID: {}", food.getId());
 
         return new ResponseEntity<>(food, HttpStatus.OK);
     }
@@ -1,16 +1,17 @@
 package com.foodsphere.controller;
 
+import com.foodsphere.config.CurrentUser;
 import com.foodsphere.model.Restaurant;
+import com.foodsphere.model.RestaurantPurgeJob;
 import com.foodsphere.model.User;
 import com.foodsphere.request.CreateRestaurantRequest;
-import com.foodsphere.response.MessageResponse;
 import com.foodsphere.service.RestaurantService;
-import com.foodsphere.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import static org.springframework.http.HttpStatus.ACCEPTED;
 import static org.springframework.http.HttpStatus.CREATED;
 import static org.springframework.http.HttpStatus.OK;
 
@@ -21,21 +22,20 @@ import static org.springframework.http.HttpStatus.OK;
 public class AdminRestaurantController {
 
     private final RestaurantService restaurantService;
-    private final UserService userService;
 
     /**
      * Creates a new restaurant entity.
      *
      * @param createRestaurantRequest the request object containing restaurant details
-     * @param jwt               the JWT token to authenticate the user
+     * @param currentUser             the authenticated user
      * @return the created restaurant
      * @throws Exception if the user is not found or if the restaurant already exists
      */
     @PostMapping()
     public ResponseEntity<Restaurant> createRestaurant(@RequestBody CreateRestaurantRequest createRestaurantRequest,
-                                                       @RequestHeader("Authorization") String jwt) throws Exception {
+                                                       CurrentUser currentUser) throws Exception {
         log.info("Creating a new restaurant");
-        User user = userService.findUserByJwt(jwt);
+        User user = currentUser.getUser();
         log.info("Creating a new restaurant for user: {}", user.getFullName());
         Restaurant restaurant = restaurantService.createRestaurant(createRestaurantRequest, user);
 
@@ -46,17 +46,16 @@ public class AdminRestaurantController {
      * Updates an existing restaurant's details.
      *
      * @param request          the request object containing updated details
-     * @param jwt              the JWT token to authenticate the user
+     * @param currentUser      the authenticated user
      * @param restaurantId     the ID of the restaurant to update
      * @return the updated restaurant
-     * @throws Exception if the user is not found or if the restaurant is not found
+     * @throws Exception if the restaurant is not found
      */
     @PutMapping("/{restaurantId}")
     public ResponseEntity<Restaurant> updateRestaurant(@RequestBody CreateRestaurantRequest request,
-                                                       @RequestHeader("Authorization") String jwt,
+                                                       CurrentUser currentUser,
                                                        @PathVariable Long restaurantId) throws Exception {
-        User user = userService.findUserByJwt(jwt);
-        log.info("Updating restaurant with ID: {} for user: {}", restaurantId, user.getFullName());
+        log.info("Updating restaurant with ID: {} for user: {}", restaurantId, currentUser.getEmail());
         Restaurant restaurant = restaurantService.updateRestaurant(restaurantId, request);
 
         return new ResponseEntity<>(restaurant, OK);
@@ -64,38 +63,49 @@ public class AdminRestaurantController {
 
     /**
      * Deletes a restaurant by ID.
+     * The restaurant disappears at once; its data is purged in the background.
      *
-     * @param jwt              the JWT token to authenticate the user
+     * @param currentUser      the authenticated user
      * @param restaurantId     the ID of the restaurant to delete
-     * @return a message indicating the deletion result
-     * @throws Exception if the user is not found or if the restaurant is not found
+     * @return the purge job, whose progress can be followed at {@code /purge-jobs/{jobId}}
+     * @throws Exception if the restaurant is not found
      */
     @DeleteMapping("/{restaurantId}")
-    public ResponseEntity<MessageResponse> deleteRestaurant(@RequestHeader("Authorization") String jwt,
-                                                            @PathVariable Long restaurantId) throws Exception {
-        User user = userService.findUserByJwt(jwt);
-        log.info("Deleting restaurant with ID: {} for user: {}", restaurantId, user.getFullName());
-        restaurantService.deleteRestaurant(restaurantId);
+    public ResponseEntity<RestaurantPurgeJob> deleteRestaurant(CurrentUser currentUser,
+                                                               @PathVariable Long restaurantId) throws Exception {
+        log.info("Deleting restaurant with ID: {} for user: {}", restaurantId, currentUser.getEmail());
+        RestaurantPurgeJob job = restaurantService.deleteRestaurant(restaurantId);
+
+        return new ResponseEntity<>(job, ACCEPTED);
+    }
 
-        MessageResponse deletionMessage = new MessageResponse("Restaurant deleted successfully !");
+    /**
+     * Retrieves the progress of a restaurant purge job.
+     *
+     * @param jobId the ID of the purge job
+     * @return the purge job
+     * @throws Exception if the job is not found
+     */
+    @GetMapping("/purge-jobs/{jobId}")
+    public ResponseEntity<RestaurantPurgeJob> getPurgeJob(@PathVariable Long jobId) throws Exception {
+        RestaurantPurgeJob job = restaurantService.getPurgeJob(jobId);
 
-        return new ResponseEntity<>(deletionMessage, OK);
+        return new ResponseEntity<>(job, OK);
     }
 
     /**
      * Updates the status of a restaurant. Means it Toggles the open status of a restaurant.{open or close}
      *
-     * @param jwt              the JWT token to authenticate the user
+     * @param currentUser      the authenticated user
      * @param restaurantId     the ID of the restaurant to update the status
      * @return the updated restaurant
-     * @throws Exception if the user is not found or if the restaurant is not found
+     * @throws Exception if the restaurant is not found
      */
     @PutMapping("/{restaurantId}/status")
-    public ResponseEntity<Restaurant> updateRestaurantStatus(@RequestHeader("Authorization") String jwt,
+    public ResponseEntity<Restaurant> updateRestaurantStatus(CurrentUser currentUser,
                                                              @PathVariable Long restaurantId) throws Exception {
 
-        User user = userService.findUserByJwt(jwt);
-        log.info("Updating the status of restaurant with ID: {} for user: {}", restaurantId, user.getFullName());
+        log.info("Updating the status of restaurant with ID: {} for user: {}", restaurantId, currentUser.getEmail());
         Restaurant restaurant = restaurantService.updateRestaurantStatus(restaurantId);
 
         return new ResponseEntity<>(restaurant, OK);
@@ -104,15 +114,14 @@ public class AdminRestaurantController {
     /**
      * Finds a restaurant by the owner's user ID.
      *
-     * @param jwt              the JWT token to authenticate the user
+     * @param currentUser      the authenticated user
      * @return the found restaurant
      * @throws Exception if the user is not found or if the restaurant is not found
      */
     @GetMapping("/user")
-    public ResponseEntity<Restaurant> findRestaurantByOwnerId(@RequestHeader("Authorization") String jwt) throws Exception {
-        User user = userService.findUserByJwt(jwt);
-        log.info("Finding restaurant for user: {}", user.getFullName());
-        Restaurant restaurant = restaurantService.findRestaurantByUserId(user.getId());
+    public ResponseEntity<Restaurant> findRestaurantByOwnerId(CurrentUser currentUser) throws Exception {
+        log.info("Finding restaurant for user: {}", currentUser.getEmail());
+        Restaurant restaurant = restaurantService.findRestaurantByUserId(currentUser.getUserId());
 
         return new ResponseEntity<>(restaurant, OK);
     }
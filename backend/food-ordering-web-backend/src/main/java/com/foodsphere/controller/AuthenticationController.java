@@ -1,6 +1,9 @@
 package com.foodsphere.controller;
 
+import com.foodsphere.config.AuthenticatedUser;
 import com.foodsphere.config.JwtProvider;
+import com.foodsphere.config.LoginRateLimiter;
+import com.foodsphere.config.RateLimitExceededException;
 import com.foodsphere.model.Cart;
 import com.foodsphere.model.USER_ROLE;
 import com.foodsphere.model.User;
@@ -9,8 +12,11 @@ import com.foodsphere.repository.UserRepository;
 import com.foodsphere.request.LoginRequest;
 import com.foodsphere.response.AuthenticationResponse;
 import com.foodsphere.service.impl.UserDetailsServiceImpl;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -18,15 +24,23 @@ import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * This class handles the authentication process including user registration and login.
+ * <p>
+ * Password hashing and verification run on the dedicated password hashing executor, so request threads
+ * are released while BCrypt works. When that executor is saturated the request is answered with 503.
+ * Attempts over the login rate limit are answered with 429 before any of that work starts.
  */
 @Slf4j
 @RequiredArgsConstructor
@@ -45,79 +59,105 @@ public class AuthenticationController {
 
     private final AuthenticationManager authenticationManager;
 
+    private final ThreadPoolTaskExecutor passwordHashingExecutor;
+
+    private final LoginRateLimiter loginRateLimiter;
+
+    @Value("${auth.password-hashing.retry-after-seconds:1}")
+    private long retryAfterSeconds;
+
     /**
      * This method handles the user registration process.
      * @param user The user data to be registered.
-     * @return A response containing the JWT token and a success message.
+     * @param httpRequest The HTTP request, used for the client address.
+     * @return A response containing the JWT token and a success message, completed once the password is hashed.
      */
     @PostMapping("/signup")
-    public ResponseEntity<AuthenticationResponse> createUserHandler(@RequestBody User user){
+    public CompletableFuture<ResponseEntity<AuthenticationResponse>> createUserHandler(@RequestBody User user,
+                                                                                       HttpServletRequest httpRequest){
         log.info("Creating a new user with email {}", user.getEmail());
 
+        // Reject throttled clients before touching the database.
+        loginRateLimiter.checkSignup(httpRequest.getRemoteAddr());
+
         // Check if the user already exists.
         if(userRepository.findByEmail(user.getEmail()) != null){
             log.error("Email: {} already in use.", user.getEmail());
             throw new RuntimeException("Email already in use. Please use a different email."+ user.getEmail());
         }
 
-        // Create a new user and save it to the database.
-        User createdUser = new User();
-
-        createdUser.setEmail(user.getEmail());
-        createdUser.setPassword(passwordEncoder.encode(user.getPassword()));
-        createdUser.setFullName(user.getFullName());
-        createdUser.setRole(user.getRole());
-
-        User savedUser = userRepository.save(createdUser);
-        log.info("User data saved Successfully to the database with email {}", user.getEmail());
-
-        // Create a new cart for the user and save it to the database.
-        Cart cart = new Cart();
-        cart.setCustomer(savedUser);
-        cartRepository.save(cart);
-        log.info("Cart Created Successfully for the user with email {}", user.getEmail());
-
-        // Authenticate the user and generate a JWT token.
-        UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(user.getEmail(), user.getPassword());
-        Authentication authentication = authenticationManager.authenticate(authenticationToken);
-        SecurityContextHolder.getContext().setAuthentication(authentication);
-
-        String jwt = jwtProvider.generateToken(authentication);
-
-        AuthenticationResponse response = new AuthenticationResponse();
-        response.setJwt(jwt);
-        response.setMessage("Your account has been created successfully");
-        response.setRole(savedUser.getRole());
-
-        return new ResponseEntity<>(response, HttpStatus.CREATED);
+        // Hash the password on the password hashing executor, then create the user on the same thread.
+        return CompletableFuture
+                .supplyAsync(() -> passwordEncoder.encode(user.getPassword()), passwordHashingExecutor)
+                .thenApply(encodedPassword -> {
+                    // Create a new user and save it to the database.
+                    User createdUser = new User();
+
+                    createdUser.setEmail(user.getEmail());
+                    createdUser.setPassword(encodedPassword);
+                    createdUser.setFullName(user.getFullName());
+                    createdUser.setRole(user.getRole());
+
+                    User savedUser = userRepository.save(createdUser);
+                    log.info("User data saved Successfully to the database with email {}", user.getEmail());
+
+                    // Create a new cart for the user and save it to the database.
+                    Cart cart = new Cart();
+                    cart.setCustomer(savedUser);
+                    cartRepository.save(cart);
+                    log.info("Cart Created Successfully for the user with email {}", user.getEmail());
+
+                    // The password was set just now, so the token is issued without verifying it a second time.
+                    List<GrantedAuthority> authorities = List.of(new SimpleGrantedAuthority(savedUser.getRole().toString()));
+                    AuthenticatedUser principal = new AuthenticatedUser(savedUser.getId(), null, savedUser.getEmail(), encodedPassword, authorities);
+                    Authentication authentication = new UsernamePasswordAuthenticationToken(principal, null, authorities);
+
+                    String jwt = jwtProvider.generateToken(authentication);
+
+                    AuthenticationResponse response = new AuthenticationResponse();
+                    response.setJwt(jwt);
+                    response.setMessage("Your account has been created successfully");
+                    response.setRole(savedUser.getRole());
+
+                    return new ResponseEntity<>(response, HttpStatus.CREATED);
+                });
     }
 
     /**
      * This method handles the user login process.
      * @param request The login request data.
-     * @return A response containing the JWT token and a success message.
+     * @param httpRequest The HTTP request, used for the client address.
+     * @return A response containing the JWT token and a success message, completed once the password is verified.
      */
     @PostMapping("/signin")
-    public ResponseEntity<AuthenticationResponse> login(@RequestBody LoginRequest request){
+    public CompletableFuture<ResponseEntity<AuthenticationResponse>> login(@RequestBody LoginRequest request,
+                                                                           HttpServletRequest httpRequest){
         String email = request.getEmail();
         String password = request.getPassword();
 
         log.info("Logging in user with email {}", email);
 
-        // Authenticate the user and generate a JWT token.
+        // Reject throttled clients and accounts before any database lookup or hashing.
+        loginRateLimiter.checkSignin(email, httpRequest.getRemoteAddr());
+
+        // Authenticate the user on the password hashing executor and generate a JWT token.
+        // A stored hash with an outdated cost is rehashed by the authentication provider on success.
         UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(email, password);
-        Authentication authentication = authenticationManager.authenticate(authenticationToken);
-        Collection<? extends GrantedAuthority> authorities = authentication.getAuthorities();
-        String role = authorities.isEmpty() ? null : authorities.iterator().next().getAuthority();
+        return CompletableFuture
+                .supplyAsync(() -> authenticationManager.authenticate(authenticationToken), passwordHashingExecutor)
+                .thenApply(authentication -> {
+                    Collection<? extends GrantedAuthority> authorities = authentication.getAuthorities();
+                    String role = authorities.isEmpty() ? null : authorities.iterator().next().getAuthority();
 
-        String jwt = jwtProvider.generateToken(authentication);
+                    String jwt = jwtProvider.generateToken(authentication);
 
-        AuthenticationResponse response = new AuthenticationResponse();
-        response.setJwt(jwt);
-        response.setMessage("Your account has been login successfully");
-        response.setRole(USER_ROLE.valueOf(role));
+                    AuthenticationResponse response = new AuthenticationResponse();
+                    response.setJwt(jwt);
+                    response.setMessage("Your account has been login successfully");
+                    response.setRole(USER_ROLE.valueOf(role));
 
-        return new ResponseEntity<>(response, HttpStatus.OK);
+                    return new ResponseEntity<>(response, HttpStatus.OK);
+                });
     }
 
     /**
@@ -139,7 +179,7 @@ public class AuthenticationController {
 
         // Check if the password is correct.
         if(!passwordEncoder.matches(password, userDetails.getPassword())){
-            log.error("Invalid Password {}", password);
+            log.error("Invalid password for user with email {}", email);
             throw new BadCredentialsException("Invalid Password");
         }
 
@@ -156,6 +196,25 @@ public class AuthenticationController {
         return new ResponseEntity<>(response, HttpStatus.UNAUTHORIZED);
     }
 
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<AuthenticationResponse> handleRateLimitExceededException(RateLimitExceededException ex) {
+        AuthenticationResponse response = new AuthenticationResponse();
+        response.setMessage(ex.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(response);
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<AuthenticationResponse> handleRejectedExecutionException(RejectedExecutionException ex) {
+        log.warn("Password hashing queue is full, rejecting authentication request");
+        AuthenticationResponse response = new AuthenticationResponse();
+        response.setMessage("Too many authentication requests. Please try again shortly.");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(response);
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<AuthenticationResponse> handleRuntimeException(RuntimeException ex) {
         log.error("Runtime Exception", ex);
@@ -1,12 +1,11 @@
 package com.foodsphere.controller;
 
+import com.foodsphere.config.CurrentUser;
 import com.foodsphere.model.Cart;
 import com.foodsphere.model.CartItem;
-import com.foodsphere.model.User;
 import com.foodsphere.request.AddCartItemRequest;
 import com.foodsphere.request.UpdateCartItemRequest;
 import com.foodsphere.service.CartService;
-import com.foodsphere.service.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -26,20 +25,19 @@ import java.util.Optional;
 public class CartController {
 
     private final CartService cartService;
-    private final UserService userService;
 
     /**
      * Adds a new item to the cart of a user.
      *
-     * @param request the request object containing the details of the item to add
-     * @param jwt     the JWT token of the user
+     * @param request     the request object containing the details of the item to add
+     * @param currentUser the authenticated user
      * @return the newly created cart item
      * @throws Exception if the user is not found, or if the food item is not found
      */
     @PostMapping("/cart/add")
-    public ResponseEntity<CartItem> addItemToCart(@RequestBody @Valid AddCartItemRequest request, @RequestHeader("Authorization") String jwt) throws Exception {
-        log.info("Adding item to cart for user with JWT: {}", jwt);
-        CartItem cartItem = cartService.addItemToCart(request, jwt);
+    public ResponseEntity<CartItem> addItemToCart(@RequestBody @Valid AddCartItemRequest request, CurrentUser currentUser) throws Exception {
+        log.info("Adding item to cart for user: {}", currentUser.getEmail());
+        CartItem cartItem = cartService.addItemToCart(request, currentUser.getUserId());
 
         return new ResponseEntity<>(cartItem, HttpStatus.CREATED);
     }
@@ -47,14 +45,14 @@ public class CartController {
     /**
      * Updates the quantity of a cart item.
      *
-     * @param request the request object containing the ID of the cart item and the new quantity
-     * @param jwt     the JWT token of the user
+     * @param request     the request object containing the ID of the cart item and the new quantity
+     * @param currentUser the authenticated user
      * @return the updated cart item
      * @throws Exception if the cart item is not found
      */
     @PutMapping("/cart-item/update")
-    public ResponseEntity<CartItem> updateCartItemQuantity(@RequestBody @Valid UpdateCartItemRequest request, @RequestHeader("Authorization") String jwt) throws Exception {
-        log.info("Updating cart item with ID: {} for user with JWT: {}", request.getCartItemId(), jwt);
+    public ResponseEntity<CartItem> updateCartItemQuantity(@RequestBody @Valid UpdateCartItemRequest request, CurrentUser currentUser) throws Exception {
+        log.info("Updating cart item with ID: {} for user: {}", request.getCartItemId(), currentUser.getEmail());
         CartItem cartItem = cartService.updateCartItemQuantity(request.getCartItemId(), request.getQuantity());
 
         return new ResponseEntity<>(cartItem, HttpStatus.OK);
@@ -63,15 +61,15 @@ public class CartController {
     /**
      * Removes a cart item from the cart of a user.
      *
-     * @param id the ID of the cart item to remove
-     * @param jwt the JWT token of the user
+     * @param id          the ID of the cart item to remove
+     * @param currentUser the authenticated user
      * @return the updated cart
      * @throws Exception if the user is not found, or if the cart item is not found
      */
     @DeleteMapping("/cart-item/{id}/remove")
-    public ResponseEntity<Cart> removeCartItem(@PathVariable Long id, @RequestHeader("Authorization") String jwt) throws Exception {
-        log.info("Removing cart item with ID: {} for user with JWT: {}", id, jwt);
-        Cart cart = cartService.removeItemFromCart(id, jwt);
+    public ResponseEntity<Cart> removeCartItem(@PathVariable Long id, CurrentUser currentUser) throws Exception {
+        log.info("Removing cart item with ID: {} for user: {}", id, currentUser.getEmail());
+        Cart cart = cartService.removeItemFromCart(id, currentUser.getUserId());
 
         return new ResponseEntity<>(cart, HttpStatus.OK);
     }
@@ -79,15 +77,14 @@ public class CartController {
     /**
      * Clears the cart of a user.
      *
-     * @param jwt the JWT token of the user
+     * @param currentUser the authenticated user
      * @return the updated cart
      * @throws Exception if the user is not found
      */
     @DeleteMapping("/cart/clear")
-    public ResponseEntity<Cart> clearCart(@RequestHeader("Authorization") String jwt) throws Exception {
-        log.info("Clearing cart for user with JWT: {}", jwt);
-        User user = userService.findUserByJwt(jwt);
-        Cart cart = cartService.clearCart(user.getId());
+    public ResponseEntity<Cart> clearCart(CurrentUser currentUser) throws Exception {
+        log.info("Clearing cart for user: {}", currentUser.getEmail());
+        Cart cart = cartService.clearCart(currentUser.getUserId());
 
         return new ResponseEntity<>(cart, HttpStatus.OK);
     }
@@ -95,18 +92,17 @@ public class CartController {
     /**
      * Finds the cart of a user.
      *
-     * @param jwt the JWT token of the user
+     * @param currentUser the authenticated user
      * @return the cart of the user
      * @throws Exception if the user is not found
      */
     @GetMapping("/cart")
-    public ResponseEntity<Cart> findUserCart(@RequestHeader("Authorization") String jwt) throws Exception {
-        log.info("Finding cart for user with JWT: {}", jwt);
-        User user = userService.findUserByJwt(jwt);
+    public ResponseEntity<Cart> findUserCart(CurrentUser currentUser) throws Exception {
+        log.info("Finding cart for user: {}", currentUser.getEmail());
 
-        Optional<Cart> cartOptional = Optional.ofNullable(cartService.findCartByUserId(user.getId()));
+        Optional<Cart> cartOptional = Optional.ofNullable(cartService.findCartByUserId(currentUser.getUserId()));
         if (cartOptional.isEmpty()) {
-            log.error("User with JWT: {} has no cart", jwt);
+            log.error("User: {} has no cart", currentUser.getEmail());
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
 
@@ -1,9 +1,8 @@
 package com.foodsphere.controller;
 
+import com.foodsphere.config.CurrentUser;
 import com.foodsphere.model.Category;
-import com.foodsphere.model.User;
 import com.foodsphere.service.CategoryService;
-import com.foodsphere.service.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -20,26 +19,23 @@ import java.util.List;
 public class CategoryController {
 
     private final CategoryService categoryService;
-    private final UserService userService;
 
     /**
      * Creates a new category
      *
-     * @param category the category to create
-     * @param jwt      the JWT token to authenticate the user
+     * @param category    the category to create
+     * @param currentUser the authenticated user
      * @return the created category
-     * @throws Exception if the user is not found
+     * @throws Exception if the user does not own a restaurant
      */
     @PostMapping("/admin/category/create")
     public ResponseEntity<Category> createCategory(@Valid @RequestBody Category category,
-                                                   @RequestHeader("Authorization") String jwt) throws Exception {
+                                                   CurrentUser currentUser) throws Exception {
         log.info("Creating a new category with name: {}", category.getName());
 
-        User user = userService.findUserByJwt(jwt);
+        Category createdCategory = categoryService.createCategory(category.getName(), currentUser.getRestaurantId());
 
-        Category createdCategory = categoryService.createCategory(category.getName(), user.getId());
-
-        log.info("Created category: {}", createdCategory);
+        log.info("Created category with ID: {}", createdCategory.getId());
 
         return new ResponseEntity<>(createdCategory, HttpStatus.CREATED);
     }
@@ -47,19 +43,17 @@ public class CategoryController {
     /**
      * Retrieves all categories for a restaurant
      *
-     * @param jwt the JWT token to authenticate the user
+     * @param currentUser the authenticated user
      * @return the list of categories
-     * @throws Exception if the user is not found
+     * @throws Exception if the user does not own a restaurant
      */
     @GetMapping("/category/restaurant")
-    public ResponseEntity<List<Category>> findCategoryByRestaurantId(@RequestHeader("Authorization") String jwt) throws Exception {
+    public ResponseEntity<List<Category>> findCategoryByRestaurantId(CurrentUser currentUser) throws Exception {
         log.info("Retrieving all categories for the restaurant");
 
-        User user = userService.findUserByJwt(jwt);
-
-        List<Category> categories = categoryService.findCategoryByRestaurantId(user.getId());
+        List<Category> categories = categoryService.findCategoryByRestaurantId(currentUser.getRestaurantId());
 
-        log.info("Retrieved categories: {}", categories);
+        log.info("Retrieved {} categories", categories.size());
 
         return new ResponseEntity<>(categories, HttpStatus.OK);
     }
@@ -67,21 +61,17 @@ public class CategoryController {
     /**
      * Retrieves a category by its ID
      *
-     * @param jwt      the JWT token to authenticate the user
      * @param categoryId the ID of the category to retrieve
      * @return the category
-     * @throws Exception if the user is not found or if the category is not found
+     * @throws Exception if the category is not found
      */
     @GetMapping("/category/{categoryId}")
-    public ResponseEntity<Category> findCategoryById(@RequestHeader("Authorization") String jwt,
-                                                     @PathVariable Long categoryId) throws Exception {
+    public ResponseEntity<Category> findCategoryById(@PathVariable Long categoryId) throws Exception {
         log.info("Retrieving category with ID: {}", categoryId);
 
-        User user = userService.findUserByJwt(jwt);
-
         Category category = categoryService.findCategoryById(categoryId);
 
-        log.info("Retrieved category: {}", category);
+        log.info("Retrieved category with ID: {}", category.getId());
 
         return new ResponseEntity<>(category, HttpStatus.OK);
     }
@@ -1,13 +1,18 @@
 package com.foodsphere.controller;
 
+import com.foodsphere.cache.MenuSnapshot;
+import com.foodsphere.cache.MenuSnapshotCache;
 import com.foodsphere.model.Food;
-import com.foodsphere.model.User;
 import com.foodsphere.service.FoodService;
 import com.foodsphere.service.RestaurantService;
-import com.foodsphere.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -20,35 +25,84 @@ import java.util.List;
 public class FoodController {
 
     private final FoodService foodService;
-    private final UserService userService;
     private final RestaurantService restaurantService;
+    private final MenuSnapshotCache menuSnapshotCache;
+
+    private static final int MAX_PAGE_SIZE = 100;
 
     @GetMapping("/search")
-    public ResponseEntity<List<Food>> searchFood(@RequestParam String name, @RequestHeader("Authorization") String jwt) throws Exception {
+    public ResponseEntity<List<Food>> searchFood(@RequestParam String name,
+                                                 @RequestParam(defaultValue = "0") int page,
+                                                 @RequestParam(defaultValue = "20") int size) throws Exception {
         log.info("Searching food by name: {}", name);
 
-        User user = userService.findUserByJwt(jwt);
-        List<Food> foods = foodService.searchFood(name);
+        List<Food> foods = foodService.searchFood(name, Math.max(page, 0), Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+
+        log.info("Found {} foods", foods.size());
+        return new ResponseEntity<>(foods, HttpStatus.OK);
+    }
+
+    /**
+     * Searches dishes by name and description, tolerating typos such as "biryni" or "panner".
+     * Available dishes of open restaurants rank first among equally good matches.
+     */
+    @GetMapping("/search/fuzzy")
+    public ResponseEntity<List<Food>> searchFoodFuzzy(@RequestParam String q,
+                                                      @RequestParam(defaultValue = "20") int limit) {
+        log.info("Fuzzy searching food: {}", q);
+
+        List<Food> foods = foodService.searchFoodFuzzy(q, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
 
         log.info("Found {} foods", foods.size());
         return new ResponseEntity<>(foods, HttpStatus.OK);
     }
 
+    /**
+     * Retrieves the menu of a restaurant, filtered through the in-memory menu filter index.
+     * The whole menu is returned unless a page size is given.
+     * <p>
+     * Menus are served from serialized snapshots with an ETag; a request whose If-None-Match holds the
+     * current ETag is answered with 304 and no body, and clients that accept gzip get the pre-compressed bytes.
+     */
     @GetMapping("/restaurant/{restaurantId}")
-    public ResponseEntity<List<Food>> getRestaurantFood(@RequestParam boolean vegetarian,
-                                                        @RequestParam boolean seasonal,
-                                                        @RequestParam boolean nonveg,
-                                                        @PathVariable Long restaurantId,
-                                                        @RequestParam(required = false) String foodCategory,
-                                                        @RequestHeader("Authorization") String jwt) throws Exception {
+    public ResponseEntity<byte[]> getRestaurantFood(@RequestParam boolean vegetarian,
+                                                    @RequestParam boolean seasonal,
+                                                    @RequestParam boolean nonveg,
+                                                    @PathVariable Long restaurantId,
+                                                    @RequestParam(required = false) String foodCategory,
+                                                    @RequestParam(required = false) Boolean available,
+                                                    @RequestParam(defaultValue = "0") int page,
+                                                    @RequestParam(required = false) Integer size,
+                                                    @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                    @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) throws Exception {
 
         log.info("Getting food by restaurant id: {}", restaurantId);
 
-        User user = userService.findUserByJwt(jwt);
-        List<Food> foods = foodService.getRestaurantsFood(restaurantId, vegetarian, nonveg, seasonal, foodCategory);
+        Pageable pageable = size == null
+                ? Pageable.unpaged()
+                : PageRequest.of(Math.max(page, 0), Math.max(1, Math.min(size, MAX_PAGE_SIZE)), Sort.by("id"));
+        MenuSnapshotCache.MenuKey key = new MenuSnapshotCache.MenuKey(restaurantId, vegetarian, nonveg, seasonal,
+                available, foodCategory == null || foodCategory.isEmpty() ? null : foodCategory,
+                pageable.isPaged() ? pageable.getPageNumber() : 0, pageable.isPaged() ? pageable.getPageSize() : null);
+        MenuSnapshot snapshot = menuSnapshotCache.get(key, () -> foodService.getRestaurantsFood(restaurantId,
+                vegetarian, nonveg, seasonal, available, foodCategory, pageable));
 
-        log.info("Found {} foods", foods.size());
-        return new ResponseEntity<>(foods, HttpStatus.OK);
+        boolean gzip = snapshot.gzipped() != null && MenuSnapshot.acceptsGzip(acceptEncoding);
+        if (snapshot.matches(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(snapshot.etag(gzip))
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.OK)
+                .eTag(snapshot.etag(gzip))
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(gzip ? snapshot.gzipped() : snapshot.json());
     }
 
 }
\ No newline at end of file
@@ -1,10 +1,16 @@
 package com.foodsphere.controller;
 
+import com.foodsphere.importer.IngredientImporter;
 import com.foodsphere.model.IngredientCategory;
 import com.foodsphere.model.IngredientsItem;
+import com.foodsphere.model.Restaurant;
+import com.foodsphere.request.BulkIngredientRequest;
 import com.foodsphere.request.IngredientCategoryRequest;
 import com.foodsphere.request.IngredientRequest;
+import com.foodsphere.response.BulkIngredientResponse;
+import com.foodsphere.response.MessageResponse;
 import com.foodsphere.service.IngredientsService;
+import com.foodsphere.service.RestaurantService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -21,6 +27,10 @@ public class IngredientController {
 
     private final IngredientsService ingredientsService;
 
+    private final RestaurantService restaurantService;
+
+    private final IngredientImporter ingredientImporter;
+
     /**
      * Creates a new ingredient category for a given restaurant.
      * @param request the request object containing the name and restaurant ID
@@ -49,6 +59,22 @@ public class IngredientController {
         return new ResponseEntity<>(item, HttpStatus.CREATED);
     }
 
+    /**
+     * Creates ingredient categories with their items for a restaurant in one transaction.
+     * Items listed under a category the restaurant already has are added to it.
+     * @param request the restaurant ID and the categories with their items
+     * @return the IDs of the categories and the created items
+     * @throws Exception if the restaurant is not found
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkIngredientResponse> createIngredientsInBulk(@RequestBody BulkIngredientRequest request) throws Exception {
+        log.info("Creating ingredients in bulk for restaurant with ID: {}", request.getRestaurantId());
+        Restaurant restaurant = restaurantService.findRestaurantById(request.getRestaurantId());
+        BulkIngredientResponse response = ingredientImporter.importIngredients(restaurant.getId(), request);
+
+        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    }
+
     /**
      * Toggles the stock status of an ingredient item.
      * @param id the ID of the ingredient item
@@ -63,6 +89,27 @@ public class IngredientController {
         return new ResponseEntity<>(item, HttpStatus.OK);
     }
 
+    /**
+     * Sets the units left of an ingredient item, or stops counting it when no quantity is given.
+     * @param id the ID of the ingredient item
+     * @param quantity the units left
+     * @return the updated ingredients item
+     * @throws Exception if the ingredient item is not found
+     */
+    @PutMapping("/quantity/{id}")
+    public ResponseEntity<IngredientsItem> updateIngredientQuantity(@PathVariable Long id,
+                                                                    @RequestParam(required = false) Integer quantity) throws Exception {
+        log.info("Updating the quantity of ingredients item with ID: {}", id);
+        IngredientsItem item = ingredientsService.updateQuantity(id, quantity);
+
+        return new ResponseEntity<>(item, HttpStatus.OK);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<MessageResponse> handleIllegalArgumentException(IllegalArgumentException ex) {
+        return new ResponseEntity<>(new MessageResponse(ex.getMessage()), HttpStatus.BAD_REQUEST);
+    }
+
     /**
      * Finds all ingredients items for a given restaurant ID.
      * @param id the ID of the restaurant
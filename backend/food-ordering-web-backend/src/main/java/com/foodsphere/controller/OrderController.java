@@ -1,11 +1,11 @@
 package com.foodsphere.controller;
 
+import com.foodsphere.config.CurrentUser;
 import com.foodsphere.model.Order;
 import com.foodsphere.model.User;
 import com.foodsphere.request.OrderRequest;
 import com.foodsphere.response.OrderCancelResponse;
 import com.foodsphere.service.OrderService;
-import com.foodsphere.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -24,56 +24,53 @@ import java.util.List;
 public class OrderController {
 
     private final OrderService orderService;
-    private final UserService userService;
 
     /**
      * Creates a new order.
      *
-     * @param request the order request
-     * @param jwt     the JWT token to authenticate the user
+     * @param request     the order request
+     * @param currentUser the authenticated user
      * @return the created order
      * @throws Exception if the user is not found
      */
     @PostMapping("/order")
-    public ResponseEntity<Order> createOrder(@RequestBody OrderRequest request, @RequestHeader("Authorization") String jwt) throws Exception {
-        log.info("Creating a new order for user with JWT: {}", jwt);
-        User user = userService.findUserByJwt(jwt);
+    public ResponseEntity<Order> createOrder(@RequestBody OrderRequest request, CurrentUser currentUser) throws Exception {
+        log.info("Creating a new order for user: {}", currentUser.getEmail());
+        User user = currentUser.getUser();
         Order order = orderService.createOrder(request, user);
-        log.info("Order created successfully: {}", order);
+        log.info("Order created successfully with ID: {}", order.getId());
         return new ResponseEntity<>(order, HttpStatus.OK);
     }
 
     /**
      * Retrieves all orders for a user.
      *
-     * @param jwt the JWT token to authenticate the user
+     * @param currentUser the authenticated user
      * @return the list of orders
      * @throws Exception if the user is not found
      */
     @GetMapping("/order/user")
-    public ResponseEntity<List<Order>> getUserOrder(@RequestHeader("Authorization") String jwt) throws Exception {
-        log.info("Retrieving orders for user with JWT: {}", jwt);
-        User user = userService.findUserByJwt(jwt);
-        List<Order> orders = orderService.getUsersOrder(user.getId());
-        log.info("Orders retrieved successfully: {}", orders);
+    public ResponseEntity<List<Order>> getUserOrder(CurrentUser currentUser) throws Exception {
+        log.info("Retrieving orders for user: {}", currentUser.getEmail());
+        List<Order> orders = orderService.getUsersOrder(currentUser.getUserId());
+        log.info("Retrieved {} orders", orders.size());
         return new ResponseEntity<>(orders, HttpStatus.OK);
     }
 
     /**
      * Cancels an order.
      *
-     * @param jwt      the JWT token to authenticate the user
-     * @param orderId  the ID of the order to cancel
+     * @param currentUser the authenticated user
+     * @param orderId     the ID of the order to cancel
      * @return the response
      * @throws Exception if the order is not found
      */
     @DeleteMapping("/order/{orderId}")
-    public ResponseEntity<OrderCancelResponse> cancelOrder(@RequestHeader("Authorization") String jwt, @PathVariable Long orderId) throws Exception {
-        log.info("Cancelling order with ID: {} for user with JWT: {}", orderId, jwt);
-        User user = userService.findUserByJwt(jwt);
+    public ResponseEntity<OrderCancelResponse> cancelOrder(CurrentUser currentUser, @PathVariable Long orderId) throws Exception {
+        log.info("Cancelling order with ID: {} for user: {}", orderId, currentUser.getEmail());
         orderService.cancelOrder(orderId);
         OrderCancelResponse response = new OrderCancelResponse("Order cancelled Successfully", true);
-        log.info("Order cancelled successfully: {}", response);
+        log.info("Order with ID: {} cancelled successfully", orderId);
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 }
\ No newline at end of file
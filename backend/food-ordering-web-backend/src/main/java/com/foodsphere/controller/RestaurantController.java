@@ -1,10 +1,13 @@
 package com.foodsphere.controller;
 
+import com.foodsphere.config.CurrentUser;
 import com.foodsphere.dto.RestaurantDto;
+import com.foodsphere.dto.NearbyRestaurant;
+import com.foodsphere.dto.OpeningSoonRestaurant;
+import com.foodsphere.dto.RestaurantSummary;
 import com.foodsphere.model.Restaurant;
-import com.foodsphere.model.User;
+import com.foodsphere.response.RestaurantSummaryPageResponse;
 import com.foodsphere.service.RestaurantService;
-import com.foodsphere.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -22,30 +25,81 @@ import java.util.List;
 @Slf4j
 public class RestaurantController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private static final double MAX_NEARBY_RADIUS_KM = 25;
+
+    private static final int MAX_OPENING_SOON_MINUTES = 24 * 60;
+
     private final RestaurantService restaurantService;
-    private final UserService userService;
 
     /**
-     * Searches for restaurants by keyword.
+     * Searches for restaurants by keyword, best matches first, one page at a time.
      */
     @GetMapping("/search")
-    public ResponseEntity<List<Restaurant>> searchRestaurant(@RequestHeader("Authorization") String jwt,
-                                                             @RequestParam String keyword) throws Exception {
+    public ResponseEntity<List<Restaurant>> searchRestaurant(@RequestParam String keyword,
+                                                             @RequestParam(defaultValue = "0") int page,
+                                                             @RequestParam(defaultValue = "20") int size) throws Exception {
         log.info("Searching for restaurants with keyword: {}", keyword);
-        User user = userService.findUserByJwt(jwt);
-        List<Restaurant> restaurants = restaurantService.searchRestaurants(keyword);
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        List<Restaurant> restaurants = restaurantService.searchRestaurants(keyword, Math.max(page, 0), pageSize);
 
         return new ResponseEntity<>(restaurants, HttpStatus.OK);
     }
 
     /**
-     * Retrieves all restaurants.
+     * Retrieves all restaurants, or only the ones open now.
      */
     @GetMapping()
-    public ResponseEntity<List<Restaurant>> getAllRestaurants(@RequestHeader("Authorization") String jwt) throws Exception {
+    public ResponseEntity<List<Restaurant>> getAllRestaurants(@RequestParam(defaultValue = "false") boolean openNow) throws Exception {
         log.info("Retrieving all restaurants");
-        User user = userService.findUserByJwt(jwt);
-        List<Restaurant> restaurants = restaurantService.getAllRestaurant();
+        List<Restaurant> restaurants = restaurantService.getAllRestaurant(openNow);
+
+        return new ResponseEntity<>(restaurants, HttpStatus.OK);
+    }
+
+    /**
+     * Retrieves a page of restaurant summaries for listings.
+     * Pages are keyed on the restaurant id: pass the {@code nextAfterId} of a page as {@code afterId} to get the next one.
+     */
+    @GetMapping("/summary")
+    public ResponseEntity<RestaurantSummaryPageResponse> getRestaurantSummaries(@RequestParam(required = false) Long afterId,
+                                                                                @RequestParam(defaultValue = "20") int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        log.info("Retrieving restaurant summaries after ID: {}", afterId);
+        List<RestaurantSummary> restaurants = restaurantService.getRestaurantSummaries(afterId, pageSize);
+
+        Long nextAfterId = restaurants.size() < pageSize ? null : restaurants.get(restaurants.size() - 1).getId();
+        return new ResponseEntity<>(new RestaurantSummaryPageResponse(restaurants, nextAfterId), HttpStatus.OK);
+    }
+
+    /**
+     * Finds restaurants within a radius of a location, nearest first, optionally only the open ones.
+     * The radius is capped at 25 km.
+     */
+    @GetMapping("/nearby")
+    public ResponseEntity<List<NearbyRestaurant>> findNearbyRestaurants(@RequestParam double latitude,
+                                                                        @RequestParam double longitude,
+                                                                        @RequestParam(defaultValue = "5") double radiusKm,
+                                                                        @RequestParam(defaultValue = "20") int limit,
+                                                                        @RequestParam(defaultValue = "false") boolean openOnly) {
+        double radius = radiusKm > 0 ? Math.min(radiusKm, MAX_NEARBY_RADIUS_KM) : 0;
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<NearbyRestaurant> restaurants =
+                restaurantService.findNearbyRestaurants(latitude, longitude, radius, size, openOnly);
+
+        return new ResponseEntity<>(restaurants, HttpStatus.OK);
+    }
+
+    /**
+     * Finds closed restaurants that open within the given minutes, soonest first. Looks at most a day ahead.
+     */
+    @GetMapping("/opening-soon")
+    public ResponseEntity<List<OpeningSoonRestaurant>> findRestaurantsOpeningSoon(@RequestParam(defaultValue = "60") int withinMinutes,
+                                                                                  @RequestParam(defaultValue = "20") int limit) {
+        int minutes = Math.max(1, Math.min(withinMinutes, MAX_OPENING_SOON_MINUTES));
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<OpeningSoonRestaurant> restaurants = restaurantService.findRestaurantsOpeningSoon(minutes, size);
 
         return new ResponseEntity<>(restaurants, HttpStatus.OK);
     }
@@ -54,10 +108,8 @@ public class RestaurantController {
      * Retrieves a restaurant by its ID.
      */
     @GetMapping("/{restaurantId}")
-    public ResponseEntity<Restaurant> findRestaurantById(@RequestHeader("Authorization") String jwt,
-                                                         @PathVariable Long restaurantId) throws Exception {
+    public ResponseEntity<Restaurant> findRestaurantById(@PathVariable Long restaurantId) throws Exception {
         log.info("Retrieving restaurant with ID: {}", restaurantId);
-        User user = userService.findUserByJwt(jwt);
         Restaurant restaurant = restaurantService.findRestaurantById(restaurantId);
 
         return new ResponseEntity<>(restaurant, HttpStatus.OK);
@@ -67,12 +119,26 @@ public class RestaurantController {
      * Adds or removes a restaurant from a user's favourites.
      */
     @PutMapping("/{restaurantId}/add-favourites")
-    public ResponseEntity<RestaurantDto> addToFavourites(@RequestHeader("Authorization") String jwt,
+    public ResponseEntity<RestaurantDto> addToFavourites(CurrentUser currentUser,
                                                          @PathVariable Long restaurantId) throws Exception {
-        log.info("Updating favourites for user: {}", jwt);
-        User user = userService.findUserByJwt(jwt);
-        RestaurantDto restaurant = restaurantService.addToFavourites(restaurantId, user);
+        log.info("Updating favourites for user: {}", currentUser.getEmail());
+        RestaurantDto restaurant = restaurantService.addToFavourites(restaurantId, currentUser.getUserId());
 
         return new ResponseEntity<>(restaurant, HttpStatus.OK);
     }
+
+    /**
+     * Retrieves one page of the current user's favourite restaurants, most recently added first.
+     */
+    @GetMapping("/favourites")
+    public ResponseEntity<List<RestaurantSummary>> getFavouriteRestaurants(CurrentUser currentUser,
+                                                                           @RequestParam(defaultValue = "0") int page,
+                                                                           @RequestParam(defaultValue = "20") int size) throws Exception {
+        log.info("Retrieving favourite restaurants for user: {}", currentUser.getEmail());
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        List<RestaurantSummary> restaurants =
+                restaurantService.getFavouriteRestaurants(currentUser.getUserId(), Math.max(page, 0), pageSize);
+
+        return new ResponseEntity<>(restaurants, HttpStatus.OK);
+    }
 }
\ No newline at end of file
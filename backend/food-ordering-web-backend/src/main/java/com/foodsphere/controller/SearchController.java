@@ -0,0 +1,35 @@
+package com.foodsphere.controller;
+
+import com.foodsphere.search.Suggestion;
+import com.foodsphere.service.SearchService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/search")
+public class SearchController {
+
+    private final SearchService searchService;
+
+    /**
+     * Returns typeahead completions for the search box. Called on every keystroke, so it is answered
+     * from memory and logged only at debug level.
+     *
+     * @param prefix the text typed so far
+     * @param limit  the maximum number of suggestions
+     * @return restaurant, cuisine and dish suggestions, best first
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<Suggestion>> suggest(@RequestParam String prefix,
+                                                    @RequestParam(defaultValue = "10") int limit) {
+        List<Suggestion> suggestions = searchService.suggest(prefix, limit);
+        return new ResponseEntity<>(suggestions, HttpStatus.OK);
+    }
+}
@@ -1,6 +1,8 @@
 package com.foodsphere.controller;
 
+import com.foodsphere.config.CurrentUser;
 import com.foodsphere.model.User;
+import com.foodsphere.service.RestaurantService;
 import com.foodsphere.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -15,14 +17,20 @@ import org.springframework.web.bind.annotation.*;
 public class UserController {
 
     private final UserService userService;
+    private final RestaurantService restaurantService;
 
     @GetMapping("/profile")
-    public ResponseEntity<User> findUserByJwt(@RequestHeader("Authorization") String jwt) throws Exception {
-        return new ResponseEntity<>(userService.findUserByJwt(jwt), HttpStatus.OK);
+    public ResponseEntity<User> findUserByJwt(CurrentUser currentUser) throws Exception {
+        return new ResponseEntity<>(withFavourites(currentUser.getUser()), HttpStatus.OK);
     }
 
     @GetMapping("/profile/{email}")
     public ResponseEntity<User> findUserByEmail(@PathVariable String email) throws Exception {
-        return new ResponseEntity<>(userService.findUserByEmail(email), HttpStatus.OK);
+        return new ResponseEntity<>(withFavourites(userService.findUserByEmail(email)), HttpStatus.OK);
+    }
+
+    private User withFavourites(User user) {
+        user.setFavourites(restaurantService.getFavourites(user.getId()));
+        return user;
     }
 }
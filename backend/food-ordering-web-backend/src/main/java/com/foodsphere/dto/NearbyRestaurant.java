@@ -0,0 +1,17 @@
+package com.foodsphere.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A restaurant card found by a nearby search, with its distance from the searched location.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NearbyRestaurant {
+
+    private RestaurantSummary restaurant;
+    private double distanceKm;
+}
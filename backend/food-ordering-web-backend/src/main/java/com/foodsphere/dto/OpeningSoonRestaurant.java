@@ -0,0 +1,17 @@
+package com.foodsphere.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A closed restaurant card with the minutes until its opening hours open it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OpeningSoonRestaurant {
+
+    private RestaurantSummary restaurant;
+    private int opensInMinutes;
+}
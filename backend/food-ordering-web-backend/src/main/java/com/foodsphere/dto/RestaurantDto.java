@@ -1,20 +1,19 @@
 package com.foodsphere.dto;
 
-import jakarta.persistence.Column;
-import jakarta.persistence.Embeddable;
 import lombok.Data;
 
 import java.util.List;
 
+/**
+ * A favourite restaurant as shown on the user profile.
+ */
 @Data
-@Embeddable
 public class RestaurantDto {
 
     private Long id;
     private String description;
     private String title;
 
-    @Column(length = 1000)
-    private List<String> images ;
+    private List<String> images;
 
 }
@@ -0,0 +1,31 @@
+package com.foodsphere.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Card view of a restaurant for listings.
+ * It holds only the fields a restaurant card shows, so listing cost does not depend on orders, foods or owners.
+ */
+@Data
+@NoArgsConstructor
+public class RestaurantSummary {
+
+    private Long id;
+    private String name;
+    private String cuisineType;
+    private boolean open;
+    private String city;
+    private String image;
+
+    /**
+     * Used by the JPQL constructor expression in RestaurantRepository; the image is filled in afterwards.
+     */
+    public RestaurantSummary(Long id, String name, String cuisineType, boolean open, String city) {
+        this.id = id;
+        this.name = name;
+        this.cuisineType = cuisineType;
+        this.open = open;
+        this.city = city;
+    }
+}
@@ -0,0 +1,20 @@
+package com.foodsphere.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published after a food is created, updated or deleted.
+ * It carries the name before and after the change, so listeners that index foods by name can move
+ * the food without loading it again; the previous name is null for a new food and the name is null
+ * for a deleted one.
+ */
+@Getter
+@AllArgsConstructor
+public class FoodChangedEvent {
+
+    private final Long foodId;
+    private final Long restaurantId;
+    private final String previousName;
+    private final String name;
+}
@@ -0,0 +1,16 @@
+package com.foodsphere.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published after an ingredient item of a restaurant changes, such as going in or out of stock.
+ * Foods carry their ingredients, so views of a restaurant's menu listen to it.
+ */
+@Getter
+@AllArgsConstructor
+public class IngredientChangedEvent {
+
+    private final Long ingredientId;
+    private final Long restaurantId;
+}
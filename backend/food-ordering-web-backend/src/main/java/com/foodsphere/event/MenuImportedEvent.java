@@ -0,0 +1,20 @@
+package com.foodsphere.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Published after a chunk of a bulk menu import created foods in one restaurant.
+ * It stands for a {@link FoodChangedEvent} per created food, so in-memory views can read the new foods in one
+ * query and drop the restaurant's cached data once. The names are in the same order as the IDs.
+ */
+@Getter
+@AllArgsConstructor
+public class MenuImportedEvent {
+
+    private final Long restaurantId;
+    private final List<Long> foodIds;
+    private final List<String> names;
+}
@@ -0,0 +1,15 @@
+package com.foodsphere.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published after a restaurant is created, updated, opened or closed, or deleted.
+ * In-memory views of restaurants listen to it to drop their copy of that restaurant.
+ */
+@Getter
+@AllArgsConstructor
+public class RestaurantChangedEvent {
+
+    private final Long restaurantId;
+}
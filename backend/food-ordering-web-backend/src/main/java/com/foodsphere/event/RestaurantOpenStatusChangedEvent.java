@@ -0,0 +1,19 @@
+package com.foodsphere.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Published after the opening schedules flipped the open status of restaurants in one batch.
+ * Only the open flag changed, so in-memory views can update it in place instead of reloading
+ * each restaurant as they do for a {@link RestaurantChangedEvent}.
+ */
+@Getter
+@AllArgsConstructor
+public class RestaurantOpenStatusChangedEvent {
+
+    private final List<Long> openedRestaurantIds;
+    private final List<Long> closedRestaurantIds;
+}
@@ -0,0 +1,15 @@
+package com.foodsphere.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published after a restaurant is marked deleted and its purge job is saved.
+ * The purge runs in the background once the publishing transaction commits.
+ */
+@Getter
+@AllArgsConstructor
+public class RestaurantPurgeRequestedEvent {
+
+    private final Long jobId;
+}
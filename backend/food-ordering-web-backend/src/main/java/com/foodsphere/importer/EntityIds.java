@@ -0,0 +1,43 @@
+package com.foodsphere.importer;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+
+/**
+ * Hands out ids for rows inserted with plain JDBC from the same Hibernate generator as entities saved through
+ * JPA, so the two never collide.
+ * <p>
+ * The entities use Hibernate's default sequence generator, which is pooled: one sequence call reserves a block of
+ * ids (the sequence increment, 50) and the ids in between are handed out from memory.
+ */
+final class EntityIds {
+
+    private final SharedSessionContractImplementor session;
+
+    private final BeforeExecutionGenerator generator;
+
+    private EntityIds(SharedSessionContractImplementor session, BeforeExecutionGenerator generator) {
+        this.session = session;
+        this.generator = generator;
+    }
+
+    /**
+     * Returns the id source of an entity, bound to the session of the current transaction.
+     */
+    static EntityIds of(EntityManager entityManager, Class<?> entityClass) {
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        BeforeExecutionGenerator generator = (BeforeExecutionGenerator) session.getFactory()
+                .unwrap(SessionFactoryImplementor.class)
+                .getMappingMetamodel()
+                .getEntityDescriptor(entityClass)
+                .getGenerator();
+        return new EntityIds(session, generator);
+    }
+
+    Long next() {
+        return (Long) generator.generate(session, null, null, EventType.INSERT);
+    }
+}
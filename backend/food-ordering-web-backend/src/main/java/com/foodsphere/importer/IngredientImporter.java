@@ -0,0 +1,244 @@
+package com.foodsphere.importer;
+
+import com.foodsphere.cache.IngredientCatalogCache;
+import com.foodsphere.model.IngredientCategory;
+import com.foodsphere.model.IngredientsItem;
+import com.foodsphere.request.BulkIngredientRequest;
+import com.foodsphere.response.BulkIngredientResponse;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Creates a restaurant's ingredient categories and items from one nested document.
+ * <p>
+ * The whole document is checked before anything is written, and a single error rejects it. Categories the
+ * restaurant already has are matched by lower-case name and get the items added to them; a name that is already
+ * taken in such a category is an error, so sending a document twice does not duplicate its items.
+ * Everything is written in one transaction with two JDBC batches, the new categories and the items, with ids
+ * from the same Hibernate generators as entities saved through JPA.
+ */
+@Slf4j
+@Component
+public class IngredientImporter {
+
+    // the tables and columns Hibernate derives for IngredientCategory and IngredientsItem
+    private static final String INSERT_CATEGORY =
+            "INSERT INTO ingredient_category (id, name, restaurant_id) VALUES (?, ?, ?)";
+
+    private static final String INSERT_ITEM = """
+            INSERT INTO ingredients_item (id, name, category_id, restaurant_id, is_stock, quantity)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String EXISTING_ITEMS = """
+            SELECT c.id, c.name, i.name FROM IngredientCategory c LEFT JOIN c.ingredients i
+            WHERE c.restaurant.id = :restaurantId
+            ORDER BY c.id
+            """;
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final int MAX_TEXT_LENGTH = 255;
+
+    private final EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final IngredientCatalogCache ingredientCatalogCache;
+
+    public IngredientImporter(EntityManager entityManager,
+                              JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              IngredientCatalogCache ingredientCatalogCache) {
+        this.entityManager = entityManager;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ingredientCatalogCache = ingredientCatalogCache;
+    }
+
+    /**
+     * Creates the categories and items of a document in one transaction.
+     *
+     * @param restaurantId the ID of the restaurant, which must exist
+     * @param request      the categories with their items
+     * @return the ids of the categories and the created items
+     * @throws IllegalArgumentException if the document is empty or any category or item in it is not valid
+     */
+    public BulkIngredientResponse importIngredients(Long restaurantId, BulkIngredientRequest request) {
+        log.info("Creating ingredients in bulk for restaurant with ID: {}", restaurantId);
+        long started = System.nanoTime();
+
+        List<BulkIngredientRequest.Category> categories = check(request);
+        BulkIngredientResponse response = transactionTemplate.execute(status -> insert(restaurantId, categories));
+        ingredientCatalogCache.invalidate(restaurantId);
+
+        log.info("Created {} ingredient categories and {} items for restaurant with ID: {} in {} ms",
+                response.getCategoriesCreated(), response.getItemsCreated(), restaurantId,
+                (System.nanoTime() - started) / 1_000_000);
+        return response;
+    }
+
+    private BulkIngredientResponse insert(Long restaurantId, List<BulkIngredientRequest.Category> checked) {
+        Map<String, ExistingCategory> existing = loadExisting(restaurantId);
+        EntityIds categoryIds = EntityIds.of(entityManager, IngredientCategory.class);
+        EntityIds itemIds = EntityIds.of(entityManager, IngredientsItem.class);
+
+        BulkIngredientResponse response = new BulkIngredientResponse();
+        response.setRestaurantId(restaurantId);
+        List<Object[]> categories = new ArrayList<>();
+        List<Object[]> items = new ArrayList<>();
+        for (BulkIngredientRequest.Category category : checked) {
+            String categoryName = category.getName();
+            ExistingCategory match = existing.get(key(categoryName));
+
+            Long categoryId;
+            if (match == null) {
+                categoryId = categoryIds.next();
+                categories.add(new Object[]{categoryId, categoryName});
+            } else {
+                categoryId = match.id();
+                for (BulkIngredientRequest.Item item : category.getItems()) {
+                    if (match.itemNames().contains(key(item.getName()))) {
+                        throw new IllegalArgumentException("Ingredient '" + item.getName()
+                                + "' already exists in category '" + categoryName + "'");
+                    }
+                }
+            }
+
+            BulkIngredientResponse.CategoryResult result = new BulkIngredientResponse.CategoryResult(
+                    categoryId, categoryName, match == null, new ArrayList<>());
+            for (BulkIngredientRequest.Item item : category.getItems()) {
+                Long itemId = itemIds.next();
+                String itemName = item.getName();
+                items.add(new Object[]{itemId, itemName, categoryId, item.getQuantity()});
+                result.getItems().add(new BulkIngredientResponse.ItemResult(itemId, itemName));
+            }
+            response.getCategories().add(result);
+        }
+
+        if (!categories.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_CATEGORY, categories, BATCH_SIZE, (statement, category) -> {
+                statement.setLong(1, (Long) category[0]);
+                statement.setString(2, (String) category[1]);
+                statement.setLong(3, restaurantId);
+            });
+        }
+        if (!items.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_ITEM, items, BATCH_SIZE, (statement, item) -> {
+                Integer quantity = (Integer) item[3];
+                statement.setLong(1, (Long) item[0]);
+                statement.setString(2, (String) item[1]);
+                statement.setLong(3, (Long) item[2]);
+                statement.setLong(4, restaurantId);
+                statement.setBoolean(5, quantity == null || quantity > 0);
+                if (quantity == null) {
+                    statement.setNull(6, Types.INTEGER);
+                } else {
+                    statement.setInt(6, quantity);
+                }
+            });
+        }
+
+        response.setCategoriesCreated(categories.size());
+        response.setItemsCreated(items.size());
+        return response;
+    }
+
+    /**
+     * Reads the restaurant's categories with the lower-case names of their items; the oldest category wins when
+     * names repeat.
+     */
+    private Map<String, ExistingCategory> loadExisting(Long restaurantId) {
+        Map<String, ExistingCategory> categories = new HashMap<>();
+        entityManager.createQuery(EXISTING_ITEMS, Object[].class)
+                .setParameter("restaurantId", restaurantId)
+                .getResultStream()
+                .filter(row -> row[1] != null)
+                .forEach(row -> {
+                    ExistingCategory category = categories.computeIfAbsent(key((String) row[1]),
+                            name -> new ExistingCategory((Long) row[0], new HashSet<>()));
+                    if (category.id().equals(row[0]) && row[2] != null) {
+                        category.itemNames().add(key((String) row[2]));
+                    }
+                });
+        return categories;
+    }
+
+    /**
+     * Rejects a document without categories, a missing or too long name, a negative quantity or names repeated
+     * within it. The request is left as it is.
+     *
+     * @return a copy of the categories with stripped names and an empty list for missing items
+     */
+    static List<BulkIngredientRequest.Category> check(BulkIngredientRequest request) {
+        if (request.getCategories() == null || request.getCategories().isEmpty()) {
+            throw new IllegalArgumentException("At least one ingredient category is required");
+        }
+
+        List<BulkIngredientRequest.Category> checked = new ArrayList<>(request.getCategories().size());
+        Set<String> categoryNames = new HashSet<>();
+        for (BulkIngredientRequest.Category category : request.getCategories()) {
+            checkName("Category", category.getName());
+            String categoryName = category.getName().strip();
+            if (!categoryNames.add(key(categoryName))) {
+                throw new IllegalArgumentException("Category '" + categoryName + "' is listed twice");
+            }
+
+            BulkIngredientRequest.Category copy = new BulkIngredientRequest.Category();
+            copy.setName(categoryName);
+            Set<String> itemNames = new HashSet<>();
+            if (category.getItems() != null) {
+                for (BulkIngredientRequest.Item item : category.getItems()) {
+                    checkName("Ingredient", item.getName());
+                    String itemName = item.getName().strip();
+                    if (!itemNames.add(key(itemName))) {
+                        throw new IllegalArgumentException("Ingredient '" + itemName
+                                + "' is listed twice in category '" + categoryName + "'");
+                    }
+                    if (item.getQuantity() != null && item.getQuantity() < 0) {
+                        throw new IllegalArgumentException("Quantity of ingredient '" + itemName
+                                + "' must not be negative");
+                    }
+
+                    BulkIngredientRequest.Item itemCopy = new BulkIngredientRequest.Item();
+                    itemCopy.setName(itemName);
+                    itemCopy.setQuantity(item.getQuantity());
+                    copy.getItems().add(itemCopy);
+                }
+            }
+            checked.add(copy);
+        }
+        return checked;
+    }
+
+    private static void checkName(String kind, String name) {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException(kind + " name is required");
+        }
+        if (name.strip().length() > MAX_TEXT_LENGTH) {
+            throw new IllegalArgumentException(kind + " name is longer than " + MAX_TEXT_LENGTH + " characters");
+        }
+    }
+
+    private static String key(String name) {
+        return name.strip().toLowerCase(Locale.ROOT);
+    }
+
+    private record ExistingCategory(Long id, Set<String> itemNames) {
+    }
+}
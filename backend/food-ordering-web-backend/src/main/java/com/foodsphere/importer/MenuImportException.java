@@ -0,0 +1,12 @@
+package com.foodsphere.importer;
+
+/**
+ * Thrown when a menu upload cannot be imported as a whole, such as an unsupported format or a bad CSV header.
+ * Malformed rows do not throw it; they are rejected on their own in the import report.
+ */
+public class MenuImportException extends RuntimeException {
+
+    public MenuImportException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,294 @@
+package com.foodsphere.importer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.foodsphere.request.MenuImportRow;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads the rows of a menu upload one at a time, so the upload is never held in memory.
+ * <p>
+ * Two formats are read:
+ * <ul>
+ *     <li>CSV with a header line naming the columns ({@code name} is required; {@code description},
+ *     {@code price}, {@code category}, {@code vegetarian}, {@code seasonal}, {@code available},
+ *     {@code images} and {@code ingredients} are optional). Fields may be quoted, and several images or
+ *     ingredients are separated by {@code |}.</li>
+ *     <li>NDJSON, one {@link MenuImportRow} object per line.</li>
+ * </ul>
+ * A malformed row fails on its own: {@link #next()} throws and the following call reads the next row.
+ */
+public class MenuImportReader implements Closeable {
+
+    public static final String CSV = "text/csv";
+
+    public static final String NDJSON = "application/x-ndjson";
+
+    private static final String LIST_SEPARATOR = "\\|";
+
+    private static final List<String> CSV_COLUMNS = List.of(
+            "name", "description", "price", "category", "vegetarian", "seasonal", "available", "images", "ingredients");
+
+    private final BufferedReader reader;
+
+    private final ObjectReader jsonReader;
+
+    private Map<String, Integer> columns;
+
+    private long linesRead;
+
+    private long rowLine;
+
+    private MenuImportReader(Reader reader, ObjectReader jsonReader) {
+        this.reader = new BufferedReader(reader);
+        this.jsonReader = jsonReader;
+    }
+
+    public static MenuImportReader csv(Reader reader) {
+        return new MenuImportReader(reader, null);
+    }
+
+    public static MenuImportReader ndjson(Reader reader, ObjectMapper objectMapper) {
+        return new MenuImportReader(reader, objectMapper.readerFor(MenuImportRow.class));
+    }
+
+    /**
+     * Opens a UTF-8 upload in the format named by its content type.
+     *
+     * @throws IllegalArgumentException if the content type is neither {@value #CSV} nor {@value #NDJSON}
+     */
+    public static MenuImportReader open(String contentType, InputStream body, ObjectMapper objectMapper) {
+        String type = contentType == null ? "" : contentType.split(";")[0].strip().toLowerCase(Locale.ROOT);
+        Reader reader = new InputStreamReader(body, StandardCharsets.UTF_8);
+        return switch (type) {
+            case CSV -> csv(reader);
+            case NDJSON -> ndjson(reader, objectMapper);
+            default -> throw new IllegalArgumentException("Unsupported menu import format: " + contentType);
+        };
+    }
+
+    /**
+     * Reads the next row.
+     *
+     * @return the row, or null at the end of the upload
+     * @throws IllegalArgumentException if the row is malformed, or if the CSV header is
+     * @throws IOException              if the upload cannot be read
+     */
+    public MenuImportRow next() throws IOException {
+        return jsonReader != null ? nextJson() : nextCsv();
+    }
+
+    /**
+     * The line where the row last returned or rejected by {@link #next()} starts, from 1.
+     */
+    public long rowLine() {
+        return rowLine;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private MenuImportRow nextJson() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            rowLine = ++linesRead;
+        } while (line.isBlank());
+
+        MenuImportRow row;
+        try {
+            row = jsonReader.readValue(line);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed JSON: " + e.getOriginalMessage());
+        }
+        if (row.getImages() == null) {
+            row.setImages(new ArrayList<>());
+        }
+        if (row.getIngredients() == null) {
+            row.setIngredients(new ArrayList<>());
+        }
+        return row;
+    }
+
+    private MenuImportRow nextCsv() throws IOException {
+        if (columns == null) {
+            readHeader();
+        }
+
+        List<String> fields;
+        do {
+            rowLine = linesRead + 1;
+            fields = readRecord();
+            if (fields == null) {
+                return null;
+            }
+        } while (fields.size() == 1 && fields.get(0).isBlank());
+
+        if (fields.size() > columns.size()) {
+            throw new IllegalArgumentException(
+                    "Expected at most " + columns.size() + " fields but found " + fields.size());
+        }
+
+        MenuImportRow row = new MenuImportRow();
+        row.setName(field(fields, "name"));
+        row.setDescription(field(fields, "description"));
+        row.setPrice(parsePrice(field(fields, "price")));
+        row.setCategory(field(fields, "category"));
+        row.setVegetarian(parseBoolean("vegetarian", field(fields, "vegetarian"), false));
+        row.setSeasonal(parseBoolean("seasonal", field(fields, "seasonal"), false));
+        row.setAvailable(parseBoolean("available", field(fields, "available"), true));
+        row.setImages(parseList(field(fields, "images")));
+        row.setIngredients(parseList(field(fields, "ingredients")));
+        return row;
+    }
+
+    /**
+     * Reads and checks the CSV header, if not done yet; does nothing for NDJSON.
+     * Called before the first row so that a bad header fails the whole upload rather than one row.
+     *
+     * @throws IllegalArgumentException if the header is missing, or names an unknown or duplicate column
+     */
+    public void readHeader() throws IOException {
+        if (jsonReader != null || columns != null) {
+            return;
+        }
+
+        rowLine = linesRead + 1;
+        List<String> header = readRecord();
+        if (header == null) {
+            throw new IllegalArgumentException("The CSV upload has no header line");
+        }
+
+        Map<String, Integer> newColumns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String column = header.get(i).replace("\uFEFF", "").strip().toLowerCase(Locale.ROOT);
+            if (!CSV_COLUMNS.contains(column)) {
+                throw new IllegalArgumentException("Unknown CSV column: " + header.get(i));
+            }
+            if (newColumns.put(column, i) != null) {
+                throw new IllegalArgumentException("Duplicate CSV column: " + header.get(i));
+            }
+        }
+        if (!newColumns.containsKey("name")) {
+            throw new IllegalArgumentException("The CSV header has no name column");
+        }
+        columns = newColumns;
+    }
+
+    /**
+     * Reads one CSV record, which spans several lines when a quoted field holds line breaks.
+     *
+     * @return the fields, or null at the end of the upload
+     */
+    private List<String> readRecord() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean fieldWasQuoted = false;
+        boolean empty = true;
+
+        int c;
+        while ((c = reader.read()) != -1) {
+            empty = false;
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        field.append('"');
+                    } else {
+                        reader.reset();
+                        quoted = false;
+                    }
+                } else {
+                    if (c == '\n') {
+                        linesRead++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty() && !fieldWasQuoted) {
+                quoted = true;
+                fieldWasQuoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                fieldWasQuoted = false;
+            } else if (c == '\n') {
+                linesRead++;
+                fields.add(field.toString());
+                return fields;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+        }
+
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        if (empty) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private String field(List<String> fields, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).strip();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static Long parsePrice(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Price is not a whole number: " + value);
+        }
+    }
+
+    private static boolean parseBoolean(String column, String value, boolean defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        return switch (value.toLowerCase(Locale.ROOT)) {
+            case "true", "yes", "y", "1" -> true;
+            case "false", "no", "n", "0" -> false;
+            default -> throw new IllegalArgumentException("Column " + column + " is not a boolean: " + value);
+        };
+    }
+
+    private static List<String> parseList(String value) {
+        List<String> values = new ArrayList<>();
+        if (value != null) {
+            for (String item : value.split(LIST_SEPARATOR)) {
+                if (!item.isBlank()) {
+                    values.add(item.strip());
+                }
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,390 @@
+package com.foodsphere.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.foodsphere.event.MenuImportedEvent;
+import com.foodsphere.model.Category;
+import com.foodsphere.model.Food;
+import com.foodsphere.model.Restaurant;
+import com.foodsphere.request.MenuImportRow;
+import com.foodsphere.response.MenuImportReport;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Imports a whole menu into a restaurant from a streamed upload.
+ * <p>
+ * The restaurant's categories and ingredients are read once into lookup maps by lower-case name, so rows
+ * name them instead of carrying ids. Rows are checked as they are read; valid ones are collected into
+ * chunks, and each chunk is written in its own transaction with three JDBC batches: the foods, their images
+ * and their ingredient links. Food ids come from the same Hibernate generator as foods saved through JPA,
+ * so the two never collide. Categories that do not exist yet are created on first use.
+ * <p>
+ * A row that cannot be imported is reported with its line and the reason, and the import goes on.
+ * If a chunk fails in the database, its rows are all reported and nothing of that chunk is kept;
+ * chunks committed before it stay.
+ */
+@Slf4j
+@Component
+public class MenuImporter {
+
+    // the tables and columns Hibernate derives for Food, its images and its ingredients
+    private static final String INSERT_FOOD = """
+            INSERT INTO foods (id, name, description, price, available, stock_available, is_vegetarian, is_seasonal,
+                               food_category_id, restaurant_id, creation_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String INSERT_FOOD_IMAGE = "INSERT INTO food_images (food_id, images) VALUES (?, ?)";
+
+    private static final String INSERT_FOOD_INGREDIENT =
+            "INSERT INTO foods_ingredients (food_id, ingredients_id) VALUES (?, ?)";
+
+    private static final int MAX_TEXT_LENGTH = 255;
+
+    private static final int MAX_IMAGE_LENGTH = 1000;
+
+    private final EntityManager entityManager;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final ObjectMapper objectMapper;
+
+    private final int chunkSize;
+
+    private final int maxReportedErrors;
+
+    public MenuImporter(EntityManager entityManager,
+                        EntityManagerFactory entityManagerFactory,
+                        JdbcTemplate jdbcTemplate,
+                        PlatformTransactionManager transactionManager,
+                        ApplicationEventPublisher eventPublisher,
+                        ObjectMapper objectMapper,
+                        @Value("${menu.import.chunk-size:500}") int chunkSize,
+                        @Value("${menu.import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.entityManager = entityManager;
+        this.entityManagerFactory = entityManagerFactory;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    /**
+     * Imports an upload in the format named by its content type, {@value MenuImportReader#CSV} or
+     * {@value MenuImportReader#NDJSON}.
+     *
+     * @param restaurantId the ID of the restaurant, which must exist
+     * @param contentType  the content type of the upload
+     * @param body         the upload, read as UTF-8
+     * @return how many rows were imported, and why the others were not
+     * @throws MenuImportException if the format is not supported or the upload cannot be read as a whole
+     * @throws IOException          if reading the upload fails
+     */
+    public MenuImportReport importMenu(Long restaurantId, String contentType, InputStream body) throws IOException {
+        MenuImportReader opened;
+        try {
+            opened = MenuImportReader.open(contentType, body, objectMapper);
+        } catch (IllegalArgumentException e) {
+            throw new MenuImportException(e.getMessage(), e);
+        }
+        try (MenuImportReader reader = opened) {
+            return importMenu(restaurantId, reader);
+        }
+    }
+
+    /**
+     * Imports every row of an upload into a restaurant.
+     *
+     * @param restaurantId the ID of the restaurant, which must exist
+     * @param reader       the upload
+     * @return how many rows were imported, and why the others were not
+     * @throws MenuImportException if the upload cannot be read as a whole, such as a bad CSV header
+     * @throws IOException          if reading the upload fails
+     */
+    public MenuImportReport importMenu(Long restaurantId, MenuImportReader reader) throws IOException {
+        log.info("Importing menu for restaurant with ID: {}", restaurantId);
+        long started = System.nanoTime();
+
+        MenuImportReport report = new MenuImportReport();
+        report.setRestaurantId(restaurantId);
+        Lookups lookups = loadLookups(restaurantId);
+
+        try {
+            reader.readHeader();
+        } catch (IllegalArgumentException e) {
+            throw new MenuImportException(e.getMessage(), e);
+        }
+        List<PendingFood> chunk = new ArrayList<>(chunkSize);
+        while (true) {
+            MenuImportRow row;
+            try {
+                row = reader.next();
+            } catch (IllegalArgumentException e) {
+                report.setRowsRead(report.getRowsRead() + 1);
+                reject(report, reader.rowLine(), e.getMessage());
+                continue;
+            }
+            if (row == null) {
+                break;
+            }
+
+            report.setRowsRead(report.getRowsRead() + 1);
+            String error = check(row, lookups);
+            if (error != null) {
+                reject(report, reader.rowLine(), error);
+                continue;
+            }
+
+            chunk.add(new PendingFood(reader.rowLine(), row, resolveIngredients(row, lookups)));
+            if (chunk.size() == chunkSize) {
+                writeChunk(restaurantId, chunk, lookups, report);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(restaurantId, chunk, lookups, report);
+        }
+
+        report.setElapsedMillis((System.nanoTime() - started) / 1_000_000);
+        log.info("Imported {} of {} rows for restaurant with ID: {} in {} ms", report.getImported(),
+                report.getRowsRead(), restaurantId, report.getElapsedMillis());
+        return report;
+    }
+
+    /**
+     * Writes one chunk of checked rows in a transaction of its own.
+     */
+    private void writeChunk(Long restaurantId, List<PendingFood> chunk, Lookups lookups, MenuImportReport report) {
+        Map<String, Long> createdCategories = new HashMap<>();
+        try {
+            transactionTemplate.executeWithoutResult(
+                    status -> insertChunk(restaurantId, chunk, lookups, createdCategories));
+        } catch (RuntimeException e) {
+            log.error("Menu import chunk for restaurant with ID: {} failed", restaurantId, e);
+            String message = "Not imported, the batch of rows from line " + chunk.get(0).line()
+                    + " failed: " + e.getMessage();
+            chunk.forEach(pending -> reject(report, pending.line(), message));
+            return;
+        }
+
+        lookups.categories().putAll(createdCategories);
+        report.setCategoriesCreated(report.getCategoriesCreated() + createdCategories.size());
+        report.setImported(report.getImported() + chunk.size());
+        log.debug("Imported {} foods for restaurant with ID: {}", chunk.size(), restaurantId);
+    }
+
+    private void insertChunk(Long restaurantId, List<PendingFood> chunk, Lookups lookups,
+                             Map<String, Long> createdCategories) {
+        EntityIds foodIds = EntityIds.of(entityManager, Food.class);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        List<Object[]> foods = new ArrayList<>(chunk.size());
+        List<Object[]> images = new ArrayList<>();
+        List<Object[]> ingredients = new ArrayList<>();
+        for (PendingFood pending : chunk) {
+            MenuImportRow row = pending.row();
+            Long foodId = foodIds.next();
+            Long categoryId = categoryId(restaurantId, row.getCategory(), lookups, createdCategories);
+
+            boolean stockAvailable = pending.ingredientIds().stream()
+                    .noneMatch(lookups.outOfStockIngredients()::contains);
+
+            foods.add(new Object[]{foodId, row.getName().strip(), row.getDescription(), row.getPrice(),
+                    row.isAvailable(), stockAvailable, row.isVegetarian(), row.isSeasonal(), categoryId, restaurantId,
+                    now});
+            row.getImages().forEach(image -> images.add(new Object[]{foodId, image}));
+            pending.ingredientIds().forEach(ingredientId -> ingredients.add(new Object[]{foodId, ingredientId}));
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_FOOD, foods, foods.size(), (statement, food) -> {
+            statement.setLong(1, (Long) food[0]);
+            statement.setString(2, (String) food[1]);
+            statement.setString(3, (String) food[2]);
+            statement.setLong(4, (Long) food[3]);
+            statement.setBoolean(5, (Boolean) food[4]);
+            statement.setBoolean(6, (Boolean) food[5]);
+            statement.setBoolean(7, (Boolean) food[6]);
+            statement.setBoolean(8, (Boolean) food[7]);
+            if (food[8] == null) {
+                statement.setNull(9, Types.BIGINT);
+            } else {
+                statement.setLong(9, (Long) food[8]);
+            }
+            statement.setLong(10, (Long) food[9]);
+            statement.setTimestamp(11, (Timestamp) food[10]);
+        });
+        if (!images.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_FOOD_IMAGE, images, images.size(), (statement, image) -> {
+                statement.setLong(1, (Long) image[0]);
+                statement.setString(2, (String) image[1]);
+            });
+        }
+        if (!ingredients.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_FOOD_INGREDIENT, ingredients, ingredients.size(), (statement, link) -> {
+                statement.setLong(1, (Long) link[0]);
+                statement.setLong(2, (Long) link[1]);
+            });
+        }
+
+        List<Long> foodIdList = new ArrayList<>(foods.size());
+        List<String> names = new ArrayList<>(foods.size());
+        for (Object[] food : foods) {
+            foodIdList.add((Long) food[0]);
+            names.add((String) food[1]);
+        }
+        eventPublisher.publishEvent(new MenuImportedEvent(restaurantId, foodIdList, names));
+    }
+
+    /**
+     * Finds the category of a row by name, creating it in the restaurant if it does not exist yet.
+     * Categories created in a chunk are only added to the lookups once the chunk has committed.
+     */
+    private Long categoryId(Long restaurantId, String name, Lookups lookups, Map<String, Long> createdCategories) {
+        if (name == null || name.isBlank()) {
+            return null;
+        }
+
+        String key = key(name);
+        Long id = lookups.categories().get(key);
+        if (id == null) {
+            id = createdCategories.get(key);
+        }
+        if (id == null) {
+            Category category = new Category();
+            category.setName(name.strip());
+            category.setRestaurant(entityManager.getReference(Restaurant.class, restaurantId));
+            entityManager.persist(category);
+            entityManager.flush();
+            id = category.getId();
+            createdCategories.put(key, id);
+        }
+        return id;
+    }
+
+    /**
+     * Returns why a row cannot be imported, or null if it can.
+     */
+    private static String check(MenuImportRow row, Lookups lookups) {
+        if (row.getName() == null || row.getName().isBlank()) {
+            return "Name is required";
+        }
+        if (row.getName().strip().length() > MAX_TEXT_LENGTH) {
+            return "Name is longer than " + MAX_TEXT_LENGTH + " characters";
+        }
+        if (row.getDescription() != null && row.getDescription().length() > MAX_TEXT_LENGTH) {
+            return "Description is longer than " + MAX_TEXT_LENGTH + " characters";
+        }
+        if (row.getCategory() != null && row.getCategory().strip().length() > MAX_TEXT_LENGTH) {
+            return "Category is longer than " + MAX_TEXT_LENGTH + " characters";
+        }
+        if (row.getPrice() == null) {
+            return "Price is required";
+        }
+        if (row.getPrice() < 0) {
+            return "Price must not be negative";
+        }
+        for (String image : row.getImages()) {
+            if (image == null || image.isBlank() || image.length() > MAX_IMAGE_LENGTH) {
+                return "Image URLs must be present and at most " + MAX_IMAGE_LENGTH + " characters";
+            }
+        }
+        for (String ingredient : row.getIngredients()) {
+            if (ingredient == null || !lookups.ingredients().containsKey(key(ingredient))) {
+                return "Unknown ingredient: " + ingredient;
+            }
+        }
+        return null;
+    }
+
+    private static Set<Long> resolveIngredients(MenuImportRow row, Lookups lookups) {
+        Set<Long> ingredientIds = new LinkedHashSet<>();
+        row.getIngredients().forEach(ingredient -> ingredientIds.add(lookups.ingredients().get(key(ingredient))));
+        return ingredientIds;
+    }
+
+    /**
+     * Reads the ids of the restaurant's categories and ingredients by name; the oldest wins when names repeat.
+     * Ingredients out of stock are collected too, so imported foods get their stock availability.
+     */
+    private Lookups loadLookups(Long restaurantId) {
+        Map<String, Long> categories = new HashMap<>();
+        Map<String, Long> ingredients = new HashMap<>();
+        Set<Long> outOfStockIngredients = new HashSet<>();
+
+        EntityManager lookupEntityManager = entityManagerFactory.createEntityManager();
+        try {
+            lookupEntityManager.createQuery(
+                            "SELECT c.id, c.name FROM Category c WHERE c.restaurant.id = :restaurantId ORDER BY c.id",
+                            Object[].class)
+                    .setParameter("restaurantId", restaurantId)
+                    .getResultStream()
+                    .filter(row -> row[1] != null)
+                    .forEach(row -> categories.putIfAbsent(key((String) row[1]), (Long) row[0]));
+            lookupEntityManager.createQuery(
+                            "SELECT i.id, i.name, i.isStock FROM IngredientsItem i " +
+                                    "WHERE i.restaurant.id = :restaurantId ORDER BY i.id",
+                            Object[].class)
+                    .setParameter("restaurantId", restaurantId)
+                    .getResultStream()
+                    .filter(row -> row[1] != null)
+                    .forEach(row -> {
+                        ingredients.putIfAbsent(key((String) row[1]), (Long) row[0]);
+                        if (!Boolean.TRUE.equals(row[2])) {
+                            outOfStockIngredients.add((Long) row[0]);
+                        }
+                    });
+        } finally {
+            lookupEntityManager.close();
+        }
+        return new Lookups(categories, ingredients, outOfStockIngredients);
+    }
+
+    private void reject(MenuImportReport report, long line, String message) {
+        report.setRejected(report.getRejected() + 1);
+        if (report.getErrors().size() < maxReportedErrors) {
+            report.getErrors().add(new MenuImportReport.RowError(line, message));
+        } else {
+            report.setErrorsTruncated(true);
+        }
+    }
+
+    private static String key(String name) {
+        return name.strip().toLowerCase(Locale.ROOT);
+    }
+
+    private record Lookups(Map<String, Long> categories, Map<String, Long> ingredients,
+                           Set<Long> outOfStockIngredients) {
+    }
+
+    private record PendingFood(long line, MenuImportRow row, Set<Long> ingredientIds) {
+    }
+}
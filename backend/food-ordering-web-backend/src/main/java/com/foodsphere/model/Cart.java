@@ -11,14 +11,40 @@ import java.util.List;
 /**
  * Cart entity representing a shopping cart.
  * It contains information about the customer, total price, and items in the cart.
+ * <p>
+ * The total and the item count are running totals: every change to the items adds its difference to them in
+ * the same transaction, so reading them never walks the items. Carts from before the totals were kept have no
+ * item count; their totals are computed once from the items when the cart is next read.
+ * <p>
+ * The {@value #ITEMS_GRAPH} entity graph is the fetch plan of the cart view: the customer, the items and, for
+ * each item, the food with its category and its restaurant's address and owner come in one query.
  */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
 @Table(name = "cart")
+@NamedEntityGraph(
+        name = Cart.ITEMS_GRAPH,
+        attributeNodes = {
+                @NamedAttributeNode("customer"),
+                @NamedAttributeNode(value = "items", subgraph = "items")
+        },
+        subgraphs = {
+                @NamedSubgraph(name = "items", attributeNodes = @NamedAttributeNode(value = "food", subgraph = "food")),
+                @NamedSubgraph(name = "food", attributeNodes = {
+                        @NamedAttributeNode("foodCategory"),
+                        @NamedAttributeNode(value = "restaurant", subgraph = "restaurant")
+                }),
+                @NamedSubgraph(name = "restaurant", attributeNodes = {
+                        @NamedAttributeNode("address"),
+                        @NamedAttributeNode("owner")
+                })
+        })
 public class Cart {
 
+    public static final String ITEMS_GRAPH = "Cart.items";
+
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
     private Long id;
@@ -30,7 +56,15 @@ public class Cart {
     @OneToOne
     private User customer;
 
-    private Long total;
+    /**
+     * Sum of the total prices of the items.
+     */
+    private Long total = 0L;
+
+    /**
+     * Sum of the quantities of the items; null until the totals of a cart from before they were kept are computed.
+     */
+    private Integer itemCount = 0;
 
     /**
      * A cart can contain multiple items.
@@ -38,5 +72,6 @@ public class Cart {
      * If the cart is deleted, all items in the cart will be deleted as well.
      */
     @OneToMany(mappedBy = "cart", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("id")
     private List<CartItem> items = new ArrayList<>();
-}
\ No newline at end of file
+}
@@ -4,7 +4,9 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.util.List;
 
@@ -13,13 +15,15 @@ import java.util.List;
  * Represents an item in a shopping cart, including details about the food item, its quantity, 
  * associated ingredients, and the total price for the item. 
  * A CartItem is linked to a specific Cart.
+ * A cart has one line per food and set of ingredients, found through {@link #ingredientsKey}.
  */
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "cart_items")
+@Table(name = "cart_items", uniqueConstraints = @UniqueConstraint(
+        name = "uk_cart_items_line", columnNames = {"cart_id", "food_id", "ingredients_key"}))
 public class CartItem {
 
     @Id
@@ -30,7 +34,9 @@ public class CartItem {
      * The Cart to which this item belongs. 
      * Many items are associated with a particular cart.
      */
-    @ManyToOne @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY) @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Cart cart;
 
     /**
@@ -46,6 +52,14 @@ public class CartItem {
      */
     private List<String> ingredients;
 
+    /**
+     * Digest of the ingredient names, ignoring their order, case and repeats, so that lines of the same food
+     * with the same ingredients are one line. Null for lines added before it was kept.
+     */
+    @JsonIgnore
+    @Column(length = 64)
+    private String ingredientsKey;
+
     private Long totalPrice;
     
 }
\ No newline at end of file
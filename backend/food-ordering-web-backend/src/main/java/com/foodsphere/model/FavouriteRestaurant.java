@@ -0,0 +1,46 @@
+package com.foodsphere.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.LocalDateTime;
+
+/**
+ * A restaurant a user marked as favourite.
+ * One row per (user, restaurant) pair, so adding or removing a favourite writes a single row.
+ * Rows are removed by the database when the user or the restaurant is deleted.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "favourite_restaurants",
+        indexes = @Index(name = "idx_favourite_restaurants_restaurant_id", columnList = "restaurant_id"))
+public class FavouriteRestaurant {
+
+    @EmbeddedId
+    private FavouriteRestaurantId id;
+
+    @MapsId("userId")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id")
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @ToString.Exclude
+    private User user;
+
+    @MapsId("restaurantId")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "restaurant_id")
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @ToString.Exclude
+    private Restaurant restaurant;
+
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+}
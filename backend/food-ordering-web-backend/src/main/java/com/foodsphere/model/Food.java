@@ -9,6 +9,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
@@ -32,6 +33,14 @@ public class Food {
     private Long price;
 
     private boolean available;
+
+    /**
+     * Whether every ingredient of the food is in stock; kept up to date when an ingredient's stock changes.
+     * A food can be ordered only when it is both available and in stock.
+     */
+    @ColumnDefault("true")
+    private boolean stockAvailable = true;
+
     private boolean isVegetarian;
     private boolean isSeasonal;
 
@@ -29,7 +29,7 @@ public class IngredientsItem {
      * This is a ManyToOne relationship with IngredientCategory.
      * We use JsonBackReference to prevent recursive reference from IngredientCategory.
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id")
     @JsonBackReference
     @ToString.Exclude
@@ -40,7 +40,7 @@ public class IngredientsItem {
      * This is a ManyToOne relationship with Restaurant.
      * We use JsonIgnore to prevent serialization of the restaurant.
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "restaurant_id")
     @JsonIgnore
     @ToString.Exclude
@@ -51,4 +51,11 @@ public class IngredientsItem {
      */
     private boolean isStock = true;
 
+    /**
+     * Units of the ingredient item left, when the restaurant counts it.
+     * Every ordered dish takes one unit of each of its ingredients; the item goes out of stock when none is left.
+     * Null means the item is not counted and only {@link #isStock} applies.
+     */
+    private Integer quantity;
+
 }
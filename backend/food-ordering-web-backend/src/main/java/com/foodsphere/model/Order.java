@@ -5,31 +5,60 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Order entity representing a customer's order in the system.
+ * <p>
+ * The {@value #HISTORY_GRAPH} entity graph is the fetch plan of order lists: the delivery address, the items
+ * and, for each item, the food with its category and its restaurant's address and owner come in one query.
+ * The collections the JSON view touches (food images and ingredients, restaurant images, owner addresses)
+ * are batch fetched.
  */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
 @Table(name = "orders")
+@NamedEntityGraph(
+        name = Order.HISTORY_GRAPH,
+        attributeNodes = {
+                @NamedAttributeNode("deliveryAddress"),
+                @NamedAttributeNode(value = "items", subgraph = "items")
+        },
+        subgraphs = {
+                @NamedSubgraph(name = "items", attributeNodes = @NamedAttributeNode(value = "food", subgraph = "food")),
+                @NamedSubgraph(name = "food", attributeNodes = {
+                        @NamedAttributeNode("foodCategory"),
+                        @NamedAttributeNode(value = "restaurant", subgraph = "restaurant")
+                }),
+                @NamedSubgraph(name = "restaurant", attributeNodes = {
+                        @NamedAttributeNode("address"),
+                        @NamedAttributeNode("owner")
+                })
+        })
 public class Order {
 
+    public static final String HISTORY_GRAPH = "Order.history";
+
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JsonIgnore
+    @ToString.Exclude
     private User customer; // User who placed the order
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JsonIgnore
+    @ToString.Exclude
     private Restaurant restaurant; // Restaurant from which the order is placed
 
     // Total amount of the order
@@ -51,6 +80,18 @@ public class Order {
     @OneToMany
     private List<OrderItem> items;
 
+    /**
+     * Units of each counted ingredient taken from stock when the order was placed, by ingredient ID; exactly
+     * these are given back if the order is cancelled while pending.
+     */
+    @ElementCollection
+    @CollectionTable(name = "order_ingredient_reservations", joinColumns = @JoinColumn(name = "order_id"))
+    @MapKeyColumn(name = "ingredient_id")
+    @Column(name = "quantity")
+    @JsonIgnore
+    @ToString.Exclude
+    private Map<Long, Integer> reservedIngredients = new HashMap<>();
+
     // Uncomment if payment details are to be included
     // private Payment payment;
 
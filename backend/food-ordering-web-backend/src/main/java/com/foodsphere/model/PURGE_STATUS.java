@@ -0,0 +1,12 @@
+package com.foodsphere.model;
+
+public enum PURGE_STATUS {
+
+    PENDING,
+
+    RUNNING,
+
+    COMPLETED,
+
+    FAILED
+}
@@ -6,6 +6,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.SQLRestriction;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -13,14 +15,29 @@ import java.util.List;
 
 /**
  * Restaurant Entity
+ * Deleted restaurants stay in the table until their purge job removes them and are hidden from every entity query.
  */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
 @Table(name = "restaurants")
+@SQLRestriction("deleted = false")
+@NamedEntityGraph(
+        name = Restaurant.DETAIL_GRAPH,
+        attributeNodes = {
+                @NamedAttributeNode("images"),
+                @NamedAttributeNode("address"),
+                @NamedAttributeNode("owner")
+        })
 public class Restaurant {
 
+    /**
+     * Fetch plan of the restaurant detail view: images, address and owner in the same query as the restaurant.
+     * The owner's addresses are a second collection and are batch fetched.
+     */
+    public static final String DETAIL_GRAPH = "Restaurant.detail";
+
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
     private Long id;
@@ -31,8 +48,21 @@ public class Restaurant {
     private String openingHours;
     private boolean open;
 
+    /**
+     * IANA time zone the opening hours are written in, such as "Asia/Kolkata".
+     * Null means the platform default zone.
+     */
+    private String timeZone;
+
     private LocalDateTime registrationDate;
 
+    /**
+     * Set when the restaurant is deleted; the rows are removed later by a {@link RestaurantPurgeJob}.
+     */
+    @JsonIgnore
+    @ColumnDefault("false")
+    private boolean deleted;
+
     /**
      * Owner of the restaurant.
      * We build the Backend in such a way, One Owner can have exactly one Restaurant.
@@ -52,7 +82,9 @@ public class Restaurant {
     /**
      * List of orders associated with the restaurant.
      * One Restaurant can have multiple orders.
+     * This field is not serialized, orders are exposed through the order endpoints.
      */
+    @JsonIgnore
     @OneToMany(mappedBy = "restaurant", cascade = CascadeType.ALL, orphanRemoval = true)
     @ToString.Exclude
     private List<Order> orders = new ArrayList<>();
@@ -0,0 +1,53 @@
+package com.foodsphere.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.LocalDateTime;
+
+/**
+ * Background removal of a deleted restaurant and everything that belongs to it.
+ * <p>
+ * The restaurant is marked deleted when the job is created; its orders and foods are then removed in
+ * batches, each batch in its own transaction together with the progress counters below, so a job
+ * interrupted by a restart resumes where it stopped.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "restaurant_purge_jobs", indexes = @Index(name = "idx_restaurant_purge_jobs_status", columnList = "status"))
+public class RestaurantPurgeJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private Long id;
+
+    private Long restaurantId;
+
+    @Enumerated(EnumType.STRING)
+    private PURGE_STATUS status;
+
+    private long ordersDeleted;
+
+    private long foodsDeleted;
+
+    /**
+     * Number of times the job has been started; a failed job is retried until this reaches the limit.
+     */
+    @ColumnDefault("0")
+    private int attempts;
+
+    private LocalDateTime requestedAt;
+
+    private LocalDateTime completedAt;
+
+    /**
+     * Message of the error that stopped the job, if it failed.
+     */
+    @Column(length = 1000)
+    private String lastError;
+}
@@ -24,7 +24,7 @@ import java.util.List;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = @Index(name = "idx_users_email", columnList = "email"))
 public class User {
 
     // Unique identifier for the user
@@ -66,9 +66,10 @@ public class User {
     private List<Order> orders = new ArrayList<>();
 
     /**
-     * List of favourite restaurants of the user.
+     * Favourite restaurants of the user, filled in for the profile view.
+     * They are stored one row per restaurant in {@link FavouriteRestaurant}, not with the user.
      */
-    @ElementCollection
+    @Transient
     private List<RestaurantDto> favourites = new ArrayList<>();
 
     /**
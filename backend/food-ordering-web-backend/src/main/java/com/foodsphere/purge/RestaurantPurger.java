@@ -0,0 +1,305 @@
+package com.foodsphere.purge;
+
+import com.foodsphere.config.RestaurantPurgeConfig;
+import com.foodsphere.event.RestaurantPurgeRequestedEvent;
+import com.foodsphere.model.PURGE_STATUS;
+import com.foodsphere.model.RestaurantPurgeJob;
+import com.foodsphere.repository.RestaurantPurgeJobRepository;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Removes deleted restaurants and everything that belongs to them in the background.
+ * <p>
+ * A restaurant is only marked deleted by the request that deletes it, and is hidden from every query from
+ * then on. This purger then removes its orders and foods in batches of set-based deletes, each batch in a
+ * short transaction of its own that also records the progress on the {@link RestaurantPurgeJob}. Nothing
+ * is loaded into the persistence context and no transaction holds a connection for longer than a batch.
+ * Every batch selects what is still left, so a job that was interrupted by a restart is simply run again
+ * when the application is ready, and a job that failed is run again on a fixed delay until it has been
+ * started {@code restaurant.purge.max-attempts} times.
+ * <p>
+ * Bulk deletes also clear the collection tables of the deleted rows (order items of an order, images and
+ * ingredients of a food), as Hibernate does for every bulk delete of an entity that owns collections.
+ */
+@Slf4j
+@Component
+public class RestaurantPurger {
+
+    private static final String ORDER_IDS =
+            "SELECT o.id FROM Order o WHERE o.restaurant.id = :restaurantId ORDER BY o.id";
+
+    private static final String ORDER_ITEM_IDS =
+            "SELECT i.id FROM Order o JOIN o.items i WHERE o.id IN :orderIds";
+
+    private static final String FOOD_IDS =
+            "SELECT f.id FROM Food f WHERE f.restaurant.id = :restaurantId ORDER BY f.id";
+
+    private final RestaurantPurgeJobRepository restaurantPurgeJobRepository;
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ThreadPoolTaskExecutor executor;
+
+    private final int batchSize;
+
+    private final int maxAttempts;
+
+    public RestaurantPurger(RestaurantPurgeJobRepository restaurantPurgeJobRepository,
+                            EntityManager entityManager,
+                            PlatformTransactionManager transactionManager,
+                            @Qualifier(RestaurantPurgeConfig.RESTAURANT_PURGE_EXECUTOR) ThreadPoolTaskExecutor executor,
+                            @Value("${restaurant.purge.batch-size:500}") int batchSize,
+                            @Value("${restaurant.purge.max-attempts:3}") int maxAttempts) {
+        this.restaurantPurgeJobRepository = restaurantPurgeJobRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.executor = executor;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Starts the purge of a newly deleted restaurant once the deletion has committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPurgeRequested(RestaurantPurgeRequestedEvent event) {
+        executor.execute(() -> purge(event.getJobId()));
+    }
+
+    /**
+     * Resumes the jobs that were pending or running when the application stopped.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinishedJobs() {
+        List<RestaurantPurgeJob> jobs = restaurantPurgeJobRepository.findByStatusInOrderById(
+                List.of(PURGE_STATUS.PENDING, PURGE_STATUS.RUNNING));
+        if (!jobs.isEmpty()) {
+            log.info("Resuming {} unfinished restaurant purge jobs", jobs.size());
+        }
+        jobs.forEach(job -> executor.execute(() -> purge(job.getId())));
+    }
+
+    /**
+     * Runs the failed jobs again that have not used up their attempts.
+     * Each job is put back to {@link PURGE_STATUS#PENDING} first, so it is queued only once.
+     */
+    @Scheduled(initialDelayString = "${restaurant.purge.retry-delay:PT10M}",
+            fixedDelayString = "${restaurant.purge.retry-delay:PT10M}")
+    public void retryFailedJobs() {
+        List<RestaurantPurgeJob> jobs =
+                restaurantPurgeJobRepository.findByStatusAndAttemptsLessThanOrderById(PURGE_STATUS.FAILED, maxAttempts);
+        for (RestaurantPurgeJob job : jobs) {
+            Integer requeued = transactionTemplate.execute(status -> entityManager.createQuery("""
+                            UPDATE RestaurantPurgeJob j SET j.status = :pending
+                            WHERE j.id = :jobId AND j.status = :failed
+                            """)
+                    .setParameter("pending", PURGE_STATUS.PENDING)
+                    .setParameter("failed", PURGE_STATUS.FAILED)
+                    .setParameter("jobId", job.getId())
+                    .executeUpdate());
+            if (requeued != null && requeued == 1) {
+                log.info("Retrying restaurant purge job {} after {} failed attempts", job.getId(), job.getAttempts());
+                executor.execute(() -> purge(job.getId()));
+            }
+        }
+    }
+
+    /**
+     * Runs a purge job to the end, or until a batch fails.
+     * A failed job keeps its progress and is marked {@link PURGE_STATUS#FAILED} with the error, to be run again by
+     * {@link #retryFailedJobs()} while it has attempts left.
+     *
+     * @param jobId the ID of the job
+     */
+    public void purge(Long jobId) {
+        RestaurantPurgeJob job = restaurantPurgeJobRepository.findById(jobId).orElse(null);
+        if (job == null || job.getStatus() == PURGE_STATUS.COMPLETED) {
+            return;
+        }
+
+        Long restaurantId = job.getRestaurantId();
+        log.info("Purging restaurant with ID: {} (job {})", restaurantId, jobId);
+        long started = System.nanoTime();
+
+        try {
+            startJob(jobId);
+            while (Boolean.TRUE.equals(transactionTemplate.execute(status -> deleteOrderBatch(jobId, restaurantId)))) {
+                log.debug("Deleted a batch of orders of restaurant with ID: {}", restaurantId);
+            }
+            while (Boolean.TRUE.equals(transactionTemplate.execute(status -> deleteFoodBatch(jobId, restaurantId)))) {
+                log.debug("Deleted a batch of foods of restaurant with ID: {}", restaurantId);
+            }
+            transactionTemplate.executeWithoutResult(status -> deleteRestaurant(jobId, restaurantId));
+        } catch (RuntimeException e) {
+            log.error("Purge of restaurant with ID: {} failed (job {})", restaurantId, jobId, e);
+            String message = String.valueOf(e.getMessage());
+            updateJob(jobId, 0, 0, PURGE_STATUS.FAILED, message.substring(0, Math.min(message.length(), 1000)));
+            return;
+        }
+
+        log.info("Purged restaurant with ID: {} in {} ms (job {})", restaurantId,
+                (System.nanoTime() - started) / 1_000_000, jobId);
+    }
+
+    /**
+     * Deletes the next batch of orders with their items.
+     *
+     * @return whether any order was left to delete
+     */
+    private boolean deleteOrderBatch(Long jobId, Long restaurantId) {
+        List<Long> orderIds = entityManager.createQuery(ORDER_IDS, Long.class)
+                .setParameter("restaurantId", restaurantId)
+                .setMaxResults(batchSize)
+                .getResultList();
+        if (orderIds.isEmpty()) {
+            return false;
+        }
+
+        List<Long> itemIds = entityManager.createQuery(ORDER_ITEM_IDS, Long.class)
+                .setParameter("orderIds", orderIds)
+                .getResultList();
+        entityManager.createQuery("DELETE FROM Order o WHERE o.id IN :orderIds")
+                .setParameter("orderIds", orderIds)
+                .executeUpdate();
+        if (!itemIds.isEmpty()) {
+            entityManager.createQuery("DELETE FROM OrderItem i WHERE i.id IN :itemIds")
+                    .setParameter("itemIds", itemIds)
+                    .executeUpdate();
+        }
+
+        updateJob(jobId, orderIds.size(), 0, PURGE_STATUS.RUNNING, null);
+        return true;
+    }
+
+    /**
+     * Deletes the next batch of foods, the cart items holding them (taken off their carts' totals) and their images
+     * and ingredient links.
+     * Order items of other restaurants' orders that still point at one of the foods lose the link.
+     *
+     * @return whether any food was left to delete
+     */
+    private boolean deleteFoodBatch(Long jobId, Long restaurantId) {
+        List<Long> foodIds = entityManager.createQuery(FOOD_IDS, Long.class)
+                .setParameter("restaurantId", restaurantId)
+                .setMaxResults(batchSize)
+                .getResultList();
+        if (foodIds.isEmpty()) {
+            return false;
+        }
+
+        entityManager.createQuery("""
+                        UPDATE Cart c SET
+                            c.total = c.total - (SELECT COALESCE(SUM(ci.totalPrice), 0) FROM CartItem ci
+                                                 WHERE ci.cart = c AND ci.food.id IN :foodIds),
+                            c.itemCount = c.itemCount - (SELECT COALESCE(SUM(ci.quantity), 0) FROM CartItem ci
+                                                         WHERE ci.cart = c AND ci.food.id IN :foodIds)
+                        WHERE c.id IN (SELECT ci.cart.id FROM CartItem ci WHERE ci.food.id IN :foodIds)
+                        """)
+                .setParameter("foodIds", foodIds)
+                .executeUpdate();
+        entityManager.createQuery("DELETE FROM CartItem ci WHERE ci.food.id IN :foodIds")
+                .setParameter("foodIds", foodIds)
+                .executeUpdate();
+        entityManager.createQuery("UPDATE OrderItem i SET i.food = null WHERE i.food.id IN :foodIds")
+                .setParameter("foodIds", foodIds)
+                .executeUpdate();
+        entityManager.createQuery("DELETE FROM Food f WHERE f.id IN :foodIds")
+                .setParameter("foodIds", foodIds)
+                .executeUpdate();
+
+        updateJob(jobId, 0, foodIds.size(), PURGE_STATUS.RUNNING, null);
+        return true;
+    }
+
+    /**
+     * Deletes the restaurant's ingredients and categories, then the restaurant row, its images and its address.
+     * The restaurant is hidden from entity queries once it is marked deleted, so its own rows are removed with
+     * native statements; favourites of the restaurant go with it through their foreign key.
+     */
+    private void deleteRestaurant(Long jobId, Long restaurantId) {
+        entityManager.createQuery("""
+                        DELETE FROM IngredientsItem i
+                        WHERE i.restaurant.id = :restaurantId
+                        OR i.category.id IN (SELECT c.id FROM IngredientCategory c WHERE c.restaurant.id = :restaurantId)
+                        """)
+                .setParameter("restaurantId", restaurantId)
+                .executeUpdate();
+        entityManager.createQuery("DELETE FROM IngredientCategory c WHERE c.restaurant.id = :restaurantId")
+                .setParameter("restaurantId", restaurantId)
+                .executeUpdate();
+        entityManager.createQuery("DELETE FROM Category c WHERE c.restaurant.id = :restaurantId")
+                .setParameter("restaurantId", restaurantId)
+                .executeUpdate();
+
+        List<?> addressIds = entityManager
+                .createNativeQuery("SELECT address_id FROM restaurants WHERE id = :restaurantId")
+                .setParameter("restaurantId", restaurantId)
+                .getResultList();
+        entityManager.createNativeQuery("DELETE FROM restaurant_images WHERE restaurant_id = :restaurantId")
+                .setParameter("restaurantId", restaurantId)
+                .executeUpdate();
+        entityManager.createNativeQuery("DELETE FROM restaurants WHERE id = :restaurantId")
+                .setParameter("restaurantId", restaurantId)
+                .executeUpdate();
+        if (!addressIds.isEmpty() && addressIds.get(0) != null) {
+            entityManager.createNativeQuery("DELETE FROM address WHERE id = :addressId")
+                    .setParameter("addressId", ((Number) addressIds.get(0)).longValue())
+                    .executeUpdate();
+        }
+
+        updateJob(jobId, 0, 0, PURGE_STATUS.COMPLETED, null);
+    }
+
+    /**
+     * Marks a job running and counts the attempt.
+     */
+    private void startJob(Long jobId) {
+        transactionTemplate.executeWithoutResult(transaction -> entityManager.createQuery("""
+                        UPDATE RestaurantPurgeJob j
+                        SET j.status = :status, j.attempts = j.attempts + 1, j.lastError = null
+                        WHERE j.id = :jobId
+                        """)
+                .setParameter("status", PURGE_STATUS.RUNNING)
+                .setParameter("jobId", jobId)
+                .executeUpdate());
+    }
+
+    /**
+     * Adds to the progress counters of a job and sets its status, in one statement.
+     * Runs in the current transaction, or in its own when called outside one.
+     */
+    private void updateJob(Long jobId, long ordersDeleted, long foodsDeleted, PURGE_STATUS status, String lastError) {
+        transactionTemplate.executeWithoutResult(transaction -> entityManager.createQuery("""
+                        UPDATE RestaurantPurgeJob j
+                        SET j.ordersDeleted = j.ordersDeleted + :ordersDeleted,
+                            j.foodsDeleted = j.foodsDeleted + :foodsDeleted,
+                            j.status = :status,
+                            j.lastError = :lastError,
+                            j.completedAt = :completedAt
+                        WHERE j.id = :jobId
+                        """)
+                .setParameter("ordersDeleted", ordersDeleted)
+                .setParameter("foodsDeleted", foodsDeleted)
+                .setParameter("status", status)
+                .setParameter("lastError", lastError)
+                .setParameter("completedAt", status == PURGE_STATUS.COMPLETED ? LocalDateTime.now() : null)
+                .setParameter("jobId", jobId)
+                .executeUpdate());
+    }
+}
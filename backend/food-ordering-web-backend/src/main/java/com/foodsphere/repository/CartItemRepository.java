@@ -1,7 +1,40 @@
 package com.foodsphere.repository;
 
 import com.foodsphere.model.CartItem;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Optional;
 
 public interface CartItemRepository extends JpaRepository<CartItem, Long> {
+
+    /**
+     * The line of a cart for a food with a set of ingredients, looked up through the unique key of the lines.
+     */
+    @Query("SELECT i FROM CartItem i WHERE i.cart.id = :cartId AND i.food.id = :foodId " +
+            "AND i.ingredientsKey = :ingredientsKey")
+    Optional<CartItem> findLine(Long cartId, Long foodId, String ingredientsKey);
+
+    /**
+     * A cart item, locked until the current transaction ends, so a change computed from its quantity and price is not
+     * lost to a concurrent change of the same item.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM CartItem i WHERE i.id = :id")
+    Optional<CartItem> findByIdForUpdate(Long id);
+
+    /**
+     * Adds units to a line in one statement, so concurrent adds of the same food are not lost.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE CartItem i SET i.quantity = i.quantity + :quantity, i.totalPrice = i.totalPrice + :price " +
+            "WHERE i.id = :id")
+    int addToLine(Long id, int quantity, long price);
+
+    @Modifying
+    @Query("DELETE FROM CartItem i WHERE i.cart.id = :cartId")
+    int deleteByCartId(Long cartId);
 }
@@ -1,11 +1,48 @@
 package com.foodsphere.repository;
 
 import com.foodsphere.model.Cart;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+/**
+ * The cart view uses the {@link Cart#ITEMS_GRAPH} fetch plan. Loading and serializing a cart takes at most
+ * {@code 2 + 2 * ceil(F / B) + 2 * ceil(R / B)} queries, where F is the number of its foods, R the number of their
+ * restaurants and B the batch fetch size: one for the cart with its customer, items, foods, categories and
+ * restaurants, then batches of food images, food ingredients, restaurant images and users' addresses.
+ * <p>
+ * The running totals are only changed by the delta updates below, never by saving a loaded cart, so concurrent
+ * changes to the same cart add up instead of overwriting each other.
+ */
 @Repository
 public interface CartRepository extends JpaRepository<Cart, Long> {
 
+    @EntityGraph(value = Cart.ITEMS_GRAPH, type = EntityGraph.EntityGraphType.LOAD)
     Cart findByCustomerId(Long userId);
+
+    @Query("SELECT c.id FROM Cart c WHERE c.customer.id = :userId")
+    Long findIdByCustomerId(Long userId);
+
+    /**
+     * Adds the price and quantity of a change to the items to the cart's running totals.
+     */
+    @Modifying
+    @Query("UPDATE Cart c SET c.total = c.total + :price, c.itemCount = c.itemCount + :quantity WHERE c.id = :cartId")
+    int addToTotals(Long cartId, long price, int quantity);
+
+    @Modifying
+    @Query("UPDATE Cart c SET c.total = 0, c.itemCount = 0 WHERE c.id = :cartId")
+    int resetTotals(Long cartId);
+
+    /**
+     * Computes the running totals of a cart from its items, for carts from before the totals were kept.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Cart c SET " +
+            "c.total = COALESCE((SELECT SUM(i.totalPrice) FROM CartItem i WHERE i.cart = c), 0), " +
+            "c.itemCount = COALESCE((SELECT SUM(i.quantity) FROM CartItem i WHERE i.cart = c), 0) " +
+            "WHERE c.id = :cartId")
+    int recalculateTotals(Long cartId);
 }
@@ -0,0 +1,56 @@
+package com.foodsphere.repository;
+
+import com.foodsphere.dto.RestaurantSummary;
+import com.foodsphere.model.FavouriteRestaurant;
+import com.foodsphere.model.FavouriteRestaurantId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface FavouriteRestaurantRepository extends JpaRepository<FavouriteRestaurant, FavouriteRestaurantId> {
+
+    /**
+     * Removes one favourite without loading it.
+     *
+     * @return 1 if the restaurant was a favourite, 0 otherwise
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM FavouriteRestaurant f WHERE f.id.userId = :userId AND f.id.restaurantId = :restaurantId")
+    int deleteFavourite(Long userId, Long restaurantId);
+
+    /**
+     * Adds one favourite with a single insert; adding an existing favourite does nothing.
+     *
+     * @return 1 if the favourite was added, 0 if it already existed
+     */
+    @Transactional
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            INSERT INTO favourite_restaurants (user_id, restaurant_id, created_at)
+            VALUES (:userId, :restaurantId, now())
+            ON CONFLICT (user_id, restaurant_id) DO NOTHING
+            """)
+    int insertFavourite(Long userId, Long restaurantId);
+
+    /**
+     * Ids of the user's favourite restaurants, most recently added first.
+     */
+    @Query("SELECT f.id.restaurantId FROM FavouriteRestaurant f WHERE f.id.userId = :userId ORDER BY f.createdAt DESC")
+    List<Long> findRestaurantIdsByUserId(Long userId);
+
+    /**
+     * One page of the user's favourite restaurants as cards, read live from the restaurants,
+     * most recently added first.
+     */
+    @Query("SELECT new com.foodsphere.dto.RestaurantSummary(r.id, r.name, r.cuisineType, r.open, a.city) " +
+            "FROM FavouriteRestaurant f JOIN f.restaurant r LEFT JOIN r.address a " +
+            "WHERE f.id.userId = :userId ORDER BY f.createdAt DESC, r.id")
+    List<RestaurantSummary> findSummariesByUserId(Long userId, Pageable pageable);
+}
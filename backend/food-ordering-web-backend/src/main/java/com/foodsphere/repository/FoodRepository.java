@@ -1,19 +1,69 @@
 package com.foodsphere.repository;
 
 import com.foodsphere.model.Food;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 
-public interface FoodRepository extends JpaRepository<Food, Long> {
+public interface FoodRepository extends JpaRepository<Food, Long>, JpaSpecificationExecutor<Food> {
 
     List<Food> findByRestaurantId(Long restaurantId);
 
-    @Query(
-        nativeQuery = true,
-        value = "SELECT * FROM food WHERE LOWER(name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR LOWER(food_category) LIKE LOWER(CONCAT('%', :keyword, '%'))"
-    )
-    List<Food> searchFood(@Param("keyword") String keyword);
+    /**
+     * Locks the given foods in ID order until the current transaction ends, so that only one transaction at a time
+     * recomputes their stock availability. Must be called in a transaction.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT f.id FROM Food f WHERE f.id IN :foodIds ORDER BY f.id")
+    List<Long> lockForStockUpdate(Collection<Long> foodIds);
+
+    /**
+     * Recomputes the stock availability of the given foods from their ingredients in one statement, without loading
+     * them: a food is in stock when none of its ingredients is out of stock.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+            UPDATE Food f SET f.stockAvailable = CASE WHEN EXISTS (
+                SELECT 1 FROM Food g JOIN g.ingredients i WHERE g.id = f.id AND i.isStock = false
+            ) THEN false ELSE true END
+            WHERE f.id IN :foodIds
+            """)
+    int refreshStockAvailable(Collection<Long> foodIds);
+
+    /**
+     * Ranked full-text search over food name and description, and over the name of the food's category,
+     * using the GIN indexes on {@code foods.search_vector} and {@code category.search_vector} created by
+     * {@code schema.sql}. Both matches are found through their own index and merged, keeping the best rank.
+     * Foods of deleted restaurants waiting for their purge are left out.
+     * The query is a tsquery built by {@link com.foodsphere.search.FullTextQuery}.
+     */
+    String SEARCH_RANKED = """
+            WITH matches AS (
+                SELECT f.id, ts_rank(f.search_vector, to_tsquery('simple', :query)) AS rank
+                FROM foods f
+                WHERE f.search_vector @@ to_tsquery('simple', :query)
+                UNION ALL
+                SELECT f.id, ts_rank(c.search_vector, to_tsquery('simple', :query)) AS rank
+                FROM category c
+                JOIN foods f ON f.food_category_id = c.id
+                WHERE c.search_vector @@ to_tsquery('simple', :query)
+            )
+            SELECT f.* FROM foods f
+            JOIN (SELECT id, MAX(rank) AS rank FROM matches GROUP BY id) m ON m.id = f.id
+            JOIN restaurants r ON r.id = f.restaurant_id AND NOT r.deleted
+            ORDER BY m.rank DESC, f.id
+            LIMIT :limit OFFSET :offset
+            """;
+
+    @Query(nativeQuery = true, value = SEARCH_RANKED)
+    List<Food> searchRanked(@Param("query") String query, @Param("limit") int limit, @Param("offset") long offset);
 }
\ No newline at end of file
@@ -0,0 +1,95 @@
+package com.foodsphere.repository;
+
+import com.foodsphere.model.Category;
+import com.foodsphere.model.Food;
+import com.foodsphere.model.Restaurant;
+import jakarta.persistence.criteria.Fetch;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+
+/**
+ * Menu filters for {@link FoodRepository}, combined into a single query.
+ * <p>
+ * The restaurant, availability, vegetarian and seasonal predicates are equality tests on the leading
+ * columns of {@code idx_foods_menu_filter}, created by {@code schema.sql}. The category is joined once and
+ * fetched with the foods, so reading or serializing the category of each food issues no further query. The
+ * restaurant, the same row for every food of a menu, is fetched too with its address and owner, so foods carry
+ * the restaurant itself rather than an uninitialized proxy.
+ * <p>
+ * Images and ingredients of the foods are collections and are left to batch fetching
+ * ({@code hibernate.default_batch_fetch_size}): fetching them here would multiply the rows and break paging.
+ */
+public final class FoodSpecifications {
+
+    private FoodSpecifications() {
+    }
+
+    /**
+     * Foods of the given restaurant, with their category and restaurant (address and owner included) fetched.
+     * Count queries join the category without fetching it.
+     */
+    public static Specification<Food> ofRestaurant(Long restaurantId) {
+        return (root, query, builder) -> {
+            if (query != null && !isCountQuery(query.getResultType())) {
+                root.fetch("foodCategory", JoinType.LEFT);
+                Fetch<Food, Restaurant> restaurant = root.fetch("restaurant", JoinType.INNER);
+                restaurant.fetch("address", JoinType.LEFT);
+                restaurant.fetch("owner", JoinType.LEFT);
+            }
+            return builder.equal(root.get("restaurant").get("id"), restaurantId);
+        };
+    }
+
+    /**
+     * Foods that can, or cannot, be ordered: available ones are offered and have all their ingredients in stock.
+     */
+    public static Specification<Food> available(boolean available) {
+        return (root, query, builder) -> {
+            Predicate orderable = builder.and(builder.isTrue(root.get("available")),
+                    builder.isTrue(root.get("stockAvailable")));
+            return available ? orderable : builder.not(orderable);
+        };
+    }
+
+    public static Specification<Food> vegetarian(boolean vegetarian) {
+        return (root, query, builder) -> builder.equal(root.get("isVegetarian"), vegetarian);
+    }
+
+    public static Specification<Food> seasonal(boolean seasonal) {
+        return (root, query, builder) -> builder.equal(root.get("isSeasonal"), seasonal);
+    }
+
+    public static Specification<Food> idIn(Collection<Long> ids) {
+        return (root, query, builder) -> root.get("id").in(ids);
+    }
+
+    /**
+     * Foods whose category has the given name, matched on the category joined by {@link #ofRestaurant(Long)}.
+     */
+    public static Specification<Food> inCategory(String categoryName) {
+        return (root, query, builder) -> builder.equal(categoryJoin(root).get("name"), categoryName);
+    }
+
+    /**
+     * Returns the category fetch already on the root, so the category table is joined only once,
+     * or joins the category when there is no fetch, as in count queries.
+     */
+    @SuppressWarnings("unchecked")
+    private static Join<Food, Category> categoryJoin(Root<Food> root) {
+        for (Fetch<Food, ?> fetch : root.getFetches()) {
+            if (fetch.getAttribute().getName().equals("foodCategory")) {
+                return (Join<Food, Category>) fetch;
+            }
+        }
+        return root.join("foodCategory", JoinType.LEFT);
+    }
+
+    private static boolean isCountQuery(Class<?> resultType) {
+        return resultType == Long.class || resultType == long.class;
+    }
+}
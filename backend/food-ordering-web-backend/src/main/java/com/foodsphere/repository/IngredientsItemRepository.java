@@ -2,12 +2,52 @@ package com.foodsphere.repository;
 
 import com.foodsphere.model.IngredientsItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 @Repository
 public interface IngredientsItemRepository extends JpaRepository<IngredientsItem, Long> {
 
     List<IngredientsItem> findByRestaurantId(Long id);
+
+    /**
+     * IDs of the restaurant's ingredient items that are out of stock.
+     */
+    @Query("SELECT i.id FROM IngredientsItem i WHERE i.restaurant.id = :restaurantId AND i.isStock = false")
+    Set<Long> findOutOfStockIds(Long restaurantId);
+
+    /**
+     * Takes units of a counted ingredient item if that many are left, in one statement, and marks the item out of
+     * stock when none are left afterwards. The row is locked only while the statement runs.
+     *
+     * @return 1 if the units were taken, 0 if too few are left or the item is not counted
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE IngredientsItem i SET i.quantity = i.quantity - :amount, " +
+            "i.isStock = CASE WHEN i.quantity > :amount THEN i.isStock ELSE false END " +
+            "WHERE i.id = :id AND i.quantity >= :amount")
+    int takeQuantity(Long id, int amount);
+
+    /**
+     * Gives back units taken by {@link #takeQuantity(Long, int)}, putting the item back in stock if none were left.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE IngredientsItem i SET i.quantity = i.quantity + :amount, " +
+            "i.isStock = CASE WHEN i.quantity = 0 THEN true ELSE i.isStock END " +
+            "WHERE i.id = :id AND i.quantity IS NOT NULL")
+    int returnQuantity(Long id, int amount);
+
+    /**
+     * IDs of the given ingredient items that are counted and have no units left.
+     */
+    @Query("SELECT i.id FROM IngredientsItem i WHERE i.id IN :ids AND i.quantity = 0")
+    List<Long> findExhaustedIds(Collection<Long> ids);
 }
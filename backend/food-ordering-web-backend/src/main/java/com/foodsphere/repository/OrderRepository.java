@@ -1,13 +1,40 @@
 package com.foodsphere.repository;
 
 import com.foodsphere.model.Order;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
+/**
+ * Order history reads use the {@link Order#HISTORY_GRAPH} fetch plan. Loading and serializing the orders takes
+ * at most {@code 1 + 2 * ceil(F / B) + 2 * ceil(R / B)} queries, where F is the number of distinct foods
+ * ordered, R the number of their restaurants and B the batch fetch size ({@code hibernate.default_batch_fetch_size}):
+ * one for the orders with their items, foods, categories and restaurants, then batches of food images, food
+ * ingredients, restaurant images and restaurant owners' addresses. The count does not grow with the number of
+ * orders or items.
+ */
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
+    @EntityGraph(value = Order.HISTORY_GRAPH, type = EntityGraph.EntityGraphType.LOAD)
     List<Order> findByCustomerId(Long userId);
 
+    @EntityGraph(value = Order.HISTORY_GRAPH, type = EntityGraph.EntityGraphType.LOAD)
     List<Order> findByRestaurantId(Long restaurantId);
+
+    @EntityGraph(value = Order.HISTORY_GRAPH, type = EntityGraph.EntityGraphType.LOAD)
+    List<Order> findByRestaurantIdAndOrderStatus(Long restaurantId, String orderStatus);
+
+    /**
+     * Deletes an order with its ingredient reservations, in one statement.
+     *
+     * @return 1 if the order was deleted, 0 if it was already gone
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Order o WHERE o.id = :orderId")
+    int deleteOrderById(Long orderId);
 }
@@ -0,0 +1,17 @@
+package com.foodsphere.repository;
+
+import com.foodsphere.model.PURGE_STATUS;
+import com.foodsphere.model.RestaurantPurgeJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface RestaurantPurgeJobRepository extends JpaRepository<RestaurantPurgeJob, Long> {
+
+    List<RestaurantPurgeJob> findByStatusInOrderById(Collection<PURGE_STATUS> statuses);
+
+    List<RestaurantPurgeJob> findByStatusAndAttemptsLessThanOrderById(PURGE_STATUS status, int attempts);
+}
@@ -1,21 +1,73 @@
 package com.foodsphere.repository;
 
+import com.foodsphere.dto.RestaurantSummary;
 import com.foodsphere.model.Restaurant;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
 @Repository
 public interface RestaurantRepository extends JpaRepository<Restaurant, Long> {
 
-    @Query(
-            nativeQuery = true,
-            value = "SELECT * FROM restaurants WHERE LOWER(name) LIKE LOWER(CONCAT('%', :query, '%')) OR LOWER(cuisine_type) LIKE LOWER(CONCAT('%', :query, '%'))"
-    )
-    List<Restaurant> findBySearchQuery(String query);
+    /**
+     * Ranked full-text search over name, cuisine type and description, using the GIN index on
+     * {@code restaurants.search_vector} created by {@code schema.sql}.
+     * The query is a tsquery built by {@link com.foodsphere.search.FullTextQuery}.
+     */
+    String SEARCH_RANKED = """
+            SELECT r.* FROM restaurants r
+            WHERE r.search_vector @@ to_tsquery('simple', :query) AND NOT r.deleted
+            ORDER BY ts_rank(r.search_vector, to_tsquery('simple', :query)) DESC, r.id
+            LIMIT :limit OFFSET :offset
+            """;
+
+    @Query(nativeQuery = true, value = SEARCH_RANKED)
+    List<Restaurant> searchRanked(String query, int limit, long offset);
 
 
     Restaurant findByOwnerId(Long userId);
+
+    @Query("SELECT r.id FROM Restaurant r WHERE r.owner.id = :ownerId")
+    Long findIdByOwnerId(Long ownerId);
+
+    /**
+     * Keyset page of restaurant summaries with an id greater than {@code afterId}, ordered by id.
+     * Only the card columns are selected; the page size comes from the pageable.
+     */
+    @Query("SELECT new com.foodsphere.dto.RestaurantSummary(r.id, r.name, r.cuisineType, r.open, a.city) " +
+            "FROM Restaurant r LEFT JOIN r.address a " +
+            "WHERE r.id > :afterId ORDER BY r.id")
+    List<RestaurantSummary> findSummariesAfter(Long afterId, Pageable pageable);
+
+    /**
+     * Summaries of the given restaurants, in no particular order.
+     */
+    @Query("SELECT new com.foodsphere.dto.RestaurantSummary(r.id, r.name, r.cuisineType, r.open, a.city) " +
+            "FROM Restaurant r LEFT JOIN r.address a " +
+            "WHERE r.id IN :restaurantIds")
+    List<RestaurantSummary> findSummariesByIds(List<Long> restaurantIds);
+
+    /**
+     * Sets the open flag of the given restaurants in one statement, without loading them.
+     * Restaurants whose flag is already set that way are not written.
+     *
+     * @return the number of restaurants whose flag changed
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Restaurant r SET r.open = :open WHERE r.id IN :restaurantIds AND r.open <> :open")
+    int updateOpenStatus(List<Long> restaurantIds, boolean open);
+
+    /**
+     * The card image of each of the given restaurants, as restaurant id and image pairs.
+     * The images of a restaurant are stored without an order, so the least one is picked, which stays the same
+     * across requests and cache reloads.
+     */
+    @Query("SELECT r.id, MIN(i) FROM Restaurant r JOIN r.images i WHERE r.id IN :restaurantIds GROUP BY r.id")
+    List<Object[]> findCardImagesByRestaurantIds(List<Long> restaurantIds);
 }
@@ -0,0 +1,37 @@
+package com.foodsphere.request;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ingredient categories of a restaurant with their items, created in one request.
+ * A category whose name the restaurant already uses gets the items added to it.
+ */
+@Data
+public class BulkIngredientRequest {
+
+    private Long restaurantId;
+
+    private List<Category> categories = new ArrayList<>();
+
+    @Data
+    public static class Category {
+
+        private String name;
+
+        private List<Item> items = new ArrayList<>();
+    }
+
+    /**
+     * An ingredient item; without a quantity its units are not counted.
+     */
+    @Data
+    public static class Item {
+
+        private String name;
+
+        private Integer quantity;
+    }
+}
@@ -25,6 +25,8 @@ public class CreateRestaurantRequest {
 
     private String openingHours;
 
+    private String timeZone;
+
     private List<String> images;
 
 }
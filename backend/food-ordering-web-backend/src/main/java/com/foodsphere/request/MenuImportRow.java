@@ -0,0 +1,33 @@
+package com.foodsphere.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One food item of a bulk menu import.
+ * Category and ingredients are given by name and resolved within the restaurant.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MenuImportRow {
+
+    private String name;
+    private String description;
+    private Long price;
+    private String category;
+    private boolean vegetarian;
+    private boolean seasonal;
+
+    /**
+     * Imported foods are available unless the row says otherwise.
+     */
+    private boolean available = true;
+
+    private List<String> images = new ArrayList<>();
+    private List<String> ingredients = new ArrayList<>();
+}
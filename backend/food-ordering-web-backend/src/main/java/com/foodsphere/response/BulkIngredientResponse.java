@@ -0,0 +1,40 @@
+package com.foodsphere.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The ids of the ingredient categories and items of a bulk creation, in the order of the request.
+ * {@code created} tells a new category from an existing one the items were added to.
+ */
+@Data
+@NoArgsConstructor
+public class BulkIngredientResponse {
+
+    private Long restaurantId;
+    private int categoriesCreated;
+    private int itemsCreated;
+    private List<CategoryResult> categories = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CategoryResult {
+        private Long id;
+        private String name;
+        private boolean created;
+        private List<ItemResult> items = new ArrayList<>();
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemResult {
+        private Long id;
+        private String name;
+    }
+}
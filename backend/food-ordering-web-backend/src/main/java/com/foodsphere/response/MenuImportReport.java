@@ -0,0 +1,38 @@
+package com.foodsphere.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk menu import.
+ * Every rejected row is counted, but only the first ones are listed; {@code errorsTruncated} tells when
+ * some were left out.
+ */
+@Data
+@NoArgsConstructor
+public class MenuImportReport {
+
+    private Long restaurantId;
+    private int rowsRead;
+    private int imported;
+    private int rejected;
+    private int categoriesCreated;
+    private long elapsedMillis;
+    private List<RowError> errors = new ArrayList<>();
+    private boolean errorsTruncated;
+
+    /**
+     * Why a row was not imported; the line is where the row starts in the uploaded file, from 1.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private long line;
+        private String message;
+    }
+}
@@ -0,0 +1,20 @@
+package com.foodsphere.response;
+
+import com.foodsphere.dto.RestaurantSummary;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of restaurant summaries.
+ * The next page is requested with {@code afterId} set to {@code nextAfterId}, which is null on the last page.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class RestaurantSummaryPageResponse {
+    private List<RestaurantSummary> restaurants;
+    private Long nextAfterId;
+}
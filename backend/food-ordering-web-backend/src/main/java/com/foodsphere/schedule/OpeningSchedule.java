@@ -0,0 +1,259 @@
+package com.foodsphere.schedule;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Weekly opening hours compiled into one bit per 15-minute slot, Monday 00:00 first.
+ * <p>
+ * The whole week is 672 bits in eleven longs, so "is it open at this local time" is a single bit test and
+ * "when does it next open" scans at most eleven words, whatever the hours look like.
+ * Times are rounded outwards to slot boundaries: "09:10-21:50" is open from 09:00 to 22:00.
+ * <p>
+ * {@link #parse(String)} accepts rules separated by {@code ;} or new lines, each made of optional days
+ * and one or more time ranges, for example:
+ * <pre>
+ * Mon-Fri 09:00-22:00; Sat, Sun 10:00-14:00, 18:00-23:30
+ * Daily 11am-11pm
+ * Fri-Sat 18:00-02:00
+ * 24/7
+ * </pre>
+ * A range that ends at or before its start runs past midnight into the next day.
+ * A rule without days applies every day; {@code closed} means never open.
+ */
+public final class OpeningSchedule {
+
+    public static final int SLOT_MINUTES = 15;
+
+    static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+
+    static final int SLOTS_PER_WEEK = 7 * SLOTS_PER_DAY;
+
+    private static final Pattern TIME = Pattern.compile("(\\d{1,2})(?:[:.](\\d{2}))?\\s*(am|pm)?");
+
+    private static final Pattern RANGE = Pattern.compile(TIME.pattern() + "\\s*(?:-|\\u2013|to)\\s*" + TIME.pattern());
+
+    private final long[] slots;
+
+    private OpeningSchedule(long[] slots) {
+        this.slots = slots;
+    }
+
+    /**
+     * Parses opening hours text.
+     *
+     * @param text the opening hours
+     * @return the compiled schedule
+     * @throws IllegalArgumentException if the text does not follow the supported format
+     */
+    public static OpeningSchedule parse(String text) {
+        if (text == null || text.isBlank()) {
+            throw new IllegalArgumentException("Opening hours are empty");
+        }
+
+        long[] slots = new long[(SLOTS_PER_WEEK + 63) / 64];
+        String normalized = text.strip().toLowerCase(Locale.ROOT);
+        if (normalized.equals("24/7") || normalized.equals("24x7")) {
+            setRange(slots, 0, SLOTS_PER_WEEK);
+            return new OpeningSchedule(slots);
+        }
+        if (normalized.equals("closed")) {
+            return new OpeningSchedule(slots);
+        }
+
+        for (String rule : normalized.split("[;\\n]")) {
+            if (!rule.isBlank()) {
+                parseRule(rule.strip(), slots, text);
+            }
+        }
+        return new OpeningSchedule(slots);
+    }
+
+    /**
+     * Returns whether the schedule is open at the given local date and time.
+     */
+    public boolean isOpenAt(LocalDateTime localTime) {
+        return isOpen(slotOf(localTime));
+    }
+
+    /**
+     * Returns the number of minutes until the schedule next opens, counted from the given local time.
+     *
+     * @param localTime the local date and time to count from
+     * @return 0 if it is open now, the minutes until the next opening, or -1 if it never opens
+     */
+    public int minutesUntilOpen(LocalDateTime localTime) {
+        int slot = slotOf(localTime);
+        if (isOpen(slot)) {
+            return 0;
+        }
+
+        int next = nextOpenSlot(slot);
+        if (next < 0) {
+            return -1;
+        }
+        int slotsAhead = Math.floorMod(next - slot, SLOTS_PER_WEEK);
+        int minuteInSlot = localTime.getMinute() % SLOT_MINUTES;
+        return slotsAhead * SLOT_MINUTES - minuteInSlot;
+    }
+
+    public boolean isNeverOpen() {
+        return Arrays.stream(slots).allMatch(word -> word == 0);
+    }
+
+    private boolean isOpen(int slot) {
+        return (slots[slot >>> 6] & (1L << slot)) != 0;
+    }
+
+    /**
+     * Returns the first open slot after the given one, wrapping around the end of the week, or -1.
+     */
+    private int nextOpenSlot(int slot) {
+        int start = (slot + 1) % SLOTS_PER_WEEK;
+        int found = nextOpenSlot(start, SLOTS_PER_WEEK);
+        return found >= 0 ? found : nextOpenSlot(0, start);
+    }
+
+    /**
+     * Returns the first open slot in [from, to), or -1, one 64-slot word at a time.
+     */
+    private int nextOpenSlot(int from, int to) {
+        int index = from >>> 6;
+        long word = slots[index] & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                int found = index * 64 + Long.numberOfTrailingZeros(word);
+                return found < to ? found : -1;
+            }
+            index++;
+            if (index >= slots.length || index * 64 >= to) {
+                return -1;
+            }
+            word = slots[index];
+        }
+    }
+
+    private static int slotOf(LocalDateTime localTime) {
+        int day = localTime.getDayOfWeek().getValue() - 1;
+        int minuteOfDay = localTime.getHour() * 60 + localTime.getMinute();
+        return day * SLOTS_PER_DAY + minuteOfDay / SLOT_MINUTES;
+    }
+
+    private static void parseRule(String rule, long[] slots, String text) {
+        Matcher range = RANGE.matcher(rule);
+        if (!range.find()) {
+            throw new IllegalArgumentException("No time range in opening hours: " + text);
+        }
+
+        boolean[] days = parseDays(rule.substring(0, range.start()), text);
+        int end = 0;
+        range.reset();
+        while (range.find()) {
+            if (end > 0 && !rule.substring(end, range.start()).replace(",", " ").isBlank()) {
+                throw new IllegalArgumentException("Unexpected text in opening hours: " + text);
+            }
+            int from = minutes(range.group(1), range.group(2), range.group(3), text);
+            int to = minutes(range.group(4), range.group(5), range.group(6), text);
+            int fromSlot = from / SLOT_MINUTES;
+            int toSlot = (to + SLOT_MINUTES - 1) / SLOT_MINUTES;
+            int length = toSlot > fromSlot ? toSlot - fromSlot : SLOTS_PER_DAY - fromSlot + toSlot;
+
+            for (int day = 0; day < 7; day++) {
+                if (days[day]) {
+                    setRange(slots, day * SLOTS_PER_DAY + fromSlot, length);
+                }
+            }
+            end = range.end();
+        }
+        if (!rule.substring(end).isBlank()) {
+            throw new IllegalArgumentException("Unexpected text in opening hours: " + text);
+        }
+    }
+
+    /**
+     * Parses the day part of a rule, such as "mon-fri", "sat, sun", "daily", "weekdays" or nothing at all.
+     */
+    private static boolean[] parseDays(String part, String text) {
+        boolean[] days = new boolean[7];
+        String trimmed = part.strip();
+        if (trimmed.endsWith(":")) {
+            trimmed = trimmed.substring(0, trimmed.length() - 1).strip();
+        }
+        if (trimmed.isEmpty() || trimmed.equals("daily") || trimmed.equals("everyday") || trimmed.equals("every day")) {
+            Arrays.fill(days, true);
+            return days;
+        }
+        if (trimmed.equals("weekdays")) {
+            Arrays.fill(days, 0, 5, true);
+            return days;
+        }
+        if (trimmed.equals("weekends")) {
+            days[5] = true;
+            days[6] = true;
+            return days;
+        }
+
+        for (String item : trimmed.split(",")) {
+            String[] bounds = item.strip().split("\\s*(?:-|\\u2013|to)\\s*");
+            if (bounds.length == 1) {
+                days[day(bounds[0], text)] = true;
+            } else if (bounds.length == 2) {
+                int from = day(bounds[0], text);
+                int to = day(bounds[1], text);
+                for (int day = from; ; day = (day + 1) % 7) {
+                    days[day] = true;
+                    if (day == to) {
+                        break;
+                    }
+                }
+            } else {
+                throw new IllegalArgumentException("Unrecognized days in opening hours: " + text);
+            }
+        }
+        return days;
+    }
+
+    /**
+     * Resolves a day name or abbreviation of at least three letters, such as "mon", "tues" or "thursday".
+     */
+    private static int day(String name, String text) {
+        String abbreviation = name.strip().replace(".", "");
+        if (abbreviation.length() >= 3) {
+            for (DayOfWeek day : DayOfWeek.values()) {
+                if (day.name().toLowerCase(Locale.ROOT).startsWith(abbreviation)) {
+                    return day.getValue() - 1;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Unrecognized day '" + name.strip() + "' in opening hours: " + text);
+    }
+
+    private static int minutes(String hourText, String minuteText, String meridiem, String text) {
+        int hour = Integer.parseInt(hourText);
+        int minute = minuteText == null ? 0 : Integer.parseInt(minuteText);
+        if (meridiem != null) {
+            if (hour < 1 || hour > 12) {
+                throw new IllegalArgumentException("Invalid time in opening hours: " + text);
+            }
+            hour = hour % 12 + (meridiem.equals("pm") ? 12 : 0);
+        }
+        if (minute > 59 || hour > 24 || (hour == 24 && minute > 0)) {
+            throw new IllegalArgumentException("Invalid time in opening hours: " + text);
+        }
+        return hour * 60 + minute;
+    }
+
+    /**
+     * Sets {@code length} slots starting at {@code from}, wrapping from Sunday night into Monday.
+     */
+    private static void setRange(long[] slots, int from, int length) {
+        for (int i = 0; i < length; i++) {
+            int slot = (from + i) % SLOTS_PER_WEEK;
+            slots[slot >>> 6] |= 1L << slot;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.foodsphere.schedule;
+
+import com.foodsphere.event.RestaurantOpenStatusChangedEvent;
+import com.foodsphere.repository.RestaurantRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Flips the stored open flag of restaurants when their opening schedule opens or closes.
+ * <p>
+ * Runs at every 15-minute slot boundary. Every time zone offset in use is a multiple of 15 minutes,
+ * so the boundaries are the same instants in every zone. Only restaurants whose schedule changed since
+ * the previous run are updated, so a restaurant opened or closed by hand stays that way until its next
+ * scheduled change. Updates are batched and one {@link RestaurantOpenStatusChangedEvent} is published
+ * per run for the in-memory views. A run that fails is not counted, so the next run covers its window too.
+ * <p>
+ * When the application starts, every restaurant with a schedule is set open or closed by it, so the
+ * changes missed while the application was down are not lost; this also ends any change made by hand.
+ */
+@Slf4j
+@Component
+public class OpeningStatusScheduler {
+
+    private final ScheduleRegistry scheduleRegistry;
+
+    private final RestaurantRepository restaurantRepository;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final int batchSize;
+
+    private Instant lastRun = Instant.now();
+
+    public OpeningStatusScheduler(ScheduleRegistry scheduleRegistry,
+                                  RestaurantRepository restaurantRepository,
+                                  ApplicationEventPublisher eventPublisher,
+                                  @Value("${restaurant.opening-status.batch-size:1000}") int batchSize) {
+        this.scheduleRegistry = scheduleRegistry;
+        this.restaurantRepository = restaurantRepository;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Sets the open flag of every restaurant with a schedule from the schedule at startup.
+     * Runs after the {@link ScheduleRegistry} is compiled and before the in-memory views load the restaurants,
+     * so they read the corrected flags and no event is needed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    public synchronized void applyCurrentStatus() {
+        Instant now = Instant.now();
+        ScheduleRegistry.OpenStatus status = scheduleRegistry.openStatusAt(now);
+
+        int opened = update(status.open(), true);
+        int closed = update(status.closed(), false);
+        lastRun = now;
+
+        log.info("Opened {} and closed {} restaurants on schedule at startup", opened, closed);
+    }
+
+    @Scheduled(cron = "${restaurant.opening-status.cron:0 */15 * * * *}")
+    public synchronized void applyScheduledTransitions() {
+        Instant now = Instant.now();
+        ScheduleRegistry.Transitions transitions = scheduleRegistry.transitionsBetween(lastRun, now);
+        if (transitions.isEmpty()) {
+            lastRun = now;
+            return;
+        }
+
+        update(transitions.opened(), true);
+        update(transitions.closed(), false);
+        eventPublisher.publishEvent(new RestaurantOpenStatusChangedEvent(transitions.opened(), transitions.closed()));
+        lastRun = now;
+
+        log.info("Opened {} and closed {} restaurants on schedule", transitions.opened().size(),
+                transitions.closed().size());
+    }
+
+    /**
+     * Sets the open flag of the given restaurants in batches.
+     *
+     * @return the number of restaurants whose flag changed
+     */
+    private int update(List<Long> restaurantIds, boolean open) {
+        int changed = 0;
+        for (int from = 0; from < restaurantIds.size(); from += batchSize) {
+            List<Long> batch = restaurantIds.subList(from, Math.min(restaurantIds.size(), from + batchSize));
+            changed += restaurantRepository.updateOpenStatus(batch, open);
+        }
+        return changed;
+    }
+}
@@ -0,0 +1,23 @@
+package com.foodsphere.schedule;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Opening hours of a restaurant together with the time zone they are written in.
+ */
+public record RestaurantSchedule(OpeningSchedule hours, ZoneId zone) {
+
+    public boolean isOpenAt(Instant instant) {
+        return hours.isOpenAt(LocalDateTime.ofInstant(instant, zone));
+    }
+
+    /**
+     * Returns 0 if the restaurant is open at the given instant, the minutes until it next opens,
+     * or -1 if it never opens.
+     */
+    public int minutesUntilOpen(Instant instant) {
+        return hours.minutesUntilOpen(LocalDateTime.ofInstant(instant, zone));
+    }
+}
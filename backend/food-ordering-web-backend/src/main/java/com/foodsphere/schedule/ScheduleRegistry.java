@@ -0,0 +1,209 @@
+package com.foodsphere.schedule;
+
+import com.foodsphere.event.RestaurantChangedEvent;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiled opening schedules of every restaurant, so "open now" and "opens soon" are answered for the
+ * whole catalog with a bit test per restaurant and no string parsing.
+ * <p>
+ * Restaurants whose opening hours are missing or not in the {@link OpeningSchedule} format have no
+ * schedule; their open flag is only changed by hand. The registry is built when the application is ready
+ * and refreshed from {@link RestaurantChangedEvent} after the publishing transaction commits.
+ */
+@Slf4j
+@Component
+public class ScheduleRegistry {
+
+    private static final String SCHEDULES = "SELECT r.id, r.openingHours, r.timeZone FROM Restaurant r";
+
+    private static final String SCHEDULE = SCHEDULES + " WHERE r.id = :id";
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final ZoneId defaultZone;
+
+    private final Map<Long, RestaurantSchedule> schedules = new ConcurrentHashMap<>();
+
+    public ScheduleRegistry(EntityManagerFactory entityManagerFactory,
+                            @Value("${restaurant.default-time-zone:Asia/Kolkata}") String defaultTimeZone) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.defaultZone = ZoneId.of(defaultTimeZone);
+    }
+
+    /**
+     * Compiles opening hours in the given time zone, or in the default zone when none is given.
+     *
+     * @param openingHours the opening hours text, or null
+     * @param timeZone     the IANA time zone id, such as "Asia/Kolkata", or null
+     * @return the compiled schedule, or null if there are no opening hours
+     * @throws IllegalArgumentException if the opening hours or the time zone are not valid
+     */
+    public RestaurantSchedule compile(String openingHours, String timeZone) {
+        ZoneId zone;
+        try {
+            zone = timeZone == null || timeZone.isBlank() ? defaultZone : ZoneId.of(timeZone.strip());
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Unknown time zone: " + timeZone);
+        }
+        if (openingHours == null || openingHours.isBlank()) {
+            return null;
+        }
+        return new RestaurantSchedule(OpeningSchedule.parse(openingHours), zone);
+    }
+
+    public RestaurantSchedule getSchedule(Long restaurantId) {
+        return schedules.get(restaurantId);
+    }
+
+    /**
+     * Returns the restaurants that are closed at the given instant and open within the given minutes,
+     * soonest first.
+     *
+     * @param now     the instant to count from
+     * @param minutes how far ahead to look
+     * @param limit   the maximum number of restaurants
+     * @return restaurant ids with the minutes until they open, soonest first
+     */
+    public List<OpeningSoon> findOpeningWithin(Instant now, int minutes, int limit) {
+        List<OpeningSoon> found = new ArrayList<>();
+        schedules.forEach((restaurantId, schedule) -> {
+            int until = schedule.minutesUntilOpen(now);
+            if (until > 0 && until <= minutes) {
+                found.add(new OpeningSoon(restaurantId, until));
+            }
+        });
+        found.sort(Comparator.comparingInt(OpeningSoon::minutesUntilOpen).thenComparing(OpeningSoon::restaurantId));
+        return found.size() > limit ? List.copyOf(found.subList(0, limit)) : found;
+    }
+
+    /**
+     * Compares every schedule at two instants and returns the restaurants whose schedule opened or
+     * closed in between.
+     */
+    public Transitions transitionsBetween(Instant from, Instant to) {
+        List<Long> opened = new ArrayList<>();
+        List<Long> closed = new ArrayList<>();
+        schedules.forEach((restaurantId, schedule) -> {
+            boolean wasOpen = schedule.isOpenAt(from);
+            boolean isOpen = schedule.isOpenAt(to);
+            if (!wasOpen && isOpen) {
+                opened.add(restaurantId);
+            } else if (wasOpen && !isOpen) {
+                closed.add(restaurantId);
+            }
+        });
+        return new Transitions(opened, closed);
+    }
+
+    /**
+     * Splits the restaurants that have a schedule by whether it is open at the given instant.
+     */
+    public OpenStatus openStatusAt(Instant instant) {
+        List<Long> open = new ArrayList<>();
+        List<Long> closed = new ArrayList<>();
+        schedules.forEach((restaurantId, schedule) -> {
+            if (schedule.isOpenAt(instant)) {
+                open.add(restaurantId);
+            } else {
+                closed.add(restaurantId);
+            }
+        });
+        return new OpenStatus(open, closed);
+    }
+
+    /**
+     * Compiles every schedule when the application is ready, before the other startup listeners run.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void rebuild() {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        int skipped = 0;
+        try {
+            for (Object[] row : entityManager.createQuery(SCHEDULES, Object[].class).getResultList()) {
+                if (!register(row)) {
+                    skipped++;
+                }
+            }
+        } finally {
+            entityManager.close();
+        }
+        log.info("Compiled opening schedules for {} restaurants, {} without usable opening hours",
+                schedules.size(), skipped);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRestaurantChanged(RestaurantChangedEvent event) {
+        Long restaurantId = event.getRestaurantId();
+        schedules.remove(restaurantId);
+
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            entityManager.createQuery(SCHEDULE, Object[].class)
+                    .setParameter("id", restaurantId)
+                    .getResultList()
+                    .forEach(this::register);
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    /**
+     * Compiles and stores the schedule of one row; legacy opening hours that do not parse are skipped.
+     */
+    private boolean register(Object[] row) {
+        Long restaurantId = (Long) row[0];
+        try {
+            RestaurantSchedule schedule = compile((String) row[1], (String) row[2]);
+            if (schedule == null) {
+                return false;
+            }
+            schedules.put(restaurantId, schedule);
+            return true;
+        } catch (IllegalArgumentException e) {
+            log.debug("No schedule for restaurant with ID: {}: {}", restaurantId, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * A restaurant that opens soon, with the minutes until it opens.
+     */
+    public record OpeningSoon(Long restaurantId, int minutesUntilOpen) {
+    }
+
+    /**
+     * Restaurants whose schedule is open and closed at one instant.
+     */
+    public record OpenStatus(List<Long> open, List<Long> closed) {
+    }
+
+    /**
+     * Restaurants whose schedule opened or closed between two instants.
+     */
+    public record Transitions(List<Long> opened, List<Long> closed) {
+
+        public boolean isEmpty() {
+            return opened.isEmpty() && closed.isEmpty();
+        }
+    }
+}
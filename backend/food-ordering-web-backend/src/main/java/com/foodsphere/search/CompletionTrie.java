@@ -0,0 +1,457 @@
+package com.foodsphere.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Prefix tree that answers "best completions for this prefix" by reading a single node.
+ * <p>
+ * Every node keeps the best {@code k} suggestions of its subtree, so a lookup costs one step per typed
+ * character and never visits the subtree. Insertions and removals refresh those lists on the way back up
+ * the path by merging the lists of the node's children, which costs at most {@code k} per child.
+ * <p>
+ * Each suggestion is indexed under its whole normalized text and under every later word of it,
+ * so "Spicy Chicken Wings" is found by typing "spi", "chi" or "win".
+ * <p>
+ * The tree is path-compressed: a run of characters with no branch and no suggestion ending in it is one
+ * node with a multi-character label, so the unshared tail of a name costs a single node. Children are
+ * kept in sorted parallel arrays rather than maps to keep nodes small.
+ * This class is not thread-safe; {@link SuggestionIndex} guards it with a read-write lock.
+ */
+public class CompletionTrie {
+
+    /**
+     * Indexed keys are cut at this length, which also bounds the depth of the tree.
+     */
+    static final int MAX_KEY_LENGTH = 48;
+
+    private static final char[] NO_CHARS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final Suggestion[] NO_SUGGESTIONS = new Suggestion[0];
+
+    /**
+     * Best suggestion first: higher weight, then shorter text, then alphabetical.
+     */
+    static final Comparator<Suggestion> RANKING = Comparator
+            .comparingInt(Suggestion::getWeight).reversed()
+            .thenComparingInt(suggestion -> suggestion.getText().length())
+            .thenComparing(Suggestion::getText)
+            .thenComparing(Suggestion::getType)
+            .thenComparing(Suggestion::getId, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final int topK;
+
+    private final Node root = new Node(NO_CHARS);
+
+    private int nodeCount = 1;
+
+    private int suggestionCount;
+
+    public CompletionTrie(int topK) {
+        if (topK < 1) {
+            throw new IllegalArgumentException("topK must be at least 1");
+        }
+        this.topK = topK;
+    }
+
+    /**
+     * Adds a suggestion under its text and under every later word of its text.
+     */
+    public void add(Suggestion suggestion) {
+        for (String key : keys(suggestion.getText())) {
+            refresh(insert(key, suggestion));
+        }
+        suggestionCount++;
+    }
+
+    /**
+     * Adds many suggestions at once. The top lists are computed once for the whole tree at the end,
+     * which is much cheaper than refreshing the path after every insertion.
+     */
+    public void addAll(Collection<Suggestion> suggestions) {
+        for (Suggestion suggestion : suggestions) {
+            for (String key : keys(suggestion.getText())) {
+                insert(key, suggestion);
+            }
+            suggestionCount++;
+        }
+        for (Node child : root.children) {
+            refreshSubtree(child);
+        }
+    }
+
+    /**
+     * Removes a suggestion that was previously added. The same instance must be passed.
+     */
+    public void remove(Suggestion suggestion) {
+        for (String key : keys(suggestion.getText())) {
+            delete(key, suggestion);
+        }
+        suggestionCount--;
+    }
+
+    /**
+     * Returns the best suggestions whose text, or one of its words, starts with the given prefix.
+     *
+     * @param prefix the text typed so far
+     * @param limit  the maximum number of suggestions, at most the configured top-k
+     * @return the suggestions, best first
+     */
+    public List<Suggestion> complete(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.length() > MAX_KEY_LENGTH) {
+            key = key.substring(0, MAX_KEY_LENGTH);
+        }
+        if (key.isEmpty()) {
+            return List.of();
+        }
+
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            node = node.child(key.charAt(i));
+            if (node == null) {
+                return List.of();
+            }
+            // the prefix may end inside the child's label; the child then holds the completions
+            int compared = Math.min(node.label.length, key.length() - i);
+            for (int j = 0; j < compared; j++) {
+                if (node.label[j] != key.charAt(i + j)) {
+                    return List.of();
+                }
+            }
+            i += node.label.length;
+        }
+
+        Suggestion[] top = node.top;
+        return List.of(Arrays.copyOf(top, Math.min(top.length, Math.max(limit, 0))));
+    }
+
+    /**
+     * Walks the tree and estimates its heap footprint, assuming compressed references.
+     * Empty and shared arrays are not counted.
+     */
+    public Stats stats() {
+        long[] bytes = {0};
+        long[] indexedKeys = {0};
+        walk(root, node -> {
+            bytes[0] += align(12 + 5 * 4)
+                    + charArray(node.label.length)
+                    + charArray(node.keys.length)
+                    + referenceArray(node.children.length)
+                    + (sharesTop(node) ? 0 : referenceArray(node.top.length))
+                    + referenceArray(node.terminal.length);
+            indexedKeys[0] += node.terminal.length;
+        });
+        return new Stats(suggestionCount, indexedKeys[0], nodeCount, bytes[0]);
+    }
+
+    /**
+     * Normalizes text the same way for indexing and lookup: lower case, letters and digits only,
+     * words separated by single spaces.
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+
+        StringBuilder normalized = new StringBuilder(text.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = text.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (Character.isLetterOrDigit(codePoint)) {
+                if (pendingSpace && normalized.length() > 0) {
+                    normalized.append(' ');
+                }
+                normalized.appendCodePoint(Character.toLowerCase(codePoint));
+                pendingSpace = false;
+            } else {
+                pendingSpace = true;
+            }
+        }
+        return normalized.toString();
+    }
+
+    private static List<String> keys(String text) {
+        String normalized = normalize(text);
+        List<String> keys = new ArrayList<>();
+        int start = 0;
+        while (start < normalized.length()) {
+            keys.add(normalized.substring(start, Math.min(normalized.length(), start + MAX_KEY_LENGTH)));
+            int space = normalized.indexOf(' ', start);
+            if (space < 0) {
+                break;
+            }
+            start = space + 1;
+        }
+        return keys;
+    }
+
+    /**
+     * Adds the suggestion to the node for the key, splitting a label where the key leaves it,
+     * and returns the path from the root to that node.
+     */
+    private List<Node> insert(String key, Suggestion suggestion) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int i = 0;
+        while (i < key.length()) {
+            Node child = node.child(key.charAt(i));
+            if (child == null) {
+                child = new Node(key.substring(i).toCharArray());
+                node.putChild(child);
+                nodeCount++;
+                node = child;
+                path.add(node);
+                break;
+            }
+
+            int common = commonPrefix(child.label, key, i);
+            if (common < child.label.length) {
+                Node split = new Node(Arrays.copyOf(child.label, common));
+                child.label = Arrays.copyOfRange(child.label, common, child.label.length);
+                split.putChild(child);
+                node.putChild(split);
+                nodeCount++;
+                child = split;
+            }
+            node = child;
+            path.add(node);
+            i += common;
+        }
+
+        node.terminal = append(node.terminal, suggestion);
+        return path;
+    }
+
+    private void delete(String key, Suggestion suggestion) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int i = 0;
+        while (i < key.length()) {
+            node = node.child(key.charAt(i));
+            if (node == null || commonPrefix(node.label, key, i) != node.label.length) {
+                return;
+            }
+            path.add(node);
+            i += node.label.length;
+        }
+
+        node.terminal = without(node.terminal, suggestion);
+
+        // drop an empty leaf, then fold a node left with one child and nothing of its own into that child
+        int last = path.size() - 1;
+        if (last > 0 && node.terminal.length == 0 && node.children.length == 0) {
+            path.get(last - 1).removeChild(node.label[0]);
+            nodeCount--;
+            path.remove(last);
+            last--;
+        }
+        Node end = path.get(last);
+        if (last > 0 && end.terminal.length == 0 && end.children.length == 1) {
+            end.absorbOnlyChild();
+            nodeCount--;
+        }
+        refresh(path);
+    }
+
+    /**
+     * Recomputes the top suggestions of every node on the path, from the deepest one up.
+     * The root is skipped because an empty prefix is never looked up.
+     */
+    private void refresh(List<Node> path) {
+        for (int depth = path.size() - 1; depth > 0; depth--) {
+            refreshTop(path.get(depth));
+        }
+    }
+
+    private void refreshSubtree(Node node) {
+        for (Node child : node.children) {
+            refreshSubtree(child);
+        }
+        refreshTop(node);
+    }
+
+    /**
+     * Merges the node's own suggestions with its children's top lists. A suggestion indexed under two keys
+     * sharing a prefix reaches a node twice; after sorting the copies are adjacent and only one is kept.
+     * Lists are never modified in place, so a node whose only content is one child shares that child's list.
+     */
+    private void refreshTop(Node node) {
+        if (node.terminal.length == 0 && node.children.length == 1) {
+            node.top = node.children[0].top;
+            return;
+        }
+
+        List<Suggestion> candidates = new ArrayList<>(node.terminal.length + node.children.length * topK);
+        candidates.addAll(Arrays.asList(node.terminal));
+        for (Node child : node.children) {
+            candidates.addAll(Arrays.asList(child.top));
+        }
+        candidates.sort(RANKING);
+
+        List<Suggestion> top = new ArrayList<>(topK);
+        for (Suggestion candidate : candidates) {
+            if (top.size() == topK) {
+                break;
+            }
+            if (top.isEmpty() || top.get(top.size() - 1) != candidate) {
+                top.add(candidate);
+            }
+        }
+        node.top = top.toArray(NO_SUGGESTIONS);
+    }
+
+    private static int commonPrefix(char[] label, String key, int offset) {
+        int max = Math.min(label.length, key.length() - offset);
+        int i = 0;
+        while (i < max && label[i] == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static Suggestion[] append(Suggestion[] suggestions, Suggestion suggestion) {
+        Suggestion[] appended = Arrays.copyOf(suggestions, suggestions.length + 1);
+        appended[suggestions.length] = suggestion;
+        return appended;
+    }
+
+    private static Suggestion[] without(Suggestion[] suggestions, Suggestion suggestion) {
+        for (int i = 0; i < suggestions.length; i++) {
+            if (suggestions[i] == suggestion) {
+                if (suggestions.length == 1) {
+                    return NO_SUGGESTIONS;
+                }
+                Suggestion[] remaining = new Suggestion[suggestions.length - 1];
+                System.arraycopy(suggestions, 0, remaining, 0, i);
+                System.arraycopy(suggestions, i + 1, remaining, i, suggestions.length - i - 1);
+                return remaining;
+            }
+        }
+        return suggestions;
+    }
+
+    private static void walk(Node node, Consumer<Node> visitor) {
+        visitor.accept(node);
+        for (Node child : node.children) {
+            walk(child, visitor);
+        }
+    }
+
+    private static boolean sharesTop(Node node) {
+        return node.children.length == 1 && node.top == node.children[0].top;
+    }
+
+    private static long charArray(int length) {
+        return length == 0 ? 0 : align(16 + 2L * length);
+    }
+
+    private static long referenceArray(int length) {
+        return length == 0 ? 0 : align(16 + 4L * length);
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    /**
+     * Size of the tree: suggestions added, keys they are indexed under, nodes, and estimated bytes.
+     */
+    public record Stats(long suggestions, long indexedKeys, long nodes, long estimatedBytes) {
+
+        /**
+         * Estimated bytes of tree structure per indexed key, not counting the suggestion objects themselves.
+         */
+        public long bytesPerKey() {
+            return indexedKeys == 0 ? 0 : estimatedBytes / indexedKeys;
+        }
+    }
+
+    private static final class Node {
+
+        /**
+         * The characters on the edge from the parent to this node; the first one is the parent's key for it.
+         */
+        private char[] label;
+        private char[] keys = NO_CHARS;
+        private Node[] children = NO_CHILDREN;
+        private Suggestion[] top = NO_SUGGESTIONS;
+        private Suggestion[] terminal = NO_SUGGESTIONS;
+
+        private Node(char[] label) {
+            this.label = label;
+        }
+
+        private Node child(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            return index >= 0 ? children[index] : null;
+        }
+
+        /**
+         * Adds the child, or replaces the child whose label starts with the same character.
+         */
+        private void putChild(Node child) {
+            char c = child.label[0];
+            int index = Arrays.binarySearch(keys, c);
+            if (index >= 0) {
+                children[index] = child;
+                return;
+            }
+
+            index = -index - 1;
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(keys, index, newKeys, index + 1, keys.length - index);
+            System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+            newKeys[index] = c;
+            newChildren[index] = child;
+            keys = newKeys;
+            children = newChildren;
+        }
+
+        private void removeChild(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            if (index < 0) {
+                return;
+            }
+            if (keys.length == 1) {
+                keys = NO_CHARS;
+                children = NO_CHILDREN;
+                return;
+            }
+            char[] newKeys = new char[keys.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(keys, index + 1, newKeys, index, keys.length - index - 1);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+            keys = newKeys;
+            children = newChildren;
+        }
+
+        /**
+         * Takes over the only child, appending its label, so the path stays compressed.
+         * The node keeps its identity and its first label character, so the parent's key for it is unchanged.
+         */
+        private void absorbOnlyChild() {
+            Node child = children[0];
+            char[] merged = Arrays.copyOf(label, label.length + child.label.length);
+            System.arraycopy(child.label, 0, merged, label.length, child.label.length);
+            label = merged;
+            keys = child.keys;
+            children = child.children;
+            terminal = child.terminal;
+            top = child.top;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.foodsphere.search;
+
+import com.foodsphere.event.FoodChangedEvent;
+import com.foodsphere.event.MenuImportedEvent;
+import com.foodsphere.event.RestaurantChangedEvent;
+import com.foodsphere.event.RestaurantOpenStatusChangedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory typo-tolerant search over dish names and descriptions.
+ * <p>
+ * The index is built from the database when the application is ready and then kept up to date from
+ * {@link FoodChangedEvent}, {@link MenuImportedEvent}, {@link RestaurantChangedEvent} and
+ * {@link RestaurantOpenStatusChangedEvent}, after the publishing transaction commits: a changed food is read
+ * again and moved in place, imported foods are read in one query, and the dishes of a deleted restaurant are
+ * dropped. Searches never touch the database and share a read lock; updates take
+ * the write lock only for the in-memory change.
+ * <p>
+ * The size of the index is published as {@code search.dishes.*} gauges.
+ */
+@Slf4j
+@Component
+public class DishSearchIndex {
+
+    // the inner join skips foods without a restaurant and, through its @SQLRestriction, of deleted restaurants
+    private static final String DISH_ROWS =
+            "SELECT f.id, r.id, f.name, f.description, f.available FROM Food f JOIN f.restaurant r";
+
+    private static final String DISH_ROW = DISH_ROWS + " WHERE f.id = :id";
+
+    private static final String IMPORTED_DISH_ROWS = DISH_ROWS + " WHERE f.id IN :ids";
+
+    private static final String OPEN_RESTAURANTS = "SELECT r.id FROM Restaurant r WHERE r.open = true";
+
+    private static final String RESTAURANT_OPEN = "SELECT r.open FROM Restaurant r WHERE r.id = :id";
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private FuzzyTextIndex index = new FuzzyTextIndex();
+
+    public DishSearchIndex(EntityManagerFactory entityManagerFactory, MeterRegistry meterRegistry) {
+        this.entityManagerFactory = entityManagerFactory;
+
+        Gauge.builder("search.dishes.indexed", this, DishSearchIndex::size)
+                .description("Dishes in the typo-tolerant search index")
+                .register(meterRegistry);
+        Gauge.builder("search.dishes.vocabulary", this, DishSearchIndex::vocabularySize)
+                .description("Distinct words in the typo-tolerant search index")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the best matching dishes for a possibly misspelled query.
+     *
+     * @param query the text typed by the customer
+     * @param limit the maximum number of dishes
+     * @return the food ids with their score, best first
+     */
+    public List<FuzzyTextIndex.Hit> search(String query, int limit) {
+        lock.readLock().lock();
+        try {
+            return index.search(query, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int vocabularySize() {
+        lock.readLock().lock();
+        try {
+            return index.vocabularySize();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Builds the index from the database and swaps it in.
+     * Changes published while the rows are being read may be missed until the next rebuild.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long started = System.nanoTime();
+        FuzzyTextIndex newIndex = new FuzzyTextIndex();
+
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            entityManager.createQuery(OPEN_RESTAURANTS, Long.class).getResultStream()
+                    .forEach(restaurantId -> newIndex.setRestaurantOpen(restaurantId, true));
+            entityManager.createQuery(DISH_ROWS, Object[].class).getResultStream()
+                    .forEach(row -> put(newIndex, row));
+        } finally {
+            entityManager.close();
+        }
+
+        lock.writeLock().lock();
+        try {
+            index = newIndex;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Built the dish search index in {} ms: {} dishes, {} distinct words",
+                (System.nanoTime() - started) / 1_000_000, newIndex.size(), newIndex.vocabularySize());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFoodChanged(FoodChangedEvent event) {
+        Long foodId = event.getFoodId();
+        Object[] row;
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            List<Object[]> rows = entityManager.createQuery(DISH_ROW, Object[].class)
+                    .setParameter("id", foodId)
+                    .getResultList();
+            row = rows.isEmpty() ? null : rows.get(0);
+        } finally {
+            entityManager.close();
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (row == null) {
+                index.remove(foodId);
+            } else {
+                put(index, row);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.debug("Updated dish search index for food with ID: {}", foodId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMenuImported(MenuImportedEvent event) {
+        List<Object[]> rows;
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            rows = entityManager.createQuery(IMPORTED_DISH_ROWS, Object[].class)
+                    .setParameter("ids", event.getFoodIds())
+                    .getResultList();
+        } finally {
+            entityManager.close();
+        }
+
+        lock.writeLock().lock();
+        try {
+            rows.forEach(row -> put(index, row));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.debug("Added {} imported foods to the dish search index", rows.size());
+    }
+
+    /**
+     * Follows the open flag of a changed restaurant, and drops the dishes of a deleted one.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRestaurantChanged(RestaurantChangedEvent event) {
+        Long restaurantId = event.getRestaurantId();
+        List<Boolean> open;
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            open = entityManager.createQuery(RESTAURANT_OPEN, Boolean.class)
+                    .setParameter("id", restaurantId)
+                    .getResultList();
+        } finally {
+            entityManager.close();
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (open.isEmpty()) {
+                index.removeRestaurant(restaurantId);
+            } else {
+                index.setRestaurantOpen(restaurantId, Boolean.TRUE.equals(open.get(0)));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onRestaurantOpenStatusChanged(RestaurantOpenStatusChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            event.getOpenedRestaurantIds().forEach(restaurantId -> index.setRestaurantOpen(restaurantId, true));
+            event.getClosedRestaurantIds().forEach(restaurantId -> index.setRestaurantOpen(restaurantId, false));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void put(FuzzyTextIndex target, Object[] row) {
+        target.put((Long) row[0], (Long) row[1], (String) row[2], (String) row[3], Boolean.TRUE.equals(row[4]));
+    }
+}
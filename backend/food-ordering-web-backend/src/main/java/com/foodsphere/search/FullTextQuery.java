@@ -0,0 +1,53 @@
+package com.foodsphere.search;
+
+import java.util.Locale;
+import java.util.StringJoiner;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Turns free text typed by a user into a PostgreSQL {@code tsquery} for the full-text search indexes.
+ * <p>
+ * Only letters and digits are kept, so the result is always valid {@code to_tsquery} input whatever
+ * the user typed. Every word must match, and the last word also matches as a prefix, so results
+ * show up while the user is still typing.
+ */
+public final class FullTextQuery {
+
+    private static final Pattern WORD = Pattern.compile("[\\p{L}\\p{N}]+");
+
+    private static final int MAX_WORDS = 8;
+
+    private FullTextQuery() {
+    }
+
+    /**
+     * Builds the tsquery text for the given keyword.
+     *
+     * @param keyword the text typed by the user
+     * @return the tsquery, or null if the keyword contains no words
+     */
+    public static String toPrefixQuery(String keyword) {
+        if (keyword == null) {
+            return null;
+        }
+
+        Matcher matcher = WORD.matcher(keyword.toLowerCase(Locale.ROOT));
+        StringJoiner query = new StringJoiner(" & ");
+        String last = null;
+        int words = 0;
+        while (matcher.find() && words < MAX_WORDS) {
+            if (last != null) {
+                query.add(last);
+            }
+            last = matcher.group();
+            words++;
+        }
+
+        if (last == null) {
+            return null;
+        }
+        query.add(last + ":*");
+        return query.toString();
+    }
+}
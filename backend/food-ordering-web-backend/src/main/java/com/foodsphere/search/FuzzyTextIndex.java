@@ -0,0 +1,662 @@
+package com.foodsphere.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Typo-tolerant full-text index over dish names and descriptions, ranked with BM25.
+ * <p>
+ * Every distinct word of the indexed text is a term with a postings list of the dishes containing it,
+ * kept sorted by internal document number. A query word is expanded to the terms within a small edit
+ * distance of it: candidate terms are found through a trigram index over the vocabulary, using the fact
+ * that each edit destroys at most three trigrams, and are then checked with a bounded Damerau-Levenshtein
+ * distance. Short words must match exactly, longer ones allow one and then two edits.
+ * <p>
+ * Dishes are scored with BM25 over a single field in which every word of the name counts
+ * {@value #NAME_WEIGHT} times, so a match in the name outweighs one in the description. A term reached
+ * through a typo contributes a fraction of its score. The score is then boosted for available dishes and
+ * for dishes of open restaurants.
+ * <p>
+ * Dishes are added, changed and removed in place: removing a dish takes it out of the postings of its own
+ * terms and frees its document number for the next dish, so the index never needs compaction. A change
+ * that only flips availability updates a single bit.
+ * This class is not thread-safe; {@link DishSearchIndex} guards it with a read-write lock. Searches only
+ * read the index and may run concurrently.
+ */
+public class FuzzyTextIndex {
+
+    static final int NAME_WEIGHT = 3;
+
+    static final double AVAILABLE_BOOST = 1.5;
+
+    static final double OPEN_RESTAURANT_BOOST = 1.25;
+
+    /**
+     * Score factor of a term by its edit distance from the query word.
+     */
+    private static final double[] EDIT_WEIGHTS = {1.0, 0.6, 0.35};
+
+    private static final double K1 = 1.2;
+
+    private static final double B = 0.75;
+
+    /**
+     * Longer words are cut, which bounds the cost of the edit distance check.
+     */
+    static final int MAX_TERM_LENGTH = 32;
+
+    private static final int[] NO_TERMS = new int[0];
+
+    // vocabulary, by term number
+    private final Map<String, Integer> termNumbers = new HashMap<>();
+    private final List<String> terms = new ArrayList<>();
+    private final List<Postings> postings = new ArrayList<>();
+    private final Map<Integer, TermList> trigramTerms = new HashMap<>();
+
+    // dishes, by document number
+    private long[] ids = new long[1024];
+    private long[] restaurantIds = new long[1024];
+    private int[] lengths = new int[1024];
+    private String[] names = new String[1024];
+    private String[] descriptions = new String[1024];
+    private int[][] documentTerms = new int[1024][];
+    private final BitSet available = new BitSet();
+    private final LongIntMap documentsById = new LongIntMap();
+    private int[] freeDocuments = new int[16];
+    private int freeCount;
+    private int documentCount;
+    private long totalLength;
+
+    private final Set<Long> openRestaurants = new HashSet<>();
+
+    /**
+     * Scratch space of searches, reused so a search allocates nothing proportional to the index.
+     * At most one per processor is kept; concurrent searches beyond that allocate their own.
+     */
+    private final BlockingQueue<Scratch> scratchPool =
+            new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors());
+
+    /**
+     * Adds a dish or replaces the indexed text and availability of an existing one.
+     */
+    public void put(long id, long restaurantId, String name, String description, boolean isAvailable) {
+        int document = documentsById.get(id);
+        if (document >= 0 && restaurantIds[document] == restaurantId
+                && Objects.equals(names[document], name) && Objects.equals(descriptions[document], description)) {
+            available.set(document, isAvailable);
+            return;
+        }
+        if (document >= 0) {
+            remove(id);
+        }
+
+        document = allocateDocument();
+        ids[document] = id;
+        restaurantIds[document] = restaurantId;
+        names[document] = name;
+        descriptions[document] = description;
+        available.set(document, isAvailable);
+        documentsById.put(id, document);
+
+        Map<Integer, int[]> frequencies = new HashMap<>();
+        int length = count(frequencies, name, 0) * NAME_WEIGHT + count(frequencies, description, 1);
+        lengths[document] = length;
+        totalLength += length;
+
+        int[] documentTermNumbers = new int[frequencies.size()];
+        int next = 0;
+        for (Map.Entry<Integer, int[]> entry : frequencies.entrySet()) {
+            int[] frequency = entry.getValue();
+            postings.get(entry.getKey())
+                    .add(document, Math.min(frequency[0], 0xFFFF) << 16 | Math.min(frequency[1], 0xFFFF));
+            documentTermNumbers[next++] = entry.getKey();
+        }
+        documentTerms[document] = documentTermNumbers;
+    }
+
+    /**
+     * Removes a dish; removing a dish that is not indexed does nothing.
+     */
+    public void remove(long id) {
+        int document = documentsById.remove(id);
+        if (document < 0) {
+            return;
+        }
+
+        for (int term : documentTerms[document]) {
+            postings.get(term).remove(document);
+        }
+        totalLength -= lengths[document];
+        documentTerms[document] = NO_TERMS;
+        names[document] = null;
+        descriptions[document] = null;
+        available.clear(document);
+
+        if (freeCount == freeDocuments.length) {
+            freeDocuments = Arrays.copyOf(freeDocuments, freeCount * 2);
+        }
+        freeDocuments[freeCount++] = document;
+    }
+
+    /**
+     * Removes every dish of a restaurant.
+     */
+    public void removeRestaurant(long restaurantId) {
+        List<Long> removed = new ArrayList<>();
+        for (int document = 0; document < documentCount; document++) {
+            if (documentTerms[document] != NO_TERMS && documentTerms[document] != null
+                    && restaurantIds[document] == restaurantId) {
+                removed.add(ids[document]);
+            }
+        }
+        removed.forEach(this::remove);
+        openRestaurants.remove(restaurantId);
+    }
+
+    public void setRestaurantOpen(long restaurantId, boolean open) {
+        if (open) {
+            openRestaurants.add(restaurantId);
+        } else {
+            openRestaurants.remove(restaurantId);
+        }
+    }
+
+    /**
+     * Number of indexed dishes.
+     */
+    public int size() {
+        return documentsById.size();
+    }
+
+    /**
+     * Number of distinct words in the vocabulary, including words no dish uses any more.
+     */
+    public int vocabularySize() {
+        return terms.size();
+    }
+
+    /**
+     * Returns the best matching dishes for a query, best first.
+     *
+     * @param query the text typed by the customer, possibly misspelled
+     * @param limit the maximum number of dishes
+     * @return the dish ids with their score, best first
+     */
+    public List<Hit> search(String query, int limit) {
+        int live = size();
+        if (live == 0 || limit < 1) {
+            return List.of();
+        }
+
+        Scratch work = scratchPool.poll();
+        if (work == null) {
+            work = new Scratch();
+        }
+        work.ensureCapacity(documentCount, terms.size());
+        double averageLength = Math.max(1.0, (double) totalLength / live);
+
+        try {
+            for (String word : words(query)) {
+                for (Expansion expansion : expand(word, work)) {
+                    Postings termPostings = postings.get(expansion.term());
+                    if (termPostings.size == 0) {
+                        continue;
+                    }
+                    double idf = Math.log(1 + (live - termPostings.size + 0.5) / (termPostings.size + 0.5));
+                    double weight = expansion.weight() * idf;
+                    for (int i = 0; i < termPostings.size; i++) {
+                        int document = termPostings.documents[i];
+                        int packed = termPostings.frequencies[i];
+                        int frequency = (packed >>> 16) * NAME_WEIGHT + (packed & 0xFFFF);
+                        double norm = K1 * (1 - B + B * lengths[document] / averageLength);
+                        work.add(document, (float) (weight * frequency * (K1 + 1) / (frequency + norm)));
+                    }
+                }
+            }
+            return topHits(work, limit);
+        } finally {
+            work.reset();
+            scratchPool.offer(work);
+        }
+    }
+
+    private List<Hit> topHits(Scratch work, int limit) {
+        PriorityQueue<Hit> best = new PriorityQueue<>(limit + 1, Hit.RANKING.reversed());
+        for (int i = 0; i < work.touchedCount; i++) {
+            int document = work.touched[i];
+            double score = work.scores[document];
+            if (available.get(document)) {
+                score *= AVAILABLE_BOOST;
+            }
+            if (openRestaurants.contains(restaurantIds[document])) {
+                score *= OPEN_RESTAURANT_BOOST;
+            }
+
+            Hit hit = new Hit(ids[document], score);
+            if (best.size() < limit) {
+                best.add(hit);
+            } else if (Hit.RANKING.compare(hit, best.peek()) < 0) {
+                best.poll();
+                best.add(hit);
+            }
+        }
+
+        List<Hit> hits = new ArrayList<>(best);
+        hits.sort(Hit.RANKING);
+        return hits;
+    }
+
+    /**
+     * Finds the vocabulary terms close enough to a query word, with the weight of each.
+     */
+    private List<Expansion> expand(String word, Scratch work) {
+        List<Expansion> expansions = new ArrayList<>();
+        Integer exact = termNumbers.get(word);
+        if (exact != null) {
+            expansions.add(new Expansion(exact, EDIT_WEIGHTS[0]));
+        }
+
+        int maxEdits = maxEdits(word.length());
+        if (maxEdits == 0) {
+            return expansions;
+        }
+
+        // a term within maxEdits shares at least (trigrams - 3 * maxEdits) trigrams with the word
+        int[] wordTrigrams = distinctTrigrams(word);
+        int minShared = Math.max(1, wordTrigrams.length - 3 * maxEdits);
+        try {
+            for (int trigram : wordTrigrams) {
+                TermList candidates = trigramTerms.get(trigram);
+                if (candidates == null) {
+                    continue;
+                }
+                for (int i = 0; i < candidates.size; i++) {
+                    work.countTrigram(candidates.terms[i]);
+                }
+            }
+            for (int i = 0; i < work.candidateCount; i++) {
+                int term = work.candidates[i];
+                if (work.trigramCounts[term] < minShared || (exact != null && term == exact)) {
+                    continue;
+                }
+                String candidate = terms.get(term);
+                if (Math.abs(candidate.length() - word.length()) > maxEdits) {
+                    continue;
+                }
+                int distance = distance(word, candidate, maxEdits);
+                if (distance <= maxEdits) {
+                    expansions.add(new Expansion(term, EDIT_WEIGHTS[distance]));
+                }
+            }
+        } finally {
+            work.resetCandidates();
+        }
+        return expansions;
+    }
+
+    static int maxEdits(int length) {
+        if (length <= 3) {
+            return 0;
+        }
+        return length <= 6 ? 1 : 2;
+    }
+
+    /**
+     * Damerau-Levenshtein distance (optimal string alignment) between two words, or {@code max + 1}
+     * as soon as it is known to exceed {@code max}.
+     */
+    static int distance(String a, String b, int max) {
+        int n = a.length();
+        int m = b.length();
+        int[] previousPrevious = new int[m + 1];
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            previous[j] = j;
+        }
+
+        for (int i = 1; i <= n; i++) {
+            current[0] = i;
+            int rowMinimum = current[0];
+            for (int j = 1; j <= m; j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previousPrevious[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMinimum = Math.min(rowMinimum, value);
+            }
+            if (rowMinimum > max) {
+                return max + 1;
+            }
+            int[] recycled = previousPrevious;
+            previousPrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[m], max + 1);
+    }
+
+    /**
+     * Splits text into index words, normalized the same way as the typeahead index.
+     */
+    static List<String> words(String text) {
+        String normalized = CompletionTrie.normalize(text);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+
+        Set<String> words = new LinkedHashSet<>();
+        for (String word : normalized.split(" ")) {
+            words.add(word.length() > MAX_TERM_LENGTH ? word.substring(0, MAX_TERM_LENGTH) : word);
+        }
+        return new ArrayList<>(words);
+    }
+
+    /**
+     * Adds the words of one field to the term frequencies of a dish and returns the number of words.
+     */
+    private int count(Map<Integer, int[]> frequencies, String text, int field) {
+        String normalized = CompletionTrie.normalize(text);
+        if (normalized.isEmpty()) {
+            return 0;
+        }
+
+        String[] fieldWords = normalized.split(" ");
+        for (String word : fieldWords) {
+            String term = word.length() > MAX_TERM_LENGTH ? word.substring(0, MAX_TERM_LENGTH) : word;
+            frequencies.computeIfAbsent(termNumber(term), number -> new int[2])[field]++;
+        }
+        return fieldWords.length;
+    }
+
+    private int termNumber(String term) {
+        Integer number = termNumbers.get(term);
+        if (number != null) {
+            return number;
+        }
+
+        int newNumber = terms.size();
+        termNumbers.put(term, newNumber);
+        terms.add(term);
+        postings.add(new Postings());
+        for (int trigram : distinctTrigrams(term)) {
+            trigramTerms.computeIfAbsent(trigram, key -> new TermList()).add(newNumber);
+        }
+        return newNumber;
+    }
+
+    /**
+     * Distinct trigrams of a word padded with a boundary mark on both sides, so a word of n characters has
+     * up to n trigrams. Each trigram is packed into an int from the low 10 bits of its characters; collisions
+     * between distant characters only add candidates, which the edit distance check removes.
+     */
+    static int[] distinctTrigrams(String word) {
+        String padded = "\u0001" + word + "\u0001";
+        int[] trigrams = new int[word.length()];
+        int count = 0;
+        for (int i = 0; i < trigrams.length; i++) {
+            int trigram = (padded.charAt(i) & 0x3FF) << 20 | (padded.charAt(i + 1) & 0x3FF) << 10
+                    | (padded.charAt(i + 2) & 0x3FF);
+            boolean seen = false;
+            for (int j = 0; j < count && !seen; j++) {
+                seen = trigrams[j] == trigram;
+            }
+            if (!seen) {
+                trigrams[count++] = trigram;
+            }
+        }
+        return count == trigrams.length ? trigrams : Arrays.copyOf(trigrams, count);
+    }
+
+    private int allocateDocument() {
+        if (freeCount > 0) {
+            return freeDocuments[--freeCount];
+        }
+        if (documentCount == ids.length) {
+            int capacity = documentCount * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            restaurantIds = Arrays.copyOf(restaurantIds, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            names = Arrays.copyOf(names, capacity);
+            descriptions = Arrays.copyOf(descriptions, capacity);
+            documentTerms = Arrays.copyOf(documentTerms, capacity);
+        }
+        return documentCount++;
+    }
+
+    /**
+     * A matching dish and its score.
+     */
+    public record Hit(long id, double score) {
+
+        /**
+         * Best first: higher score, then lower id so equal scores come out in a stable order.
+         */
+        static final Comparator<Hit> RANKING = Comparator
+                .comparingDouble(Hit::score).reversed()
+                .thenComparingLong(Hit::id);
+    }
+
+    private record Expansion(int term, double weight) {
+    }
+
+    /**
+     * Numbers of the terms containing one trigram.
+     */
+    private static final class TermList {
+
+        private int[] terms = new int[4];
+        private int size;
+
+        void add(int term) {
+            if (size == terms.length) {
+                terms = Arrays.copyOf(terms, size * 2);
+            }
+            terms[size++] = term;
+        }
+    }
+
+    /**
+     * Documents containing a term, sorted by document number, with the packed name and description
+     * frequencies of the term in each.
+     */
+    private static final class Postings {
+
+        private int[] documents = new int[2];
+        private int[] frequencies = new int[2];
+        private int size;
+
+        void add(int document, int frequency) {
+            if (size == documents.length) {
+                documents = Arrays.copyOf(documents, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            // documents are appended in increasing order while building, so this is usually the end
+            int at = size == 0 || documents[size - 1] < document
+                    ? size
+                    : -Arrays.binarySearch(documents, 0, size, document) - 1;
+            System.arraycopy(documents, at, documents, at + 1, size - at);
+            System.arraycopy(frequencies, at, frequencies, at + 1, size - at);
+            documents[at] = document;
+            frequencies[at] = frequency;
+            size++;
+        }
+
+        void remove(int document) {
+            int at = Arrays.binarySearch(documents, 0, size, document);
+            if (at < 0) {
+                return;
+            }
+            System.arraycopy(documents, at + 1, documents, at, size - at - 1);
+            System.arraycopy(frequencies, at + 1, frequencies, at, size - at - 1);
+            size--;
+        }
+    }
+
+    /**
+     * Score accumulators of one search, and trigram counters of one word expansion.
+     */
+    private static final class Scratch {
+
+        private float[] scores = new float[0];
+        private int[] touched = new int[64];
+        private int touchedCount;
+
+        private int[] trigramCounts = new int[0];
+        private int[] candidates = new int[64];
+        private int candidateCount;
+
+        void ensureCapacity(int documents, int terms) {
+            if (scores.length < documents) {
+                scores = new float[Math.max(documents, scores.length * 2)];
+            }
+            if (trigramCounts.length < terms) {
+                trigramCounts = new int[Math.max(terms, trigramCounts.length * 2)];
+            }
+        }
+
+        void add(int document, float score) {
+            if (scores[document] == 0) {
+                if (touchedCount == touched.length) {
+                    touched = Arrays.copyOf(touched, touchedCount * 2);
+                }
+                touched[touchedCount++] = document;
+            }
+            scores[document] += score;
+        }
+
+        void countTrigram(int term) {
+            if (trigramCounts[term]++ == 0) {
+                if (candidateCount == candidates.length) {
+                    candidates = Arrays.copyOf(candidates, candidateCount * 2);
+                }
+                candidates[candidateCount++] = term;
+            }
+        }
+
+        void reset() {
+            for (int i = 0; i < touchedCount; i++) {
+                scores[touched[i]] = 0;
+            }
+            touchedCount = 0;
+            resetCandidates();
+        }
+
+        void resetCandidates() {
+            for (int i = 0; i < candidateCount; i++) {
+                trigramCounts[candidates[i]] = 0;
+            }
+            candidateCount = 0;
+        }
+    }
+
+    /**
+     * Open-addressing map from dish id to document number, without boxing a million keys.
+     */
+    private static final class LongIntMap {
+
+        private static final long EMPTY = Long.MIN_VALUE;
+
+        private long[] keys = filled(16);
+        private int[] values = new int[16];
+        private int size;
+
+        int get(long key) {
+            int mask = keys.length - 1;
+            for (int slot = mix(key) & mask; keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+            }
+            return -1;
+        }
+
+        void put(long key, int value) {
+            if ((size + 1) * 4 > keys.length * 3) {
+                resize();
+            }
+            int mask = keys.length - 1;
+            int slot = mix(key) & mask;
+            while (keys[slot] != EMPTY && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (keys[slot] == EMPTY) {
+                size++;
+            }
+            keys[slot] = key;
+            values[slot] = value;
+        }
+
+        /**
+         * Removes a key and returns its value, or -1 if it was absent.
+         * Later entries of the probe run are shifted back so lookups never stop at the freed slot.
+         */
+        int remove(long key) {
+            int mask = keys.length - 1;
+            int slot = mix(key) & mask;
+            while (keys[slot] != key) {
+                if (keys[slot] == EMPTY) {
+                    return -1;
+                }
+                slot = (slot + 1) & mask;
+            }
+            int value = values[slot];
+            size--;
+
+            int free = slot;
+            for (int next = (free + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+                int home = mix(keys[next]) & mask;
+                // move the entry back if its home slot is not between the free slot and its current slot
+                if (((next - home) & mask) >= ((next - free) & mask)) {
+                    keys[free] = keys[next];
+                    values[free] = values[next];
+                    free = next;
+                }
+            }
+            keys[free] = EMPTY;
+            return value;
+        }
+
+        int size() {
+            return size;
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = filled(oldKeys.length * 2);
+            values = new int[oldKeys.length * 2];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static long[] filled(int capacity) {
+            long[] array = new long[capacity];
+            Arrays.fill(array, EMPTY);
+            return array;
+        }
+
+        private static int mix(long key) {
+            long hash = key * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32));
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.foodsphere.search;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Uniform latitude/longitude grid for radius searches over points.
+ * <p>
+ * Each point lives in the cell that contains it, so a radius search only looks at the cells overlapping
+ * the circle's bounding box and measures the exact great-circle distance for the points found there.
+ * Cells are created on demand, so empty areas cost nothing. Longitude wraps around the antimeridian.
+ * <p>
+ * This class is not thread-safe; {@link RestaurantLocationIndex} guards it with a read-write lock.
+ */
+public class GeoGrid {
+
+    static final double EARTH_RADIUS_KM = 6371.0088;
+
+    private static final double KM_PER_DEGREE_LATITUDE = Math.PI * EARTH_RADIUS_KM / 180;
+
+    private final double cellDegrees;
+
+    private final int longitudeCells;
+
+    private final Map<Long, List<Point>> cells = new HashMap<>();
+
+    private final Map<Long, Point> points = new HashMap<>();
+
+    public GeoGrid(double cellDegrees) {
+        if (!(cellDegrees > 0 && cellDegrees <= 10)) {
+            throw new IllegalArgumentException("cellDegrees must be in (0, 10]");
+        }
+        this.cellDegrees = cellDegrees;
+        this.longitudeCells = (int) Math.ceil(360 / cellDegrees);
+    }
+
+    /**
+     * Adds a point, replacing the point with the same id if there is one.
+     */
+    public void put(Point point) {
+        remove(point.id());
+        points.put(point.id(), point);
+        cells.computeIfAbsent(cellOf(point.latitude(), point.longitude()), cell -> new ArrayList<>(4)).add(point);
+    }
+
+    /**
+     * Removes the point with the given id, if there is one.
+     */
+    public void remove(Long id) {
+        Point point = points.remove(id);
+        if (point == null) {
+            return;
+        }
+
+        long cell = cellOf(point.latitude(), point.longitude());
+        List<Point> cellPoints = cells.get(cell);
+        cellPoints.remove(point);
+        if (cellPoints.isEmpty()) {
+            cells.remove(cell);
+        }
+    }
+
+    /**
+     * Changes whether the point with the given id is open, if there is one.
+     */
+    public void setOpen(Long id, boolean open) {
+        Point point = points.get(id);
+        if (point != null && point.open() != open) {
+            put(new Point(id, point.latitude(), point.longitude(), open));
+        }
+    }
+
+    public int size() {
+        return points.size();
+    }
+
+    /**
+     * Returns the points within the radius of the given location, nearest first.
+     *
+     * @param latitude  the latitude of the center, in degrees
+     * @param longitude the longitude of the center, in degrees
+     * @param radiusKm  the radius, in kilometers
+     * @param limit     the maximum number of points to return
+     * @param openOnly  whether to skip points that are not open
+     * @return the matching points with their distance, nearest first
+     */
+    public List<Neighbour> within(double latitude, double longitude, double radiusKm, int limit, boolean openOnly) {
+        double latitudeSpan = radiusKm / KM_PER_DEGREE_LATITUDE;
+        double minLatitude = Math.max(-90, latitude - latitudeSpan);
+        double maxLatitude = Math.min(90, latitude + latitudeSpan);
+
+        // the circle is widest in longitude at the edge of the box closest to a pole
+        double widestLatitude = Math.max(Math.abs(minLatitude), Math.abs(maxLatitude));
+        double cosine = Math.cos(Math.toRadians(widestLatitude));
+        double longitudeSpan = cosine < 1e-9 ? 180 : Math.min(180, latitudeSpan / cosine);
+
+        int minRow = row(minLatitude);
+        int maxRow = row(maxLatitude);
+        int firstColumn = (int) Math.floor((longitude - longitudeSpan + 180) / cellDegrees);
+        int lastColumn = (int) Math.floor((longitude + longitudeSpan + 180) / cellDegrees);
+        if (lastColumn - firstColumn + 1 >= longitudeCells) {
+            firstColumn = 0;
+            lastColumn = longitudeCells - 1;
+        }
+
+        List<Neighbour> found = new ArrayList<>();
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                List<Point> cellPoints = cells.get(key(row, Math.floorMod(column, longitudeCells)));
+                if (cellPoints == null) {
+                    continue;
+                }
+                for (Point point : cellPoints) {
+                    if (openOnly && !point.open()) {
+                        continue;
+                    }
+                    double distance = distanceKm(latitude, longitude, point.latitude(), point.longitude());
+                    if (distance <= radiusKm) {
+                        found.add(new Neighbour(point, distance));
+                    }
+                }
+            }
+        }
+
+        found.sort((a, b) -> Double.compare(a.distanceKm(), b.distanceKm()));
+        return found.size() > limit ? List.copyOf(found.subList(0, limit)) : found;
+    }
+
+    /**
+     * Great-circle distance between two locations, using the haversine formula.
+     */
+    static double distanceKm(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double deltaLatitude = Math.toRadians(latitude2 - latitude1);
+        double deltaLongitude = Math.toRadians(longitude2 - longitude1);
+        double a = Math.sin(deltaLatitude / 2) * Math.sin(deltaLatitude / 2)
+                + Math.cos(Math.toRadians(latitude1)) * Math.cos(Math.toRadians(latitude2))
+                * Math.sin(deltaLongitude / 2) * Math.sin(deltaLongitude / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private long cellOf(double latitude, double longitude) {
+        int column = Math.floorMod((int) Math.floor((longitude + 180) / cellDegrees), longitudeCells);
+        return key(row(latitude), column);
+    }
+
+    private int row(double latitude) {
+        return (int) Math.floor((latitude + 90) / cellDegrees);
+    }
+
+    private static long key(int row, int column) {
+        return ((long) row << 32) | (column & 0xffffffffL);
+    }
+
+    /**
+     * A located item, such as a restaurant, with whether it is currently open.
+     */
+    public record Point(Long id, double latitude, double longitude, boolean open) {
+    }
+
+    /**
+     * A point found by a radius search, with its distance from the center.
+     */
+    public record Neighbour(Point point, double distanceKm) {
+    }
+}
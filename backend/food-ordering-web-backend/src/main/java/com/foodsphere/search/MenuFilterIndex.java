@@ -0,0 +1,276 @@
+package com.foodsphere.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bitset index of restaurant menus over the menu filters: vegetarian, seasonal, availability and category.
+ * <p>
+ * Each restaurant has its own dense food ordinals, assigned in food ID order, and one bitset per attribute
+ * and per category name over those ordinals, stored as plain {@code long} words. A filter combination is
+ * answered by intersecting the matching words one at a time and walking the set bits, so a query allocates
+ * only the list of IDs it returns, in ID order.
+ * <p>
+ * Foods are added, changed and removed in place. A removed food leaves its ordinal empty until the menu has
+ * more empty ordinals than foods and is compacted; a new food with an ID lower than the last one of its menu
+ * also compacts the menu, to keep the ordinals in ID order.
+ * This class is not thread-safe; {@link RestaurantMenuIndex} guards it with a read-write lock. Queries only
+ * read the index and may run concurrently.
+ */
+public class MenuFilterIndex {
+
+    private static final int MIN_COMPACT_SIZE = 64;
+
+    private final Map<Long, Menu> menus = new HashMap<>();
+
+    private final Map<Long, Long> restaurantsByFood = new HashMap<>();
+
+    /**
+     * The menu filters of one request. A filter left false or null does not restrict the menu;
+     * asking for both vegetarian and non-vegetarian foods matches nothing.
+     *
+     * @param vegetarian only vegetarian foods
+     * @param nonVeg     only non-vegetarian foods
+     * @param seasonal   only seasonal foods
+     * @param available  only available, or only unavailable, foods; null for both
+     * @param category   only foods of the category with this name; null for all
+     */
+    public record Filter(boolean vegetarian, boolean nonVeg, boolean seasonal, Boolean available, String category) {
+    }
+
+    /**
+     * Adds a food, or moves it to its current restaurant and attributes.
+     *
+     * @param category the name of the food's category, or null when it has none
+     */
+    public void put(long foodId, long restaurantId, boolean vegetarian, boolean seasonal, boolean available,
+                    String category) {
+        Long previousRestaurantId = restaurantsByFood.put(foodId, restaurantId);
+        if (previousRestaurantId != null && previousRestaurantId != restaurantId) {
+            removeFromMenu(previousRestaurantId, foodId);
+        }
+        menus.computeIfAbsent(restaurantId, id -> new Menu())
+                .put(foodId, vegetarian, seasonal, available, category);
+    }
+
+    public void remove(long foodId) {
+        Long restaurantId = restaurantsByFood.remove(foodId);
+        if (restaurantId != null) {
+            removeFromMenu(restaurantId, foodId);
+        }
+    }
+
+    public void removeRestaurant(long restaurantId) {
+        Menu menu = menus.remove(restaurantId);
+        if (menu != null) {
+            menu.ordinals.keySet().forEach(restaurantsByFood::remove);
+        }
+    }
+
+    /**
+     * Returns the IDs of the foods of a restaurant that match the filter, in ID order.
+     *
+     * @param offset the number of matching foods to skip
+     * @param limit  the maximum number of IDs to return
+     */
+    public List<Long> select(long restaurantId, Filter filter, long offset, int limit) {
+        Menu menu = menus.get(restaurantId);
+        if (menu == null || limit <= 0 || filter.vegetarian() && filter.nonVeg()) {
+            return List.of();
+        }
+        long[] category = null;
+        if (filter.category() != null) {
+            category = menu.categories.get(filter.category());
+            if (category == null) {
+                return List.of();
+            }
+        }
+
+        List<Long> ids = new ArrayList<>(Math.min(limit, menu.count));
+        long skip = offset;
+        int words = (menu.size + 63) >>> 6;
+        for (int w = 0; w < words; w++) {
+            long bits = menu.live[w];
+            if (filter.vegetarian()) {
+                bits &= menu.vegetarian[w];
+            } else if (filter.nonVeg()) {
+                bits &= ~menu.vegetarian[w];
+            }
+            if (filter.seasonal()) {
+                bits &= menu.seasonal[w];
+            }
+            if (filter.available() != null) {
+                bits &= filter.available() ? menu.available[w] : ~menu.available[w];
+            }
+            if (category != null) {
+                bits &= category[w];
+            }
+
+            int matches = Long.bitCount(bits);
+            if (skip >= matches) {
+                skip -= matches;
+                continue;
+            }
+            while (bits != 0) {
+                int ordinal = (w << 6) | Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                if (skip > 0) {
+                    skip--;
+                } else {
+                    ids.add(menu.ids[ordinal]);
+                    if (ids.size() == limit) {
+                        return ids;
+                    }
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Returns the number of foods in the index.
+     */
+    public int size() {
+        return restaurantsByFood.size();
+    }
+
+    public int restaurantCount() {
+        return menus.size();
+    }
+
+    private void removeFromMenu(long restaurantId, long foodId) {
+        Menu menu = menus.get(restaurantId);
+        if (menu != null && menu.remove(foodId) && menu.count == 0) {
+            menus.remove(restaurantId);
+        }
+    }
+
+    /**
+     * The bitsets of one restaurant. Every bitset has the same number of words, grown together.
+     */
+    private static final class Menu {
+
+        private final Map<Long, Integer> ordinals = new HashMap<>();
+        private final Map<String, long[]> categories = new HashMap<>();
+        private long[] ids = new long[64];
+        private String[] categoryOf = new String[64];
+        private long[] live = new long[1];
+        private long[] vegetarian = new long[1];
+        private long[] seasonal = new long[1];
+        private long[] available = new long[1];
+        // ordinals handed out, empty ones included
+        private int size;
+        // foods in the menu
+        private int count;
+
+        void put(long foodId, boolean isVegetarian, boolean isSeasonal, boolean isAvailable, String category) {
+            Integer ordinal = ordinals.get(foodId);
+            if (ordinal == null) {
+                if (size > 0 && foodId < ids[size - 1]) {
+                    append(foodId);
+                    compact();
+                    ordinal = ordinals.get(foodId);
+                } else {
+                    ordinal = append(foodId);
+                }
+            }
+            assign(vegetarian, ordinal, isVegetarian);
+            assign(seasonal, ordinal, isSeasonal);
+            assign(available, ordinal, isAvailable);
+            setCategory(ordinal, category);
+        }
+
+        boolean remove(long foodId) {
+            Integer ordinal = ordinals.remove(foodId);
+            if (ordinal == null) {
+                return false;
+            }
+            assign(live, ordinal, false);
+            assign(vegetarian, ordinal, false);
+            assign(seasonal, ordinal, false);
+            assign(available, ordinal, false);
+            setCategory(ordinal, null);
+            count--;
+            if (size >= MIN_COMPACT_SIZE && size - count > count) {
+                compact();
+            }
+            return true;
+        }
+
+        private int append(long foodId) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                categoryOf = Arrays.copyOf(categoryOf, size * 2);
+            }
+            int words = (size >>> 6) + 1;
+            if (words > live.length) {
+                live = Arrays.copyOf(live, words * 2);
+                vegetarian = Arrays.copyOf(vegetarian, words * 2);
+                seasonal = Arrays.copyOf(seasonal, words * 2);
+                available = Arrays.copyOf(available, words * 2);
+                categories.replaceAll((name, bits) -> Arrays.copyOf(bits, words * 2));
+            }
+            int ordinal = size++;
+            ids[ordinal] = foodId;
+            assign(live, ordinal, true);
+            ordinals.put(foodId, ordinal);
+            count++;
+            return ordinal;
+        }
+
+        private void setCategory(int ordinal, String category) {
+            String previous = categoryOf[ordinal];
+            if (previous != null && !previous.equals(category)) {
+                long[] bits = categories.get(previous);
+                assign(bits, ordinal, false);
+                if (Arrays.stream(bits).allMatch(word -> word == 0)) {
+                    categories.remove(previous);
+                }
+            }
+            categoryOf[ordinal] = category;
+            if (category != null) {
+                assign(categories.computeIfAbsent(category, name -> new long[live.length]), ordinal, true);
+            }
+        }
+
+        /**
+         * Renumbers the foods densely in ID order.
+         */
+        private void compact() {
+            long[] foodIds = ordinals.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+            Menu compacted = new Menu();
+            for (long foodId : foodIds) {
+                int ordinal = ordinals.get(foodId);
+                compacted.put(foodId, test(vegetarian, ordinal), test(seasonal, ordinal),
+                        test(available, ordinal), categoryOf[ordinal]);
+            }
+            ordinals.clear();
+            ordinals.putAll(compacted.ordinals);
+            categories.clear();
+            categories.putAll(compacted.categories);
+            ids = compacted.ids;
+            categoryOf = compacted.categoryOf;
+            live = compacted.live;
+            vegetarian = compacted.vegetarian;
+            seasonal = compacted.seasonal;
+            available = compacted.available;
+            size = compacted.size;
+            count = compacted.count;
+        }
+
+        private static void assign(long[] bits, int ordinal, boolean value) {
+            if (value) {
+                bits[ordinal >>> 6] |= 1L << ordinal;
+            } else {
+                bits[ordinal >>> 6] &= ~(1L << ordinal);
+            }
+        }
+
+        private static boolean test(long[] bits, int ordinal) {
+            return (bits[ordinal >>> 6] & (1L << ordinal)) != 0;
+        }
+    }
+}
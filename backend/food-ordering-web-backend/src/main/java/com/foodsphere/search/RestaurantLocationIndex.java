@@ -0,0 +1,158 @@
+package com.foodsphere.search;
+
+import com.foodsphere.event.RestaurantChangedEvent;
+import com.foodsphere.event.RestaurantOpenStatusChangedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory spatial index of restaurant locations for "restaurants near me" searches.
+ * <p>
+ * Only restaurants whose address has coordinates are indexed. The index is built from the database when
+ * the application is ready and then kept up to date from {@link RestaurantChangedEvent}, after the
+ * publishing transaction commits, so creating, moving, opening, closing or deleting a restaurant is
+ * reflected without a rebuild. Scheduled openings and closings only flip the open flag in place. Lookups never touch the database.
+ */
+@Slf4j
+@Component
+public class RestaurantLocationIndex {
+
+    private static final String LOCATIONS = """
+            SELECT r.id, a.latitude, a.longitude, r.open FROM Restaurant r JOIN r.address a
+            WHERE a.latitude IS NOT NULL AND a.longitude IS NOT NULL
+            """;
+
+    private static final String LOCATION = LOCATIONS + " AND r.id = :id";
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final double cellDegrees;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private GeoGrid grid;
+
+    public RestaurantLocationIndex(EntityManagerFactory entityManagerFactory,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${search.nearby.cell-degrees:0.02}") double cellDegrees) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.cellDegrees = cellDegrees;
+        this.grid = new GeoGrid(cellDegrees);
+
+        Gauge.builder("search.nearby.restaurants", this, RestaurantLocationIndex::size)
+                .description("Restaurants with coordinates in the location index")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the indexed restaurants within the radius of the given location, nearest first.
+     *
+     * @param latitude  the latitude of the center, in degrees
+     * @param longitude the longitude of the center, in degrees
+     * @param radiusKm  the radius, in kilometers
+     * @param limit     the maximum number of restaurants
+     * @param openOnly  whether to return only open restaurants
+     * @return the restaurant locations with their distance, nearest first
+     */
+    public List<GeoGrid.Neighbour> within(double latitude, double longitude, double radiusKm, int limit,
+                                          boolean openOnly) {
+        lock.readLock().lock();
+        try {
+            return grid.within(latitude, longitude, radiusKm, limit, openOnly);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return grid.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Builds the index from the database and swaps it in.
+     * Changes published while the rows are being read may be missed until the next rebuild.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        GeoGrid newGrid = new GeoGrid(cellDegrees);
+
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            entityManager.createQuery(LOCATIONS, Object[].class).getResultStream()
+                    .forEach(row -> newGrid.put(toPoint(row)));
+        } finally {
+            entityManager.close();
+        }
+
+        lock.writeLock().lock();
+        try {
+            grid = newGrid;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Built the restaurant location index with {} restaurants", newGrid.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRestaurantChanged(RestaurantChangedEvent event) {
+        Long restaurantId = event.getRestaurantId();
+        GeoGrid.Point point = loadLocation(restaurantId);
+
+        lock.writeLock().lock();
+        try {
+            if (point == null) {
+                grid.remove(restaurantId);
+            } else {
+                grid.put(point);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.debug("Updated location of restaurant with ID: {}", restaurantId);
+    }
+
+    @EventListener
+    public void onRestaurantOpenStatusChanged(RestaurantOpenStatusChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            event.getOpenedRestaurantIds().forEach(restaurantId -> grid.setOpen(restaurantId, true));
+            event.getClosedRestaurantIds().forEach(restaurantId -> grid.setOpen(restaurantId, false));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private GeoGrid.Point loadLocation(Long restaurantId) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            List<Object[]> rows = entityManager.createQuery(LOCATION, Object[].class)
+                    .setParameter("id", restaurantId)
+                    .getResultList();
+            return rows.isEmpty() ? null : toPoint(rows.get(0));
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    private static GeoGrid.Point toPoint(Object[] row) {
+        return new GeoGrid.Point((Long) row[0], ((Number) row[1]).doubleValue(), ((Number) row[2]).doubleValue(),
+                Boolean.TRUE.equals(row[3]));
+    }
+}
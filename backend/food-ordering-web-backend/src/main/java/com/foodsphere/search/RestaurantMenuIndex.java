@@ -0,0 +1,298 @@
+package com.foodsphere.search;
+
+import com.foodsphere.event.FoodChangedEvent;
+import com.foodsphere.event.IngredientChangedEvent;
+import com.foodsphere.event.MenuImportedEvent;
+import com.foodsphere.event.RestaurantChangedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory menu filter index of every restaurant, answering which foods of a menu match a filter combination.
+ * <p>
+ * The index is built from the database when the application is ready and then kept up to date from
+ * {@link FoodChangedEvent}, {@link MenuImportedEvent}, {@link IngredientChangedEvent} and
+ * {@link RestaurantChangedEvent}, after the publishing transaction commits: a created, deleted or toggled food is
+ * read again and its bits are set in place, imported foods are read in one query, a change of stock reloads the
+ * menu of its restaurant, and the foods of a deleted restaurant are dropped.
+ * A food counts as available when it is offered and all its ingredients are in stock.
+ * Queries never touch the database and share a read lock; updates take the write lock only for the in-memory
+ * change. Updates, and the rebuild, run one at a time from the read of their rows to the change of the index, so a
+ * row read later is never overwritten by one read earlier.
+ * <p>
+ * The listeners run before those of other components, so the menu snapshots dropped for the same change are
+ * never rebuilt from the index as it was before the change.
+ * The size of the index is published as {@code menu.filter.*} gauges.
+ */
+@Slf4j
+@Component
+public class RestaurantMenuIndex {
+
+    private static final String MENU_ROWS = """
+            SELECT f.id, f.restaurant.id, f.isVegetarian, f.isSeasonal, f.available, f.stockAvailable, c.name
+            FROM Food f
+            LEFT JOIN f.foodCategory c
+            WHERE f.restaurant IS NOT NULL
+            """;
+
+    private static final String MENU_ROW = MENU_ROWS + " AND f.id = :id";
+
+    private static final String IMPORTED_MENU_ROWS = MENU_ROWS + " AND f.id IN :ids ORDER BY f.id";
+
+    private static final String RESTAURANT_MENU_ROWS = MENU_ROWS + " AND f.restaurant.id = :restaurantId ORDER BY f.id";
+
+    private static final String RESTAURANT_EXISTS = "SELECT r.id FROM Restaurant r WHERE r.id = :id";
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Lock updates = new ReentrantLock();
+
+    private MenuFilterIndex index = new MenuFilterIndex();
+
+    private volatile boolean ready;
+
+    public RestaurantMenuIndex(EntityManagerFactory entityManagerFactory, MeterRegistry meterRegistry) {
+        this.entityManagerFactory = entityManagerFactory;
+
+        Gauge.builder("menu.filter.foods", this, RestaurantMenuIndex::size)
+                .description("Foods in the menu filter index")
+                .register(meterRegistry);
+        Gauge.builder("menu.filter.restaurants", this, RestaurantMenuIndex::restaurantCount)
+                .description("Restaurant menus in the menu filter index")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns whether the index has been built; until then menus have to be filtered in the database.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Returns the IDs of the foods of a restaurant that match the filter, in ID order.
+     *
+     * @param restaurantId the ID of the restaurant
+     * @param filter       the menu filters
+     * @param offset       the number of matching foods to skip
+     * @param limit        the maximum number of IDs to return
+     * @return the food IDs
+     */
+    public List<Long> select(Long restaurantId, MenuFilterIndex.Filter filter, long offset, int limit) {
+        lock.readLock().lock();
+        try {
+            return index.select(restaurantId, filter, offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int restaurantCount() {
+        lock.readLock().lock();
+        try {
+            return index.restaurantCount();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Builds the index from the database and swaps it in.
+     * Changes published while the rows are being read wait for the new index and are applied to it.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        runExclusively(this::build);
+    }
+
+    private void build() {
+        long started = System.nanoTime();
+        MenuFilterIndex newIndex = new MenuFilterIndex();
+
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            entityManager.createQuery(MENU_ROWS + " ORDER BY f.id", Object[].class).getResultStream()
+                    .forEach(row -> put(newIndex, row));
+        } finally {
+            entityManager.close();
+        }
+
+        lock.writeLock().lock();
+        try {
+            index = newIndex;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Built the menu filter index in {} ms: {} foods of {} restaurants",
+                (System.nanoTime() - started) / 1_000_000, newIndex.size(), newIndex.restaurantCount());
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFoodChanged(FoodChangedEvent event) {
+        runExclusively(() -> applyFoodChanged(event));
+    }
+
+    private void applyFoodChanged(FoodChangedEvent event) {
+        Long foodId = event.getFoodId();
+        Object[] row;
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            List<Object[]> rows = entityManager.createQuery(MENU_ROW, Object[].class)
+                    .setParameter("id", foodId)
+                    .getResultList();
+            row = rows.isEmpty() ? null : rows.get(0);
+        } finally {
+            entityManager.close();
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (row == null) {
+                index.remove(foodId);
+            } else {
+                put(index, row);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.debug("Updated menu filter index for food with ID: {}", foodId);
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMenuImported(MenuImportedEvent event) {
+        runExclusively(() -> applyMenuImported(event));
+    }
+
+    private void applyMenuImported(MenuImportedEvent event) {
+        List<Object[]> rows;
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            rows = entityManager.createQuery(IMPORTED_MENU_ROWS, Object[].class)
+                    .setParameter("ids", event.getFoodIds())
+                    .getResultList();
+        } finally {
+            entityManager.close();
+        }
+
+        lock.writeLock().lock();
+        try {
+            rows.forEach(row -> put(index, row));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.debug("Added {} imported foods to the menu filter index", rows.size());
+    }
+
+    /**
+     * Reads the whole menu of the restaurant again: a change of stock can change the availability of any number
+     * of its foods.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onIngredientChanged(IngredientChangedEvent event) {
+        runExclusively(() -> applyIngredientChanged(event));
+    }
+
+    private void applyIngredientChanged(IngredientChangedEvent event) {
+        Long restaurantId = event.getRestaurantId();
+        if (restaurantId == null) {
+            return;
+        }
+        List<Object[]> rows;
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            rows = entityManager.createQuery(RESTAURANT_MENU_ROWS, Object[].class)
+                    .setParameter("restaurantId", restaurantId)
+                    .getResultList();
+        } finally {
+            entityManager.close();
+        }
+
+        lock.writeLock().lock();
+        try {
+            index.removeRestaurant(restaurantId);
+            rows.forEach(row -> put(index, row));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.debug("Reloaded menu filter index for restaurant with ID: {}", restaurantId);
+    }
+
+    /**
+     * Drops the foods of a restaurant that no longer exists.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRestaurantChanged(RestaurantChangedEvent event) {
+        runExclusively(() -> applyRestaurantChanged(event));
+    }
+
+    private void applyRestaurantChanged(RestaurantChangedEvent event) {
+        Long restaurantId = event.getRestaurantId();
+        boolean exists;
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            exists = !entityManager.createQuery(RESTAURANT_EXISTS, Long.class)
+                    .setParameter("id", restaurantId)
+                    .getResultList()
+                    .isEmpty();
+        } finally {
+            entityManager.close();
+        }
+
+        if (!exists) {
+            lock.writeLock().lock();
+            try {
+                index.removeRestaurant(restaurantId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Runs an update, from the read of its rows to the change of the index, while no other update runs.
+     */
+    private void runExclusively(Runnable update) {
+        updates.lock();
+        try {
+            update.run();
+        } finally {
+            updates.unlock();
+        }
+    }
+
+    private static void put(MenuFilterIndex target, Object[] row) {
+        target.put((Long) row[0], (Long) row[1], Boolean.TRUE.equals(row[2]), Boolean.TRUE.equals(row[3]),
+                Boolean.TRUE.equals(row[4]) && Boolean.TRUE.equals(row[5]), (String) row[6]);
+    }
+}
@@ -0,0 +1,24 @@
+package com.foodsphere.search;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A completion offered while the user types in the search box.
+ * Restaurants and foods carry their id so the client can open them directly; cuisines have no id.
+ */
+@Getter
+@AllArgsConstructor
+public class Suggestion {
+
+    private final SuggestionType type;
+    private final Long id;
+    private final String text;
+
+    /**
+     * Ranks suggestions that share a prefix; for cuisines it is the number of restaurants serving it.
+     */
+    @JsonIgnore
+    private final int weight;
+}
@@ -0,0 +1,339 @@
+package com.foodsphere.search;
+
+import com.foodsphere.event.FoodChangedEvent;
+import com.foodsphere.event.MenuImportedEvent;
+import com.foodsphere.event.RestaurantChangedEvent;
+import com.foodsphere.event.RestaurantOpenStatusChangedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory typeahead index over restaurant names, cuisine types and dish names.
+ * <p>
+ * Restaurants are suggested individually, open ones first. Cuisines and dishes are suggested once per
+ * distinct name, ranked by how many restaurants serve the cuisine or how many foods carry the dish name,
+ * so "Chicken Biryani" appears once however many restaurants sell it.
+ * <p>
+ * The index is built from the database when the application is ready and then kept up to date from
+ * {@link RestaurantChangedEvent}, {@link FoodChangedEvent} and {@link MenuImportedEvent}, after the publishing
+ * transaction commits.
+ * Lookups never touch the database. Readers share a read lock; updates take the write lock, which is
+ * held only for the in-memory change.
+ * <p>
+ * The size of the index is published as {@code search.suggest.*} gauges, including the estimated bytes
+ * of tree structure per indexed key.
+ */
+@Slf4j
+@Component
+public class SuggestionIndex {
+
+    private static final String RESTAURANT_ROWS = "SELECT r.id, r.name, r.cuisineType, r.open FROM Restaurant r";
+
+    private static final String RESTAURANT_ROW = RESTAURANT_ROWS + " WHERE r.id = :id";
+
+    private static final String DISH_NAMES = "SELECT f.name, COUNT(f) FROM Food f GROUP BY f.name";
+
+    private static final long STATS_MAX_AGE_NANOS = 60_000_000_000L;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final int topK;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private CompletionTrie trie;
+
+    /**
+     * Indexed restaurants by id, with the cuisine each one was counted under.
+     */
+    private Map<Long, IndexedRestaurant> restaurants = new HashMap<>();
+
+    /**
+     * Cuisine and dish suggestions by normalized name; their weight is the number of restaurants or foods.
+     */
+    private Map<String, Suggestion> cuisines = new HashMap<>();
+    private Map<String, Suggestion> dishes = new HashMap<>();
+
+    private volatile CompletionTrie.Stats stats;
+    private volatile long statsTakenAt;
+
+    public SuggestionIndex(EntityManagerFactory entityManagerFactory,
+                           MeterRegistry meterRegistry,
+                           @Value("${search.suggest.top-k:10}") int topK) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.topK = topK;
+        this.trie = new CompletionTrie(topK);
+        this.stats = trie.stats();
+
+        Gauge.builder("search.suggest.suggestions", this, index -> index.stats().suggestions())
+                .description("Restaurants, cuisines and dish names in the typeahead index")
+                .register(meterRegistry);
+        Gauge.builder("search.suggest.nodes", this, index -> index.stats().nodes())
+                .register(meterRegistry);
+        Gauge.builder("search.suggest.memory", this, index -> index.stats().estimatedBytes())
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("search.suggest.memory.per_key", this, index -> index.stats().bytesPerKey())
+                .description("Estimated bytes of tree structure per indexed key")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the best completions for the text typed so far.
+     *
+     * @param prefix the text typed so far
+     * @param limit  the maximum number of suggestions; values above the configured top-k are capped
+     * @return the suggestions, best first
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        lock.readLock().lock();
+        try {
+            return trie.complete(prefix, Math.min(limit, topK));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the size of the index, recomputed at most once a minute.
+     */
+    public CompletionTrie.Stats stats() {
+        if (System.nanoTime() - statsTakenAt > STATS_MAX_AGE_NANOS) {
+            lock.readLock().lock();
+            try {
+                stats = trie.stats();
+                statsTakenAt = System.nanoTime();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * Builds the index from the database and swaps it in.
+     * Changes published while the rows are being read may be missed until the next rebuild.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long started = System.nanoTime();
+
+        Map<Long, IndexedRestaurant> newRestaurants = new HashMap<>();
+        Map<String, Suggestion> newCuisines = new HashMap<>();
+        Map<String, Suggestion> newDishes = new HashMap<>();
+
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            entityManager.createQuery(RESTAURANT_ROWS, Object[].class).getResultStream().forEach(row -> {
+                IndexedRestaurant restaurant = toIndexedRestaurant(row);
+                newRestaurants.put(restaurant.suggestion().getId(), restaurant);
+                tally(newCuisines, SuggestionType.CUISINE, restaurant.cuisineType(), 1);
+            });
+            entityManager.createQuery(DISH_NAMES, Object[].class).getResultStream().forEach(row ->
+                    tally(newDishes, SuggestionType.FOOD, (String) row[0], ((Number) row[1]).intValue()));
+        } finally {
+            entityManager.close();
+        }
+
+        List<Suggestion> suggestions = new ArrayList<>(newRestaurants.size() + newCuisines.size() + newDishes.size());
+        newRestaurants.values().forEach(restaurant -> suggestions.add(restaurant.suggestion()));
+        suggestions.addAll(newCuisines.values());
+        suggestions.addAll(newDishes.values());
+
+        CompletionTrie newTrie = new CompletionTrie(topK);
+        newTrie.addAll(suggestions);
+        CompletionTrie.Stats newStats = newTrie.stats();
+
+        lock.writeLock().lock();
+        try {
+            trie = newTrie;
+            restaurants = newRestaurants;
+            cuisines = newCuisines;
+            dishes = newDishes;
+            stats = newStats;
+            statsTakenAt = System.nanoTime();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        log.info("Built the suggestion index in {} ms: {} suggestions under {} keys, {} nodes, ~{} bytes per key",
+                (System.nanoTime() - started) / 1_000_000, newStats.suggestions(), newStats.indexedKeys(),
+                newStats.nodes(), newStats.bytesPerKey());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRestaurantChanged(RestaurantChangedEvent event) {
+        Long restaurantId = event.getRestaurantId();
+        IndexedRestaurant current = loadRestaurant(restaurantId);
+
+        lock.writeLock().lock();
+        try {
+            IndexedRestaurant previous = current == null
+                    ? restaurants.remove(restaurantId)
+                    : restaurants.put(restaurantId, current);
+            if (previous != null) {
+                trie.remove(previous.suggestion());
+                uncount(cuisines, previous.cuisineType(), 1);
+            }
+            if (current != null) {
+                trie.add(current.suggestion());
+                count(cuisines, SuggestionType.CUISINE, current.cuisineType(), 1);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.debug("Updated suggestions for restaurant with ID: {}", restaurantId);
+    }
+
+    /**
+     * Re-ranks restaurants opened or closed on schedule; nothing but their weight changes.
+     */
+    @EventListener
+    public void onRestaurantOpenStatusChanged(RestaurantOpenStatusChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            event.getOpenedRestaurantIds().forEach(restaurantId -> setOpen(restaurantId, true));
+            event.getClosedRestaurantIds().forEach(restaurantId -> setOpen(restaurantId, false));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFoodChanged(FoodChangedEvent event) {
+        String previousKey = CompletionTrie.normalize(event.getPreviousName());
+        String key = CompletionTrie.normalize(event.getName());
+        if (previousKey.equals(key)) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            uncount(dishes, event.getPreviousName(), 1);
+            count(dishes, SuggestionType.FOOD, event.getName(), 1);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.debug("Updated dish suggestions for food with ID: {}", event.getFoodId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMenuImported(MenuImportedEvent event) {
+        lock.writeLock().lock();
+        try {
+            event.getNames().forEach(name -> count(dishes, SuggestionType.FOOD, name, 1));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.debug("Added {} imported dishes to the suggestions", event.getNames().size());
+    }
+
+    private void setOpen(Long restaurantId, boolean open) {
+        IndexedRestaurant previous = restaurants.get(restaurantId);
+        if (previous == null) {
+            return;
+        }
+
+        Suggestion suggestion = previous.suggestion();
+        Suggestion updated = new Suggestion(suggestion.getType(), suggestion.getId(), suggestion.getText(), open ? 1 : 0);
+        restaurants.put(restaurantId, new IndexedRestaurant(updated, previous.cuisineType()));
+        trie.remove(suggestion);
+        trie.add(updated);
+    }
+
+    private IndexedRestaurant loadRestaurant(Long restaurantId) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            List<Object[]> rows = entityManager.createQuery(RESTAURANT_ROW, Object[].class)
+                    .setParameter("id", restaurantId)
+                    .getResultList();
+            return rows.isEmpty() ? null : toIndexedRestaurant(rows.get(0));
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    private static IndexedRestaurant toIndexedRestaurant(Object[] row) {
+        Long id = (Long) row[0];
+        String name = (String) row[1];
+        String cuisineType = (String) row[2];
+        boolean open = Boolean.TRUE.equals(row[3]);
+        return new IndexedRestaurant(new Suggestion(SuggestionType.RESTAURANT, id, name, open ? 1 : 0), cuisineType);
+    }
+
+    /**
+     * Adds to the weight of a name-based suggestion in a map that is not indexed yet.
+     */
+    private static void tally(Map<String, Suggestion> suggestions, SuggestionType type, String text, int delta) {
+        String key = CompletionTrie.normalize(text);
+        if (!key.isEmpty()) {
+            suggestions.merge(key, new Suggestion(type, null, text.strip(), delta), (previous, added) ->
+                    new Suggestion(type, null, previous.getText(), previous.getWeight() + delta));
+        }
+    }
+
+    /**
+     * Adds to the weight of an indexed name-based suggestion, creating it if needed.
+     * Suggestions are immutable, so the old one is swapped for a new one in the tree.
+     */
+    private void count(Map<String, Suggestion> suggestions, SuggestionType type, String text, int delta) {
+        String key = CompletionTrie.normalize(text);
+        if (key.isEmpty()) {
+            return;
+        }
+
+        Suggestion previous = suggestions.get(key);
+        Suggestion updated = previous == null
+                ? new Suggestion(type, null, text.strip(), delta)
+                : new Suggestion(type, null, previous.getText(), previous.getWeight() + delta);
+        replace(suggestions, key, previous, updated);
+    }
+
+    private void uncount(Map<String, Suggestion> suggestions, String text, int delta) {
+        String key = CompletionTrie.normalize(text);
+        Suggestion previous = suggestions.get(key);
+        if (previous == null) {
+            return;
+        }
+
+        int weight = previous.getWeight() - delta;
+        Suggestion updated = weight > 0
+                ? new Suggestion(previous.getType(), null, previous.getText(), weight)
+                : null;
+        replace(suggestions, key, previous, updated);
+    }
+
+    private void replace(Map<String, Suggestion> suggestions, String key, Suggestion previous, Suggestion updated) {
+        if (updated == null) {
+            suggestions.remove(key);
+        } else {
+            suggestions.put(key, updated);
+        }
+
+        if (previous != null) {
+            trie.remove(previous);
+        }
+        if (updated != null) {
+            trie.add(updated);
+        }
+    }
+
+    private record IndexedRestaurant(Suggestion suggestion, String cuisineType) {
+    }
+}
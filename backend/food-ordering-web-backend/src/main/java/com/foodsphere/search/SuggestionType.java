@@ -0,0 +1,10 @@
+package com.foodsphere.search;
+
+/**
+ * What a search suggestion points to.
+ */
+public enum SuggestionType {
+    RESTAURANT,
+    CUISINE,
+    FOOD
+}
@@ -6,11 +6,11 @@ import com.foodsphere.request.AddCartItemRequest;
 
 public interface CartService {
 
-    public CartItem addItemToCart(AddCartItemRequest request, String jwt )throws Exception;
+    public CartItem addItemToCart(AddCartItemRequest request, Long userId) throws Exception;
 
     public CartItem updateCartItemQuantity(Long cartItemId, int quantity) throws Exception;
 
-    public Cart removeItemFromCart(Long cartItemId, String jwt) throws Exception;
+    public Cart removeItemFromCart(Long cartItemId, Long userId) throws Exception;
 
     public Long calculateCartTotals(Cart cart) throws Exception;
 
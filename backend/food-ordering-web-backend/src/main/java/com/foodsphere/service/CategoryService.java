@@ -6,7 +6,7 @@ import java.util.List;
 
 public interface CategoryService {
 
-    public Category createCategory(String name, Long userId) throws Exception;
+    public Category createCategory(String name, Long restaurantId) throws Exception;
 
     public List<Category> findCategoryByRestaurantId(Long restaurantId) throws Exception;
 
@@ -4,6 +4,7 @@ import com.foodsphere.model.Category;
 import com.foodsphere.model.Food;
 import com.foodsphere.model.Restaurant;
 import com.foodsphere.request.CreateFoodRequest;
+import org.springframework.data.domain.Pageable;
 
 import java.util.List;
 
@@ -14,9 +15,12 @@ public interface FoodService {
     public void deleteFood(Long foodId) throws Exception;
 
     public List<Food> getRestaurantsFood(Long restaurantId, boolean isVegetarian, boolean isNonVeg,
-                                         boolean isSeasonal, String foodCategory);
+                                         boolean isSeasonal, Boolean available, String foodCategory,
+                                         Pageable pageable);
 
-    public List<Food> searchFood(String keyword);
+    public List<Food> searchFood(String keyword, int page, int size);
+
+    public List<Food> searchFoodFuzzy(String query, int limit);
 
     public Food findFoodById(Long foodId) throws Exception;
 
@@ -1,9 +1,11 @@
 package com.foodsphere.service;
 
+import com.foodsphere.model.CartItem;
 import com.foodsphere.model.IngredientCategory;
 import com.foodsphere.model.IngredientsItem;
 
 import java.util.List;
+import java.util.Map;
 
 public interface IngredientsService {
 
@@ -18,4 +20,10 @@ public interface IngredientsService {
     public List<IngredientsItem> findRestaurantIngredients(Long restaurantId) throws Exception;
 
     public IngredientsItem updateStock(Long id) throws Exception;
+
+    public IngredientsItem updateQuantity(Long id, Integer quantity) throws Exception;
+
+    public Map<Long, Integer> reserveIngredients(List<CartItem> items) throws Exception;
+
+    public void releaseIngredients(Map<Long, Integer> reserved);
 }
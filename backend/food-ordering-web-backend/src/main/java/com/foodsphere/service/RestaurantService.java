@@ -1,7 +1,11 @@
 package com.foodsphere.service;
 
+import com.foodsphere.dto.NearbyRestaurant;
+import com.foodsphere.dto.OpeningSoonRestaurant;
 import com.foodsphere.dto.RestaurantDto;
+import com.foodsphere.dto.RestaurantSummary;
 import com.foodsphere.model.Restaurant;
+import com.foodsphere.model.RestaurantPurgeJob;
 import com.foodsphere.model.User;
 import com.foodsphere.request.CreateRestaurantRequest;
 
@@ -13,17 +17,32 @@ public interface RestaurantService {
 
     public Restaurant updateRestaurant(Long restaurantId, CreateRestaurantRequest updateCreateRestaurantRequest) throws Exception;
 
-    public void deleteRestaurant(Long restaurantId) throws Exception;
+    public RestaurantPurgeJob deleteRestaurant(Long restaurantId) throws Exception;
 
-    public List<Restaurant> getAllRestaurant();
+    public RestaurantPurgeJob getPurgeJob(Long jobId) throws Exception;
 
-    public List<Restaurant> searchRestaurants(String keyword);
+    public List<Restaurant> getAllRestaurant(boolean openNow);
+
+    public List<RestaurantSummary> getRestaurantSummaries(Long afterId, int size);
+
+    public List<Restaurant> searchRestaurants(String keyword, int page, int size);
+
+    public List<NearbyRestaurant> findNearbyRestaurants(double latitude, double longitude, double radiusKm,
+                                                        int limit, boolean openOnly);
+
+    public List<OpeningSoonRestaurant> findRestaurantsOpeningSoon(int withinMinutes, int limit);
 
     public Restaurant findRestaurantById(Long restaurantId) throws Exception;
 
     public Restaurant findRestaurantByUserId(Long userId) throws Exception;
 
-    public RestaurantDto addToFavourites(Long restaurantId, User user) throws Exception;
+    public boolean isOwnedBy(Long restaurantId, Long userId);
+
+    public RestaurantDto addToFavourites(Long restaurantId, Long userId) throws Exception;
+
+    public List<RestaurantSummary> getFavouriteRestaurants(Long userId, int page, int size);
+
+    public List<RestaurantDto> getFavourites(Long userId);
 
     public Restaurant updateRestaurantStatus(Long restaurantId) throws Exception;
 }
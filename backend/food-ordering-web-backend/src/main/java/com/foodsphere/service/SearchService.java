@@ -0,0 +1,10 @@
+package com.foodsphere.service;
+
+import com.foodsphere.search.Suggestion;
+
+import java.util.List;
+
+public interface SearchService {
+
+    public List<Suggestion> suggest(String prefix, int limit);
+}
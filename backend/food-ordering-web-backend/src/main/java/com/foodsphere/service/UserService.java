@@ -7,4 +7,6 @@ public interface UserService {
     public User findUserByJwt(String jwt) throws Exception;
 
     public User findUserByEmail(String email) throws Exception;
+
+    public User findUserById(Long userId) throws Exception;
 }
\ No newline at end of file
@@ -3,21 +3,32 @@ package com.foodsphere.service.impl;
 import com.foodsphere.model.Cart;
 import com.foodsphere.model.CartItem;
 import com.foodsphere.model.Food;
-import com.foodsphere.model.User;
 import com.foodsphere.repository.CartItemRepository;
 import com.foodsphere.repository.CartRepository;
 import com.foodsphere.request.AddCartItemRequest;
 import com.foodsphere.service.CartService;
 import com.foodsphere.service.FoodService;
-import com.foodsphere.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.TreeSet;
 
 /**
  * Implementation of the CartService interface, providing business logic for managing shopping carts.
+ * <p>
+ * Every change to the items also adds its difference to the cart's running total and item count, in the same
+ * transaction, with a single update of the cart row; no change loads the cart or walks its items.
  */
 @Slf4j
 @RequiredArgsConstructor
@@ -25,56 +36,79 @@ import java.util.Optional;
 public class CartServiceImpl implements CartService {
 
     private final CartRepository cartRepository;
-    private final UserService userService;
     private final CartItemRepository cartItemRepository;
     private final FoodService foodService;
+    private final TransactionTemplate transactionTemplate;
 
     /**
      * Adds a new item to the cart of a user.
+     * If the cart already has a line of the food with the same ingredients, the quantity is added to it instead.
      *
      * @param request  the request object containing the details of the item to add
-     * @param jwt      the JWT token of the user
-     * @return the newly created cart item
-     * @throws Exception if the user is not found or if the food item is not found
+     * @param userId   the ID of the user
+     * @return the newly created or updated cart item
+     * @throws Exception if the food item is not found, or is not available or out of stock, or the cart is not found
      */
     @Override
-    public CartItem addItemToCart(AddCartItemRequest request, String jwt) throws Exception {
-        log.info("Adding item to cart for user with jwt: {}", jwt);
-        User user = userService.findUserByJwt(jwt);
+    public CartItem addItemToCart(AddCartItemRequest request, Long userId) throws Exception {
+        log.info("Adding item to cart for user with id: {}", userId);
         Food food = foodService.findFoodById(request.getFoodId());
-        Cart cart = cartRepository.findByCustomerId(user.getId());
+        if (!food.isAvailable() || !food.isStockAvailable()) {
+            log.error("Food item with ID: {} is not available", food.getId());
+            throw new Exception("Food is not available: " + food.getName());
+        }
+        Long cartId = findCartIdByUserId(userId);
+        String ingredientsKey = ingredientsKey(request.getIngredients());
+
+        try {
+            return transactionTemplate.execute(status -> addLine(cartId, food, request, ingredientsKey));
+        } catch (DataIntegrityViolationException e) {
+            // Another request created the same line after the lookup. Its insert has committed by the time the unique
+            // key rejects this one, and the failed attempt rolled back with its totals, so adding again finds the
+            // line and counts the units once.
+            log.info("Cart item line was created concurrently, adding to it instead");
+            return transactionTemplate.execute(status -> addLine(cartId, food, request, ingredientsKey));
+        }
+    }
 
-        // Check if the food item already exists in the cart
-        Optional<CartItem> existingItem = cart.getItems().stream()
-                .filter(item -> item.getFood().equals(food))
-                .findFirst();
+    /**
+     * Adds units to the cart's line of the food with the ingredients, creating the line if there is none, and adds
+     * them to the cart's totals.
+     */
+    private CartItem addLine(Long cartId, Food food, AddCartItemRequest request, String ingredientsKey) {
+        long price = food.getPrice() * request.getQuantity();
 
+        // Check if the food item already exists in the cart with the same ingredients
+        Optional<CartItem> existingItem = cartItemRepository.findLine(cartId, food.getId(), ingredientsKey);
         if (existingItem.isPresent()) {
             log.info("Updating quantity of existing item in cart");
-            CartItem existingCartItem = existingItem.get();
-            int newQuantity = existingCartItem.getQuantity() + request.getQuantity();
-            return updateCartItemQuantity(existingCartItem.getId(), newQuantity);
+            Long cartItemId = existingItem.get().getId();
+            cartItemRepository.addToLine(cartItemId, request.getQuantity(), price);
+            cartRepository.addToTotals(cartId, price, request.getQuantity());
+            return cartItemRepository.findById(cartItemId).orElseThrow();
         }
 
-        // Create a new cart item
+        // Create a new cart item; the insert is flushed first, so a duplicate line fails before the totals change
         log.info("Creating new item in cart");
         CartItem newCartItem = new CartItem();
 
         newCartItem.setFood(food);
-        newCartItem.setCart(cart);
+        newCartItem.setCart(cartRepository.getReferenceById(cartId));
         newCartItem.setQuantity(request.getQuantity());
         newCartItem.setIngredients(request.getIngredients());
-        newCartItem.setTotalPrice(food.getPrice() * request.getQuantity());
+        newCartItem.setIngredientsKey(ingredientsKey);
+        newCartItem.setTotalPrice(price);
 
-        CartItem savedCartItem = cartItemRepository.save(newCartItem);
-
-        cart.getItems().add(savedCartItem);
+        CartItem savedCartItem = cartItemRepository.saveAndFlush(newCartItem);
+        cartRepository.addToTotals(cartId, price, request.getQuantity());
 
         return savedCartItem;
     }
 
     /**
      * Updates the quantity of a cart item.
+     * The item is locked while the difference to the cart's totals is computed, so concurrent changes of the item
+     * each add the difference from the quantity the other left.
      *
      * @param cartItemId the ID of the cart item to update
      * @param quantity   the new quantity of the cart item
@@ -82,61 +116,64 @@ public class CartServiceImpl implements CartService {
      * @throws Exception if the cart item is not found
      */
     @Override
+    @Transactional
     public CartItem updateCartItemQuantity(Long cartItemId, int quantity) throws Exception {
         log.info("Updating quantity of cart item with id: {}", cartItemId);
-        Optional<CartItem> optionalCartItem = cartItemRepository.findById(cartItemId);
-        if (optionalCartItem.isEmpty()) {
-            log.error("Cart item not found with id: {}", cartItemId);
-            throw new Exception("Cart item not found with id: " + cartItemId);
-        }
+        CartItem item = findCartItemForUpdate(cartItemId);
 
-        CartItem item = optionalCartItem.get();
+        long totalPrice = item.getFood().getPrice() * quantity;
+        long priceChange = totalPrice - item.getTotalPrice();
+        int quantityChange = quantity - item.getQuantity();
 
         item.setQuantity(quantity);
-        item.setTotalPrice(item.getFood().getPrice() * quantity);
+        item.setTotalPrice(totalPrice);
+        CartItem savedItem = cartItemRepository.save(item);
+        cartRepository.addToTotals(item.getCart().getId(), priceChange, quantityChange);
 
-        return cartItemRepository.save(item);
+        return savedItem;
     }
 
     /**
      * Removes a cart item from the cart of a user.
      *
      * @param cartItemId the ID of the cart item to remove
-     * @param jwt        the JWT token of the user
+     * @param userId     the ID of the user
      * @return the updated cart
-     * @throws Exception if the user is not found or if the cart item is not found
+     * @throws Exception if the cart item is not found in the user's cart
      */
     @Override
-    public Cart removeItemFromCart(Long cartItemId, String jwt) throws Exception {
-        log.info("Removing item from cart for user with jwt: {}", jwt);
-        User user = userService.findUserByJwt(jwt);
-        Cart cart = cartRepository.findByCustomerId(user.getId());
+    @Transactional
+    public Cart removeItemFromCart(Long cartItemId, Long userId) throws Exception {
+        log.info("Removing item from cart for user with id: {}", userId);
+        Long cartId = findCartIdByUserId(userId);
 
-        Optional<CartItem> optionalCartItem = cartItemRepository.findById(cartItemId);
-        if (optionalCartItem.isEmpty()) {
-            log.error("Cart item not found with id: {}", cartItemId);
+        CartItem item = findCartItemForUpdate(cartItemId);
+        if (!cartId.equals(item.getCart().getId())) {
+            log.error("Cart item with id: {} is not in the cart of user with id: {}", cartItemId, userId);
             throw new Exception("Cart item not found with id: " + cartItemId);
         }
 
-        CartItem item = optionalCartItem.get();
-        cart.getItems().remove(item);
+        cartItemRepository.delete(item);
+        cartItemRepository.flush();
+        cartRepository.addToTotals(cartId, -item.getTotalPrice(), -item.getQuantity());
 
-        return cartRepository.save(cart);
+        return findCartByUserId(userId);
     }
 
     /**
-     * Calculates the total price of all items in a cart.
+     * Calculates the total price of all items in a cart from the items already loaded with it.
+     * The cart keeps the same total as it changes; this is for the items of a cart as they are about to be ordered.
      *
      * @param cart the cart to calculate the total for
      * @return the total price of all items in the cart
      */
     @Override
     public Long calculateCartTotals(Cart cart) {
-        log.info("Calculating total for cart: {}", cart);
+        log.debug("Calculating total for cart with id: {}", cart.getId());
         Long total = 0L;
 
         for (CartItem cartItem : cart.getItems()) {
-            total += cartItem.getFood().getPrice() * cartItem.getTotalPrice();
+            total += cartItem.getTotalPrice();
         }
         return total;
     }
@@ -161,17 +198,23 @@ public class CartServiceImpl implements CartService {
     }
 
     /**
-     * Finds a cart by the ID of the user it belongs to.
+     * Finds a cart by the ID of the user it belongs to, with its items, in one query.
+     * The totals of a cart from before they were kept are computed from its items first.
      *
      * @param userId the ID of the user to find the cart for
      * @return the cart belonging to the user with the given ID
      * @throws Exception if the user is not found
      */
     @Override
+    @Transactional
     public Cart findCartByUserId(Long userId) throws Exception {
         log.info("Finding cart by user id: {}", userId);
         Cart cart = cartRepository.findByCustomerId(userId);
-        cart.setTotal(calculateCartTotals(cart));
+        if (cart != null && cart.getItemCount() == null) {
+            log.info("Computing the totals of cart with id: {}", cart.getId());
+            cartRepository.recalculateTotals(cart.getId());
+            cart = cartRepository.findByCustomerId(userId);
+        }
 
         return cart;
     }
@@ -184,11 +227,55 @@ public class CartServiceImpl implements CartService {
      * @throws Exception if the user is not found
      */
     @Override
+    @Transactional
     public Cart clearCart(Long userId) throws Exception {
         log.info("Clearing cart for user with id: {}", userId);
-        Cart cart = findCartByUserId(userId);
-        cart.getItems().clear();
+        Long cartId = findCartIdByUserId(userId);
+        cartItemRepository.deleteByCartId(cartId);
+        cartRepository.resetTotals(cartId);
+
+        return findCartByUserId(userId);
+    }
 
-        return cartRepository.save(cart);
+    private Long findCartIdByUserId(Long userId) throws Exception {
+        Long cartId = cartRepository.findIdByCustomerId(userId);
+        if (cartId == null) {
+            log.error("Cart not found for user with id: {}", userId);
+            throw new Exception("Cart not found for user with id: " + userId);
+        }
+        return cartId;
+    }
+
+    /**
+     * Finds a cart item and locks it until the current transaction ends.
+     */
+    private CartItem findCartItemForUpdate(Long cartItemId) throws Exception {
+        Optional<CartItem> optionalCartItem = cartItemRepository.findByIdForUpdate(cartItemId);
+        if (optionalCartItem.isEmpty()) {
+            log.error("Cart item not found with id: {}", cartItemId);
+            throw new Exception("Cart item not found with id: " + cartItemId);
+        }
+        return optionalCartItem.get();
+    }
+
+    /**
+     * Returns the key of a set of ingredient names: a SHA-256 digest of the names, stripped, lower-cased,
+     * without repeats and sorted, so its length does not depend on how many ingredients a line has.
+     */
+    static String ingredientsKey(List<String> ingredients) {
+        TreeSet<String> names = new TreeSet<>();
+        if (ingredients != null) {
+            for (String ingredient : ingredients) {
+                if (ingredient != null && !ingredient.isBlank()) {
+                    names.add(ingredient.strip().toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(String.join("\n", names).getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,10 +1,9 @@
 package com.foodsphere.service.impl;
 
 import com.foodsphere.model.Category;
-import com.foodsphere.model.Restaurant;
 import com.foodsphere.repository.CategoryRepository;
+import com.foodsphere.repository.RestaurantRepository;
 import com.foodsphere.service.CategoryService;
-import com.foodsphere.service.RestaurantService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -17,17 +16,17 @@ import java.util.Optional;
 @Service
 public class CategoryServiceImpl implements CategoryService {
 
-    private final RestaurantService restaurantService;
+    private final RestaurantRepository restaurantRepository;
     private final CategoryRepository categoryRepository;
 
     @Override
-    public Category createCategory(String name, Long userId) throws Exception {
-        log.info("Creating category with name: {} for user: {}", name, userId);
+    public Category createCategory(String name, Long restaurantId) throws Exception {
+        log.info("Creating category with name: {} for restaurant: {}", name, restaurantId);
 
-        Restaurant restaurant = restaurantService.findRestaurantByUserId(userId);
+        // Only the foreign key is needed, so a reference avoids loading the restaurant
         Category category = new Category();
         category.setName(name);
-        category.setRestaurant(restaurant);
+        category.setRestaurant(restaurantRepository.getReferenceById(restaurantId));
 
         return categoryRepository.save(category);
     }
@@ -35,9 +34,8 @@ public class CategoryServiceImpl implements CategoryService {
     @Override
     public List<Category> findCategoryByRestaurantId(Long restaurantId) throws Exception {
         log.info("Finding categories for restaurant with id: {}", restaurantId);
-        Restaurant restaurant = restaurantService.findRestaurantByUserId(restaurantId);
 
-        return categoryRepository.findByRestaurantId(restaurant.getId());
+        return categoryRepository.findByRestaurantId(restaurantId);
     }
 
     @Override
@@ -1,20 +1,36 @@
 package com.foodsphere.service.impl;
 
+import com.foodsphere.event.FoodChangedEvent;
 import com.foodsphere.model.Category;
 import com.foodsphere.model.Food;
 import com.foodsphere.model.Restaurant;
 import com.foodsphere.repository.CategoryRepository;
 import com.foodsphere.repository.FoodRepository;
+import com.foodsphere.repository.FoodSpecifications;
+import com.foodsphere.repository.IngredientsItemRepository;
 import com.foodsphere.repository.RestaurantRepository;
 import com.foodsphere.request.CreateFoodRequest;
+import com.foodsphere.search.DishSearchIndex;
+import com.foodsphere.search.FullTextQuery;
+import com.foodsphere.search.FuzzyTextIndex;
+import com.foodsphere.search.MenuFilterIndex;
+import com.foodsphere.search.RestaurantMenuIndex;
 import com.foodsphere.service.FoodService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 /**
  * Implementation of the FoodService interface, providing business logic for managing food items.
@@ -27,6 +43,10 @@ public class FoodServiceImpl implements FoodService {
     private final FoodRepository foodRepository;
     private final RestaurantRepository restaurantRepository;
     private final CategoryRepository categoryRepository;
+    private final IngredientsItemRepository ingredientsItemRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DishSearchIndex dishSearchIndex;
+    private final RestaurantMenuIndex restaurantMenuIndex;
 
     /**
      * Creates a new food item based on the provided request object.
@@ -60,9 +80,15 @@ public class FoodServiceImpl implements FoodService {
         food.setIngredients(foodRequest.getIngredients());
         food.setSeasonal(foodRequest.isSeasonal());
         food.setVegetarian(foodRequest.isVegetarian());
+        if (food.getIngredients() != null && !food.getIngredients().isEmpty()) {
+            Set<Long> outOfStock = ingredientsItemRepository.findOutOfStockIds(restaurant.getId());
+            food.setStockAvailable(food.getIngredients().stream()
+                    .noneMatch(ingredient -> outOfStock.contains(ingredient.getId())));
+        }
 
         Food persistedFood = foodRepository.save(food);
-        restaurant.getFoods().add(persistedFood);
+        eventPublisher.publishEvent(
+                new FoodChangedEvent(persistedFood.getId(), restaurant.getId(), null, persistedFood.getName()));
 
         log.info("Food item created with ID: {}", persistedFood.getId());
         return persistedFood;
@@ -78,106 +104,134 @@ public class FoodServiceImpl implements FoodService {
     public void deleteFood(Long foodId) throws Exception {
         log.info("Attempting to delete food item with ID: {}", foodId);
         Food food = findFoodById(foodId);
+        Long restaurantId = food.getRestaurant() != null ? food.getRestaurant().getId() : null;
         food.setRestaurant(null);
         foodRepository.delete(food);
+        eventPublisher.publishEvent(new FoodChangedEvent(foodId, restaurantId, food.getName(), null));
         log.info("Food item deleted with ID: {}", foodId);
     }
 
     /**
-     * Retrieves all food items for a given restaurant ID.
+     * Retrieves the food items of a restaurant matching the menu filters, ordered by ID unless the page says otherwise.
+     * In ID order the filters and the page are resolved in memory by the {@link RestaurantMenuIndex}, and only the
+     * selected foods are loaded by primary key, with no count query. The filters are applied again to that query, so
+     * an index that has not caught up with a change yet can leave a food out but never return one that does not
+     * match. Other orders, and requests served before the
+     * index is built, run all filters in the database as one query backed by the menu filter index. Either way the
+     * food categories and the restaurant are fetched in the same query.
+     * <p>
+     * Loading and serializing N foods takes at most {@code 3 + 2 * ceil(N / B)} queries, plus one count query for
+     * a page, with B the batch fetch size ({@code hibernate.default_batch_fetch_size}): the foods, the restaurant's
+     * images, its owner's addresses, and batches of food images and food ingredients.
      *
      * @param restaurantId the ID of the restaurant
      * @param isVegetarian whether to filter by vegetarian food items
      * @param isNonVeg     whether to filter by non-vegetarian food items
      * @param isSeasonal   whether to filter by seasonal food items
+     * @param available    whether to return only available, or only unavailable, food items; null for both.
+     *                     A food is available when it is offered and all its ingredients are in stock
      * @param foodCategory the category of food items to filter by
+     * @param pageable     the page to return and its order, or {@link Pageable#unpaged()} for the whole menu
      * @return a list of food items
      */
     @Override
     public List<Food> getRestaurantsFood(Long restaurantId, boolean isVegetarian, boolean isNonVeg,
-                                         boolean isSeasonal, String foodCategory) {
+                                         boolean isSeasonal, Boolean available, String foodCategory,
+                                         Pageable pageable) {
         log.info("Fetching food items for restaurant ID: {}", restaurantId);
-        List<Food> foods = foodRepository.findByRestaurantId(restaurantId);
 
+        Specification<Food> specification = menuFilters(restaurantId, isVegetarian, isNonVeg, isSeasonal, available,
+                foodCategory);
+        Sort byId = Sort.by("id");
+        if (restaurantMenuIndex.isReady() && pageable.getSortOr(byId).equals(byId)) {
+            MenuFilterIndex.Filter filter = new MenuFilterIndex.Filter(isVegetarian, isNonVeg, isSeasonal, available,
+                    foodCategory == null || foodCategory.isEmpty() ? null : foodCategory);
+            List<Long> ids = pageable.isPaged()
+                    ? restaurantMenuIndex.select(restaurantId, filter, pageable.getOffset(), pageable.getPageSize())
+                    : restaurantMenuIndex.select(restaurantId, filter, 0, Integer.MAX_VALUE);
+            List<Food> foods = ids.isEmpty()
+                    ? List.of()
+                    : foodRepository.findAll(specification.and(FoodSpecifications.idIn(ids)), byId);
+
+            log.info("Found {} food items for restaurant ID: {}", foods.size(), restaurantId);
+            return foods;
+        }
+
+        List<Food> foods = pageable.isPaged()
+                ? foodRepository.findAll(specification, pageable).getContent()
+                : foodRepository.findAll(specification, pageable.getSortOr(byId));
+
+        log.info("Found {} food items for restaurant ID: {}", foods.size(), restaurantId);
+        return foods;
+    }
+
+    /**
+     * Combines the menu filters of a restaurant into one specification.
+     */
+    private static Specification<Food> menuFilters(Long restaurantId, boolean isVegetarian, boolean isNonVeg,
+                                                   boolean isSeasonal, Boolean available, String foodCategory) {
+        Specification<Food> specification = FoodSpecifications.ofRestaurant(restaurantId);
+        if (available != null) {
+            specification = specification.and(FoodSpecifications.available(available));
+        }
         if (isVegetarian) {
-            foods = filterByVegetarian(foods, isVegetarian);
+            specification = specification.and(FoodSpecifications.vegetarian(true));
         }
         if (isNonVeg) {
-            foods = filterByNonVeg(foods, isNonVeg);
+            specification = specification.and(FoodSpecifications.vegetarian(false));
         }
         if (isSeasonal) {
-            foods = filterBySeasonal(foods, isSeasonal);
+            specification = specification.and(FoodSpecifications.seasonal(true));
         }
         if (foodCategory != null && !foodCategory.isEmpty()) {
-            foods = filterByCategory(foods, foodCategory);
+            specification = specification.and(FoodSpecifications.inCategory(foodCategory));
         }
-
-        log.info("Found {} food items for restaurant ID: {}", foods.size(), restaurantId);
-        return foods;
+        return specification;
     }
 
     /**
-     * Filters a list of food items by a given category.
+     * Searches for food items by a given keyword.
      *
-     * @param foods       the list of food items to filter
-     * @param foodCategory the category to filter by
-     * @return a list of food items filtered by category
+     * @param keyword the keyword to search by
+     * @param page    the zero-based page number
+     * @param size    the page size
+     * @return a page of food items matching the search keyword, best matches first
      */
-    private List<Food> filterByCategory(List<Food> foods, String foodCategory) {
-        return foods.stream()
-                .filter(food -> food.getFoodCategory() != null && food.getFoodCategory().getName().equals(foodCategory))
-                .collect(Collectors.toList());
-    }
+    @Override
+    public List<Food> searchFood(String keyword, int page, int size) {
+        log.info("Searching for food items with keyword: {}", keyword);
 
-    /**
-     * Filters a list of food items by non-vegetarian food items.
-     *
-     * @param foods the list of food items to filter
-     * @param isNonVeg whether to filter by non-vegetarian food items
-     * @return a list of food items filtered by non-vegetarian
-     */
-    private List<Food> filterByNonVeg(List<Food> foods, boolean isNonVeg) {
-        return foods.stream()
-                .filter(food -> food.isVegetarian() != isNonVeg)
-                .collect(Collectors.toList());
+        String query = FullTextQuery.toPrefixQuery(keyword);
+        if (query == null) {
+            return List.of();
+        }
+        return foodRepository.searchRanked(query, size, (long) page * size);
     }
 
     /**
-     * Filters a list of food items by seasonal food items.
+     * Searches food items by name and description, tolerating typos.
+     * The ranking happens in memory; only the best matches are loaded from the database.
      *
-     * @param foods the list of food items to filter
-     * @param isSeasonal whether to filter by seasonal food items
-     * @return a list of food items filtered by seasonal
+     * @param query the text typed by the customer
+     * @param limit the maximum number of food items
+     * @return the best matching food items, best first
      */
-    private List<Food> filterBySeasonal(List<Food> foods, boolean isSeasonal) {
-        return foods.stream()
-                .filter(food -> food.isSeasonal() == isSeasonal)
-                .collect(Collectors.toList());
-    }
+    @Override
+    public List<Food> searchFoodFuzzy(String query, int limit) {
+        log.info("Fuzzy searching for food items with query: {}", query);
 
-    /**
-     * Filters a list of food items by vegetarian food items.
-     *
-     * @param foods the list of food items to filter
-     * @param isVegetarian whether to filter by vegetarian food items
-     * @return a list of food items filtered by vegetarian
-     */
-    private List<Food> filterByVegetarian(List<Food> foods, boolean isVegetarian) {
-        return foods.stream()
-                .filter(food -> food.isVegetarian() == isVegetarian)
-                .collect(Collectors.toList());
-    }
+        List<FuzzyTextIndex.Hit> hits = dishSearchIndex.search(query, limit);
+        if (hits.isEmpty()) {
+            return List.of();
+        }
 
-    /**
-     * Searches for food items by a given keyword.
-     *
-     * @param keyword the keyword to search by
-     * @return a list of food items matching the search keyword
-     */
-    @Override
-    public List<Food> searchFood(String keyword) {
-        log.info("Searching for food items with keyword: {}", keyword);
-        return foodRepository.searchFood(keyword);
+        Map<Long, Integer> rank = new HashMap<>();
+        for (FuzzyTextIndex.Hit hit : hits) {
+            rank.put(hit.id(), rank.size());
+        }
+        List<Food> foods = new ArrayList<>(foodRepository.findAllById(rank.keySet()));
+        foods.sort(Comparator.comparing(food -> rank.get(food.getId())));
+        return foods;
     }
 
     /**
@@ -211,6 +265,9 @@ public class FoodServiceImpl implements FoodService {
         Food food = findFoodById(foodId);
         food.setAvailable(!food.isAvailable());
         Food updatedFood = foodRepository.save(food);
+        eventPublisher.publishEvent(new FoodChangedEvent(foodId,
+                updatedFood.getRestaurant() != null ? updatedFood.getRestaurant().getId() : null,
+                updatedFood.getName(), updatedFood.getName()));
         log.info("Availability status updated for food item with ID: {}", foodId);
         return updatedFood;
     }
@@ -1,18 +1,33 @@
 package com.foodsphere.service.impl;
 
+import com.foodsphere.cache.IngredientCatalogCache;
+import com.foodsphere.cache.IngredientFoodIndex;
+import com.foodsphere.event.IngredientChangedEvent;
+import com.foodsphere.model.CartItem;
 import com.foodsphere.model.IngredientCategory;
 import com.foodsphere.model.IngredientsItem;
 import com.foodsphere.model.Restaurant;
+import com.foodsphere.repository.FoodRepository;
 import com.foodsphere.repository.IngredientCategoryRepository;
 import com.foodsphere.repository.IngredientsItemRepository;
 import com.foodsphere.service.IngredientsService;
 import com.foodsphere.service.RestaurantService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 
 /**
  * Implementation of the IngredientsService interface, providing business logic
@@ -23,9 +38,16 @@ import java.util.Optional;
 @Service
 public class IngredientsServiceImpl implements IngredientsService {
 
+    private static final int STOCK_UPDATE_BATCH_SIZE = 1000;
+
     private final IngredientsItemRepository ingredientsItemRepository;
     private final IngredientCategoryRepository ingredientCategoryRepository;
     private final RestaurantService restaurantService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final FoodRepository foodRepository;
+    private final IngredientFoodIndex ingredientFoodIndex;
+    private final IngredientCatalogCache ingredientCatalogCache;
+    private final TransactionTemplate transactionTemplate;
 
     /**
      * Creates a new ingredient category for a given restaurant.
@@ -45,6 +67,7 @@ public class IngredientsServiceImpl implements IngredientsService {
         category.setName(name);
 
         IngredientCategory savedCategory = ingredientCategoryRepository.save(category);
+        ingredientCatalogCache.invalidate(restaurantId);
         log.info("Successfully created ingredient category with ID: {}", savedCategory.getId());
 
         return savedCategory;
@@ -70,17 +93,22 @@ public class IngredientsServiceImpl implements IngredientsService {
     }
 
     /**
-     * Finds ingredient categories for a given restaurant ID.
+     * Finds ingredient categories for a given restaurant ID, with their items.
+     * The tree is served from the {@link IngredientCatalogCache}; the restaurant is only looked up to tell
+     * a restaurant without categories from one that does not exist.
      *
      * @param restaurantId the ID of the restaurant
-     * @return a list of ingredient categories
+     * @return a list of ingredient categories, to be treated as read-only
      * @throws Exception if the restaurant is not found
      */
     @Override
     public List<IngredientCategory> findIngredientCategoryByRestaurantId(Long restaurantId) throws Exception {
         log.info("Fetching ingredient categories for restaurant ID: {}", restaurantId);
-        restaurantService.findRestaurantById(restaurantId);
-        return ingredientCategoryRepository.findByRestaurantId(restaurantId);
+        List<IngredientCategory> categories = ingredientCatalogCache.getCategories(restaurantId);
+        if (categories.isEmpty()) {
+            restaurantService.findRestaurantById(restaurantId);
+        }
+        return categories;
     }
 
     /**
@@ -105,6 +133,7 @@ public class IngredientsServiceImpl implements IngredientsService {
 
         IngredientsItem savedItem = ingredientsItemRepository.save(item);
         category.getIngredients().add(savedItem);
+        ingredientCatalogCache.invalidate(restaurantId);
         log.info("Successfully created ingredients item with ID: {}", savedItem.getId());
         return savedItem;
     }
@@ -123,13 +152,17 @@ public class IngredientsServiceImpl implements IngredientsService {
     }
 
     /**
-     * Toggles the stock status of an ingredient item.
+     * Toggles the stock status of an ingredient item, and the stock availability of the foods using it.
+     * <p>
+     * The foods' flag is set with one bulk UPDATE per {@value #STOCK_UPDATE_BATCH_SIZE} foods, in the
+     * same transaction as the ingredient.
      *
      * @param id the ID of the ingredient item
      * @return the updated ingredients item
      * @throws Exception if the ingredient item is not found
      */
     @Override
+    @Transactional
     public IngredientsItem updateStock(Long id) throws Exception {
         log.info("Updating stock for ingredients item ID: {}", id);
         Optional<IngredientsItem> optionalIngredientsItem = ingredientsItemRepository.findById(id);
@@ -143,6 +176,144 @@ public class IngredientsServiceImpl implements IngredientsService {
         IngredientsItem updatedItem = ingredientsItemRepository.save(ingredientsItem);
         log.info("Successfully updated stock for ingredients item ID: {}", updatedItem.getId());
 
+        stockChanged(updatedItem);
+        return updatedItem;
+    }
+
+    /**
+     * Sets the units left of an ingredient item, or stops counting it.
+     * A counted item is in stock while units are left; an item no longer counted keeps its stock status.
+     *
+     * @param id       the ID of the ingredient item
+     * @param quantity the units left, or null to stop counting the item
+     * @return the updated ingredients item
+     * @throws Exception if the ingredient item is not found
+     */
+    @Override
+    @Transactional
+    public IngredientsItem updateQuantity(Long id, Integer quantity) throws Exception {
+        log.info("Updating quantity for ingredients item ID: {} to {}", id, quantity);
+        if (quantity != null && quantity < 0) {
+            throw new IllegalArgumentException("Quantity must not be negative: " + quantity);
+        }
+        Optional<IngredientsItem> optionalIngredientsItem = ingredientsItemRepository.findById(id);
+        if (optionalIngredientsItem.isEmpty()) {
+            log.error("Ingredients Item with ID: {} not found!", id);
+            throw new Exception("Ingredient Item not found!");
+        }
+
+        IngredientsItem ingredientsItem = optionalIngredientsItem.get();
+        ingredientsItem.setQuantity(quantity);
+        if (quantity != null) {
+            ingredientsItem.setStock(quantity > 0);
+        }
+        IngredientsItem updatedItem = ingredientsItemRepository.save(ingredientsItem);
+
+        stockChanged(updatedItem);
         return updatedItem;
     }
-}
\ No newline at end of file
+
+    /**
+     * Takes one unit of each counted ingredient per ordered dish, without holding a lock across the order.
+     * <p>
+     * Each ingredient is taken with its own conditional UPDATE, in ingredient ID order, that succeeds only if
+     * enough units are left; concurrent orders for the same ingredient wait only for each other's statement.
+     * If an ingredient is short, the units already taken are given back and the order is rejected.
+     * Ingredients left with no units go out of stock, and so do the foods using them.
+     *
+     * @param items the items of the order
+     * @return the units taken by ingredient ID, to give back with {@link #releaseIngredients(Map)}
+     * @throws Exception if an ingredient has too few units left
+     */
+    @Override
+    public Map<Long, Integer> reserveIngredients(List<CartItem> items) throws Exception {
+        Map<Long, Integer> wanted = new TreeMap<>();
+        Map<Long, String> names = new HashMap<>();
+        Set<Long> restaurantIds = new HashSet<>();
+        for (CartItem item : items) {
+            for (IngredientsItem ingredient : item.getFood().getIngredients()) {
+                wanted.merge(ingredient.getId(), item.getQuantity(), Integer::sum);
+                names.put(ingredient.getId(), ingredient.getName());
+                if (ingredient.getRestaurant() != null) {
+                    restaurantIds.add(ingredient.getRestaurant().getId());
+                }
+            }
+        }
+
+        Map<Long, Integer> reserved = new LinkedHashMap<>();
+        for (Map.Entry<Long, Integer> entry : wanted.entrySet()) {
+            Long ingredientId = entry.getKey();
+            int amount = entry.getValue();
+            if (ingredientsItemRepository.takeQuantity(ingredientId, amount) == 1) {
+                reserved.put(ingredientId, amount);
+            } else if (isCounted(ingredientId)) {
+                log.info("Not enough of ingredients item ID: {} left for {} units", ingredientId, amount);
+                releaseIngredients(reserved);
+                throw new Exception("Not enough " + names.get(ingredientId) + " left");
+            }
+        }
+
+        if (!reserved.isEmpty()) {
+            restaurantIds.forEach(ingredientCatalogCache::invalidate);
+            List<Long> exhausted = ingredientsItemRepository.findExhaustedIds(reserved.keySet());
+            if (!exhausted.isEmpty()) {
+                ingredientsItemRepository.findAllById(exhausted).forEach(this::stockChanged);
+            }
+        }
+        return reserved;
+    }
+
+    /**
+     * Gives back units taken by {@link #reserveIngredients(List)}, for an order that could not be placed or was
+     * cancelled. Items that are not counted are left as they are.
+     *
+     * @param reserved the units taken by ingredient ID
+     */
+    @Override
+    public void releaseIngredients(Map<Long, Integer> reserved) {
+        if (reserved.isEmpty()) {
+            return;
+        }
+        log.info("Giving back units of {} ingredients items", reserved.size());
+        List<Long> returned = new ArrayList<>();
+        reserved.forEach((ingredientId, amount) -> {
+            if (ingredientsItemRepository.returnQuantity(ingredientId, amount) == 1) {
+                returned.add(ingredientId);
+            }
+        });
+        ingredientsItemRepository.findAllById(returned).forEach(this::stockChanged);
+    }
+
+    private boolean isCounted(Long ingredientId) {
+        return ingredientsItemRepository.findById(ingredientId)
+                .map(ingredient -> ingredient.getQuantity() != null)
+                .orElse(false);
+    }
+
+    /**
+     * Brings the stock availability of the foods using an ingredient item in line with its stock, and tells the
+     * menu views. The foods come from the {@link IngredientFoodIndex}; a food is in stock when none of its
+     * ingredients is out of stock.
+     * <p>
+     * The foods are locked before their availability is recomputed from the database, in the same transaction:
+     * a concurrent change of another of their ingredients waits for the lock and then recomputes from both
+     * changes, so the last write never rests on stock read before the other change committed.
+     */
+    private void stockChanged(IngredientsItem item) {
+        Long restaurantId = item.getRestaurant() != null ? item.getRestaurant().getId() : null;
+        if (restaurantId != null) {
+            List<Long> foodIds = ingredientFoodIndex.foodsUsing(restaurantId, item.getId());
+            for (int from = 0; from < foodIds.size(); from += STOCK_UPDATE_BATCH_SIZE) {
+                List<Long> batch = foodIds.subList(from, Math.min(foodIds.size(), from + STOCK_UPDATE_BATCH_SIZE));
+                transactionTemplate.executeWithoutResult(status -> {
+                    foodRepository.lockForStockUpdate(batch);
+                    foodRepository.refreshStockAvailable(batch);
+                });
+            }
+            log.info("Updated stock availability of {} food items for ingredients item ID: {}",
+                    foodIds.size(), item.getId());
+        }
+
+        eventPublisher.publishEvent(new IngredientChangedEvent(item.getId(), restaurantId));
+    }
+}
@@ -7,17 +7,20 @@ import com.foodsphere.repository.OrderRepository;
 import com.foodsphere.repository.UserRepository;
 import com.foodsphere.request.OrderRequest;
 import com.foodsphere.service.CartService;
+import com.foodsphere.service.IngredientsService;
 import com.foodsphere.service.OrderService;
 import com.foodsphere.service.RestaurantService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 /**
  * Implementation of the OrderService interface, providing business logic
@@ -34,6 +37,8 @@ public class OrderServiceImpl implements OrderService {
     private final UserRepository userRepository;
     private final RestaurantService restaurantService;
     private final CartService cartService;
+    private final IngredientsService ingredientsService;
+    private final TransactionTemplate transactionTemplate;
 
     @Override
     public Order createOrder(OrderRequest order, User user) throws Exception {
@@ -57,30 +62,47 @@ public class OrderServiceImpl implements OrderService {
         createdOrder.setRestaurant(restaurant);
 
         Cart cart = cartService.findCartByUserId(user.getId());
-
-        List<OrderItem> orderItems = new ArrayList<>();
-
-        for(CartItem cartItem : cart.getItems()){
-            OrderItem orderItem = new OrderItem();
-
-            orderItem.setFood(cartItem.getFood());
-            orderItem.setIngredients(cartItem.getIngredients());
-            orderItem.setQuantity(cartItem.getQuantity());
-            orderItem.setTotalPrice(cartItem.getTotalPrice());
-
-            OrderItem savedOrderItem = orderItemRepository.save(orderItem);
-
-            orderItems.add(savedOrderItem);
+        for (CartItem cartItem : cart.getItems()) {
+            Food food = cartItem.getFood();
+            if (!food.isAvailable() || !food.isStockAvailable()) {
+                throw new Exception("Food is not available: " + food.getName());
+            }
         }
 
         Long totalPrice = cartService.calculateCartTotals(cart);
 
-        createdOrder.setItems(orderItems);
-        createdOrder.setTotalPrice(totalPrice);
-
-        Order savedOrder = orderRepository.save(createdOrder);
-
-        restaurant.getOrders().add(savedOrder);
+        // The ingredients are taken first, each in its own short statement; the order and its items are then
+        // written in one transaction, so a failure leaves none of them behind when the ingredients are given back.
+        Map<Long, Integer> reservedIngredients = ingredientsService.reserveIngredients(cart.getItems());
+        Order savedOrder;
+        try {
+            savedOrder = transactionTemplate.execute(status -> {
+                List<OrderItem> orderItems = new ArrayList<>();
+
+                for(CartItem cartItem : cart.getItems()){
+                    OrderItem orderItem = new OrderItem();
+
+                    orderItem.setFood(cartItem.getFood());
+                    orderItem.setIngredients(cartItem.getIngredients());
+                    orderItem.setQuantity(cartItem.getQuantity());
+                    orderItem.setTotalPrice(cartItem.getTotalPrice());
+
+                    OrderItem savedOrderItem = orderItemRepository.save(orderItem);
+
+                    orderItems.add(savedOrderItem);
+                }
+
+                createdOrder.setItems(orderItems);
+                createdOrder.setTotalPrice(totalPrice);
+                createdOrder.setReservedIngredients(new HashMap<>(reservedIngredients));
+
+                return orderRepository.save(createdOrder);
+            });
+        } catch (RuntimeException e) {
+            log.error("Could not save order, giving back its ingredients", e);
+            ingredientsService.releaseIngredients(reservedIngredients);
+            throw e;
+        }
 
         log.info("Order created successfully: {}", savedOrder.getId());
 
@@ -105,7 +127,14 @@ public class OrderServiceImpl implements OrderService {
         log.info("Cancelling order: {}", orderId);
 
         Order order = findOrderById(orderId);
-        orderRepository.deleteById(orderId);
+        // Only pending orders give back the units they took: once an order is on its way, its dishes have been
+        // cooked. The units are given back only by the call that deleted the order, so a failed delete or a
+        // second cancel of the same order does not restock anything.
+        boolean pending = "PENDING".equals(order.getOrderStatus());
+        Map<Long, Integer> reservedIngredients = new HashMap<>(order.getReservedIngredients());
+        if (orderRepository.deleteOrderById(orderId) == 1 && pending) {
+            ingredientsService.releaseIngredients(reservedIngredients);
+        }
     }
 
     @Override
@@ -119,11 +148,10 @@ public class OrderServiceImpl implements OrderService {
     public List<Order> getRestaurantsOrder(Long restaurantId, String orderStatus) throws Exception {
         log.info("Fetching orders for restaurant: {}", restaurantId);
 
-        List<Order> orders = orderRepository.findByRestaurantId(restaurantId);
-        if(orderStatus != null){
-            orders = orders.stream().filter(order -> order.getOrderStatus().equals(orderStatus)).collect(Collectors.toList());
+        if (orderStatus != null) {
+            return orderRepository.findByRestaurantIdAndOrderStatus(restaurantId, orderStatus);
         }
-        return orders;
+        return orderRepository.findByRestaurantId(restaurantId);
     }
 
     @Override
@@ -1,25 +1,50 @@
 package com.foodsphere.service.impl;
 
+import com.foodsphere.cache.RestaurantCatalogCache;
+import com.foodsphere.dto.NearbyRestaurant;
+import com.foodsphere.dto.OpeningSoonRestaurant;
 import com.foodsphere.dto.RestaurantDto;
+import com.foodsphere.dto.RestaurantSummary;
+import com.foodsphere.event.RestaurantChangedEvent;
+import com.foodsphere.event.RestaurantPurgeRequestedEvent;
 import com.foodsphere.model.Address;
+import com.foodsphere.model.PURGE_STATUS;
 import com.foodsphere.model.Restaurant;
+import com.foodsphere.model.RestaurantPurgeJob;
 import com.foodsphere.model.User;
 import com.foodsphere.repository.AddressRepository;
 import com.foodsphere.repository.RestaurantRepository;
-import com.foodsphere.repository.UserRepository;
+import com.foodsphere.repository.FavouriteRestaurantRepository;
+import com.foodsphere.repository.RestaurantPurgeJobRepository;
 import com.foodsphere.request.CreateRestaurantRequest;
+import com.foodsphere.schedule.RestaurantSchedule;
+import com.foodsphere.schedule.ScheduleRegistry;
+import com.foodsphere.search.FullTextQuery;
+import com.foodsphere.search.GeoGrid;
+import com.foodsphere.search.RestaurantLocationIndex;
 import com.foodsphere.service.RestaurantService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
  * Implementation of the RestaurantService interface, providing business logic
  * for managing restaurants including creation, updates, deletion, and retrieval.
+ * <p>
+ * Reads are served from the {@link RestaurantCatalogCache} and nearby searches from the
+ * {@link RestaurantLocationIndex}. Every change publishes a {@link RestaurantChangedEvent}
+ * so both drop or refresh their copy of the restaurant.
  */
 @Slf4j
 @RequiredArgsConstructor
@@ -28,7 +53,12 @@ public class RestaurantServiceImpl implements RestaurantService {
 
     private final RestaurantRepository restaurantRepository;
     private final AddressRepository addressRepository;
-    private final UserRepository userRepository;
+    private final FavouriteRestaurantRepository favouriteRestaurantRepository;
+    private final RestaurantPurgeJobRepository restaurantPurgeJobRepository;
+    private final RestaurantCatalogCache restaurantCatalogCache;
+    private final RestaurantLocationIndex restaurantLocationIndex;
+    private final ScheduleRegistry scheduleRegistry;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Creates a new restaurant entity.
@@ -42,6 +72,8 @@ public class RestaurantServiceImpl implements RestaurantService {
         log.info("Creating a new restaurant for user: {}", user.getId());
 
         validateAddressFields(createRestaurantRequest.getAddress());
+        RestaurantSchedule schedule =
+                scheduleRegistry.compile(createRestaurantRequest.getOpeningHours(), createRestaurantRequest.getTimeZone());
         Address address = addressRepository.save(createRestaurantRequest.getAddress());
 
         Restaurant restaurant = new Restaurant();
@@ -50,6 +82,10 @@ public class RestaurantServiceImpl implements RestaurantService {
         restaurant.setDescription(createRestaurantRequest.getDescription());
         restaurant.setCuisineType(createRestaurantRequest.getCuisineType());
         restaurant.setOpeningHours(createRestaurantRequest.getOpeningHours());
+        restaurant.setTimeZone(createRestaurantRequest.getTimeZone());
+        if (schedule != null) {
+            restaurant.setOpen(schedule.isOpenAt(Instant.now()));
+        }
         restaurant.setRegistrationDate(LocalDateTime.now());
         restaurant.setAddress(address);
         restaurant.setContactInformation(createRestaurantRequest.getContactInformation());
@@ -59,6 +95,8 @@ public class RestaurantServiceImpl implements RestaurantService {
         Restaurant savedRestaurant = restaurantRepository.save(restaurant);
         log.info("Restaurant created with ID: {}", savedRestaurant.getId());
 
+        eventPublisher.publishEvent(new RestaurantChangedEvent(savedRestaurant.getId()));
+
         return savedRestaurant;
     }
 
@@ -72,6 +110,36 @@ public class RestaurantServiceImpl implements RestaurantService {
             log.error("Address city cannot be null");
             throw new IllegalArgumentException("City cannot be null");
         }
+        validateLocation(address);
+    }
+
+    /**
+     * Validates the optional coordinates of an address: both or neither must be given, and within range.
+     *
+     * @param address the address to validate
+     */
+    private void validateLocation(Address address) {
+        if ((address.getLatitude() == null) != (address.getLongitude() == null)) {
+            log.error("Address has only one of latitude and longitude");
+            throw new IllegalArgumentException("Latitude and longitude must be given together");
+        }
+        if (address.getLatitude() != null) {
+            validateCoordinates(address.getLatitude(), address.getLongitude());
+        }
+    }
+
+    /**
+     * Validates that a location is a valid latitude and longitude in degrees.
+     *
+     * @param latitude  the latitude to validate
+     * @param longitude the longitude to validate
+     */
+    private void validateCoordinates(double latitude, double longitude) {
+        if (!(latitude >= -90 && latitude <= 90) || !(longitude >= -180 && longitude <= 180)) {
+            log.error("Invalid coordinates: {}, {}", latitude, longitude);
+            throw new IllegalArgumentException(
+                    "Latitude must be between -90 and 90 and longitude between -180 and 180");
+        }
     }
 
     /**
@@ -86,61 +154,231 @@ public class RestaurantServiceImpl implements RestaurantService {
     public Restaurant updateRestaurant(Long restaurantId, CreateRestaurantRequest updatedRestaurant) throws Exception {
         log.info("Updating restaurant with ID: {}", restaurantId);
 
-        Restaurant restaurant = findRestaurantById(restaurantId);
+        Restaurant restaurant = loadRestaurantForUpdate(restaurantId);
 
         if (updatedRestaurant.getName() != null) restaurant.setName(updatedRestaurant.getName());
         if (updatedRestaurant.getDescription() != null) restaurant.setDescription(updatedRestaurant.getDescription());
-        if (updatedRestaurant.getAddress() != null) restaurant.setAddress(updatedRestaurant.getAddress());
+        if (updatedRestaurant.getAddress() != null) {
+            validateLocation(updatedRestaurant.getAddress());
+            restaurant.setAddress(updatedRestaurant.getAddress());
+        }
         if (updatedRestaurant.getCuisineType() != null) restaurant.setCuisineType(updatedRestaurant.getCuisineType());
-        if (updatedRestaurant.getOpeningHours() != null) restaurant.setOpeningHours(updatedRestaurant.getOpeningHours());
+        if (updatedRestaurant.getOpeningHours() != null || updatedRestaurant.getTimeZone() != null) {
+            if (updatedRestaurant.getOpeningHours() != null) restaurant.setOpeningHours(updatedRestaurant.getOpeningHours());
+            if (updatedRestaurant.getTimeZone() != null) restaurant.setTimeZone(updatedRestaurant.getTimeZone());
+
+            RestaurantSchedule schedule = scheduleRegistry.compile(restaurant.getOpeningHours(), restaurant.getTimeZone());
+            if (schedule != null) {
+                restaurant.setOpen(schedule.isOpenAt(Instant.now()));
+            }
+        }
 
         Restaurant updatedEntity = restaurantRepository.save(restaurant);
         log.info("Restaurant updated with ID: {}", updatedEntity.getId());
 
+        eventPublisher.publishEvent(new RestaurantChangedEvent(restaurantId));
+
         return updatedEntity;
     }
 
     /**
      * Deletes a restaurant by ID.
+     * The restaurant is only marked deleted here, which hides it at once and releases its owner;
+     * its orders, foods and other rows are removed in the background by a purge job.
      *
      * @param restaurantId the ID of the restaurant to delete
+     * @return the purge job, to follow its progress
      * @throws Exception if the restaurant is not found
      */
     @Override
-    public void deleteRestaurant(Long restaurantId) throws Exception {
+    @Transactional
+    public RestaurantPurgeJob deleteRestaurant(Long restaurantId) throws Exception {
         log.info("Deleting restaurant with ID: {}", restaurantId);
 
-        Restaurant restaurant = findRestaurantById(restaurantId);
-        restaurantRepository.delete(restaurant);
+        Restaurant restaurant = loadRestaurantForUpdate(restaurantId);
+        restaurant.setDeleted(true);
+        restaurant.setOpen(false);
+        restaurant.setOwner(null);
+        restaurantRepository.save(restaurant);
+
+        RestaurantPurgeJob job = new RestaurantPurgeJob();
+        job.setRestaurantId(restaurantId);
+        job.setStatus(PURGE_STATUS.PENDING);
+        job.setRequestedAt(LocalDateTime.now());
+        RestaurantPurgeJob savedJob = restaurantPurgeJobRepository.save(job);
+
+        log.info("Restaurant with ID {} marked deleted, purge job {} queued", restaurantId, savedJob.getId());
+        eventPublisher.publishEvent(new RestaurantChangedEvent(restaurantId));
+        eventPublisher.publishEvent(new RestaurantPurgeRequestedEvent(savedJob.getId()));
+
+        return savedJob;
+    }
+
+    /**
+     * Retrieves a restaurant purge job, to follow the progress of a deletion.
+     *
+     * @param jobId the ID of the job
+     * @return the job
+     * @throws Exception if the job is not found
+     */
+    @Override
+    public RestaurantPurgeJob getPurgeJob(Long jobId) throws Exception {
+        Optional<RestaurantPurgeJob> job = restaurantPurgeJobRepository.findById(jobId);
+        if (job.isEmpty()) {
+            log.error("Restaurant purge job not found with ID: {}", jobId);
+            throw new Exception("Restaurant purge job not found with id: " + jobId);
+        }
 
-        log.info("Restaurant with ID {} deleted", restaurantId);
+        return job.get();
     }
 
     /**
-     * Retrieves all restaurants.
+     * Retrieves all restaurants from the catalog cache.
+     * The open flag follows the opening hours, so filtering on it needs no schedule evaluation here.
      *
-     * @return a list of all restaurants
+     * @param openNow whether to return only the restaurants that are open
+     * @return a list of all restaurants, or of the open ones
      */
     @Override
-    public List<Restaurant> getAllRestaurant() {
+    public List<Restaurant> getAllRestaurant(boolean openNow) {
         log.info("Fetching all restaurants");
-        return restaurantRepository.findAll();
+        List<Restaurant> restaurants = restaurantCatalogCache.getAllRestaurants();
+        if (!openNow) {
+            return restaurants;
+        }
+        return restaurants.stream().filter(Restaurant::isOpen).toList();
+    }
+
+    /**
+     * Retrieves one keyset page of restaurant summaries, ordered by id.
+     * Two queries are run whatever the page holds: one for the card columns and one for the card images.
+     *
+     * @param afterId the ID of the last restaurant of the previous page, or null for the first page
+     * @param size    the maximum number of summaries to return
+     * @return the summaries of the page
+     */
+    @Override
+    public List<RestaurantSummary> getRestaurantSummaries(Long afterId, int size) {
+        log.info("Fetching {} restaurant summaries after ID: {}", size, afterId);
+
+        long after = afterId == null ? 0L : afterId;
+        List<RestaurantSummary> summaries = restaurantRepository.findSummariesAfter(after, PageRequest.of(0, size));
+        if (summaries.isEmpty()) {
+            return summaries;
+        }
+
+        attachCardImages(summaries);
+        return summaries;
+    }
+
+    /**
+     * Finds restaurants within a radius of a location, nearest first.
+     * Candidates come from the in-memory location index; only the returned restaurants are read from the
+     * database, with one query for their card columns and one for their card images.
+     *
+     * @param latitude  the latitude of the location, in degrees
+     * @param longitude the longitude of the location, in degrees
+     * @param radiusKm  the search radius, in kilometers
+     * @param limit     the maximum number of restaurants to return
+     * @param openOnly  whether to return only restaurants that are open
+     * @return the nearby restaurants with their distance, nearest first
+     */
+    @Override
+    public List<NearbyRestaurant> findNearbyRestaurants(double latitude, double longitude, double radiusKm,
+                                                        int limit, boolean openOnly) {
+        log.info("Finding up to {} restaurants within {} km of {}, {}", limit, radiusKm, latitude, longitude);
+        validateCoordinates(latitude, longitude);
+
+        List<GeoGrid.Neighbour> neighbours =
+                restaurantLocationIndex.within(latitude, longitude, radiusKm, limit, openOnly);
+        if (neighbours.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> restaurantIds = neighbours.stream().map(neighbour -> neighbour.point().id()).toList();
+        List<RestaurantSummary> summaries = restaurantRepository.findSummariesByIds(restaurantIds);
+        attachCardImages(summaries);
+
+        Map<Long, RestaurantSummary> summariesById = new HashMap<>();
+        summaries.forEach(summary -> summariesById.put(summary.getId(), summary));
+
+        // a restaurant deleted after the index was read has no summary and is left out
+        return neighbours.stream()
+                .filter(neighbour -> summariesById.containsKey(neighbour.point().id()))
+                .map(neighbour -> new NearbyRestaurant(summariesById.get(neighbour.point().id()),
+                        neighbour.distanceKm()))
+                .toList();
     }
 
     /**
-     * Searches for restaurants by a keyword.
+     * Finds closed restaurants whose opening hours open them within the given minutes, soonest first.
+     * The compiled schedules of the whole catalog are checked in memory; only the returned restaurants
+     * are read from the database.
+     *
+     * @param withinMinutes how far ahead to look
+     * @param limit         the maximum number of restaurants to return
+     * @return the restaurants with the minutes until they open, soonest first
+     */
+    @Override
+    public List<OpeningSoonRestaurant> findRestaurantsOpeningSoon(int withinMinutes, int limit) {
+        log.info("Finding up to {} restaurants opening within {} minutes", limit, withinMinutes);
+
+        List<ScheduleRegistry.OpeningSoon> openingSoon =
+                scheduleRegistry.findOpeningWithin(Instant.now(), withinMinutes, limit);
+        if (openingSoon.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> restaurantIds = openingSoon.stream().map(ScheduleRegistry.OpeningSoon::restaurantId).toList();
+        List<RestaurantSummary> summaries = restaurantRepository.findSummariesByIds(restaurantIds);
+        attachCardImages(summaries);
+
+        Map<Long, RestaurantSummary> summariesById = new HashMap<>();
+        summaries.forEach(summary -> summariesById.put(summary.getId(), summary));
+
+        return openingSoon.stream()
+                .filter(restaurant -> summariesById.containsKey(restaurant.restaurantId()))
+                .map(restaurant -> new OpeningSoonRestaurant(summariesById.get(restaurant.restaurantId()),
+                        restaurant.minutesUntilOpen()))
+                .toList();
+    }
+
+    /**
+     * Sets the card image of each summary to the first image of its restaurant, with a single query.
+     *
+     * @param summaries the summaries to fill in
+     */
+    private void attachCardImages(List<RestaurantSummary> summaries) {
+        List<Long> restaurantIds = summaries.stream().map(RestaurantSummary::getId).toList();
+        Map<Long, String> images = new HashMap<>();
+        for (Object[] row : restaurantRepository.findCardImagesByRestaurantIds(restaurantIds)) {
+            images.put((Long) row[0], (String) row[1]);
+        }
+        summaries.forEach(summary -> summary.setImage(images.get(summary.getId())));
+    }
+
+    /**
+     * Searches for restaurants by a keyword, best matches first.
      *
      * @param keyword the search keyword
-     * @return a list of matching restaurants
+     * @param page    the zero-based page number
+     * @param size    the page size
+     * @return a page of matching restaurants
      */
     @Override
-    public List<Restaurant> searchRestaurants(String keyword) {
+    public List<Restaurant> searchRestaurants(String keyword, int page, int size) {
         log.info("Searching for restaurants with keyword: {}", keyword);
-        return restaurantRepository.findBySearchQuery(keyword);
+
+        String query = FullTextQuery.toPrefixQuery(keyword);
+        if (query == null) {
+            return List.of();
+        }
+        return restaurantRepository.searchRanked(query, size, (long) page * size);
     }
 
     /**
      * Finds a restaurant by its ID.
+     * The restaurant comes from the catalog cache and must not be modified.
      *
      * @param restaurantId the ID of the restaurant
      * @return the found restaurant
@@ -150,13 +388,42 @@ public class RestaurantServiceImpl implements RestaurantService {
     public Restaurant findRestaurantById(Long restaurantId) throws Exception {
         log.info("Finding restaurant with ID: {}", restaurantId);
 
+        Restaurant restaurant = restaurantCatalogCache.getRestaurant(restaurantId);
+        if (restaurant == null) {
+            log.error("Restaurant not found with ID: {}", restaurantId);
+            throw new Exception("Restaurant not found with id: " + restaurantId);
+        }
+
+        return restaurant;
+    }
+
+    /**
+     * Checks whether a restaurant exists and belongs to a user, through the catalog cache.
+     *
+     * @param restaurantId the ID of the restaurant
+     * @param userId       the ID of the user
+     * @return true if the user owns the restaurant
+     */
+    @Override
+    public boolean isOwnedBy(Long restaurantId, Long userId) {
+        Restaurant restaurant = restaurantCatalogCache.getRestaurant(restaurantId);
+        return restaurant != null && restaurant.getOwner() != null && restaurant.getOwner().getId().equals(userId);
+    }
+
+    /**
+     * Loads a restaurant from the database for modification, bypassing the catalog cache.
+     *
+     * @param restaurantId the ID of the restaurant
+     * @return the found restaurant
+     * @throws Exception if the restaurant is not found
+     */
+    private Restaurant loadRestaurantForUpdate(Long restaurantId) throws Exception {
         Optional<Restaurant> selectedRestaurant = restaurantRepository.findById(restaurantId);
         if (selectedRestaurant.isEmpty()) {
             log.error("Restaurant not found with ID: {}", restaurantId);
             throw new Exception("Restaurant not found with id: " + restaurantId);
         }
 
-        log.info("Restaurant found with ID: {}", restaurantId);
         return selectedRestaurant.get();
     }
 
@@ -183,35 +450,83 @@ public class RestaurantServiceImpl implements RestaurantService {
 
     /**
      * Adds or removes a restaurant from a user's favourites.
+     * The toggle touches only the one favourite row: a delete, followed by an insert when nothing was deleted.
+     * The user's other favourites are neither read nor rewritten.
      *
      * @param restaurantId the ID of the restaurant
-     * @param user the user whose favourites are being updated
+     * @param userId the ID of the user whose favourites are being updated
      * @return the restaurant DTO added or removed
      * @throws Exception if the restaurant is not found
      */
     @Override
-    public RestaurantDto addToFavourites(Long restaurantId, User user) throws Exception {
-        log.info("Updating favourites for user: {}", user.getId());
+    public RestaurantDto addToFavourites(Long restaurantId, Long userId) throws Exception {
+        log.info("Updating favourites for user: {}", userId);
 
         Restaurant restaurant = findRestaurantById(restaurantId);
-        RestaurantDto favoriteRestaurantDto = new RestaurantDto();
-        favoriteRestaurantDto.setDescription(restaurant.getDescription());
-        favoriteRestaurantDto.setImages(restaurant.getImages());
-        favoriteRestaurantDto.setTitle(restaurant.getName());
-        favoriteRestaurantDto.setId(restaurantId);
 
-        boolean isFavourite = user.getFavourites().stream().anyMatch(fav -> fav.getId().equals(restaurantId));
-
-        if (isFavourite) {
-            user.getFavourites().removeIf(fav -> fav.getId().equals(restaurantId));
+        if (favouriteRestaurantRepository.deleteFavourite(userId, restaurantId) > 0) {
             log.info("Restaurant with ID {} removed from favourites", restaurantId);
         } else {
-            user.getFavourites().add(favoriteRestaurantDto);
+            favouriteRestaurantRepository.insertFavourite(userId, restaurantId);
             log.info("Restaurant with ID {} added to favourites", restaurantId);
         }
 
-        userRepository.save(user);
-        return favoriteRestaurantDto;
+        return toFavouriteDto(restaurant);
+    }
+
+    /**
+     * Retrieves one page of a user's favourite restaurants, most recently added first.
+     * Two queries are run whatever the page holds: one for the card columns and one for the card images.
+     *
+     * @param userId the ID of the user
+     * @param page   the zero-based page number
+     * @param size   the page size
+     * @return the summaries of the page
+     */
+    @Override
+    public List<RestaurantSummary> getFavouriteRestaurants(Long userId, int page, int size) {
+        log.info("Fetching page {} of favourite restaurants for user: {}", page, userId);
+
+        List<RestaurantSummary> summaries =
+                favouriteRestaurantRepository.findSummariesByUserId(userId, PageRequest.of(page, size));
+        if (summaries.isEmpty()) {
+            return summaries;
+        }
+
+        attachCardImages(summaries);
+        return summaries;
+    }
+
+    /**
+     * Lists a user's favourite restaurants for the profile view, most recently added first.
+     * Only the favourite ids are read from the database; the restaurants come from the catalog cache, which loads
+     * the ones it does not hold yet in one query.
+     *
+     * @param userId the ID of the user
+     * @return the favourite restaurants
+     */
+    @Override
+    public List<RestaurantDto> getFavourites(Long userId) {
+        List<Long> restaurantIds = favouriteRestaurantRepository.findRestaurantIdsByUserId(userId);
+        Map<Long, Restaurant> restaurants = restaurantCatalogCache.getRestaurants(restaurantIds);
+
+        List<RestaurantDto> favourites = new ArrayList<>();
+        for (Long restaurantId : restaurantIds) {
+            Restaurant restaurant = restaurants.get(restaurantId);
+            if (restaurant != null) {
+                favourites.add(toFavouriteDto(restaurant));
+            }
+        }
+        return favourites;
+    }
+
+    private static RestaurantDto toFavouriteDto(Restaurant restaurant) {
+        RestaurantDto favouriteRestaurantDto = new RestaurantDto();
+        favouriteRestaurantDto.setDescription(restaurant.getDescription());
+        favouriteRestaurantDto.setImages(restaurant.getImages());
+        favouriteRestaurantDto.setTitle(restaurant.getName());
+        favouriteRestaurantDto.setId(restaurant.getId());
+        return favouriteRestaurantDto;
     }
 
     /**
@@ -225,12 +540,14 @@ public class RestaurantServiceImpl implements RestaurantService {
     public Restaurant updateRestaurantStatus(Long id) throws Exception {
         log.info("Toggling open status for restaurant with ID: {}", id);
 
-        Restaurant restaurant = findRestaurantById(id);
+        Restaurant restaurant = loadRestaurantForUpdate(id);
         restaurant.setOpen(!restaurant.isOpen());
 
         Restaurant updatedRestaurant = restaurantRepository.save(restaurant);
         log.info("Restaurant open status updated for ID: {}", id);
 
+        eventPublisher.publishEvent(new RestaurantChangedEvent(id));
+
         return updatedRestaurant;
     }
 }
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.foodsphere.service.impl;
+
+import com.foodsphere.search.Suggestion;
+import com.foodsphere.search.SuggestionIndex;
+import com.foodsphere.service.SearchService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Implementation of the SearchService interface, answering typeahead requests from the in-memory index.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SearchServiceImpl implements SearchService {
+
+    private final SuggestionIndex suggestionIndex;
+
+    /**
+     * Returns completions for the text typed so far, without querying the database.
+     *
+     * @param prefix the text typed so far
+     * @param limit  the maximum number of suggestions
+     * @return restaurant, cuisine and dish suggestions, best first
+     */
+    @Override
+    public List<Suggestion> suggest(String prefix, int limit) {
+        log.debug("Suggesting completions for prefix: {}", prefix);
+        return suggestionIndex.suggest(prefix, limit);
+    }
+}
@@ -1,13 +1,16 @@
 package com.foodsphere.service.impl;
 
+import com.foodsphere.config.AuthenticatedUser;
 import com.foodsphere.model.USER_ROLE;
 import com.foodsphere.model.User;
+import com.foodsphere.repository.RestaurantRepository;
 import com.foodsphere.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -19,13 +22,17 @@ import java.util.List;
  * This class is responsible for loading the user details from the database.
  * <p>
  * By implementing this class, we are telling the Spring Security to not generate the auto password.
+ * <p>
+ * It also implements {@link UserDetailsPasswordService}, so a password whose stored hash cost no longer
+ * matches the configured one is rehashed and saved after a successful login.
  */
 @Slf4j
 @RequiredArgsConstructor
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
+    private final RestaurantRepository restaurantRepository;
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
@@ -45,7 +52,27 @@ public class UserDetailsServiceImpl implements UserDetailsService {
         List<GrantedAuthority> authorities = new ArrayList<>();
         authorities.add(new SimpleGrantedAuthority(role.toString()));
 
+        // Restaurant owners carry their restaurant id in the token, so admin requests skip the owner lookup
+        Long restaurantId = role == USER_ROLE.ROLE_RESTAURANT_OWNER
+                ? restaurantRepository.findIdByOwnerId(user.getId())
+                : null;
+
         // Create the user details object
-        return new org.springframework.security.core.userdetails.User(user.getEmail(), user.getPassword(), authorities);
+        return new AuthenticatedUser(user.getId(), restaurantId, user.getEmail(), user.getPassword(), authorities);
+    }
+
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        log.info("Rehashing password for user with email {}", userDetails.getUsername());
+
+        User user = userRepository.findByEmail(userDetails.getUsername());
+        user.setPassword(newPassword);
+        userRepository.save(user);
+
+        if (userDetails instanceof AuthenticatedUser authenticatedUser) {
+            return new AuthenticatedUser(authenticatedUser.getUserId(), authenticatedUser.getRestaurantId(),
+                    user.getEmail(), newPassword, userDetails.getAuthorities());
+        }
+        return new org.springframework.security.core.userdetails.User(user.getEmail(), newPassword, userDetails.getAuthorities());
     }
 }
\ No newline at end of file
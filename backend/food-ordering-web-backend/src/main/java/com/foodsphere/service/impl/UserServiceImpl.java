@@ -12,7 +12,7 @@ import java.util.Optional;
 
 /**
  * This class is the implementation of the UserService interface.
- * This class is implementing the findUserByJwt and findUserByEmail methods.
+ * This class is implementing the findUserByJwt, findUserByEmail and findUserById methods.
  */
 @Slf4j
 @RequiredArgsConstructor
@@ -51,6 +51,20 @@ public class UserServiceImpl implements UserService {
         return user;
     }
 
+    @Override
+    public User findUserById(Long userId) throws Exception {
+        log.debug("Attempting to find user with id {}", userId);
+
+        Optional<User> user = userRepository.findById(userId);
+
+        if (user.isEmpty()) {
+            log.error("User not found with id {}", userId);
+            throw new Exception("User not found with id " + userId);
+        }
+
+        return user.get();
+    }
+
     private String getEmailFromJwt(String jwt) {
         log.debug("Extracting email from JWT token");
         return jwtProvider.getEmailFromJwt(jwt);
@@ -0,0 +1,60 @@
+-- Runs on every startup after Hibernate has updated the tables (spring.jpa.defer-datasource-initialization),
+-- so every statement must be idempotent.
+
+-- Full-text search over restaurants: name ranks above cuisine type, which ranks above description.
+ALTER TABLE restaurants ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple', coalesce(name, '')), 'A') ||
+        setweight(to_tsvector('simple', coalesce(cuisine_type, '')), 'B') ||
+        setweight(to_tsvector('simple', coalesce(description, '')), 'C')
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_restaurants_search_vector ON restaurants USING GIN (search_vector);
+
+-- Full-text search over foods: name ranks above description. The category name lives in its own table,
+-- so it gets its own vector and foods are reached through the category foreign key.
+ALTER TABLE foods ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple', coalesce(name, '')), 'A') ||
+        setweight(to_tsvector('simple', coalesce(description, '')), 'C')
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_foods_search_vector ON foods USING GIN (search_vector);
+
+ALTER TABLE category ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (to_tsvector('simple', coalesce(name, ''))) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_category_search_vector ON category USING GIN (search_vector);
+
+CREATE INDEX IF NOT EXISTS idx_foods_food_category_id ON foods (food_category_id);
+
+-- Menu filters: one restaurant's foods by availability, vegetarian and seasonal flags (FoodSpecifications).
+CREATE INDEX IF NOT EXISTS idx_foods_menu_filter ON foods (restaurant_id, available, is_vegetarian, is_seasonal);
+
+-- Favourites used to be an element collection copied into user_favourites; move them to one row per
+-- (user, restaurant) in favourite_restaurants and drop the old table, if it is still there.
+DO $$
+BEGIN
+    IF to_regclass('user_favourites') IS NOT NULL THEN
+        INSERT INTO favourite_restaurants (user_id, restaurant_id, created_at)
+        SELECT DISTINCT uf.user_id, uf.id, now()
+        FROM user_favourites uf
+            JOIN users u ON u.id = uf.user_id
+            JOIN restaurants r ON r.id = uf.id
+        ON CONFLICT (user_id, restaurant_id) DO NOTHING;
+
+        DROP TABLE user_favourites CASCADE;
+    END IF;
+END $$;
+
+-- Stock availability of foods is kept up to date on every stock change; bring the foods written before it was
+-- tracked, or changed by hand, in line with their ingredients. Only rows that are wrong are written.
+UPDATE foods f
+SET stock_available = NOT EXISTS (
+    SELECT 1 FROM foods_ingredients fi
+        JOIN ingredients_item i ON i.id = fi.ingredients_id
+    WHERE fi.food_id = f.id AND NOT i.is_stock)
+WHERE stock_available IS DISTINCT FROM NOT EXISTS (
+    SELECT 1 FROM foods_ingredients fi
+        JOIN ingredients_item i ON i.id = fi.ingredients_id
+    WHERE fi.food_id = f.id AND NOT i.is_stock);
@@ -0,0 +1,24 @@
+package com.foodsphere.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IngredientFoodIndexTest {
+
+    @Test
+    void listsTheFoodsOfAnIngredient() {
+        IngredientFoodIndex.Links links = IngredientFoodIndex.Links.of(List.of(
+                new Object[]{1L, 10L}, new Object[]{1L, 11L},
+                new Object[]{2L, 10L},
+                new Object[]{3L, 10L}, new Object[]{3L, 12L},
+                new Object[]{4L, 11L}));
+
+        assertEquals(List.of(1L, 2L, 3L), links.foodsUsing(10L));
+        assertEquals(List.of(1L, 4L), links.foodsUsing(11L));
+        assertEquals(List.of(3L), links.foodsUsing(12L));
+        assertTrue(links.foodsUsing(99L).isEmpty());
+    }
+}
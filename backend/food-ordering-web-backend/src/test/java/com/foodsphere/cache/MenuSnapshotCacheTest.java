@@ -0,0 +1,106 @@
+package com.foodsphere.cache;
+
+import com.foodsphere.event.FoodChangedEvent;
+import com.foodsphere.model.Food;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MenuSnapshotCacheTest {
+
+    private static final MenuSnapshotCache.MenuKey MENU =
+            new MenuSnapshotCache.MenuKey(1L, false, false, false, null, null, 0, null);
+
+    private final MenuSnapshotCache cache = new MenuSnapshotCache(Jackson2ObjectMapperBuilder.json().build(),
+            new SimpleMeterRegistry(), 1 << 20, Duration.ofHours(1), 64);
+
+    @Test
+    void servesTheStoredSnapshotUntilTheMenuChanges() {
+        AtomicInteger loads = new AtomicInteger();
+
+        MenuSnapshot first = cache.get(MENU, () -> menu(loads.incrementAndGet()));
+        MenuSnapshot again = cache.get(MENU, () -> menu(loads.incrementAndGet()));
+        assertSame(first, again);
+        assertEquals(1, loads.get());
+
+        cache.onFoodChanged(new FoodChangedEvent(10L, 1L, "Dish 1", "Dish 1"));
+        MenuSnapshot rebuilt = cache.get(MENU, () -> menu(loads.incrementAndGet()));
+        assertEquals(2, loads.get());
+        assertNotEquals(first.etag(), rebuilt.etag());
+    }
+
+    @Test
+    void aSnapshotReadBeforeAChangeIsNotServedAfterIt() {
+        AtomicInteger loads = new AtomicInteger();
+
+        // the change commits while the menu is being read
+        cache.get(MENU, () -> {
+            cache.invalidate(1L);
+            return menu(loads.incrementAndGet());
+        });
+        cache.get(MENU, () -> menu(loads.incrementAndGet()));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void changesOfAnotherRestaurantKeepTheSnapshot() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(MENU, () -> menu(loads.incrementAndGet()));
+        cache.invalidate(2L);
+        cache.get(MENU, () -> menu(loads.incrementAndGet()));
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void matchesEitherRepresentationAndStoresValidGzip() throws IOException {
+        MenuSnapshot snapshot = cache.get(MENU, () -> menu(1));
+
+        assertNotNull(snapshot.gzipped());
+        assertTrue(snapshot.matches(snapshot.etag(false)));
+        assertTrue(snapshot.matches("\"other\", W/" + snapshot.etag(true)));
+        assertTrue(snapshot.matches("*"));
+        assertFalse(snapshot.matches("\"other\""));
+        assertFalse(snapshot.matches(null));
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(snapshot.gzipped()))) {
+            assertEquals(new String(snapshot.json(), StandardCharsets.UTF_8),
+                    new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void acceptsGzipOnlyWithAQualityAboveZero() {
+        assertTrue(MenuSnapshot.acceptsGzip("gzip, deflate, br"));
+        assertTrue(MenuSnapshot.acceptsGzip("br;q=1.0, GZIP;q=0.5"));
+        assertTrue(MenuSnapshot.acceptsGzip("*"));
+        assertFalse(MenuSnapshot.acceptsGzip("gzip;q=0"));
+        assertFalse(MenuSnapshot.acceptsGzip("gzip;q=0.000, *"));
+        assertFalse(MenuSnapshot.acceptsGzip("*;q=0"));
+        assertFalse(MenuSnapshot.acceptsGzip("gzip;q=high"));
+        assertFalse(MenuSnapshot.acceptsGzip("deflate, br"));
+        assertFalse(MenuSnapshot.acceptsGzip(null));
+    }
+
+    private static List<Food> menu(int revision) {
+        Food food = new Food();
+        food.setId(10L);
+        food.setName("Dish " + revision);
+        food.setDescription("Freshly made for revision " + revision + " of the menu");
+        food.setPrice(250L);
+        food.setAvailable(true);
+        return List.of(food);
+    }
+}
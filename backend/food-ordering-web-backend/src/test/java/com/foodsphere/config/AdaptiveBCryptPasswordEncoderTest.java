@@ -0,0 +1,35 @@
+package com.foodsphere.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveBCryptPasswordEncoderTest {
+
+    // A target of zero keeps the calibration at the minimum strength, which keeps the test fast
+    private final AdaptiveBCryptPasswordEncoder passwordEncoder = new AdaptiveBCryptPasswordEncoder(0, 4, 12);
+
+    @Test
+    void calibrate_staysAtMinimumStrengthWhenTargetIsTooLow() {
+        assertEquals(4, passwordEncoder.getStrength());
+    }
+
+    @Test
+    void matches_acceptsHashesStoredWithAnotherStrength() {
+        String storedHash = new BCryptPasswordEncoder(5).encode("secret");
+
+        assertTrue(passwordEncoder.matches("secret", storedHash));
+        assertFalse(passwordEncoder.matches("wrong", storedHash));
+    }
+
+    @Test
+    void upgradeEncoding_onlyWhenStoredStrengthIsLower() {
+        AdaptiveBCryptPasswordEncoder strongerEncoder = new AdaptiveBCryptPasswordEncoder(0, 5, 12);
+
+        assertFalse(strongerEncoder.upgradeEncoding(strongerEncoder.encode("secret")));
+        assertTrue(strongerEncoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret")));
+        assertFalse(strongerEncoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("secret")));
+        assertFalse(strongerEncoder.upgradeEncoding("not-a-bcrypt-hash"));
+    }
+}
@@ -0,0 +1,71 @@
+package com.foodsphere.config;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtProviderTest {
+
+    private final JwtProvider jwtProvider = new JwtProvider(100);
+
+    @Test
+    void getClaims_returnsEmailAndAuthoritiesFromGeneratedToken() {
+        String jwt = jwtProvider.generateToken(getAuthentication());
+
+        Claims claims = jwtProvider.getClaims("Bearer " + jwt);
+
+        assertEquals("demo@gmail.com", claims.get("email"));
+        assertEquals("ROLE_CUSTOMER", claims.get("authorities"));
+        assertEquals("demo@gmail.com", jwtProvider.getEmailFromJwt("Bearer " + jwt));
+    }
+
+    @Test
+    void generateToken_signsUserAndRestaurantIdsForAuthenticatedUser() {
+        List<SimpleGrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_RESTAURANT_OWNER"));
+        AuthenticatedUser user = new AuthenticatedUser(7L, 3L, "owner@gmail.com", "secret", authorities);
+        String jwt = jwtProvider.generateToken(new UsernamePasswordAuthenticationToken(user, null, authorities));
+
+        Claims claims = jwtProvider.getClaims(jwt);
+
+        assertEquals(7L, ((Number) claims.get(JwtConstant.USER_ID_CLAIM)).longValue());
+        assertEquals(3L, ((Number) claims.get(JwtConstant.RESTAURANT_ID_CLAIM)).longValue());
+    }
+
+    @Test
+    void generateToken_omitsIdsWhenPrincipalHasNone() {
+        Claims claims = jwtProvider.getClaims(jwtProvider.generateToken(getAuthentication()));
+
+        assertNull(claims.get(JwtConstant.USER_ID_CLAIM));
+        assertNull(claims.get(JwtConstant.RESTAURANT_ID_CLAIM));
+    }
+
+    @Test
+    void getClaims_reusesVerifiedClaimsForTheSameToken() {
+        String jwt = jwtProvider.generateToken(getAuthentication());
+
+        Claims first = jwtProvider.getClaims("Bearer " + jwt);
+        Claims second = jwtProvider.getClaims(jwt);
+
+        assertSame(first, second);
+    }
+
+    @Test
+    void getClaims_rejectsTamperedToken() {
+        String jwt = jwtProvider.generateToken(getAuthentication());
+        String tampered = jwt.substring(0, jwt.length() - 2) + (jwt.endsWith("AA") ? "BB" : "AA");
+
+        assertThrows(JwtException.class, () -> jwtProvider.getClaims("Bearer " + tampered));
+    }
+
+    private static Authentication getAuthentication() {
+        return new UsernamePasswordAuthenticationToken("demo@gmail.com", null,
+                List.of(new SimpleGrantedAuthority("ROLE_CUSTOMER")));
+    }
+}
@@ -0,0 +1,104 @@
+package com.foodsphere.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Measures signin throughput against the number of concurrent clients.
+ * <p>
+ * Each client authenticates through a {@link DaoAuthenticationProvider} on the password hashing executor,
+ * the same way {@code AuthenticationController.login} does, against an in-memory user so only BCrypt is measured.
+ * Throughput should flatten once the clients outnumber the hashing threads, and rejections should appear
+ * instead of growing latency once the queue is full.
+ * <p>
+ * Not picked up by the default test run; run it with {@code mvn test -Dtest=SigninThroughputBenchmark}.
+ */
+class SigninThroughputBenchmark {
+
+    private static final int[] CONCURRENCY = {1, 2, 4, 8, 16, 32, 64};
+
+    private static final long DURATION_MILLIS = 3000;
+
+    @Test
+    void signinThroughputByConcurrency() throws Exception {
+        AdaptiveBCryptPasswordEncoder passwordEncoder = new AdaptiveBCryptPasswordEncoder(250, 10, 14);
+        List<SimpleGrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_CUSTOMER"));
+        String storedHash = passwordEncoder.encode("password");
+        UserDetailsService userDetailsService =
+                email -> new AuthenticatedUser(1L, null, email, storedHash, authorities);
+
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(passwordEncoder);
+        provider.setUserDetailsService(userDetailsService);
+        ProviderManager authenticationManager = new ProviderManager(provider);
+
+        ThreadPoolTaskExecutor executor = new PasswordHashingConfig().passwordHashingExecutor(0, 16);
+        executor.initialize();
+
+        System.out.printf("BCrypt strength %d, %d hashing threads%n", passwordEncoder.getStrength(), executor.getMaxPoolSize());
+        System.out.printf("%12s %12s %12s %16s%n", "clients", "signin/s", "rejected", "mean latency ms");
+
+        try {
+            for (int clients : CONCURRENCY) {
+                AtomicLong completed = new AtomicLong();
+                AtomicLong rejected = new AtomicLong();
+                AtomicLong latencyNanos = new AtomicLong();
+                CountDownLatch done = new CountDownLatch(clients);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DURATION_MILLIS);
+
+                for (int i = 0; i < clients; i++) {
+                    Thread client = new Thread(() -> {
+                        while (System.nanoTime() < deadline) {
+                            long start = System.nanoTime();
+                            try {
+                                CompletableFuture
+                                        .supplyAsync(() -> authenticationManager.authenticate(
+                                                new UsernamePasswordAuthenticationToken("demo@gmail.com", "password")), executor)
+                                        .join();
+                                completed.incrementAndGet();
+                                latencyNanos.addAndGet(System.nanoTime() - start);
+                            } catch (RejectedExecutionException e) {
+                                rejected.incrementAndGet();
+                                // A real client would honour Retry-After; back off briefly instead of spinning
+                                sleep();
+                            }
+                        }
+                        done.countDown();
+                    });
+                    client.start();
+                }
+                done.await();
+
+                long count = completed.get();
+                double throughput = count * 1000.0 / DURATION_MILLIS;
+                double meanLatency = count == 0 ? 0 : latencyNanos.get() / 1_000_000.0 / count;
+                System.out.printf("%12d %12.1f %12d %16.1f%n", clients, throughput, rejected.get(), meanLatency);
+
+                assertTrue(count > 0);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(10);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
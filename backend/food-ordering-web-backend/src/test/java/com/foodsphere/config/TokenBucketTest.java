@@ -0,0 +1,45 @@
+package com.foodsphere.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void tryConsume_allowsBurstUpToCapacity() {
+        TokenBucket bucket = new TokenBucket(3, SECOND);
+        long now = System.nanoTime();
+
+        assertEquals(0, bucket.tryConsume(now));
+        assertEquals(0, bucket.tryConsume(now));
+        assertEquals(0, bucket.tryConsume(now));
+        assertEquals(SECOND, bucket.tryConsume(now));
+    }
+
+    @Test
+    void tryConsume_regainsOneTokenPerRefillPeriod() {
+        TokenBucket bucket = new TokenBucket(2, SECOND);
+        long now = System.nanoTime();
+        bucket.tryConsume(now);
+        bucket.tryConsume(now);
+
+        assertTrue(bucket.tryConsume(now + SECOND / 2) > 0);
+        assertEquals(0, bucket.tryConsume(now + SECOND));
+        assertTrue(bucket.tryConsume(now + SECOND) > 0);
+    }
+
+    @Test
+    void tryConsume_doesNotAccumulateMoreThanCapacityWhenIdle() {
+        TokenBucket bucket = new TokenBucket(2, SECOND);
+        long later = System.nanoTime() + 100 * SECOND;
+
+        assertEquals(0, bucket.tryConsume(later));
+        assertEquals(0, bucket.tryConsume(later));
+        assertTrue(bucket.tryConsume(later) > 0);
+    }
+}
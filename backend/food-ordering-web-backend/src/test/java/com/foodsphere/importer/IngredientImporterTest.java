@@ -0,0 +1,161 @@
+package com.foodsphere.importer;
+
+import com.foodsphere.cache.IngredientCatalogCache;
+import com.foodsphere.request.BulkIngredientRequest;
+import com.foodsphere.response.BulkIngredientResponse;
+import jakarta.persistence.EntityManager;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class IngredientImporterTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private IngredientCatalogCache ingredientCatalogCache;
+
+    @Test
+    void check_rejectsNamesRepeatedInTheDocumentIgnoringCaseAndSpaces() {
+        BulkIngredientRequest categories = request(category("Sauces", "Mayo"), category(" sauces ", "Ketchup"));
+        BulkIngredientRequest items = request(category("Sauces", "Mayo", " MAYO "));
+
+        IllegalArgumentException category = assertThrows(IllegalArgumentException.class,
+                () -> IngredientImporter.check(categories));
+        IllegalArgumentException item = assertThrows(IllegalArgumentException.class,
+                () -> IngredientImporter.check(items));
+
+        assertEquals("Category 'sauces' is listed twice", category.getMessage());
+        assertEquals("Ingredient 'MAYO' is listed twice in category 'Sauces'", item.getMessage());
+    }
+
+    @Test
+    void check_returnsAStrippedCopyAndLeavesTheRequestAsItIs() {
+        BulkIngredientRequest.Category sauces = category(" Sauces ", " Mayo ");
+        BulkIngredientRequest.Category breads = category("Breads");
+        breads.setItems(null);
+        BulkIngredientRequest request = request(sauces, breads);
+
+        List<BulkIngredientRequest.Category> checked = IngredientImporter.check(request);
+
+        assertEquals("Sauces", checked.get(0).getName());
+        assertEquals("Mayo", checked.get(0).getItems().get(0).getName());
+        assertTrue(checked.get(1).getItems().isEmpty());
+        assertEquals(" Sauces ", sauces.getName());
+        assertEquals(" Mayo ", sauces.getItems().get(0).getName());
+        assertNull(breads.getItems());
+    }
+
+    @Test
+    void importIngredients_createsUnknownCategoriesAndAddsToExistingOnes() {
+        EntityManager entityManager = entityManager(new Object[]{7L, "Sauces", "Mayo"});
+        IngredientImporter importer = importer(entityManager);
+
+        BulkIngredientResponse response = importer.importIngredients(1L,
+                request(category("sauces", "Ketchup"), category("Breads", "Naan", "Roti")));
+
+        assertEquals(1, response.getCategoriesCreated());
+        assertEquals(3, response.getItemsCreated());
+        BulkIngredientResponse.CategoryResult sauces = response.getCategories().get(0);
+        BulkIngredientResponse.CategoryResult breads = response.getCategories().get(1);
+        assertEquals(7L, (long) sauces.getId());
+        assertFalse(sauces.isCreated());
+        assertTrue(breads.isCreated());
+        assertEquals(List.of("Naan", "Roti"), breads.getItems().stream()
+                .map(BulkIngredientResponse.ItemResult::getName)
+                .toList());
+
+        List<Object[]> categories = batch("ingredient_category");
+        assertEquals(1, categories.size());
+        assertEquals("Breads", categories.get(0)[1]);
+        assertEquals(3, batch("ingredients_item").size());
+        Mockito.verify(ingredientCatalogCache).invalidate(1L);
+    }
+
+    @Test
+    void importIngredients_writesNothingWhenALaterCategoryRepeatsAnExistingItem() {
+        EntityManager entityManager = entityManager(new Object[]{7L, "Sauces", "Mayo"});
+        IngredientImporter importer = importer(entityManager);
+        BulkIngredientRequest request = request(category("Breads", "Naan"), category("Sauces", "Ketchup", "mayo"));
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> importer.importIngredients(1L, request));
+
+        assertEquals("Ingredient 'mayo' already exists in category 'Sauces'", error.getMessage());
+        Mockito.verifyNoInteractions(jdbcTemplate, ingredientCatalogCache);
+        Mockito.verify(transactionManager).rollback(Mockito.any());
+    }
+
+    private IngredientImporter importer(EntityManager entityManager) {
+        return new IngredientImporter(entityManager, jdbcTemplate, transactionManager, ingredientCatalogCache);
+    }
+
+    /**
+     * An entity manager whose id generators count up from 100 and whose restaurant has the given categories.
+     */
+    private static EntityManager entityManager(Object[]... existing) {
+        EntityManager entityManager = Mockito.mock(EntityManager.class, Mockito.RETURNS_DEEP_STUBS);
+        BeforeExecutionGenerator generator = Mockito.mock(BeforeExecutionGenerator.class);
+        long[] next = {100};
+        Mockito.when(generator.generate(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenAnswer(invocation -> next[0]++);
+        SharedSessionContractImplementor session = Mockito.mock(SharedSessionContractImplementor.class);
+        SessionFactoryImplementor factory = Mockito.mock(SessionFactoryImplementor.class, Mockito.RETURNS_DEEP_STUBS);
+        Mockito.when(entityManager.unwrap(SharedSessionContractImplementor.class)).thenReturn(session);
+        Mockito.when(session.getFactory()).thenReturn(factory);
+        Mockito.when(factory.unwrap(SessionFactoryImplementor.class)).thenReturn(factory);
+        Mockito.when(factory.getMappingMetamodel().getEntityDescriptor(Mockito.any(Class.class)).getGenerator())
+                .thenReturn(generator);
+        Mockito.when(entityManager.createQuery(Mockito.anyString(), Mockito.eq(Object[].class))
+                        .setParameter("restaurantId", 1L).getResultStream())
+                .thenReturn(Stream.of(existing));
+        return entityManager;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> batch(String table) {
+        ArgumentCaptor<Collection<Object[]>> rows = ArgumentCaptor.forClass(Collection.class);
+        Mockito.verify(jdbcTemplate).batchUpdate(Mockito.contains(table), rows.capture(), Mockito.anyInt(),
+                Mockito.<ParameterizedPreparedStatementSetter<Object[]>>any());
+        return new ArrayList<>(rows.getValue());
+    }
+
+    private static BulkIngredientRequest request(BulkIngredientRequest.Category... categories) {
+        BulkIngredientRequest request = new BulkIngredientRequest();
+        request.setCategories(Arrays.asList(categories));
+        return request;
+    }
+
+    private static BulkIngredientRequest.Category category(String name, String... items) {
+        BulkIngredientRequest.Category category = new BulkIngredientRequest.Category();
+        category.setName(name);
+        for (String itemName : items) {
+            BulkIngredientRequest.Item item = new BulkIngredientRequest.Item();
+            item.setName(itemName);
+            category.getItems().add(item);
+        }
+        return category;
+    }
+}
@@ -0,0 +1,93 @@
+package com.foodsphere.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.foodsphere.request.MenuImportRow;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MenuImportReaderTest {
+
+    @Test
+    void readsQuotedCsvFieldsAndListsWithTheLineEachRowStartsOn() throws IOException {
+        String csv = """
+                Name,Price,Category,Vegetarian,Ingredients,Description
+                Paneer Tikka,250,Starters,yes,paneer|capsicum,
+                "Butter Chicken, Half",300,Mains,false,,"Rich
+                tomato ""makhani"" gravy"
+
+                Dal,120
+                """;
+        MenuImportReader reader = MenuImportReader.csv(new StringReader(csv));
+
+        MenuImportRow tikka = reader.next();
+        assertEquals(2, reader.rowLine());
+        assertEquals("Paneer Tikka", tikka.getName());
+        assertEquals(250L, tikka.getPrice().longValue());
+        assertEquals("Starters", tikka.getCategory());
+        assertTrue(tikka.isVegetarian());
+        assertTrue(tikka.isAvailable());
+        assertEquals(List.of("paneer", "capsicum"), tikka.getIngredients());
+        assertNull(tikka.getDescription());
+
+        MenuImportRow chicken = reader.next();
+        assertEquals(3, reader.rowLine());
+        assertEquals("Butter Chicken, Half", chicken.getName());
+        assertEquals("Rich\ntomato \"makhani\" gravy", chicken.getDescription());
+        assertTrue(chicken.getIngredients().isEmpty());
+
+        MenuImportRow dal = reader.next();
+        assertEquals(6, reader.rowLine());
+        assertEquals("Dal", dal.getName());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void rejectsBadRowsOneAtATime() throws IOException {
+        String csv = "name,price,seasonal\nSoup,ten,\nSalad,90,maybe\nRoti,20,no\n";
+        MenuImportReader reader = MenuImportReader.csv(new StringReader(csv));
+
+        IllegalArgumentException price = assertThrows(IllegalArgumentException.class, reader::next);
+        assertEquals(2, reader.rowLine());
+        assertTrue(price.getMessage().contains("ten"));
+        assertThrows(IllegalArgumentException.class, reader::next);
+        assertEquals(3, reader.rowLine());
+        assertEquals("Roti", reader.next().getName());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void rejectsUnknownCsvColumns() {
+        MenuImportReader reader = MenuImportReader.csv(new StringReader("name,prise\nSoup,10\n"));
+
+        assertThrows(IllegalArgumentException.class, reader::readHeader);
+    }
+
+    @Test
+    void readsNdjsonSkippingBlankLines() throws IOException {
+        String ndjson = """
+                {"name":"Momo","price":80,"images":["a.jpg"],"ingredients":["flour"]}
+
+                {"name":"Lassi","price":"x"}
+                {"name":"Naan","price":30,"available":false}
+                """;
+        MenuImportReader reader = MenuImportReader.ndjson(new StringReader(ndjson), new ObjectMapper());
+
+        MenuImportRow momo = reader.next();
+        assertEquals(List.of("a.jpg"), momo.getImages());
+        assertEquals(List.of("flour"), momo.getIngredients());
+        assertTrue(momo.isAvailable());
+
+        assertThrows(IllegalArgumentException.class, reader::next);
+        assertEquals(3, reader.rowLine());
+
+        MenuImportRow naan = reader.next();
+        assertFalse(naan.isAvailable());
+        assertTrue(naan.getImages().isEmpty());
+        assertNull(reader.next());
+    }
+}
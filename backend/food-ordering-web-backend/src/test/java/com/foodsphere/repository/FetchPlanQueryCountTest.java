@@ -0,0 +1,338 @@
+package com.foodsphere.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.foodsphere.cache.IngredientCatalogCache;
+import com.foodsphere.cache.RestaurantCatalogCache;
+import com.foodsphere.model.Address;
+import com.foodsphere.model.Cart;
+import com.foodsphere.model.CartItem;
+import com.foodsphere.model.Category;
+import com.foodsphere.model.Food;
+import com.foodsphere.model.IngredientCategory;
+import com.foodsphere.model.IngredientsItem;
+import com.foodsphere.model.Order;
+import com.foodsphere.model.OrderItem;
+import com.foodsphere.model.Restaurant;
+import com.foodsphere.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.orm.jpa.hibernate.SpringImplicitNamingStrategy;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Checks the documented worst-case query counts of the menu, order history, restaurant detail, ingredient
+ * tree and cart reads, counting every statement Hibernate prepares while the entities are loaded and serialized to JSON.
+ * <p>
+ * Creates the tables in a throwaway {@code fetch_plan_test} schema with the same naming and batch fetch size
+ * as the application. Needs a PostgreSQL database, so it only runs when one is given:
+ * {@code mvn test -Dtest=FetchPlanQueryCountTest -Dtest.jdbc.url=jdbc:postgresql://localhost:5432/foodsphere
+ * -Dtest.jdbc.username=... -Dtest.jdbc.password=...}
+ */
+class FetchPlanQueryCountTest {
+
+    private static final String SCHEMA = "fetch_plan_test";
+
+    // as spring.jpa.properties.hibernate.default_batch_fetch_size in application.yml
+    private static final int BATCH_SIZE = 50;
+
+    private static final int RESTAURANTS = 3;
+    private static final int FOODS_PER_RESTAURANT = 120;
+    private static final int ORDERS = 60;
+    private static final int ITEMS_PER_ORDER = 3;
+    private static final int CART_ITEMS = 8;
+
+    private static LocalContainerEntityManagerFactoryBean factoryBean;
+    private static EntityManagerFactory entityManagerFactory;
+    private static Statistics statistics;
+
+    private static final List<Long> restaurantIds = new ArrayList<>();
+    private static Long customerId;
+    private static int orderedFoods;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+
+    private EntityManager entityManager;
+
+    @BeforeAll
+    static void createSchema() throws Exception {
+        String url = System.getProperty("test.jdbc.url");
+        assumeTrue(url != null, "test.jdbc.url is not set");
+        String username = System.getProperty("test.jdbc.username");
+        String password = System.getProperty("test.jdbc.password");
+
+        try (Connection connection = DriverManager.getConnection(url, username, password);
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+            statement.execute("CREATE SCHEMA " + SCHEMA);
+        }
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("hibernate.default_schema", SCHEMA);
+        properties.put("hibernate.hbm2ddl.auto", "create");
+        properties.put("hibernate.physical_naming_strategy",
+                "org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy");
+        properties.put("hibernate.implicit_naming_strategy", SpringImplicitNamingStrategy.class.getName());
+        properties.put("hibernate.default_batch_fetch_size", BATCH_SIZE);
+        properties.put("hibernate.generate_statistics", true);
+
+        factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(new DriverManagerDataSource(url, username, password));
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.setPackagesToScan("com.foodsphere.model");
+        factoryBean.setJpaPropertyMap(properties);
+        factoryBean.afterPropertiesSet();
+        entityManagerFactory = factoryBean.getObject();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        seed();
+    }
+
+    @AfterAll
+    static void dropSchema() throws Exception {
+        if (factoryBean == null) {
+            return;
+        }
+        factoryBean.destroy();
+        try (Connection connection = DriverManager.getConnection(System.getProperty("test.jdbc.url"),
+                System.getProperty("test.jdbc.username"), System.getProperty("test.jdbc.password"));
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        }
+    }
+
+    @BeforeEach
+    void openEntityManager() {
+        entityManager = entityManagerFactory.createEntityManager();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void closeEntityManager() {
+        entityManager.close();
+    }
+
+    @Test
+    void menuListingTakesTheDocumentedQueries() throws Exception {
+        FoodRepository foodRepository = new JpaRepositoryFactory(entityManager).getRepository(FoodRepository.class);
+
+        List<Food> menu = foodRepository.findAll(FoodSpecifications.ofRestaurant(restaurantIds.get(0)), Sort.by("id"));
+        objectMapper.writeValueAsString(menu);
+
+        assertEquals(FOODS_PER_RESTAURANT, menu.size());
+        assertQueriesAtMost(3 + 2 * batches(FOODS_PER_RESTAURANT));
+    }
+
+    @Test
+    void orderHistoryTakesTheDocumentedQueries() throws Exception {
+        OrderRepository orderRepository = new JpaRepositoryFactory(entityManager).getRepository(OrderRepository.class);
+
+        List<Order> orders = orderRepository.findByCustomerId(customerId);
+        objectMapper.writeValueAsString(orders);
+
+        assertEquals(ORDERS, orders.size());
+        assertQueriesAtMost(1 + 2 * batches(orderedFoods) + 2 * batches(RESTAURANTS));
+    }
+
+    @Test
+    void restaurantDetailTakesTheDocumentedQueries() throws Exception {
+        RestaurantCatalogCache catalogCache = new RestaurantCatalogCache(entityManagerFactory,
+                new SimpleMeterRegistry(), 100, Duration.ofMinutes(1));
+
+        objectMapper.writeValueAsString(catalogCache.getRestaurant(restaurantIds.get(0)));
+        assertQueriesAtMost(2);
+
+        statistics.clear();
+        List<Restaurant> restaurants = catalogCache.getAllRestaurants();
+        objectMapper.writeValueAsString(restaurants);
+
+        assertEquals(RESTAURANTS, restaurants.size());
+        assertQueriesAtMost(1 + batches(RESTAURANTS));
+    }
+
+    @Test
+    void ingredientTreeTakesOneQuery() throws Exception {
+        IngredientCatalogCache ingredientCache = new IngredientCatalogCache(entityManagerFactory,
+                new SimpleMeterRegistry(), 100, Duration.ofMinutes(1));
+
+        List<IngredientCategory> categories = ingredientCache.getCategories(restaurantIds.get(0));
+        objectMapper.writeValueAsString(categories);
+
+        assertEquals(1, categories.size());
+        assertEquals(3, categories.get(0).getIngredients().size());
+        assertQueriesAtMost(1);
+    }
+
+    @Test
+    void cartTakesTheDocumentedQueries() throws Exception {
+        CartRepository cartRepository = new JpaRepositoryFactory(entityManager).getRepository(CartRepository.class);
+
+        Cart cart = cartRepository.findByCustomerId(customerId);
+        objectMapper.writeValueAsString(cart);
+
+        assertEquals(CART_ITEMS, cart.getItems().size());
+        assertEquals(CART_ITEMS, (int) cart.getItemCount());
+        assertQueriesAtMost(2 + 2 * batches(CART_ITEMS) + 2 * batches(RESTAURANTS));
+    }
+
+    private static void assertQueriesAtMost(long expected) {
+        long queries = statistics.getPrepareStatementCount();
+        assertTrue(queries <= expected, "expected at most " + expected + " queries but ran " + queries);
+    }
+
+    private static int batches(int count) {
+        return (count + BATCH_SIZE - 1) / BATCH_SIZE;
+    }
+
+    /**
+     * Restaurants with images, an owner and an address, each with a category, ingredients and foods
+     * with images and ingredients; and one customer with orders of a few items across the restaurants and a cart.
+     */
+    private static void seed() {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        entityManager.getTransaction().begin();
+
+        List<List<Food>> foodsByRestaurant = new ArrayList<>();
+        for (int r = 0; r < RESTAURANTS; r++) {
+            User owner = user("Owner " + r, "owner" + r + "@example.com");
+            entityManager.persist(owner);
+
+            Restaurant restaurant = new Restaurant();
+            restaurant.setName("Restaurant " + r);
+            restaurant.setOwner(owner);
+            restaurant.setAddress(address("Restaurant street " + r));
+            restaurant.setImages(new ArrayList<>(List.of("r" + r + "-1.jpg", "r" + r + "-2.jpg")));
+            restaurant.setOpen(true);
+            entityManager.persist(restaurant);
+            restaurantIds.add(restaurant.getId());
+
+            Category category = new Category(null, "Mains", restaurant);
+            entityManager.persist(category);
+
+            IngredientCategory ingredientCategory = new IngredientCategory();
+            ingredientCategory.setName("Basics");
+            ingredientCategory.setRestaurant(restaurant);
+            entityManager.persist(ingredientCategory);
+            List<IngredientsItem> ingredients = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                IngredientsItem ingredient = new IngredientsItem();
+                ingredient.setName("Ingredient " + i);
+                ingredient.setCategory(ingredientCategory);
+                ingredient.setRestaurant(restaurant);
+                entityManager.persist(ingredient);
+                ingredients.add(ingredient);
+            }
+
+            List<Food> foods = new ArrayList<>();
+            for (int f = 0; f < FOODS_PER_RESTAURANT; f++) {
+                Food food = new Food();
+                food.setName("Dish " + r + "-" + f);
+                food.setPrice(100L + f);
+                food.setAvailable(true);
+                food.setFoodCategory(category);
+                food.setRestaurant(restaurant);
+                food.setImages(new ArrayList<>(List.of("f" + f + ".jpg", "f" + f + "-large.jpg")));
+                food.setIngredients(new ArrayList<>(ingredients.subList(0, 2)));
+                entityManager.persist(food);
+                foods.add(food);
+            }
+            foodsByRestaurant.add(foods);
+        }
+
+        User customer = user("Customer", "customer@example.com");
+        entityManager.persist(customer);
+        customerId = customer.getId();
+
+        Set<Long> foodIds = new HashSet<>();
+        for (int o = 0; o < ORDERS; o++) {
+            int r = o % RESTAURANTS;
+            Address deliveryAddress = address("Delivery street " + o);
+            entityManager.persist(deliveryAddress);
+
+            List<OrderItem> items = new ArrayList<>();
+            for (int i = 0; i < ITEMS_PER_ORDER; i++) {
+                Food food = foodsByRestaurant.get(r).get((o * ITEMS_PER_ORDER + i) % FOODS_PER_RESTAURANT);
+                OrderItem item = new OrderItem();
+                item.setFood(food);
+                item.setQuantity(1);
+                item.setTotalPrice(food.getPrice());
+                item.setIngredients(new ArrayList<>(List.of("Ingredient 0")));
+                entityManager.persist(item);
+                items.add(item);
+                foodIds.add(food.getId());
+            }
+
+            Order order = new Order();
+            order.setCustomer(customer);
+            order.setRestaurant(foodsByRestaurant.get(r).get(0).getRestaurant());
+            order.setDeliveryAddress(deliveryAddress);
+            order.setItems(items);
+            order.setOrderStatus("PENDING");
+            order.setTotalItem(items.size());
+            entityManager.persist(order);
+        }
+        orderedFoods = foodIds.size();
+
+        Cart cart = new Cart();
+        cart.setCustomer(customer);
+        entityManager.persist(cart);
+        for (int i = 0; i < CART_ITEMS; i++) {
+            Food food = foodsByRestaurant.get(i % RESTAURANTS).get(i);
+            CartItem item = new CartItem();
+            item.setCart(cart);
+            item.setFood(food);
+            item.setQuantity(1);
+            item.setTotalPrice(food.getPrice());
+            item.setIngredients(new ArrayList<>(List.of("Ingredient 0")));
+            entityManager.persist(item);
+            cart.setTotal(cart.getTotal() + food.getPrice());
+            cart.setItemCount(cart.getItemCount() + 1);
+        }
+
+        entityManager.getTransaction().commit();
+        entityManager.close();
+    }
+
+    private static User user(String fullName, String email) {
+        User user = new User();
+        user.setFullName(fullName);
+        user.setEmail(email);
+        user.setPassword("not-a-real-hash");
+        user.getAddresses().add(address(fullName + " street"));
+        return user;
+    }
+
+    private static Address address(String street) {
+        Address address = new Address();
+        address.setStreetAddress(street);
+        address.setCity("Pune");
+        address.setCountry("India");
+        return address;
+    }
+}
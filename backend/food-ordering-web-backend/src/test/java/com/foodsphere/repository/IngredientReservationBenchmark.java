@@ -0,0 +1,215 @@
+package com.foodsphere.repository;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Measures order throughput when every order takes units of the same popular ingredient, comparing the
+ * conditional UPDATE of {@link IngredientsItemRepository#takeQuantity(Long, int)}, which locks the row only for
+ * its own statement, with reading the row FOR UPDATE in a transaction that spans the whole order.
+ * Both must sell exactly the units in stock and never more.
+ * <p>
+ * The order's own writes are simulated by a fixed delay. Needs a PostgreSQL database, so it only runs when one
+ * is given: {@code mvn test -Dtest=IngredientReservationBenchmark
+ * -Dbenchmark.jdbc.url=jdbc:postgresql://localhost:5432/foodsphere -Dbenchmark.jdbc.username=...
+ * -Dbenchmark.jdbc.password=...}
+ */
+class IngredientReservationBenchmark {
+
+    private static final String SCHEMA = "reservation_benchmark";
+
+    private static final int THREADS = 32;
+    private static final int ORDERS = 4_000;
+    private static final int UNITS = 3_000;
+    private static final long ORDER_WORK_MILLIS = 2;
+
+    // the SQL Hibernate runs for IngredientsItemRepository.takeQuantity
+    private static final String TAKE_QUANTITY = """
+            UPDATE ingredients_item SET quantity = quantity - ?,
+                is_stock = CASE WHEN quantity > ? THEN is_stock ELSE false END
+            WHERE id = ? AND quantity >= ?
+            """;
+
+    private static final String LOCK_ROW = "SELECT quantity FROM ingredients_item WHERE id = ? FOR UPDATE";
+
+    private static final String SET_QUANTITY = "UPDATE ingredients_item SET quantity = ?, is_stock = ? WHERE id = ?";
+
+    private static String url;
+    private static String username;
+    private static String password;
+
+    @BeforeAll
+    static void createTable() throws SQLException {
+        url = System.getProperty("benchmark.jdbc.url");
+        assumeTrue(url != null, "benchmark.jdbc.url is not set");
+        username = System.getProperty("benchmark.jdbc.username");
+        password = System.getProperty("benchmark.jdbc.password");
+
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+            statement.execute("CREATE SCHEMA " + SCHEMA);
+            statement.execute("""
+                    CREATE TABLE %s.ingredients_item (id BIGINT PRIMARY KEY, quantity INTEGER,
+                        is_stock BOOLEAN NOT NULL DEFAULT true)
+                    """.formatted(SCHEMA));
+        }
+    }
+
+    @AfterAll
+    static void dropTable() throws SQLException {
+        if (url == null) {
+            return;
+        }
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        }
+    }
+
+    @Test
+    void conditionalUpdateAgainstRowLockHeldForTheOrder() throws Exception {
+        for (int round = 0; round < 2; round++) {
+            String label = round == 0 ? "Warm-up" : "Measured";
+            run(label + ", conditional UPDATE", IngredientReservationBenchmark::takeWithConditionalUpdate);
+            run(label + ", FOR UPDATE across the order", IngredientReservationBenchmark::takeWithRowLock);
+        }
+    }
+
+    private static void run(String label, Reservation reservation) throws Exception {
+        long ingredientId = 1;
+        try (Connection connection = connect();
+             Statement statement = connection.createStatement()) {
+            statement.execute("DELETE FROM " + SCHEMA + ".ingredients_item");
+            statement.execute("INSERT INTO " + SCHEMA + ".ingredients_item VALUES (" + ingredientId + ", " + UNITS
+                    + ", true)");
+        }
+
+        AtomicInteger placed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        long started = System.nanoTime();
+        try {
+            List<Future<Void>> workers = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                workers.add(executor.submit((Callable<Void>) () -> {
+                    try (Connection connection = connect()) {
+                        while (next.getAndIncrement() < ORDERS) {
+                            if (reservation.placeOrder(connection, ingredientId)) {
+                                placed.incrementAndGet();
+                            } else {
+                                rejected.incrementAndGet();
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<Void> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        long elapsedMillis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+
+        int left;
+        boolean inStock;
+        try (Connection connection = connect();
+             Statement statement = connection.createStatement();
+             ResultSet row = statement.executeQuery(
+                     "SELECT quantity, is_stock FROM " + SCHEMA + ".ingredients_item WHERE id = " + ingredientId)) {
+            assertTrue(row.next());
+            left = row.getInt(1);
+            inStock = row.getBoolean(2);
+        }
+        System.out.printf("%s: %d orders placed, %d rejected in %d ms, %.0f orders/s%n",
+                label, placed.get(), rejected.get(), elapsedMillis, ORDERS * 1000.0 / elapsedMillis);
+
+        assertEquals(UNITS, placed.get(), "every unit is sold once");
+        assertEquals(ORDERS - UNITS, rejected.get());
+        assertEquals(0, left);
+        assertFalse(inStock, "the ingredient goes out of stock with its last unit");
+    }
+
+    /**
+     * Takes the unit in its own statement, then writes the order.
+     */
+    private static boolean takeWithConditionalUpdate(Connection connection, long ingredientId) throws Exception {
+        connection.setAutoCommit(true);
+        try (PreparedStatement take = connection.prepareStatement(TAKE_QUANTITY)) {
+            take.setInt(1, 1);
+            take.setInt(2, 1);
+            take.setLong(3, ingredientId);
+            take.setInt(4, 1);
+            if (take.executeUpdate() == 0) {
+                return false;
+            }
+        }
+        Thread.sleep(ORDER_WORK_MILLIS);
+        return true;
+    }
+
+    /**
+     * Locks the row, writes the order and updates the row in one transaction.
+     */
+    private static boolean takeWithRowLock(Connection connection, long ingredientId) throws Exception {
+        connection.setAutoCommit(false);
+        try {
+            int quantity;
+            try (PreparedStatement lock = connection.prepareStatement(LOCK_ROW)) {
+                lock.setLong(1, ingredientId);
+                try (ResultSet row = lock.executeQuery()) {
+                    row.next();
+                    quantity = row.getInt(1);
+                }
+            }
+            if (quantity < 1) {
+                connection.rollback();
+                return false;
+            }
+            Thread.sleep(ORDER_WORK_MILLIS);
+            try (PreparedStatement update = connection.prepareStatement(SET_QUANTITY)) {
+                update.setInt(1, quantity - 1);
+                update.setBoolean(2, quantity > 1);
+                update.setLong(3, ingredientId);
+                update.executeUpdate();
+            }
+            connection.commit();
+            return true;
+        } catch (Exception e) {
+            connection.rollback();
+            throw e;
+        }
+    }
+
+    private static Connection connect() throws SQLException {
+        Connection connection = DriverManager.getConnection(url, username, password);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET search_path TO " + SCHEMA);
+        }
+        return connection;
+    }
+
+    @FunctionalInterface
+    private interface Reservation {
+        boolean placeOrder(Connection connection, long ingredientId) throws Exception;
+    }
+}
@@ -0,0 +1,69 @@
+package com.foodsphere.schedule;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpeningScheduleTest {
+
+    // 2024-01-01 is a Monday
+    private static LocalDateTime at(int dayOfMonth, int hour, int minute) {
+        return LocalDateTime.of(2024, 1, dayOfMonth, hour, minute);
+    }
+
+    @Test
+    void parsesDaysAndSeveralRanges() {
+        OpeningSchedule schedule = OpeningSchedule.parse("Mon-Fri 09:00-22:00; Sat, Sun 10:00-14:00, 18:00-23:30");
+
+        assertFalse(schedule.isOpenAt(at(1, 8, 59)));
+        assertTrue(schedule.isOpenAt(at(1, 9, 0)));
+        assertTrue(schedule.isOpenAt(at(5, 21, 59)));
+        assertFalse(schedule.isOpenAt(at(5, 22, 0)));
+        assertTrue(schedule.isOpenAt(at(6, 13, 30)));
+        assertFalse(schedule.isOpenAt(at(6, 15, 0)));
+        assertTrue(schedule.isOpenAt(at(7, 23, 15)));
+        assertFalse(schedule.isOpenAt(at(7, 23, 30)));
+    }
+
+    @Test
+    void rangesPastMidnightRunIntoTheNextDayAndWrapTheWeek() {
+        OpeningSchedule schedule = OpeningSchedule.parse("Sun 18:00-02:00");
+
+        assertTrue(schedule.isOpenAt(at(7, 23, 0)));
+        assertTrue(schedule.isOpenAt(at(8, 1, 45)));
+        assertFalse(schedule.isOpenAt(at(8, 2, 0)));
+    }
+
+    @Test
+    void acceptsTwelveHourTimesAndRulesWithoutDays() {
+        OpeningSchedule schedule = OpeningSchedule.parse("11am-11:30pm");
+
+        assertTrue(schedule.isOpenAt(at(3, 11, 0)));
+        assertTrue(schedule.isOpenAt(at(3, 23, 29)));
+        assertFalse(schedule.isOpenAt(at(3, 10, 59)));
+        assertTrue(OpeningSchedule.parse("24/7").isOpenAt(at(4, 3, 0)));
+        assertTrue(OpeningSchedule.parse("closed").isNeverOpen());
+    }
+
+    @Test
+    void countsMinutesUntilTheNextOpening() {
+        OpeningSchedule schedule = OpeningSchedule.parse("Weekdays 09:00-17:00");
+
+        assertEquals(0, schedule.minutesUntilOpen(at(1, 10, 0)));
+        assertEquals(50, schedule.minutesUntilOpen(at(1, 8, 10)));
+        assertEquals(16 * 60, schedule.minutesUntilOpen(at(1, 17, 0)));
+        // Friday evening to Monday morning
+        assertEquals(2 * 24 * 60 + 16 * 60, schedule.minutesUntilOpen(at(5, 17, 0)));
+        assertEquals(-1, OpeningSchedule.parse("closed").minutesUntilOpen(at(1, 0, 0)));
+    }
+
+    @Test
+    void rejectsTextOutsideTheFormat() {
+        assertThrows(IllegalArgumentException.class, () -> OpeningSchedule.parse("ask the manager"));
+        assertThrows(IllegalArgumentException.class, () -> OpeningSchedule.parse("Funday 09:00-17:00"));
+        assertThrows(IllegalArgumentException.class, () -> OpeningSchedule.parse("Mon 25:00-26:00"));
+        assertThrows(IllegalArgumentException.class, () -> OpeningSchedule.parse("Mon 09:00-17:00 maybe"));
+    }
+}
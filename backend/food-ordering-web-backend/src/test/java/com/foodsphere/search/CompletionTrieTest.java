@@ -0,0 +1,58 @@
+package com.foodsphere.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompletionTrieTest {
+
+    @Test
+    void completesAnyWordOfTheTextBestFirst() {
+        CompletionTrie trie = new CompletionTrie(3);
+        Suggestion wings = new Suggestion(SuggestionType.FOOD, null, "Spicy Chicken Wings", 2);
+        Suggestion biryani = new Suggestion(SuggestionType.FOOD, null, "Chicken Biryani", 5);
+        Suggestion chinese = new Suggestion(SuggestionType.CUISINE, null, "Chinese", 1);
+        trie.addAll(List.of(wings, biryani, chinese));
+
+        assertEquals(List.of(biryani, wings, chinese), trie.complete("chi", 10));
+        assertEquals(List.of(biryani, wings), trie.complete("  CHICKEN ", 10));
+        assertEquals(List.of(wings), trie.complete("wi", 10));
+        assertEquals(List.of(biryani), trie.complete("chi", 1));
+        assertTrue(trie.complete("x", 10).isEmpty());
+        assertTrue(trie.complete("", 10).isEmpty());
+    }
+
+    @Test
+    void keepsOnlyTopKPerPrefixAndRefillsOnRemoval() {
+        CompletionTrie trie = new CompletionTrie(2);
+        Suggestion first = new Suggestion(SuggestionType.RESTAURANT, 1L, "Pizza Hut", 3);
+        Suggestion second = new Suggestion(SuggestionType.RESTAURANT, 2L, "Pizza Palace", 2);
+        Suggestion third = new Suggestion(SuggestionType.RESTAURANT, 3L, "Pizzeria Roma", 1);
+        trie.add(third);
+        trie.add(first);
+        trie.add(second);
+
+        assertEquals(List.of(first, second), trie.complete("piz", 10));
+
+        trie.remove(first);
+        assertEquals(List.of(second, third), trie.complete("piz", 10));
+        assertTrue(trie.complete("hut", 10).isEmpty());
+
+        trie.remove(second);
+        trie.remove(third);
+        assertTrue(trie.complete("p", 10).isEmpty());
+        assertEquals(1, trie.stats().nodes());
+    }
+
+    @Test
+    void suggestionRepeatingAWordIsListedOnce() {
+        CompletionTrie trie = new CompletionTrie(5);
+        Suggestion suggestion = new Suggestion(SuggestionType.RESTAURANT, 7L, "Pizza Pizza", 1);
+        trie.add(suggestion);
+
+        assertEquals(List.of(suggestion), trie.complete("pizza", 10));
+        assertEquals(2, trie.stats().indexedKeys());
+    }
+}
@@ -0,0 +1,24 @@
+package com.foodsphere.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FullTextQueryTest {
+
+    @Test
+    void lastWordIsMatchedAsPrefix() {
+        assertEquals("spicy & chick:*", FullTextQuery.toPrefixQuery("  Spicy CHICK "));
+    }
+
+    @Test
+    void operatorsAndPunctuationAreDropped() {
+        assertEquals("pizza & margherita:*", FullTextQuery.toPrefixQuery("pizza | !margherita':*"));
+    }
+
+    @Test
+    void keywordWithoutWordsGivesNoQuery() {
+        assertNull(FullTextQuery.toPrefixQuery(" &|!() "));
+        assertNull(FullTextQuery.toPrefixQuery(null));
+    }
+}
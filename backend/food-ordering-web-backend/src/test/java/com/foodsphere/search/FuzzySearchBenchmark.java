@@ -0,0 +1,109 @@
+package com.foodsphere.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Measures build time, update cost and query latency of the typo-tolerant dish index at 1M dishes
+ * spread over 100k restaurants, with queries misspelled the way customers type them.
+ * <p>
+ * Not picked up by the default test run; run it with {@code mvn test -Dtest=FuzzySearchBenchmark}.
+ */
+class FuzzySearchBenchmark {
+
+    private static final String[] WORDS = {
+            "chicken", "paneer", "butter", "masala", "biryani", "pizza", "margherita", "pepperoni", "burger",
+            "veg", "spicy", "tikka", "tandoori", "noodles", "fried", "rice", "momo", "kebab", "mutton", "fish",
+            "prawn", "curry", "dal", "naan", "roti", "lassi", "mango", "chocolate", "cake", "shake", "cold",
+            "coffee", "sandwich", "wrap", "roll", "soup", "salad", "pasta", "alfredo", "garlic", "cheese"};
+
+    private static final int RESTAURANTS = 100_000;
+    private static final int DISHES = 1_000_000;
+    private static final int UPDATES = 10_000;
+    private static final int QUERIES = 2_000;
+
+    @Test
+    void queryLatencyAtOneMillionDishes() {
+        Random random = new Random(42);
+
+        long started = System.nanoTime();
+        FuzzyTextIndex index = new FuzzyTextIndex();
+        for (long id = 1; id <= DISHES; id++) {
+            index.put(id, 1 + random.nextInt(RESTAURANTS), dishName(random, id), description(random),
+                    random.nextInt(10) > 0);
+        }
+        for (long restaurantId = 1; restaurantId <= RESTAURANTS; restaurantId += 2) {
+            index.setRestaurantOpen(restaurantId, true);
+        }
+        long buildMillis = (System.nanoTime() - started) / 1_000_000;
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        System.out.printf("Indexed %d dishes, %d distinct words in %d ms, ~%d MB heap in use%n",
+                index.size(), index.vocabularySize(), buildMillis,
+                (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024));
+
+        started = System.nanoTime();
+        for (int i = 0; i < UPDATES; i++) {
+            long id = 1 + random.nextInt(DISHES);
+            index.put(id, 1 + random.nextInt(RESTAURANTS), dishName(random, id), description(random), true);
+        }
+        System.out.printf("%.1f us per dish update%n", (System.nanoTime() - started) / 1000.0 / UPDATES);
+
+        String[] queries = new String[1024];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = typo(random, word(random)) + (random.nextBoolean() ? " " + word(random) : "");
+        }
+
+        long found = 0;
+        for (int i = 0; i < QUERIES / 4; i++) {
+            found += index.search(queries[i & 1023], 20).size();
+        }
+        long[] nanos = new long[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            long queryStarted = System.nanoTime();
+            found += index.search(queries[i & 1023], 20).size();
+            nanos[i] = System.nanoTime() - queryStarted;
+        }
+        Arrays.sort(nanos);
+        System.out.printf("Query latency: p50 %.2f ms, p99 %.2f ms%n",
+                nanos[QUERIES / 2] / 1e6, nanos[QUERIES * 99 / 100] / 1e6);
+
+        assertTrue(found > 0);
+    }
+
+    private static String dishName(Random random, long id) {
+        return word(random) + " " + word(random) + " " + Long.toString(id * 7919, 36);
+    }
+
+    private static String description(Random random) {
+        return word(random) + " with " + word(random) + " and " + word(random);
+    }
+
+    /**
+     * Drops, swaps or replaces one character of a word long enough to allow an edit.
+     */
+    private static String typo(Random random, String word) {
+        if (word.length() <= 3) {
+            return word;
+        }
+        int at = 1 + random.nextInt(word.length() - 2);
+        StringBuilder typed = new StringBuilder(word);
+        switch (random.nextInt(3)) {
+            case 0 -> typed.deleteCharAt(at);
+            case 1 -> {
+                typed.setCharAt(at, word.charAt(at + 1));
+                typed.setCharAt(at + 1, word.charAt(at));
+            }
+            default -> typed.setCharAt(at, (char) ('a' + random.nextInt(26)));
+        }
+        return typed.toString();
+    }
+
+    private static String word(Random random) {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+}
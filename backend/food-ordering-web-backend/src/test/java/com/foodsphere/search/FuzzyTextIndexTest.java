@@ -0,0 +1,85 @@
+package com.foodsphere.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FuzzyTextIndexTest {
+
+    @Test
+    void findsDishesDespiteTyposAndRanksNameMatchesFirst() {
+        FuzzyTextIndex index = new FuzzyTextIndex();
+        index.put(1, 10, "Chicken Biryani", "Basmati rice with spiced chicken", true);
+        index.put(2, 10, "Paneer Tikka", "Grilled cottage cheese", true);
+        index.put(3, 10, "Raita", "Yogurt to serve with biryani", true);
+
+        assertEquals(List.of(1L, 3L), ids(index.search("biryni", 10)));
+        assertEquals(List.of(1L, 3L), ids(index.search("BIRYANI", 10)));
+        assertEquals(List.of(2L), ids(index.search("panner tika", 10)));
+        assertEquals(List.of(1L), ids(index.search("chikcen", 10)));
+        assertTrue(index.search("rce", 10).isEmpty(), "short words must match exactly");
+        assertTrue(index.search("", 10).isEmpty());
+        assertEquals(1, index.search("biryani", 1).size());
+    }
+
+    @Test
+    void boostsAvailableDishesAndOpenRestaurants() {
+        FuzzyTextIndex index = new FuzzyTextIndex();
+        index.put(1, 10, "Margherita Pizza", null, false);
+        index.put(2, 20, "Margherita Pizza", null, true);
+        index.put(3, 30, "Margherita Pizza", null, true);
+        index.setRestaurantOpen(30, true);
+
+        assertEquals(List.of(3L, 2L, 1L), ids(index.search("pizza", 10)));
+
+        index.put(1, 10, "Margherita Pizza", null, true);
+        index.setRestaurantOpen(10, true);
+        index.setRestaurantOpen(30, false);
+        assertEquals(List.of(1L, 2L, 3L), ids(index.search("pizza", 10)));
+    }
+
+    @Test
+    void updatesAndRemovalsTakeEffectInPlace() {
+        FuzzyTextIndex index = new FuzzyTextIndex();
+        index.put(1, 10, "Veg Burger", null, true);
+        index.put(2, 10, "Cold Coffee", null, true);
+        index.put(3, 20, "Chocolate Shake", null, true);
+
+        index.put(1, 10, "Veg Wrap", null, true);
+        assertTrue(index.search("burger", 10).isEmpty());
+        assertEquals(List.of(1L), ids(index.search("wrap", 10)));
+
+        // "AaAa" and "BBBB" have the same hash code
+        index.put(5, 10, "AaAa", null, true);
+        index.put(5, 10, "BBBB", null, true);
+        assertTrue(index.search("aaaa", 10).isEmpty());
+        assertEquals(List.of(5L), ids(index.search("bbbb", 10)));
+        index.remove(5);
+
+        index.remove(2);
+        index.remove(2);
+        assertTrue(index.search("coffee", 10).isEmpty());
+        assertEquals(2, index.size());
+
+        index.put(4, 20, "Iced Coffee", null, true);
+        assertEquals(List.of(4L), ids(index.search("cofee", 10)));
+
+        index.removeRestaurant(20);
+        assertEquals(List.of(1L), ids(index.search("wrap coffee shake", 10)));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void distanceCountsTranspositionsAsOneEdit() {
+        assertEquals(0, FuzzyTextIndex.distance("naan", "naan", 2));
+        assertEquals(1, FuzzyTextIndex.distance("chikcen", "chicken", 2));
+        assertEquals(2, FuzzyTextIndex.distance("biriyani", "biryni", 2));
+        assertEquals(3, FuzzyTextIndex.distance("pizza", "pasta", 2));
+    }
+
+    private static List<Long> ids(List<FuzzyTextIndex.Hit> hits) {
+        return hits.stream().map(FuzzyTextIndex.Hit::id).toList();
+    }
+}
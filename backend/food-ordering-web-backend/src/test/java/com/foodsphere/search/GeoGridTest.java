@@ -0,0 +1,59 @@
+package com.foodsphere.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeoGridTest {
+
+    @Test
+    void returnsPointsInsideTheRadiusNearestFirst() {
+        GeoGrid grid = new GeoGrid(0.02);
+        grid.put(new GeoGrid.Point(1L, 22.5726, 88.3639, true));   // Kolkata centre
+        grid.put(new GeoGrid.Point(2L, 22.5958, 88.2636, false));  // Howrah, about 10 km west
+        grid.put(new GeoGrid.Point(3L, 22.5800, 88.3700, true));   // about 1 km away
+        grid.put(new GeoGrid.Point(4L, 28.6139, 77.2090, true));   // Delhi
+
+        List<GeoGrid.Neighbour> nearby = grid.within(22.5726, 88.3639, 15, 10, false);
+
+        assertEquals(List.of(1L, 3L, 2L), nearby.stream().map(neighbour -> neighbour.point().id()).toList());
+        assertEquals(0, nearby.get(0).distanceKm(), 1e-9);
+        assertEquals(10.8, nearby.get(2).distanceKm(), 0.5);
+    }
+
+    @Test
+    void filtersClosedPointsAndLimitsTheResult() {
+        GeoGrid grid = new GeoGrid(0.02);
+        grid.put(new GeoGrid.Point(1L, 22.5726, 88.3639, true));
+        grid.put(new GeoGrid.Point(2L, 22.5958, 88.2636, false));
+        grid.put(new GeoGrid.Point(3L, 22.5800, 88.3700, true));
+
+        assertEquals(List.of(1L, 3L), grid.within(22.5726, 88.3639, 15, 10, true).stream()
+                .map(neighbour -> neighbour.point().id()).toList());
+        assertEquals(1, grid.within(22.5726, 88.3639, 15, 1, false).size());
+    }
+
+    @Test
+    void movedAndRemovedPointsAreFoundOnlyAtTheirNewPlace() {
+        GeoGrid grid = new GeoGrid(0.02);
+        grid.put(new GeoGrid.Point(1L, 22.5726, 88.3639, true));
+        grid.put(new GeoGrid.Point(1L, 28.6139, 77.2090, true));
+
+        assertTrue(grid.within(22.5726, 88.3639, 5, 10, false).isEmpty());
+        assertEquals(1, grid.within(28.6139, 77.2090, 5, 10, false).size());
+
+        grid.remove(1L);
+        assertEquals(0, grid.size());
+        assertTrue(grid.within(28.6139, 77.2090, 5, 10, false).isEmpty());
+    }
+
+    @Test
+    void searchesAcrossTheAntimeridian() {
+        GeoGrid grid = new GeoGrid(0.02);
+        grid.put(new GeoGrid.Point(1L, -16.5, 179.99, true));
+
+        assertEquals(1, grid.within(-16.5, -179.99, 5, 10, false).size());
+    }
+}
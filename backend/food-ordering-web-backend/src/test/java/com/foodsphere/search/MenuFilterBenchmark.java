@@ -0,0 +1,114 @@
+package com.foodsphere.search;
+
+import com.foodsphere.model.Category;
+import com.foodsphere.model.Food;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the bitset menu filter index with the stream filters menus used to go through
+ * ({@code filterByVegetarian}, {@code filterByNonVeg}, {@code filterBySeasonal}, {@code filterByCategory}),
+ * over menus already in memory, for random filter combinations.
+ * <p>
+ * Not picked up by the default test run; run it with {@code mvn test -Dtest=MenuFilterBenchmark}.
+ */
+class MenuFilterBenchmark {
+
+    private static final String[] CATEGORIES = {"Starters", "Mains", "Breads", "Rice", "Desserts", "Drinks"};
+
+    private static final int RESTAURANTS = 1_000;
+    private static final int FOODS_PER_RESTAURANT = 400;
+    private static final int QUERIES = 200_000;
+
+    @Test
+    void bitsetFiltersAgainstStreamFilters() {
+        Random random = new Random(42);
+        MenuFilterIndex index = new MenuFilterIndex();
+        Map<Long, List<Food>> menus = new HashMap<>();
+        long foodId = 1;
+        for (long restaurantId = 1; restaurantId <= RESTAURANTS; restaurantId++) {
+            List<Food> menu = new ArrayList<>();
+            for (int i = 0; i < FOODS_PER_RESTAURANT; i++, foodId++) {
+                Food food = new Food();
+                food.setId(foodId);
+                food.setVegetarian(random.nextBoolean());
+                food.setSeasonal(random.nextInt(4) == 0);
+                food.setAvailable(random.nextInt(10) > 0);
+                food.setFoodCategory(new Category(null, CATEGORIES[random.nextInt(CATEGORIES.length)], null));
+                menu.add(food);
+                index.put(foodId, restaurantId, food.isVegetarian(), food.isSeasonal(), food.isAvailable(),
+                        food.getFoodCategory().getName());
+            }
+            menus.put(restaurantId, menu);
+        }
+
+        long[] restaurantIds = new long[1024];
+        MenuFilterIndex.Filter[] filters = new MenuFilterIndex.Filter[1024];
+        for (int i = 0; i < filters.length; i++) {
+            restaurantIds[i] = 1 + random.nextInt(RESTAURANTS);
+            boolean vegetarian = random.nextBoolean();
+            filters[i] = new MenuFilterIndex.Filter(vegetarian, !vegetarian && random.nextBoolean(),
+                    random.nextBoolean(), random.nextBoolean() ? true : null,
+                    random.nextBoolean() ? CATEGORIES[random.nextInt(CATEGORIES.length)] : null);
+        }
+
+        for (int i = 0; i < filters.length; i++) {
+            assertEquals(streamFilter(menus.get(restaurantIds[i]), filters[i]).stream().map(Food::getId).toList(),
+                    index.select(restaurantIds[i], filters[i], 0, Integer.MAX_VALUE));
+        }
+
+        long found = 0;
+        for (int round = 0; round < 2; round++) {
+            long started = System.nanoTime();
+            for (int i = 0; i < QUERIES; i++) {
+                found += streamFilter(menus.get(restaurantIds[i & 1023]), filters[i & 1023]).size();
+            }
+            long streamNanos = System.nanoTime() - started;
+
+            started = System.nanoTime();
+            for (int i = 0; i < QUERIES; i++) {
+                found += index.select(restaurantIds[i & 1023], filters[i & 1023], 0, Integer.MAX_VALUE).size();
+            }
+            long bitsetNanos = System.nanoTime() - started;
+
+            System.out.printf("%s: stream filters %.2f us per menu, bitset index %.2f us per menu (%.1fx)%n",
+                    round == 0 ? "Warm-up" : "Measured", streamNanos / 1000.0 / QUERIES,
+                    bitsetNanos / 1000.0 / QUERIES, (double) streamNanos / bitsetNanos);
+        }
+
+        assertTrue(found > 0);
+    }
+
+    /**
+     * The menu filtering of {@code FoodServiceImpl} before the filters moved to the database.
+     */
+    private static List<Food> streamFilter(List<Food> foods, MenuFilterIndex.Filter filter) {
+        if (filter.available() != null) {
+            foods = foods.stream().filter(food -> food.isAvailable() == filter.available()).collect(Collectors.toList());
+        }
+        if (filter.vegetarian()) {
+            foods = foods.stream().filter(Food::isVegetarian).collect(Collectors.toList());
+        }
+        if (filter.nonVeg()) {
+            foods = foods.stream().filter(food -> !food.isVegetarian()).collect(Collectors.toList());
+        }
+        if (filter.seasonal()) {
+            foods = foods.stream().filter(Food::isSeasonal).collect(Collectors.toList());
+        }
+        if (filter.category() != null) {
+            foods = foods.stream()
+                    .filter(food -> food.getFoodCategory() != null
+                            && food.getFoodCategory().getName().equals(filter.category()))
+                    .collect(Collectors.toList());
+        }
+        return foods;
+    }
+}
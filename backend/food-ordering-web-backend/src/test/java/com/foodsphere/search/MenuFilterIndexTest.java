@@ -0,0 +1,78 @@
+package com.foodsphere.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MenuFilterIndexTest {
+
+    private static final MenuFilterIndex.Filter ALL = new MenuFilterIndex.Filter(false, false, false, null, null);
+
+    @Test
+    void combinesFiltersAndPagesInIdOrder() {
+        MenuFilterIndex index = new MenuFilterIndex();
+        index.put(1, 10, true, false, true, "Starters");
+        index.put(2, 10, false, true, true, "Mains");
+        index.put(3, 10, true, true, false, "Mains");
+        index.put(4, 10, true, true, true, "Mains");
+        index.put(5, 20, true, true, true, "Mains");
+
+        assertEquals(List.of(1L, 2L, 3L, 4L), index.select(10, ALL, 0, 100));
+        assertEquals(List.of(1L, 3L, 4L), select(index, true, false, false, null, null));
+        assertEquals(List.of(2L), select(index, false, true, false, null, null));
+        assertEquals(List.of(4L), select(index, true, false, true, true, "Mains"));
+        assertEquals(List.of(3L), select(index, false, false, false, false, null));
+        assertTrue(select(index, true, true, false, null, null).isEmpty());
+        assertTrue(select(index, false, false, false, null, "Desserts").isEmpty());
+        assertEquals(List.of(2L, 3L), index.select(10, ALL, 1, 2));
+        assertTrue(index.select(10, ALL, 4, 2).isEmpty());
+        assertTrue(index.select(30, ALL, 0, 10).isEmpty());
+    }
+
+    @Test
+    void updatesFoodsInPlace() {
+        MenuFilterIndex index = new MenuFilterIndex();
+        index.put(1, 10, true, false, true, "Starters");
+        index.put(2, 10, false, false, true, "Starters");
+
+        index.put(1, 10, true, false, false, "Mains");
+        assertEquals(List.of(2L), select(index, false, false, false, true, null));
+        assertEquals(List.of(1L), select(index, false, false, false, null, "Mains"));
+        assertEquals(List.of(2L), select(index, false, false, false, null, "Starters"));
+
+        index.remove(2);
+        assertTrue(select(index, false, false, false, null, "Starters").isEmpty());
+        index.put(1, 20, true, false, false, "Mains");
+        assertTrue(index.select(10, ALL, 0, 10).isEmpty());
+        assertEquals(List.of(1L), index.select(20, ALL, 0, 10));
+        assertEquals(1, index.size());
+        assertEquals(1, index.restaurantCount());
+    }
+
+    @Test
+    void keepsIdOrderAcrossGrowthRemovalAndLateIds() {
+        MenuFilterIndex index = new MenuFilterIndex();
+        for (long id = 100; id < 400; id++) {
+            index.put(id, 10, id % 2 == 0, false, true, "C" + id % 3);
+        }
+        for (long id = 100; id < 350; id++) {
+            index.remove(id);
+        }
+        index.put(5, 10, true, false, true, "C2");
+
+        List<Long> expected = LongStream.concat(LongStream.of(5), LongStream.range(350, 400)).boxed().toList();
+        assertEquals(expected, index.select(10, ALL, 0, 1000));
+        assertEquals(List.of(5L, 350L, 352L), index.select(10,
+                new MenuFilterIndex.Filter(true, false, false, true, null), 0, 3));
+        assertEquals(List.of(5L, 350L, 353L), index.select(10,
+                new MenuFilterIndex.Filter(false, false, false, null, "C2"), 0, 3));
+    }
+
+    private static List<Long> select(MenuFilterIndex index, boolean vegetarian, boolean nonVeg, boolean seasonal,
+                                     Boolean available, String category) {
+        return index.select(10, new MenuFilterIndex.Filter(vegetarian, nonVeg, seasonal, available, category), 0, 100);
+    }
+}
@@ -0,0 +1,204 @@
+package com.foodsphere.search;
+
+import com.foodsphere.repository.FoodRepository;
+import com.foodsphere.repository.RestaurantRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Compares the ranked full-text search queries against the {@code LIKE '%keyword%'} scans they replaced.
+ * <p>
+ * Seeds 100k restaurants and 5M foods into a throwaway {@code search_benchmark} schema, applies
+ * {@code schema.sql} to it and times both queries for a handful of keywords.
+ * Needs a PostgreSQL database, so it only runs when one is given:
+ * {@code mvn test -Dtest=SearchBenchmark -Dbenchmark.jdbc.url=jdbc:postgresql://localhost:5432/foodsphere
+ * -Dbenchmark.jdbc.username=... -Dbenchmark.jdbc.password=...}
+ */
+class SearchBenchmark {
+
+    private static final String SCHEMA = "search_benchmark";
+
+    private static final int RESTAURANTS = Integer.getInteger("benchmark.restaurants", 100_000);
+    private static final int FOODS = Integer.getInteger("benchmark.foods", 5_000_000);
+    private static final int CATEGORIES = 1_000;
+
+    private static final int RUNS = 10;
+
+    private static final List<String> KEYWORDS = List.of("pizza", "biryani", "spicy chick", "zzzz");
+
+    private static final String RESTAURANT_LIKE = """
+            SELECT * FROM restaurants
+            WHERE LOWER(name) LIKE LOWER(CONCAT('%', :keyword, '%'))
+               OR LOWER(cuisine_type) LIKE LOWER(CONCAT('%', :keyword, '%'))
+            """;
+
+    private static final String FOOD_LIKE = """
+            SELECT f.* FROM foods f
+            LEFT JOIN category c ON c.id = f.food_category_id
+            WHERE LOWER(f.name) LIKE LOWER(CONCAT('%', :keyword, '%'))
+               OR LOWER(c.name) LIKE LOWER(CONCAT('%', :keyword, '%'))
+            """;
+
+    private static Connection connection;
+
+    @BeforeAll
+    static void seed() throws Exception {
+        String url = System.getProperty("benchmark.jdbc.url");
+        assumeTrue(url != null, "benchmark.jdbc.url is not set");
+
+        connection = DriverManager.getConnection(url,
+                System.getProperty("benchmark.jdbc.username"), System.getProperty("benchmark.jdbc.password"));
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+            statement.execute("CREATE SCHEMA " + SCHEMA);
+            statement.execute("SET search_path TO " + SCHEMA);
+
+            statement.execute("CREATE TABLE category (id BIGINT PRIMARY KEY, name VARCHAR(255))");
+            statement.execute("""
+                    CREATE TABLE restaurants (id BIGINT PRIMARY KEY, name VARCHAR(255),
+                        cuisine_type VARCHAR(255), description VARCHAR(255), deleted BOOLEAN NOT NULL DEFAULT false)
+                    """);
+            statement.execute("""
+                    CREATE TABLE foods (id BIGINT PRIMARY KEY, name VARCHAR(255), description VARCHAR(255),
+                        food_category_id BIGINT REFERENCES category (id), restaurant_id BIGINT REFERENCES restaurants (id),
+                        available BOOLEAN NOT NULL DEFAULT true, is_vegetarian BOOLEAN NOT NULL DEFAULT false,
+                        is_seasonal BOOLEAN NOT NULL DEFAULT false)
+                    """);
+            // the rest of the tables schema.sql touches, as hibernate would create them
+            statement.execute("CREATE TABLE users (id BIGINT PRIMARY KEY)");
+            statement.execute("""
+                    CREATE TABLE favourite_restaurants (user_id BIGINT, restaurant_id BIGINT, created_at TIMESTAMP,
+                        PRIMARY KEY (user_id, restaurant_id))
+                    """);
+
+            long started = System.nanoTime();
+            statement.execute("""
+                    INSERT INTO category
+                    SELECT i, (ARRAY['Pizza', 'Biryani', 'Burgers', 'Desserts', 'Drinks'])[1 + i % 5] || ' ' || i
+                    FROM generate_series(1, %d) i
+                    """.formatted(CATEGORIES));
+            statement.execute("""
+                    INSERT INTO restaurants
+                    SELECT i, 'Restaurant ' || md5(i::text),
+                        (ARRAY['Italian', 'Indian', 'Chinese', 'Mexican', 'Bengali'])[1 + i % 5],
+                        'Serving ' || md5((i * 7)::text) || ' since ' || (1950 + i % 70)
+                    FROM generate_series(1, %d) i
+                    """.formatted(RESTAURANTS));
+            statement.execute("""
+                    INSERT INTO foods
+                    SELECT i, (ARRAY['Margherita pizza', 'Chicken biryani', 'Spicy chicken wings', 'Paneer tikka',
+                            'Veg burger', 'Mango lassi'])[1 + i % 6] || ' ' || substr(md5(i::text), 1, 8),
+                        'Freshly made ' || md5((i * 3)::text),
+                        1 + i % %d,
+                        1 + i % %d
+                    FROM generate_series(1, %d) i
+                    """.formatted(CATEGORIES, RESTAURANTS, FOODS));
+            System.out.printf("Seeded %d restaurants and %d foods in %d ms%n",
+                    RESTAURANTS, FOODS, (System.nanoTime() - started) / 1_000_000);
+
+            started = System.nanoTime();
+            for (String sql : schemaStatements()) {
+                statement.execute(sql);
+            }
+            statement.execute("ANALYZE");
+            System.out.printf("Applied schema.sql in %d ms%n", (System.nanoTime() - started) / 1_000_000);
+        }
+    }
+
+    @AfterAll
+    static void drop() throws SQLException {
+        if (connection == null) {
+            return;
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        } finally {
+            connection.close();
+        }
+    }
+
+    @Test
+    void restaurantSearch() throws SQLException {
+        compare("restaurants", RESTAURANT_LIKE, RestaurantRepository.SEARCH_RANKED);
+    }
+
+    @Test
+    void foodSearch() throws SQLException {
+        compare("foods", FOOD_LIKE, FoodRepository.SEARCH_RANKED);
+    }
+
+    private void compare(String table, String likeQuery, String rankedQuery) throws SQLException {
+        System.out.printf("%n%-12s %-14s %14s %14s %10s%n", table, "keyword", "LIKE ms", "ranked ms", "speedup");
+
+        for (String keyword : KEYWORDS) {
+            String like = likeQuery.replace(":keyword", quote(keyword));
+            String ranked = rankedQuery
+                    .replace(":query", quote(FullTextQuery.toPrefixQuery(keyword)))
+                    .replace(":limit", "20")
+                    .replace(":offset", "0");
+
+            double likeMillis = time(like);
+            double rankedMillis = time(ranked);
+            System.out.printf("%-12s %-14s %14.2f %14.2f %9.1fx%n",
+                    "", keyword, likeMillis, rankedMillis, likeMillis / rankedMillis);
+
+            assertTrue(count(ranked) <= 20);
+        }
+    }
+
+    /**
+     * Returns the mean time of {@link #RUNS} executions after one warm-up run, reading every row.
+     */
+    private double time(String sql) throws SQLException {
+        count(sql);
+        long started = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            count(sql);
+        }
+        return (System.nanoTime() - started) / 1_000_000.0 / RUNS;
+    }
+
+    private int count(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement(); ResultSet rows = statement.executeQuery(sql)) {
+            int count = 0;
+            while (rows.next()) {
+                count++;
+            }
+            return count;
+        }
+    }
+
+    private static String quote(String value) {
+        return "'" + value.replace("'", "''") + "'";
+    }
+
+    private static List<String> schemaStatements() throws IOException {
+        try (InputStream in = SearchBenchmark.class.getResourceAsStream("/schema.sql")) {
+            assertNotNull(in, "schema.sql is not on the classpath");
+            String script = new String(in.readAllBytes(), StandardCharsets.UTF_8).lines()
+                    .filter(line -> !line.strip().startsWith("--"))
+                    .collect(Collectors.joining("\n"));
+            return Arrays.stream(script.split(";"))
+                    .map(String::strip)
+                    .filter(sql -> !sql.isEmpty())
+                    .toList();
+        }
+    }
+}
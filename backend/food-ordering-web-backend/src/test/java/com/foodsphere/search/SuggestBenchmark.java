@@ -0,0 +1,79 @@
+package com.foodsphere.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Measures build time, memory per key and lookup latency of the typeahead tree at catalog scale:
+ * 100k restaurants and 200k distinct dish names made of common food words.
+ * <p>
+ * Not picked up by the default test run; run it with {@code mvn test -Dtest=SuggestBenchmark}.
+ */
+class SuggestBenchmark {
+
+    private static final String[] WORDS = {
+            "chicken", "paneer", "butter", "masala", "biryani", "pizza", "margherita", "pepperoni", "burger",
+            "veg", "spicy", "tikka", "tandoori", "noodles", "fried", "rice", "momo", "kebab", "mutton", "fish",
+            "prawn", "curry", "dal", "naan", "roti", "lassi", "mango", "chocolate", "cake", "shake", "cold",
+            "coffee", "sandwich", "wrap", "roll", "soup", "salad", "pasta", "alfredo", "garlic", "cheese"};
+
+    private static final int RESTAURANTS = 100_000;
+    private static final int DISHES = 200_000;
+    private static final int LOOKUPS = 1_000_000;
+
+    @Test
+    void lookupLatencyAndMemoryPerKey() {
+        Random random = new Random(42);
+        List<Suggestion> suggestions = new ArrayList<>(RESTAURANTS + DISHES);
+        for (long id = 1; id <= RESTAURANTS; id++) {
+            String name = capitalize(word(random)) + " " + Long.toString(id * 7919, 36) + " Kitchen";
+            suggestions.add(new Suggestion(SuggestionType.RESTAURANT, id, name, random.nextInt(2)));
+        }
+        for (int i = 0; i < DISHES; i++) {
+            String name = word(random) + " " + word(random) + " " + word(random) + " " + Integer.toString(i, 36);
+            suggestions.add(new Suggestion(SuggestionType.FOOD, null, name, 1 + random.nextInt(500)));
+        }
+
+        long started = System.nanoTime();
+        CompletionTrie trie = new CompletionTrie(10);
+        trie.addAll(suggestions);
+        long buildMillis = (System.nanoTime() - started) / 1_000_000;
+
+        CompletionTrie.Stats stats = trie.stats();
+        System.out.printf("Built %d suggestions under %d keys in %d ms: %d nodes, %d MB, %d bytes per key%n",
+                stats.suggestions(), stats.indexedKeys(), buildMillis, stats.nodes(),
+                stats.estimatedBytes() / (1024 * 1024), stats.bytesPerKey());
+
+        String[] prefixes = new String[1024];
+        for (int i = 0; i < prefixes.length; i++) {
+            String word = word(random);
+            prefixes[i] = word.substring(0, 1 + random.nextInt(word.length()));
+        }
+
+        long found = 0;
+        for (int i = 0; i < LOOKUPS; i++) {
+            found += trie.complete(prefixes[i & 1023], 10).size();
+        }
+        started = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            found += trie.complete(prefixes[i & 1023], 10).size();
+        }
+        double nanosPerLookup = (double) (System.nanoTime() - started) / LOOKUPS;
+        System.out.printf("%.0f ns per lookup (%.2f us)%n", nanosPerLookup, nanosPerLookup / 1000);
+
+        assertTrue(found > 0);
+    }
+
+    private static String word(Random random) {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+}
@@ -0,0 +1,126 @@
+package com.foodsphere.service.impl;
+
+import com.foodsphere.model.Cart;
+import com.foodsphere.model.CartItem;
+import com.foodsphere.model.Food;
+import com.foodsphere.repository.CartItemRepository;
+import com.foodsphere.repository.CartRepository;
+import com.foodsphere.request.AddCartItemRequest;
+import com.foodsphere.service.FoodService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class CartServiceImplTest {
+
+    @Mock
+    private CartRepository cartRepository;
+
+    @Mock
+    private CartItemRepository cartItemRepository;
+
+    @Mock
+    private FoodService foodService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private CartServiceImpl cartService;
+
+    @Test
+    void ingredientsKey_ignoresOrderCaseSpacesAndRepeats() {
+        String key = CartServiceImpl.ingredientsKey(List.of("Cheese", "onion"));
+
+        assertEquals(key, CartServiceImpl.ingredientsKey(List.of("onion", "Cheese")));
+        assertEquals(key, CartServiceImpl.ingredientsKey(List.of(" ONION ", "cheese", "Onion")));
+        assertNotEquals(key, CartServiceImpl.ingredientsKey(List.of("Cheese")));
+        assertEquals(64, key.length());
+    }
+
+    @Test
+    void ingredientsKey_isTheSameForNoIngredientsHoweverTheyAreSent() {
+        String key = CartServiceImpl.ingredientsKey(null);
+
+        assertEquals(key, CartServiceImpl.ingredientsKey(List.of()));
+        assertEquals(key, CartServiceImpl.ingredientsKey(Arrays.asList(null, " ", "")));
+        assertNotEquals(key, CartServiceImpl.ingredientsKey(List.of("Cheese")));
+    }
+
+    @Test
+    void addItemToCart_addsToTheLineCreatedConcurrentlyWhenTheInsertIsADuplicate() throws Exception {
+        Food food = food();
+        AddCartItemRequest request = request(food, 2);
+        String ingredientsKey = CartServiceImpl.ingredientsKey(request.getIngredients());
+        CartItem line = new CartItem();
+        line.setId(9L);
+
+        Mockito.when(foodService.findFoodById(5L)).thenReturn(food);
+        Mockito.when(cartRepository.findIdByCustomerId(3L)).thenReturn(1L);
+        Mockito.when(transactionTemplate.execute(Mockito.any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        Mockito.when(cartItemRepository.findLine(1L, 5L, ingredientsKey))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(line));
+        Mockito.when(cartItemRepository.saveAndFlush(Mockito.any(CartItem.class)))
+                .thenThrow(new DataIntegrityViolationException("uk_cart_items_line"));
+        Mockito.when(cartItemRepository.findById(9L)).thenReturn(Optional.of(line));
+
+        CartItem item = cartService.addItemToCart(request, 3L);
+
+        assertSame(line, item);
+        Mockito.verify(cartItemRepository).addToLine(9L, 2, 300L);
+        Mockito.verify(cartRepository, Mockito.times(1)).addToTotals(1L, 300L, 2);
+    }
+
+    @Test
+    void updateCartItemQuantity_addsTheDifferenceFromTheLockedItemToTheTotals() throws Exception {
+        Cart cart = new Cart();
+        cart.setId(1L);
+        CartItem item = new CartItem();
+        item.setId(9L);
+        item.setCart(cart);
+        item.setFood(food());
+        item.setQuantity(2);
+        item.setTotalPrice(300L);
+
+        Mockito.when(cartItemRepository.findByIdForUpdate(9L)).thenReturn(Optional.of(item));
+        Mockito.when(cartItemRepository.save(item)).thenReturn(item);
+
+        CartItem updated = cartService.updateCartItemQuantity(9L, 5);
+
+        assertEquals(5, updated.getQuantity());
+        assertEquals(750L, (long) updated.getTotalPrice());
+        Mockito.verify(cartRepository).addToTotals(1L, 450L, 3);
+    }
+
+    private static Food food() {
+        Food food = new Food();
+        food.setId(5L);
+        food.setName("Burger");
+        food.setPrice(150L);
+        food.setAvailable(true);
+        return food;
+    }
+
+    private static AddCartItemRequest request(Food food, int quantity) {
+        AddCartItemRequest request = new AddCartItemRequest();
+        request.setFoodId(food.getId());
+        request.setQuantity(quantity);
+        request.setIngredients(List.of("Cheese"));
+        return request;
+    }
+}
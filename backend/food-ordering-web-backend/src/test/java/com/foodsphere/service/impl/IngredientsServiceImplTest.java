@@ -0,0 +1,133 @@
+package com.foodsphere.service.impl;
+
+import com.foodsphere.cache.IngredientCatalogCache;
+import com.foodsphere.cache.IngredientFoodIndex;
+import com.foodsphere.model.CartItem;
+import com.foodsphere.model.Food;
+import com.foodsphere.model.IngredientsItem;
+import com.foodsphere.repository.FoodRepository;
+import com.foodsphere.repository.IngredientCategoryRepository;
+import com.foodsphere.repository.IngredientsItemRepository;
+import com.foodsphere.service.RestaurantService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class IngredientsServiceImplTest {
+
+    @Mock
+    private IngredientsItemRepository ingredientsItemRepository;
+
+    @Mock
+    private IngredientCategoryRepository ingredientCategoryRepository;
+
+    @Mock
+    private RestaurantService restaurantService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private FoodRepository foodRepository;
+
+    @Mock
+    private IngredientFoodIndex ingredientFoodIndex;
+
+    @Mock
+    private IngredientCatalogCache ingredientCatalogCache;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private IngredientsServiceImpl ingredientsService;
+
+    @Test
+    void reserveIngredients_takesUnitsOfEachIngredientPerOrderedDish() throws Exception {
+        IngredientsItem bun = ingredient(1L, "Bun", 10);
+        IngredientsItem patty = ingredient(2L, "Patty", 10);
+        List<CartItem> items = List.of(cartItem(2, bun, patty), cartItem(3, bun));
+
+        Mockito.when(ingredientsItemRepository.takeQuantity(1L, 5)).thenReturn(1);
+        Mockito.when(ingredientsItemRepository.takeQuantity(2L, 2)).thenReturn(1);
+
+        Map<Long, Integer> reserved = ingredientsService.reserveIngredients(items);
+
+        assertEquals(Map.of(1L, 5, 2L, 2), reserved);
+        Mockito.verify(ingredientsItemRepository, Mockito.never()).returnQuantity(Mockito.anyLong(), Mockito.anyInt());
+    }
+
+    @Test
+    void reserveIngredients_rejectsOrderWhenStockIsShort() {
+        IngredientsItem cheese = ingredient(1L, "Cheese", 1);
+        List<CartItem> items = List.of(cartItem(2, cheese));
+
+        Mockito.when(ingredientsItemRepository.takeQuantity(1L, 2)).thenReturn(0);
+        Mockito.when(ingredientsItemRepository.findById(1L)).thenReturn(Optional.of(cheese));
+
+        Exception exception = assertThrows(Exception.class, () -> ingredientsService.reserveIngredients(items));
+
+        assertEquals("Not enough Cheese left", exception.getMessage());
+        Mockito.verify(ingredientsItemRepository, Mockito.never()).returnQuantity(Mockito.anyLong(), Mockito.anyInt());
+    }
+
+    @Test
+    void reserveIngredients_givesBackUnitsAlreadyTakenWhenALaterIngredientIsShort() {
+        IngredientsItem bun = ingredient(1L, "Bun", 10);
+        IngredientsItem patty = ingredient(2L, "Patty", 1);
+        List<CartItem> items = List.of(cartItem(2, bun, patty));
+
+        Mockito.when(ingredientsItemRepository.takeQuantity(1L, 2)).thenReturn(1);
+        Mockito.when(ingredientsItemRepository.takeQuantity(2L, 2)).thenReturn(0);
+        Mockito.when(ingredientsItemRepository.findById(2L)).thenReturn(Optional.of(patty));
+        Mockito.when(ingredientsItemRepository.returnQuantity(1L, 2)).thenReturn(1);
+
+        assertThrows(Exception.class, () -> ingredientsService.reserveIngredients(items));
+
+        Mockito.verify(ingredientsItemRepository).returnQuantity(1L, 2);
+        Mockito.verify(ingredientsItemRepository, Mockito.never()).returnQuantity(Mockito.eq(2L), Mockito.anyInt());
+    }
+
+    @Test
+    void reserveIngredients_skipsIngredientsThatAreNotCounted() throws Exception {
+        IngredientsItem salt = ingredient(1L, "Salt", null);
+        List<CartItem> items = List.of(cartItem(4, salt));
+
+        Mockito.when(ingredientsItemRepository.takeQuantity(1L, 4)).thenReturn(0);
+        Mockito.when(ingredientsItemRepository.findById(1L)).thenReturn(Optional.of(salt));
+
+        Map<Long, Integer> reserved = ingredientsService.reserveIngredients(items);
+
+        assertTrue(reserved.isEmpty());
+    }
+
+    private static IngredientsItem ingredient(Long id, String name, Integer quantity) {
+        IngredientsItem ingredient = new IngredientsItem();
+        ingredient.setId(id);
+        ingredient.setName(name);
+        ingredient.setQuantity(quantity);
+        return ingredient;
+    }
+
+    private static CartItem cartItem(int quantity, IngredientsItem... ingredients) {
+        Food food = new Food();
+        food.setIngredients(List.of(ingredients));
+
+        CartItem item = new CartItem();
+        item.setFood(food);
+        item.setQuantity(quantity);
+        return item;
+    }
+}
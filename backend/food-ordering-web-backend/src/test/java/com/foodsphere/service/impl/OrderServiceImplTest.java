@@ -0,0 +1,160 @@
+package com.foodsphere.service.impl;
+
+import com.foodsphere.model.Address;
+import com.foodsphere.model.Cart;
+import com.foodsphere.model.CartItem;
+import com.foodsphere.model.Food;
+import com.foodsphere.model.Order;
+import com.foodsphere.model.OrderItem;
+import com.foodsphere.model.Restaurant;
+import com.foodsphere.model.User;
+import com.foodsphere.repository.AddressRepository;
+import com.foodsphere.repository.OrderItemRepository;
+import com.foodsphere.repository.OrderRepository;
+import com.foodsphere.repository.UserRepository;
+import com.foodsphere.request.OrderRequest;
+import com.foodsphere.service.CartService;
+import com.foodsphere.service.IngredientsService;
+import com.foodsphere.service.RestaurantService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderServiceImplTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OrderItemRepository orderItemRepository;
+
+    @Mock
+    private AddressRepository addressRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private RestaurantService restaurantService;
+
+    @Mock
+    private CartService cartService;
+
+    @Mock
+    private IngredientsService ingredientsService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private OrderServiceImpl orderService;
+
+    @Test
+    void createOrder_keepsTheReservedUnitsOnTheOrder() throws Exception {
+        User user = givenCart();
+        Mockito.when(orderRepository.save(Mockito.any(Order.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        Order order = orderService.createOrder(orderRequest(), user);
+
+        assertEquals(Map.of(1L, 2), order.getReservedIngredients());
+        Mockito.verify(ingredientsService, Mockito.never()).releaseIngredients(Mockito.any());
+    }
+
+    @Test
+    void createOrder_givesBackTheReservedUnitsWhenTheOrderCannotBeSaved() throws Exception {
+        User user = givenCart();
+        Mockito.when(orderRepository.save(Mockito.any(Order.class))).thenThrow(new IllegalStateException("down"));
+
+        assertThrows(IllegalStateException.class, () -> orderService.createOrder(orderRequest(), user));
+
+        Mockito.verify(ingredientsService).releaseIngredients(Map.of(1L, 2));
+    }
+
+    @Test
+    void cancelOrder_givesBackTheUnitsReservedByAPendingOrder() throws Exception {
+        Order order = order("PENDING", Map.of(1L, 2, 2L, 4));
+        Mockito.when(orderRepository.findById(7L)).thenReturn(Optional.of(order));
+        Mockito.when(orderRepository.deleteOrderById(7L)).thenReturn(1);
+
+        orderService.cancelOrder(7L);
+
+        Mockito.verify(ingredientsService).releaseIngredients(Map.of(1L, 2, 2L, 4));
+    }
+
+    @Test
+    void cancelOrder_givesNothingBackOnceTheOrderIsOnItsWay() throws Exception {
+        Order order = order("OUT_FOR_DELIVERY", Map.of(1L, 2));
+        Mockito.when(orderRepository.findById(7L)).thenReturn(Optional.of(order));
+        Mockito.when(orderRepository.deleteOrderById(7L)).thenReturn(1);
+
+        orderService.cancelOrder(7L);
+
+        Mockito.verify(ingredientsService, Mockito.never()).releaseIngredients(Mockito.any());
+    }
+
+    @Test
+    void cancelOrder_givesNothingBackWhenTheOrderWasAlreadyDeleted() throws Exception {
+        Order order = order("PENDING", Map.of(1L, 2));
+        Mockito.when(orderRepository.findById(7L)).thenReturn(Optional.of(order));
+        Mockito.when(orderRepository.deleteOrderById(7L)).thenReturn(0);
+
+        orderService.cancelOrder(7L);
+
+        Mockito.verify(ingredientsService, Mockito.never()).releaseIngredients(Mockito.any());
+    }
+
+    private User givenCart() throws Exception {
+        User user = new User();
+        user.setId(3L);
+
+        Food food = new Food();
+        food.setName("Burger");
+        food.setAvailable(true);
+        CartItem cartItem = new CartItem();
+        cartItem.setFood(food);
+        cartItem.setQuantity(2);
+        cartItem.setTotalPrice(200L);
+        Cart cart = new Cart();
+        cart.setItems(List.of(cartItem));
+
+        Mockito.when(addressRepository.save(Mockito.any(Address.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        Mockito.when(restaurantService.findRestaurantById(1L)).thenReturn(new Restaurant());
+        Mockito.when(cartService.findCartByUserId(3L)).thenReturn(cart);
+        Mockito.when(cartService.calculateCartTotals(cart)).thenReturn(200L);
+        Mockito.when(ingredientsService.reserveIngredients(cart.getItems())).thenReturn(Map.of(1L, 2));
+        Mockito.when(orderItemRepository.save(Mockito.any(OrderItem.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        Mockito.when(transactionTemplate.execute(Mockito.any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        return user;
+    }
+
+    private static OrderRequest orderRequest() {
+        OrderRequest request = new OrderRequest();
+        request.setRestaurantId(1L);
+        request.setDeliveryAddress(new Address());
+        return request;
+    }
+
+    private static Order order(String status, Map<Long, Integer> reservedIngredients) {
+        Order order = new Order();
+        order.setId(7L);
+        order.setOrderStatus(status);
+        order.setReservedIngredients(reservedIngredients);
+        return order;
+    }
+}
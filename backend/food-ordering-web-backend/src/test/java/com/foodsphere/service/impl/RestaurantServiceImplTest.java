@@ -1,21 +1,34 @@
 package com.foodsphere.service.impl;
 
+import com.foodsphere.cache.RestaurantCatalogCache;
+import com.foodsphere.dto.RestaurantSummary;
+import com.foodsphere.event.RestaurantChangedEvent;
+import com.foodsphere.event.RestaurantPurgeRequestedEvent;
 import com.foodsphere.model.Address;
 import com.foodsphere.model.ContactInformation;
+import com.foodsphere.model.PURGE_STATUS;
 import com.foodsphere.model.Restaurant;
+import com.foodsphere.model.RestaurantPurgeJob;
 import com.foodsphere.model.User;
 import com.foodsphere.repository.AddressRepository;
 import com.foodsphere.repository.RestaurantRepository;
-import com.foodsphere.repository.UserRepository;
+import com.foodsphere.repository.FavouriteRestaurantRepository;
+import com.foodsphere.repository.RestaurantPurgeJobRepository;
 import com.foodsphere.request.CreateRestaurantRequest;
+import com.foodsphere.schedule.ScheduleRegistry;
+import com.foodsphere.search.RestaurantLocationIndex;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import org.springframework.data.domain.Pageable;
 
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -29,7 +42,22 @@ class RestaurantServiceImplTest {
     private AddressRepository addressRepository;
 
     @Mock
-    private UserRepository userRepository;
+    private FavouriteRestaurantRepository favouriteRestaurantRepository;
+
+    @Mock
+    private RestaurantPurgeJobRepository restaurantPurgeJobRepository;
+
+    @Mock
+    private RestaurantCatalogCache restaurantCatalogCache;
+
+    @Mock
+    private RestaurantLocationIndex restaurantLocationIndex;
+
+    @Mock
+    private ScheduleRegistry scheduleRegistry;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
 
     @InjectMocks
     private RestaurantServiceImpl restaurantService;
@@ -41,7 +69,7 @@ class RestaurantServiceImplTest {
         User user = new User();
         user.setId(1L);
 
-        Address savedAddress = new Address(1L, "Test City", "Kolkata", "india", "demo");
+        Address savedAddress = new Address(1L, "Test City", "Kolkata", "india", "demo", null, null);
         savedAddress.setId(1L);
 
         Restaurant savedRestaurant = new Restaurant();
@@ -56,6 +84,54 @@ class RestaurantServiceImplTest {
         assertEquals(savedRestaurant.getId(), result.getId());
         Mockito.verify(addressRepository).save(request.getAddress());
         Mockito.verify(restaurantRepository).save(Mockito.any(Restaurant.class));
+        Mockito.verify(eventPublisher).publishEvent(Mockito.any(RestaurantChangedEvent.class));
+    }
+
+    @Test
+    void getRestaurantSummaries_attachesCardImageOfEachRestaurant() {
+        RestaurantSummary first = new RestaurantSummary(1L, "First", "Italian", true, "Kolkata");
+        RestaurantSummary second = new RestaurantSummary(2L, "Second", "Indian", false, "Delhi");
+
+        Mockito.when(restaurantRepository.findSummariesAfter(Mockito.eq(0L), Mockito.any(Pageable.class)))
+                .thenReturn(List.of(first, second));
+        Mockito.when(restaurantRepository.findCardImagesByRestaurantIds(List.of(1L, 2L)))
+                .thenReturn(List.<Object[]>of(new Object[]{1L, "first-1.jpg"}));
+
+        List<RestaurantSummary> result = restaurantService.getRestaurantSummaries(null, 20);
+
+        assertEquals(2, result.size());
+        assertEquals("first-1.jpg", result.get(0).getImage());
+        assertNull(result.get(1).getImage());
+    }
+
+    @Test
+    void deleteRestaurant_marksRestaurantDeletedAndQueuesPurge() throws Exception {
+        User owner = new User();
+        owner.setId(1L);
+
+        Restaurant restaurant = new Restaurant();
+        restaurant.setId(7L);
+        restaurant.setOpen(true);
+        restaurant.setOwner(owner);
+
+        Mockito.when(restaurantRepository.findById(7L)).thenReturn(Optional.of(restaurant));
+        Mockito.when(restaurantPurgeJobRepository.save(Mockito.any(RestaurantPurgeJob.class))).thenAnswer(invocation -> {
+            RestaurantPurgeJob job = invocation.getArgument(0);
+            job.setId(3L);
+            return job;
+        });
+
+        RestaurantPurgeJob job = restaurantService.deleteRestaurant(7L);
+
+        assertEquals(3L, job.getId().longValue());
+        assertEquals(7L, job.getRestaurantId().longValue());
+        assertEquals(PURGE_STATUS.PENDING, job.getStatus());
+        assertTrue(restaurant.isDeleted());
+        assertFalse(restaurant.isOpen());
+        assertNull(restaurant.getOwner());
+        Mockito.verify(restaurantRepository).save(restaurant);
+        Mockito.verify(restaurantRepository, Mockito.never()).delete(Mockito.any(Restaurant.class));
+        Mockito.verify(eventPublisher).publishEvent(Mockito.any(RestaurantPurgeRequestedEvent.class));
     }
 
     private static CreateRestaurantRequest getRestaurantRequest() {
@@ -64,7 +140,7 @@ class RestaurantServiceImplTest {
         request.setDescription("Test Description");
         request.setCuisineType("Italian");
         request.setOpeningHours("9 AM - 9 PM");
-        request.setAddress(new Address(1L, "Test City", "Kolkata", "india", "demo"));
+        request.setAddress(new Address(1L, "Test City", "Kolkata", "india", "demo", null, null));
         request.setContactInformation(new ContactInformation("demo@gmail.com", "123-456-7890", "facebook.com"));
         request.setImages(List.of("image1.jpg", "image2.jpg"));
         return request;